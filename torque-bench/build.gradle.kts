@@ -0,0 +1,40 @@
+plugins {
+    id("me.champeau.jmh") version "0.7.2"
+}
+
+version = property("version") as String
+group = property("maven_group") as String
+
+repositories {
+    mavenCentral()
+}
+
+dependencies {
+    jmh(project(":torque"))
+    jmh(testFixtures(project(":torque")))
+    // The core module only has compile time dependencies since the server provides
+    // them, so the benchmarks need them at runtime.
+    jmh("org.jetbrains:annotations:${project.property("jetbrains_annotations_version")}")
+    jmh("org.joml:joml:${project.property("joml_version")}")
+    jmh("com.google.code.gson:gson:${project.property("gson_version")}")
+    jmh("it.unimi.dsi:fastutil:${project.property("fastutil_version")}")
+    jmh("io.netty:netty-buffer:${project.property("netty_version")}")
+    jmh("io.netty:netty-transport:${project.property("netty_version")}")
+}
+
+jmh {
+    jmhVersion = "1.37"
+    fork = 1
+    warmupIterations = 3
+    iterations = 5
+    // Allocations on the hot paths are as important to track as the time.
+    profilers.add("gc")
+    jvmArgs.addAll(
+        "--add-modules", "jdk.incubator.vector",
+        "-Dtorque.assets=${project(":torque").file("src/main/resources").absolutePath}"
+    )
+    // Run a subset with for example: ./gradlew :torque-bench:jmh -PjmhIncludes=Physics
+    if (project.hasProperty("jmhIncludes")) {
+        includes.add(project.property("jmhIncludes") as String)
+    }
+}
@@ -0,0 +1,69 @@
+package ca.bkaw.torque.bench;
+
+import ca.bkaw.torque.Torque;
+import ca.bkaw.torque.assets.ResourcePack;
+import ca.bkaw.torque.assets.TorqueAssets;
+import ca.bkaw.torque.headless.HeadlessPlatform;
+import ca.bkaw.torque.model.VehicleModel;
+import ca.bkaw.torque.platform.Identifier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creating a vehicle model from a bundled model, as done for each vehicle type when
+ * Torque loads.
+ * <p>
+ * Vehicle models are cached by the assets, so a new resource pack is created before
+ * each invocation. Creating and saving the pack is not measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class AssetBenchmark {
+    @Param({"car", "boat"})
+    public String model;
+
+    private Torque torque;
+    private ResourcePack bundledResources;
+    private Identifier identifier;
+    private TorqueAssets assets;
+
+    @Setup(Level.Trial)
+    public void setupTrial() throws IOException {
+        this.torque = new Torque(new HeadlessPlatform());
+        this.bundledResources = ResourcePack.loadDirectory(CarState.getAssetsPath());
+        this.identifier = new Identifier("torque", "vehicle/" + this.model);
+    }
+
+    @Setup(Level.Invocation)
+    public void setupInvocation() throws IOException {
+        this.assets = TorqueAssets.createPack(this.torque);
+        this.assets.includeAssets(this.bundledResources);
+    }
+
+    @TearDown(Level.Invocation)
+    public void tearDownInvocation() throws IOException {
+        this.assets.save();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDownTrial() throws IOException {
+        this.bundledResources.close();
+    }
+
+    @Benchmark
+    public VehicleModel getOrCreateVehicleModel() throws IOException {
+        return this.assets.getOrCreateVehicleModel(this.identifier);
+    }
+}
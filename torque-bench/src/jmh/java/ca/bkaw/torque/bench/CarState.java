@@ -0,0 +1,116 @@
+package ca.bkaw.torque.bench;
+
+import ca.bkaw.torque.Torque;
+import ca.bkaw.torque.components.RigidBodyComponent;
+import ca.bkaw.torque.components.SeatsComponent;
+import ca.bkaw.torque.headless.HeadlessPlatform;
+import ca.bkaw.torque.headless.HeadlessPlayer;
+import ca.bkaw.torque.headless.HeadlessWorld;
+import ca.bkaw.torque.platform.Identifier;
+import ca.bkaw.torque.vehicle.Vehicle;
+import ca.bkaw.torque.vehicle.VehicleManager;
+import ca.bkaw.torque.vehicle.VehicleType;
+import org.joml.Quaternionf;
+import org.joml.Vector3d;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.file.Path;
+
+/**
+ * A car from the bundled car.json driving forward on flat ground, on a headless
+ * platform.
+ * <p>
+ * The car is ticked until it rests on its wheels, and the state of its rigid body is
+ * saved. Benchmarks that move the car call {@link #reset()} so that each invocation
+ * starts from the same state instead of the car driving away.
+ */
+@State(Scope.Thread)
+public class CarState {
+    public static final int GROUND_Y = 64;
+    private static final int SETTLE_TICKS = 100;
+
+    public Torque torque;
+    public HeadlessPlatform platform;
+    public HeadlessWorld world;
+    public Vehicle car;
+    public RigidBodyComponent rigidBody;
+
+    private final Vector3d position = new Vector3d();
+    private final Quaternionf orientation = new Quaternionf();
+    private final Vector3d velocity = new Vector3d();
+    private final Vector3d angularVelocity = new Vector3d();
+    private final Vector3d sunkPosition = new Vector3d();
+
+    /**
+     * Get the directory of the bundled resources.
+     *
+     * @return The path.
+     */
+    public static Path getAssetsPath() {
+        String assets = System.getProperty("torque.assets");
+        if (assets == null) {
+            throw new IllegalStateException("The torque.assets system property must be set to the resources directory.");
+        }
+        return Path.of(assets);
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        getAssetsPath();
+        this.platform = new HeadlessPlatform();
+        this.torque = new Torque(this.platform);
+        this.world = this.platform.createWorld(HeadlessWorld.Terrain.flat(GROUND_Y));
+
+        VehicleManager vehicleManager = this.torque.getVehicleManager();
+        VehicleType carType = vehicleManager.getVehicleTypeRegistry().get(new Identifier("torque", "car"));
+        if (carType == null) {
+            throw new IllegalStateException("The car vehicle type is not registered.");
+        }
+        Vector3d spawnPosition = new Vector3d(0.5, GROUND_Y + 1, 0.5);
+        this.car = vehicleManager.spawnVehicle(carType, this.world, spawnPosition);
+        HeadlessPlayer driver = new HeadlessPlayer(this.world, spawnPosition);
+        SeatsComponent seats = this.car.get(SeatsComponent.TYPE);
+        if (seats != null && seats.addPassenger(driver)) {
+            vehicleManager.setCurrentVehicle(driver, this.car);
+        }
+        driver.getInput().forward = true;
+
+        for (int i = 0; i < SETTLE_TICKS; i++) {
+            this.platform.tick();
+        }
+
+        RigidBodyComponent rigidBody = this.car.get(RigidBodyComponent.TYPE);
+        if (rigidBody == null) {
+            throw new IllegalStateException("The car has no rigid body.");
+        }
+        this.rigidBody = rigidBody;
+        this.position.set(rigidBody.getPosition());
+        this.orientation.set(rigidBody.getOrientation());
+        this.velocity.set(rigidBody.getVelocity());
+        this.angularVelocity.set(rigidBody.getAngularVelocity());
+    }
+
+    /**
+     * Move the car back to the state it had after settling.
+     */
+    public void reset() {
+        this.rigidBody.setPosition(this.position);
+        this.rigidBody.setOrientation(this.orientation);
+        this.rigidBody.setVelocity(this.velocity);
+        this.rigidBody.setAngularVelocity(this.angularVelocity);
+    }
+
+    /**
+     * Move the car back to the state it had after settling, and then move it down into
+     * the ground.
+     *
+     * @param depth How far to move the car down. unit: meter.
+     */
+    public void resetSunk(double depth) {
+        this.reset();
+        this.rigidBody.setPosition(this.sunkPosition.set(this.position).sub(0, depth, 0));
+    }
+}
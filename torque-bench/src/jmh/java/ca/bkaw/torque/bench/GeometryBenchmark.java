@@ -0,0 +1,91 @@
+package ca.bkaw.torque.bench;
+
+import ca.bkaw.torque.assets.model.Model;
+import ca.bkaw.torque.assets.model.ModelElementList;
+import ca.bkaw.torque.util.InertiaTensor;
+import ca.bkaw.torque.util.OBB;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import org.joml.Matrix3d;
+import org.joml.Quaternionf;
+import org.joml.Vector3d;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Geometry used by collision detection and when creating vehicle models.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class GeometryBenchmark {
+    private final OBB alignedBox = new OBB();
+    private final OBB rotatedBox = new OBB();
+    private final LongArrayList blocks = new LongArrayList();
+
+    /**
+     * The elements of a bundled model.
+     */
+    @State(Scope.Thread)
+    public static class ModelState {
+        @Param({"car", "boat"})
+        public String model;
+
+        private ModelElementList elements;
+
+        @Setup(Level.Trial)
+        public void setup() throws IOException {
+            Path path = CarState.getAssetsPath().resolve("assets/torque/models/vehicle/" + this.model + ".json");
+            JsonObject json;
+            try (BufferedReader reader = Files.newBufferedReader(path)) {
+                json = JsonParser.parseReader(reader).getAsJsonObject();
+            }
+            this.elements = new Model(json).getAllElements();
+            if (this.elements == null) {
+                throw new IllegalStateException("The model " + this.model + " has no elements.");
+            }
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        // About the size of a car. unit: meter.
+        Vector3d center = new Vector3d(0.5, 64.75, 0.5);
+        Vector3d halfSize = new Vector3d(1.15, 0.75, 2.25);
+        this.alignedBox.set(center, halfSize, new Quaternionf());
+        this.rotatedBox.set(center, halfSize, new Quaternionf().rotateY((float) Math.toRadians(30)).rotateX((float) Math.toRadians(10)));
+    }
+
+    @Benchmark
+    public LongArrayList obbBlocksInsideAligned() {
+        this.blocks.clear();
+        this.alignedBox.getBlocksInside(this.blocks);
+        return this.blocks;
+    }
+
+    @Benchmark
+    public LongArrayList obbBlocksInsideRotated() {
+        this.blocks.clear();
+        this.rotatedBox.getBlocksInside(this.blocks);
+        return this.blocks;
+    }
+
+    @Benchmark
+    public Matrix3d inertiaTensor(ModelState state) {
+        return InertiaTensor.calculateInertiaTensor(1500, state.elements);
+    }
+}
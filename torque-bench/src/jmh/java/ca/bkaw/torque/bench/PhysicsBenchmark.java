@@ -0,0 +1,73 @@
+package ca.bkaw.torque.bench;
+
+import ca.bkaw.torque.components.ImpulseCollisionComponent;
+import ca.bkaw.torque.components.SimpleCollisionComponent;
+import ca.bkaw.torque.components.WheelComponent;
+import ca.bkaw.torque.platform.DataInput;
+import ca.bkaw.torque.vehicle.Vehicle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The components that run each physics step, on a car resting on flat ground.
+ * <p>
+ * Each invocation resets the car first, which is included in the measured time but
+ * only sets a few values.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class PhysicsBenchmark {
+    /**
+     * How far the car is moved into the ground for the impulse collision benchmark,
+     * so that it always has contact points to solve. unit: meter.
+     */
+    private static final double IMPULSE_PENETRATION = 0.05;
+
+    private WheelComponent wheels;
+    private SimpleCollisionComponent simpleCollision;
+    private ImpulseCollisionComponent impulseCollision;
+
+    @Setup(Level.Trial)
+    public void setup(CarState state) {
+        Vehicle car = state.car;
+        this.wheels = Objects.requireNonNull(car.get(WheelComponent.TYPE));
+        this.simpleCollision = Objects.requireNonNull(car.get(SimpleCollisionComponent.TYPE));
+        // The bundled car uses simple collision, so create an impulse collision
+        // component on the side that is only ticked by the benchmark.
+        this.impulseCollision = new ImpulseCollisionComponent(car, DataInput.empty());
+    }
+
+    @Benchmark
+    public void rigidBodyTick(CarState state) {
+        state.reset();
+        state.rigidBody.tick(state.car);
+    }
+
+    @Benchmark
+    public void wheelTick(CarState state) {
+        state.reset();
+        this.wheels.tick(state.car);
+    }
+
+    @Benchmark
+    public void simpleCollisionRun(CarState state) {
+        state.reset();
+        this.simpleCollision.run(state.car);
+    }
+
+    @Benchmark
+    public void impulseCollisionSolve(CarState state) {
+        state.resetSunk(IMPULSE_PENETRATION);
+        this.impulseCollision.tick(state.car);
+    }
+}
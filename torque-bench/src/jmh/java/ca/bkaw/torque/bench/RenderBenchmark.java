@@ -0,0 +1,37 @@
+package ca.bkaw.torque.bench;
+
+import ca.bkaw.torque.render.VehicleRenderer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building the transformations of the entities of a car and passing them to the
+ * headless entities.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class RenderBenchmark {
+    private VehicleRenderer renderer;
+
+    @Setup(Level.Trial)
+    public void setup(CarState state) {
+        this.renderer = state.torque.getVehicleManager().getRenderer(state.car);
+        if (this.renderer == null) {
+            throw new IllegalStateException("The car is not rendered.");
+        }
+    }
+
+    @Benchmark
+    public void render() {
+        this.renderer.render();
+    }
+}
@@ -1,10 +1,19 @@
 package ca.bkaw.torque.fabric;
 
+import ca.bkaw.torque.PlatformEvents;
 import ca.bkaw.torque.Torque;
 import ca.bkaw.torque.fabric.platform.FabricPlatform;
+import ca.bkaw.torque.fabric.platform.FabricWorld;
+import ca.bkaw.torque.fabric.platform.VirtualEntityPacketHandler;
+import ca.bkaw.torque.fabric.platform.VirtualEntityTracker;
+import io.netty.channel.ChannelPipeline;
 import net.fabricmc.api.ModInitializer;
 import net.fabricmc.fabric.api.command.v2.CommandRegistrationCallback;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerChunkEvents;
 import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.fabricmc.fabric.api.networking.v1.EntityTrackingEvents;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayConnectionEvents;
 import net.minecraft.server.MinecraftServer;
 import org.jetbrains.annotations.Nullable;
 
@@ -21,6 +30,32 @@ public class TorqueFabric implements ModInitializer {
         this.torque = new Torque(this.platform);
 
         ServerLifecycleEvents.SERVER_STARTING.register(server -> this.server = server);
+        ServerChunkEvents.CHUNK_LOAD.register((level, chunk) -> {
+            // Blocks in chunks that were not loaded were read as collidable.
+            PlatformEvents eventHandler = this.platform.getEventHandler();
+            if (eventHandler != null) {
+                eventHandler.onChunkLoad(new FabricWorld(level), chunk.getPos().x, chunk.getPos().z);
+            }
+        });
+        ServerChunkEvents.CHUNK_UNLOAD.register((level, chunk) -> {
+            PlatformEvents eventHandler = this.platform.getEventHandler();
+            if (eventHandler != null) {
+                eventHandler.onChunkUnload(new FabricWorld(level), chunk.getPos().x, chunk.getPos().z);
+            }
+        });
+
+        // Virtual entities, see VirtualEntityTracker.
+        VirtualEntityTracker virtualEntityTracker = this.platform.getVirtualEntityTracker();
+        ServerTickEvents.END_SERVER_TICK.register(server -> virtualEntityTracker.sendChanges());
+        EntityTrackingEvents.START_TRACKING.register(virtualEntityTracker::startTracking);
+        EntityTrackingEvents.STOP_TRACKING.register(virtualEntityTracker::stopTracking);
+        ServerPlayConnectionEvents.JOIN.register((handler, sender, server) -> {
+            ChannelPipeline pipeline = handler.connection.channel.pipeline();
+            if (pipeline.get(VirtualEntityPacketHandler.HANDLER_NAME) == null) {
+                // Before the packet handler, so that the packets are not encoded yet.
+                pipeline.addBefore("packet_handler", VirtualEntityPacketHandler.HANDLER_NAME, this.platform.getVirtualEntityPacketHandler());
+            }
+        });
 
         FabricTorqueCommand command = new FabricTorqueCommand(this.platform);
         CommandRegistrationCallback.EVENT.register(
@@ -0,0 +1,41 @@
+package ca.bkaw.torque.fabric.mixin;
+
+import ca.bkaw.torque.PlatformEvents;
+import ca.bkaw.torque.fabric.TorqueFabric;
+import ca.bkaw.torque.fabric.platform.FabricPlatform;
+import ca.bkaw.torque.fabric.platform.FabricWorld;
+import net.minecraft.core.BlockPos;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.LevelChunk;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+@Mixin(LevelChunk.class)
+public class LevelChunkMixin {
+    @Inject(method = "setBlockState", at = @At("RETURN"))
+    private void torque$onSetBlockState(BlockPos pos, BlockState state, int flags, CallbackInfoReturnable<BlockState> cir) {
+        if (cir.getReturnValue() == null) {
+            // The block did not change.
+            return;
+        }
+        if (!(((LevelChunk) (Object) this).getLevel() instanceof ServerLevel level)) {
+            return;
+        }
+        TorqueFabric torqueFabric = TorqueFabric.getInstance();
+        if (torqueFabric == null) {
+            return;
+        }
+        FabricPlatform platform = torqueFabric.getPlatform();
+        if (platform == null) {
+            return;
+        }
+        PlatformEvents eventHandler = platform.getEventHandler();
+        if (eventHandler == null) {
+            return;
+        }
+        eventHandler.onBlockChange(new FabricWorld(level), pos.getX(), pos.getY(), pos.getZ());
+    }
+}
@@ -11,10 +11,14 @@ import org.joml.Vector3ic;
 public record FabricBlockState(net.minecraft.world.level.block.state.BlockState blockState) implements ca.bkaw.torque.platform.BlockState {
     @Override
     public boolean isWaterlogged() {
-        if (this.blockState.getBlock() == Blocks.WATER) {
+        return isWaterlogged(this.blockState);
+    }
+
+    static boolean isWaterlogged(net.minecraft.world.level.block.state.BlockState blockState) {
+        if (blockState.getBlock() == Blocks.WATER) {
             return true;
         }
-        return this.blockState.getValueOrElse(BlockStateProperties.WATERLOGGED, false);
+        return blockState.getValueOrElse(BlockStateProperties.WATERLOGGED, false);
     }
 
     @Override
@@ -102,4 +102,9 @@ public record FabricItemDisplay(Display.ItemDisplay entity) implements ItemDispl
     public void setGlowColor(int glowColor) {
         this.entity.setGlowColorOverride(glowColor);
     }
+
+    @Override
+    public void setViewRange(float viewRange) {
+        this.entity.setViewRange(viewRange);
+    }
 }
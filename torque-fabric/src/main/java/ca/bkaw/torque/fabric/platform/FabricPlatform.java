@@ -30,6 +30,8 @@ public class FabricPlatform implements Platform {
     private @Nullable TorqueCommand torqueCommand;
     private @Nullable PlatformEvents eventHandler;
     private final @NotNull Map<Identifier, ChannelHandler> channelHandlers = new HashMap<>(1);
+    private final @NotNull VirtualEntityTracker virtualEntityTracker = new VirtualEntityTracker();
+    private final @NotNull VirtualEntityPacketHandler virtualEntityPacketHandler = new VirtualEntityPacketHandler(this.virtualEntityTracker);
 
     @Override
     public void setup(@NotNull TorqueCommand torqueCommand, @NotNull PlatformEvents eventHandler) {
@@ -49,6 +51,14 @@ public class FabricPlatform implements Platform {
         return this.channelHandlers;
     }
 
+    public @NotNull VirtualEntityTracker getVirtualEntityTracker() {
+        return this.virtualEntityTracker;
+    }
+
+    public @NotNull VirtualEntityPacketHandler getVirtualEntityPacketHandler() {
+        return this.virtualEntityPacketHandler;
+    }
+
     @Override
     public ItemStack createModelItem(@NotNull Identifier modelIdentifier) {
         net.minecraft.world.item.ItemStack itemStack = new net.minecraft.world.item.ItemStack(Items.STICK);
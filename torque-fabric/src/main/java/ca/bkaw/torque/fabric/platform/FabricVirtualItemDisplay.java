@@ -0,0 +1,140 @@
+package ca.bkaw.torque.fabric.platform;
+
+import ca.bkaw.torque.platform.DataInput;
+import ca.bkaw.torque.platform.DataOutput;
+import ca.bkaw.torque.platform.ItemStack;
+import ca.bkaw.torque.platform.World;
+import ca.bkaw.torque.platform.entity.ItemDisplay;
+import com.mojang.math.Transformation;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.entity.Display;
+import net.minecraft.world.phys.Vec3;
+import org.jetbrains.annotations.NotNull;
+import org.joml.Matrix4f;
+import org.joml.Vector3d;
+import org.joml.Vector3dc;
+
+/**
+ * An item display that only exists on the clients, see
+ * {@link VirtualEntityTracker}.
+ * <p>
+ * The entity data is kept in an item display that is never added to the level, so
+ * the values are encoded the same way as for a real entity. The changed values are
+ * sent to the players by the tracker at the end of the tick.
+ */
+public class FabricVirtualItemDisplay implements ItemDisplay {
+    private final @NotNull VirtualEntityTracker tracker;
+    private final @NotNull Display.ItemDisplay host;
+    private final @NotNull Display.ItemDisplay entity;
+    private boolean alive = true;
+
+    FabricVirtualItemDisplay(@NotNull VirtualEntityTracker tracker, @NotNull Display.ItemDisplay host, @NotNull Display.ItemDisplay entity) {
+        this.tracker = tracker;
+        this.host = host;
+        this.entity = entity;
+    }
+
+    /**
+     * Get the entity that holds the entity data. It is not in the level.
+     *
+     * @return The entity.
+     */
+    public @NotNull Display.ItemDisplay getEntity() {
+        return this.entity;
+    }
+
+    public @NotNull Display.ItemDisplay getHost() {
+        return this.host;
+    }
+
+    @Override
+    public void setItem(ItemStack item) {
+        this.entity.getSlot(0).set(((FabricItemStack) item).itemStack());
+    }
+
+    @Override
+    public void setTransformation(Matrix4f affineTransformMatrix) {
+        this.entity.setTransformation(new Transformation(affineTransformMatrix));
+    }
+
+    @Override
+    public World getWorld() {
+        return new FabricWorld((ServerLevel) this.host.level());
+    }
+
+    @Override
+    public @NotNull Vector3d getPosition() {
+        Vec3 position = this.entity.position();
+        return new Vector3d(position.x(), position.y(), position.z());
+    }
+
+    @Override
+    public void setPosition(Vector3dc position) {
+        // The entity rides the host, so the client ignores its own position. The
+        // position is only used when the entity is spawned for a player.
+        this.entity.setPos(position.x(), position.y(), position.z());
+    }
+
+    @Override
+    public void setTeleportDuration(int ticks) {
+        this.entity.setPosRotInterpolationDuration(ticks);
+    }
+
+    @Override
+    public void setInterpolationDuration(int ticks) {
+        this.entity.setTransformationInterpolationDuration(ticks);
+    }
+
+    @Override
+    public void setStartInterpolation(int ticks) {
+        this.entity.setTransformationInterpolationDelay(ticks);
+    }
+
+    @Override
+    public void remove() {
+        if (this.alive) {
+            this.alive = false;
+            this.tracker.remove(this);
+        }
+    }
+
+    @Override
+    public boolean isAlive() {
+        return this.alive && this.host.isAlive();
+    }
+
+    @Override
+    public DataInput getDataInput() {
+        return DataInput.empty();
+    }
+
+    @Override
+    public DataOutput getDataOutput() {
+        // Virtual entities are not saved, so the data is discarded.
+        return new NbtInputOutput(new CompoundTag());
+    }
+
+    @Override
+    public void mountVehicle(@NotNull ItemDisplay entity) {
+        // The entity always rides its host.
+        if (((FabricItemDisplay) entity).entity() != this.host) {
+            throw new IllegalArgumentException("A virtual item display can only ride its host.");
+        }
+    }
+
+    @Override
+    public void setGlowing(boolean glowing) {
+        this.entity.setGlowingTag(glowing);
+    }
+
+    @Override
+    public void setGlowColor(int glowColor) {
+        this.entity.setGlowColorOverride(glowColor);
+    }
+
+    @Override
+    public void setViewRange(float viewRange) {
+        this.entity.setViewRange(viewRange);
+    }
+}
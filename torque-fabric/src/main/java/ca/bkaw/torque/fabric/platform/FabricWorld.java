@@ -1,20 +1,29 @@
 package ca.bkaw.torque.fabric.platform;
 
+import ca.bkaw.torque.fabric.TorqueFabric;
 import ca.bkaw.torque.platform.BlockState;
 import ca.bkaw.torque.platform.Identifier;
 import ca.bkaw.torque.platform.entity.InteractionEntity;
 import ca.bkaw.torque.platform.entity.ItemDisplay;
+import ca.bkaw.torque.platform.entity.Player;
 import ca.bkaw.torque.platform.World;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.particles.ParticleTypes;
 import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.world.entity.Display;
 import net.minecraft.world.entity.EntityType;
 import net.minecraft.world.entity.Interaction;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.chunk.LevelChunkSection;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.joml.Vector3dc;
 import org.joml.Vector3ic;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public record FabricWorld(ServerLevel level) implements World {
     @Override
     @NotNull
@@ -25,6 +34,16 @@ public record FabricWorld(ServerLevel level) implements World {
         return new FabricItemDisplay(entity);
     }
 
+    @Override
+    public @Nullable ItemDisplay spawnVirtualItemDisplay(@NotNull ItemDisplay host) {
+        TorqueFabric torqueFabric = TorqueFabric.getInstance();
+        FabricPlatform platform = torqueFabric != null ? torqueFabric.getPlatform() : null;
+        if (platform == null) {
+            return null;
+        }
+        return platform.getVirtualEntityTracker().spawn(((FabricItemDisplay) host).entity());
+    }
+
     @Override
     public @NotNull InteractionEntity spawnInteractionEntity(@NotNull Vector3dc position) {
         Interaction entity = new Interaction(EntityType.INTERACTION, this.level);
@@ -33,11 +52,68 @@ public record FabricWorld(ServerLevel level) implements World {
         return new FabricInteractionEntity(entity);
     }
 
+    @Override
+    public @NotNull List<Player> getPlayers() {
+        List<ServerPlayer> serverPlayers = this.level.players();
+        List<Player> players = new ArrayList<>(serverPlayers.size());
+        for (ServerPlayer player : serverPlayers) {
+            players.add(new FabricPlayer(player));
+        }
+        return players;
+    }
+
     @Override
     public @NotNull BlockState getBlock(@NotNull Vector3ic position) {
         return new FabricBlockState(this.level.getBlockState(new BlockPos(position.x(), position.y(), position.z())));
     }
 
+    @Override
+    public void getBlockFlags(int minX, int minY, int minZ, int maxX, int maxY, int maxZ, byte @NotNull [] dest) {
+        int sizeX = maxX - minX + 1;
+        int sizeZ = maxZ - minZ + 1;
+        BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+        // Look up each chunk and section once instead of once per block.
+        for (int chunkX = minX >> 4; chunkX <= maxX >> 4; chunkX++) {
+            for (int chunkZ = minZ >> 4; chunkZ <= maxZ >> 4; chunkZ++) {
+                // Unlike getChunk, getChunkNow never loads or generates the chunk.
+                // Blocks in chunks that are not loaded are collidable, and are read
+                // again when the chunk loads.
+                LevelChunk chunk = this.level.getChunkSource().getChunkNow(chunkX, chunkZ);
+                LevelChunkSection[] sections = chunk != null ? chunk.getSections() : null;
+                int fromX = Math.max(minX, chunkX << 4);
+                int toX = Math.min(maxX, (chunkX << 4) + 15);
+                int fromZ = Math.max(minZ, chunkZ << 4);
+                int toZ = Math.min(maxZ, (chunkZ << 4) + 15);
+                for (int y = minY; y <= maxY; y++) {
+                    boolean outside = this.level.isOutsideBuildHeight(y);
+                    LevelChunkSection section = outside || sections == null
+                        ? null
+                        : sections[this.level.getSectionIndex(y)];
+                    boolean unloaded = !outside && sections == null;
+                    boolean empty = section == null || section.hasOnlyAir();
+                    for (int z = fromZ; z <= toZ; z++) {
+                        for (int x = fromX; x <= toX; x++) {
+                            byte flags = 0;
+                            if (unloaded) {
+                                flags = COLLIDABLE;
+                            } else if (!empty) {
+                                net.minecraft.world.level.block.state.BlockState state
+                                    = section.getBlockState(x & 15, y & 15, z & 15);
+                                if (!state.getCollisionShape(this.level, pos.set(x, y, z)).isEmpty()) {
+                                    flags |= COLLIDABLE;
+                                }
+                                if (FabricBlockState.isWaterlogged(state)) {
+                                    flags |= WATERLOGGED;
+                                }
+                            }
+                            dest[((y - minY) * sizeZ + (z - minZ)) * sizeX + (x - minX)] = flags;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
     @Override
     public void spawnParticle(Vector3ic blockPos, Identifier identifier) {
         this.level.sendParticles(
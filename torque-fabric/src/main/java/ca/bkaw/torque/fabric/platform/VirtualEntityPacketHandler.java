@@ -0,0 +1,77 @@
+package ca.bkaw.torque.fabric.platform;
+
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.ChannelPromise;
+import net.minecraft.network.protocol.Packet;
+import net.minecraft.network.protocol.game.ClientGamePacketListener;
+import net.minecraft.network.protocol.game.ClientboundBundlePacket;
+import net.minecraft.network.protocol.game.ClientboundSetPassengersPacket;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Adds the virtual passengers of entities to the passenger packets sent to a player,
+ * so that the client keeps the virtual entities mounted on their host. See
+ * {@link VirtualEntityTracker}.
+ * <p>
+ * Added to the pipeline of each player before the packets are encoded, so the
+ * handler sees the packet objects. Runs on the networking thread of the player.
+ */
+@ChannelHandler.Sharable
+public class VirtualEntityPacketHandler extends ChannelOutboundHandlerAdapter {
+    public static final String HANDLER_NAME = "torque:virtual_entities";
+
+    private final @NotNull VirtualEntityTracker tracker;
+
+    public VirtualEntityPacketHandler(@NotNull VirtualEntityTracker tracker) {
+        this.tracker = tracker;
+    }
+
+    @Override
+    public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+        if (msg instanceof ClientboundSetPassengersPacket packet) {
+            msg = this.addVirtualPassengers(packet);
+        } else if (msg instanceof ClientboundBundlePacket bundle) {
+            msg = this.addVirtualPassengers(bundle);
+        }
+        super.write(ctx, msg, promise);
+    }
+
+    private @NotNull ClientboundSetPassengersPacket addVirtualPassengers(@NotNull ClientboundSetPassengersPacket packet) {
+        if (this.tracker.getVirtualPassengers(packet.getVehicle()) == null) {
+            return packet;
+        }
+        return this.tracker.withVirtualPassengers(packet.getVehicle(), packet.getPassengers());
+    }
+
+    private @NotNull ClientboundBundlePacket addVirtualPassengers(@NotNull ClientboundBundlePacket bundle) {
+        List<Packet<? super ClientGamePacketListener>> packets = null;
+        int i = 0;
+        for (Packet<? super ClientGamePacketListener> packet : bundle.subPackets()) {
+            Packet<? super ClientGamePacketListener> replacement = packet;
+            if (packet instanceof ClientboundSetPassengersPacket passengersPacket) {
+                replacement = this.addVirtualPassengers(passengersPacket);
+            }
+            if (replacement != packet && packets == null) {
+                // Copy the packets before this one, since the bundle must be replaced.
+                packets = new ArrayList<>();
+                int j = 0;
+                for (Packet<? super ClientGamePacketListener> previous : bundle.subPackets()) {
+                    if (j++ == i) {
+                        break;
+                    }
+                    packets.add(previous);
+                }
+            }
+            if (packets != null) {
+                packets.add(replacement);
+            }
+            i++;
+        }
+        return packets != null ? new ClientboundBundlePacket(packets) : bundle;
+    }
+}
@@ -0,0 +1,312 @@
+package ca.bkaw.torque.fabric.platform;
+
+import io.netty.buffer.Unpooled;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMaps;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import net.fabricmc.fabric.api.networking.v1.PlayerLookup;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.network.protocol.Packet;
+import net.minecraft.network.protocol.game.ClientGamePacketListener;
+import net.minecraft.network.protocol.game.ClientboundAddEntityPacket;
+import net.minecraft.network.protocol.game.ClientboundBundlePacket;
+import net.minecraft.network.protocol.game.ClientboundRemoveEntitiesPacket;
+import net.minecraft.network.protocol.game.ClientboundSetEntityDataPacket;
+import net.minecraft.network.protocol.game.ClientboundSetPassengersPacket;
+import net.minecraft.network.syncher.SynchedEntityData;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.entity.Display;
+import net.minecraft.world.entity.Entity;
+import net.minecraft.world.entity.EntityType;
+import net.minecraft.world.phys.Vec3;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Sends item displays that only exist on the clients to the players that see their
+ * host entity.
+ * <p>
+ * Virtual entities ride their host on the client, so they move with the host without
+ * any packets. They are spawned for a player when the player starts tracking the
+ * host, and removed when the player stops tracking it. Changed entity data is sent at
+ * the end of each tick, like the server does for real entities.
+ * <p>
+ * The server sends the passengers of the host whenever they change, which would
+ * dismount the virtual entities on the client. {@link VirtualEntityPacketHandler}
+ * adds the virtual entities to those packets, using {@link #getVirtualPassengers}.
+ * <p>
+ * Must only be used on the server thread, except for {@link #getVirtualPassengers}.
+ */
+public class VirtualEntityTracker {
+    private final Map<Display.ItemDisplay, Host> hosts = new IdentityHashMap<>();
+    /**
+     * The ids of the virtual passengers by the id of their host. Replaced instead of
+     * modified, so that it can be read from the networking threads.
+     */
+    private volatile Int2ObjectMap<int[]> virtualPassengers = Int2ObjectMaps.emptyMap();
+
+    private static class Host {
+        private final @NotNull Display.ItemDisplay entity;
+        private final List<FabricVirtualItemDisplay> displays = new ArrayList<>();
+        /**
+         * The displays that have not been spawned for the viewers yet.
+         */
+        private final List<FabricVirtualItemDisplay> newDisplays = new ArrayList<>();
+        private final Set<ServerPlayer> viewers = new HashSet<>();
+        /**
+         * The players that started tracking the host and that the displays have not
+         * been spawned for yet.
+         */
+        private final Set<ServerPlayer> newViewers = new HashSet<>();
+
+        private Host(@NotNull Display.ItemDisplay entity) {
+            this.entity = entity;
+        }
+    }
+
+    /**
+     * Create a virtual item display that rides a host.
+     *
+     * @param host The host entity.
+     * @return The virtual item display.
+     */
+    public @NotNull FabricVirtualItemDisplay spawn(@NotNull Display.ItemDisplay host) {
+        Host hostData = this.hosts.get(host);
+        if (hostData == null) {
+            hostData = new Host(host);
+            // The host may already be tracked, for example after reloading.
+            hostData.newViewers.addAll(PlayerLookup.tracking(host));
+            this.hosts.put(host, hostData);
+        }
+        Display.ItemDisplay entity = new Display.ItemDisplay(EntityType.ITEM_DISPLAY, host.level());
+        entity.setPos(host.position());
+        FabricVirtualItemDisplay display = new FabricVirtualItemDisplay(this, host, entity);
+        hostData.displays.add(display);
+        hostData.newDisplays.add(display);
+        this.updateVirtualPassengers();
+        return display;
+    }
+
+    void remove(@NotNull FabricVirtualItemDisplay display) {
+        Host hostData = this.hosts.get(display.getHost());
+        if (hostData == null) {
+            return;
+        }
+        hostData.displays.remove(display);
+        if (!hostData.newDisplays.remove(display)) {
+            ClientboundRemoveEntitiesPacket packet = new ClientboundRemoveEntitiesPacket(display.getEntity().getId());
+            for (ServerPlayer viewer : hostData.viewers) {
+                viewer.connection.send(packet);
+            }
+        }
+        if (hostData.displays.isEmpty()) {
+            this.hosts.remove(display.getHost());
+        }
+        this.updateVirtualPassengers();
+    }
+
+    /**
+     * Called when a player starts tracking an entity.
+     *
+     * @param entity The entity.
+     * @param player The player.
+     */
+    public void startTracking(@NotNull Entity entity, @NotNull ServerPlayer player) {
+        if (entity instanceof Display.ItemDisplay itemDisplay) {
+            Host hostData = this.hosts.get(itemDisplay);
+            if (hostData != null) {
+                // The host is spawned on the client after this event, so the displays
+                // are spawned at the end of the tick.
+                hostData.newViewers.add(player);
+            }
+        }
+    }
+
+    /**
+     * Called when a player stops tracking an entity.
+     *
+     * @param entity The entity.
+     * @param player The player.
+     */
+    public void stopTracking(@NotNull Entity entity, @NotNull ServerPlayer player) {
+        if (!(entity instanceof Display.ItemDisplay itemDisplay)) {
+            return;
+        }
+        Host hostData = this.hosts.get(itemDisplay);
+        if (hostData == null) {
+            return;
+        }
+        hostData.newViewers.remove(player);
+        if (hostData.viewers.remove(player)) {
+            player.connection.send(new ClientboundRemoveEntitiesPacket(getSpawnedIds(hostData)));
+        }
+    }
+
+    /**
+     * Send the changes of this tick to the players. Called at the end of each tick.
+     */
+    public void sendChanges() {
+        boolean removedHosts = false;
+        Iterator<Host> iterator = this.hosts.values().iterator();
+        while (iterator.hasNext()) {
+            Host hostData = iterator.next();
+            if (hostData.entity.isRemoved()) {
+                // The displays were removed for each viewer when it stopped tracking
+                // the host.
+                iterator.remove();
+                removedHosts = true;
+                continue;
+            }
+            this.sendChanges(hostData);
+        }
+        if (removedHosts) {
+            this.updateVirtualPassengers();
+        }
+    }
+
+    private void sendChanges(@NotNull Host hostData) {
+        boolean passengersChanged = !hostData.newDisplays.isEmpty();
+
+        // Send changed entity data to the players that already see the displays.
+        for (FabricVirtualItemDisplay display : hostData.displays) {
+            SynchedEntityData entityData = display.getEntity().getEntityData();
+            if (hostData.newDisplays.contains(display) || !entityData.isDirty()) {
+                continue;
+            }
+            List<SynchedEntityData.DataValue<?>> values = entityData.packDirty();
+            if (values != null && !hostData.viewers.isEmpty()) {
+                ClientboundSetEntityDataPacket packet = new ClientboundSetEntityDataPacket(display.getEntity().getId(), values);
+                for (ServerPlayer viewer : hostData.viewers) {
+                    viewer.connection.send(packet);
+                }
+            }
+        }
+
+        // Spawn the new displays for the players that see the host.
+        if (!hostData.newDisplays.isEmpty() && !hostData.viewers.isEmpty()) {
+            ClientboundBundlePacket packet = this.createSpawnPacket(hostData, hostData.newDisplays);
+            for (ServerPlayer viewer : hostData.viewers) {
+                viewer.connection.send(packet);
+            }
+        }
+        for (FabricVirtualItemDisplay display : hostData.newDisplays) {
+            // The spawn packet contains all values, so clear the changes.
+            display.getEntity().getEntityData().packDirty();
+        }
+        hostData.newDisplays.clear();
+
+        // Spawn all displays for the players that started seeing the host.
+        if (!hostData.newViewers.isEmpty()) {
+            ClientboundBundlePacket packet = this.createSpawnPacket(hostData, hostData.displays);
+            for (ServerPlayer viewer : hostData.newViewers) {
+                viewer.connection.send(packet);
+            }
+            hostData.viewers.addAll(hostData.newViewers);
+            hostData.newViewers.clear();
+        } else if (passengersChanged) {
+            ClientboundSetPassengersPacket packet = this.createPassengersPacket(hostData.entity);
+            for (ServerPlayer viewer : hostData.viewers) {
+                viewer.connection.send(packet);
+            }
+        }
+    }
+
+    /**
+     * Create a packet that spawns displays and mounts all displays on the host.
+     */
+    private @NotNull ClientboundBundlePacket createSpawnPacket(@NotNull Host hostData, @NotNull List<FabricVirtualItemDisplay> displays) {
+        List<Packet<? super ClientGamePacketListener>> packets = new ArrayList<>(displays.size() * 2 + 1);
+        for (FabricVirtualItemDisplay display : displays) {
+            Display.ItemDisplay entity = display.getEntity();
+            Vec3 position = entity.position();
+            packets.add(new ClientboundAddEntityPacket(
+                entity.getId(), entity.getUUID(),
+                position.x(), position.y(), position.z(),
+                0, 0, EntityType.ITEM_DISPLAY, 0, Vec3.ZERO, 0
+            ));
+            List<SynchedEntityData.DataValue<?>> values = entity.getEntityData().getNonDefaultValues();
+            if (values != null) {
+                packets.add(new ClientboundSetEntityDataPacket(entity.getId(), values));
+            }
+        }
+        packets.add(this.createPassengersPacket(hostData.entity));
+        return new ClientboundBundlePacket(packets);
+    }
+
+    /**
+     * Create a passengers packet for a host. The virtual passengers are added when the
+     * packet is sent, like for the packets that the server sends.
+     */
+    private @NotNull ClientboundSetPassengersPacket createPassengersPacket(@NotNull Display.ItemDisplay host) {
+        return new ClientboundSetPassengersPacket(host);
+    }
+
+    /**
+     * Create a passengers packet for a host, including the virtual passengers.
+     *
+     * @param vehicleId The id of the host.
+     * @param passengerIds The ids of the real passengers.
+     * @return The packet.
+     */
+    @NotNull ClientboundSetPassengersPacket withVirtualPassengers(int vehicleId, int @NotNull [] passengerIds) {
+        int[] virtualIds = this.getVirtualPassengers(vehicleId);
+        int[] ids = passengerIds;
+        if (virtualIds != null) {
+            ids = new int[passengerIds.length + virtualIds.length];
+            System.arraycopy(passengerIds, 0, ids, 0, passengerIds.length);
+            System.arraycopy(virtualIds, 0, ids, passengerIds.length, virtualIds.length);
+        }
+        // The packet can only be created from an entity or by decoding it.
+        FriendlyByteBuf buf = new FriendlyByteBuf(Unpooled.buffer());
+        try {
+            buf.writeVarInt(vehicleId);
+            buf.writeVarIntArray(ids);
+            return ClientboundSetPassengersPacket.STREAM_CODEC.decode(buf);
+        } finally {
+            buf.release();
+        }
+    }
+
+    /**
+     * Get the ids of the virtual passengers of a host.
+     * <p>
+     * May be called from any thread.
+     *
+     * @param vehicleId The id of the host.
+     * @return The ids, or null if the entity has no virtual passengers.
+     */
+    public int @Nullable [] getVirtualPassengers(int vehicleId) {
+        return this.virtualPassengers.get(vehicleId);
+    }
+
+    private void updateVirtualPassengers() {
+        Int2ObjectOpenHashMap<int[]> virtualPassengers = new Int2ObjectOpenHashMap<>(this.hosts.size());
+        for (Host hostData : this.hosts.values()) {
+            int[] ids = new int[hostData.displays.size()];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = hostData.displays.get(i).getEntity().getId();
+            }
+            virtualPassengers.put(hostData.entity.getId(), ids);
+        }
+        this.virtualPassengers = virtualPassengers;
+    }
+
+    private static int @NotNull [] getSpawnedIds(@NotNull Host hostData) {
+        int[] ids = new int[hostData.displays.size() - hostData.newDisplays.size()];
+        int i = 0;
+        for (FabricVirtualItemDisplay display : hostData.displays) {
+            if (!hostData.newDisplays.contains(display)) {
+                ids[i++] = display.getEntity().getId();
+            }
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,121 @@
+package ca.bkaw.torque.paper;
+
+import ca.bkaw.torque.PlatformEvents;
+import ca.bkaw.torque.paper.platform.PaperPlatform;
+import ca.bkaw.torque.paper.platform.PaperWorld;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
+import org.bukkit.block.data.Directional;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockExplodeEvent;
+import org.bukkit.event.block.BlockFromToEvent;
+import org.bukkit.event.block.BlockPhysicsEvent;
+import org.bukkit.event.block.BlockPistonExtendEvent;
+import org.bukkit.event.block.BlockPistonRetractEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.entity.EntityExplodeEvent;
+import org.bukkit.event.world.ChunkLoadEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * Forwards Bukkit events to {@link PlatformEvents}.
+ */
+public class PaperEventListener implements Listener {
+    private final @NotNull PaperPlatform platform;
+
+    public PaperEventListener(@NotNull PaperPlatform platform) {
+        this.platform = platform;
+    }
+
+    private void onBlockChange(Block block) {
+        PlatformEvents eventHandler = this.platform.getEventHandler();
+        if (eventHandler != null) {
+            eventHandler.onBlockChange(new PaperWorld(block.getWorld()), block.getX(), block.getY(), block.getZ());
+        }
+    }
+
+    // Bukkit has no single event for block changes. Most changes update their
+    // neighbours, which calls the physics event with the changed block as the source.
+    // Changes that may not update neighbours have their own events below. Plugins
+    // can still set blocks without any event, see PaperWorld#reportsBlockChanges.
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onBlockPhysics(BlockPhysicsEvent event) {
+        this.onBlockChange(event.getSourceBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockPlace(BlockPlaceEvent event) {
+        this.onBlockChange(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockBreak(BlockBreakEvent event) {
+        this.onBlockChange(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntityExplode(EntityExplodeEvent event) {
+        for (Block block : event.blockList()) {
+            this.onBlockChange(block);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockExplode(BlockExplodeEvent event) {
+        this.onBlockChange(event.getBlock());
+        for (Block block : event.blockList()) {
+            this.onBlockChange(block);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPistonExtend(BlockPistonExtendEvent event) {
+        this.onPistonMove(event.getBlock(), event.getBlocks(), event.getDirection());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPistonRetract(BlockPistonRetractEvent event) {
+        this.onPistonMove(event.getBlock(), event.getBlocks(), event.getDirection());
+    }
+
+    private void onPistonMove(Block piston, List<Block> blocks, BlockFace direction) {
+        // The piston head and the moved blocks change, both where the blocks were
+        // and where they end up.
+        this.onBlockChange(piston.getRelative(piston.getBlockData() instanceof Directional directional
+            ? directional.getFacing()
+            : direction));
+        for (Block block : blocks) {
+            this.onBlockChange(block);
+            this.onBlockChange(block.getRelative(direction));
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onFluidFlow(BlockFromToEvent event) {
+        this.onBlockChange(event.getToBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkLoad(ChunkLoadEvent event) {
+        // Blocks in chunks that were not loaded were read as collidable.
+        PlatformEvents eventHandler = this.platform.getEventHandler();
+        if (eventHandler != null) {
+            eventHandler.onChunkLoad(new PaperWorld(event.getWorld()), event.getChunk().getX(), event.getChunk().getZ());
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkUnload(ChunkUnloadEvent event) {
+        PlatformEvents eventHandler = this.platform.getEventHandler();
+        if (eventHandler != null) {
+            eventHandler.onChunkUnload(new PaperWorld(event.getWorld()), event.getChunk().getX(), event.getChunk().getZ());
+        }
+    }
+}
@@ -4,6 +4,8 @@ import ca.bkaw.torque.TorqueCommand;
 import ca.bkaw.torque.paper.platform.PaperPlatform;
 import ca.bkaw.torque.paper.platform.PaperPlayer;
 import ca.bkaw.torque.paper.platform.PaperWorld;
+import com.mojang.brigadier.arguments.BoolArgumentType;
+import com.mojang.brigadier.arguments.DoubleArgumentType;
 import com.mojang.brigadier.arguments.IntegerArgumentType;
 import io.papermc.paper.command.brigadier.CommandSourceStack;
 import io.papermc.paper.command.brigadier.Commands;
@@ -117,6 +119,120 @@ public class PaperTorqueCommand {
                                     return 1;
                                 })
                         )
+                        .then(
+                            Commands.literal("parallel")
+                                .then(
+                                    Commands.argument("enabled", BoolArgumentType.bool())
+                                        .executes(ctx -> {
+                                            boolean enabled = BoolArgumentType.getBool(ctx, "enabled");
+                                            this.handler().tickParallel(enabled);
+                                            ctx.getSource().getSender().sendMessage(
+                                                enabled ? "Vehicles now tick in parallel." : "Vehicles now tick on the server thread."
+                                            );
+                                            return 1;
+                                        })
+                                )
+                        )
+                        .then(
+                            Commands.literal("substeps")
+                                .then(
+                                    Commands.argument("count", IntegerArgumentType.integer(1, 64))
+                                        .executes(ctx -> {
+                                            int count = IntegerArgumentType.getInteger(ctx, "count");
+                                            this.handler().tickSubsteps(count, false);
+                                            ctx.getSource().getSender().sendMessage("Vehicles now take " + count + " substeps per tick.");
+                                            return 1;
+                                        })
+                                        .then(
+                                            Commands.literal("adaptive")
+                                                .executes(ctx -> {
+                                                    int count = IntegerArgumentType.getInteger(ctx, "count");
+                                                    this.handler().tickSubsteps(count, true);
+                                                    ctx.getSource().getSender().sendMessage("Vehicles now take up to " + count + " substeps per tick depending on their speed.");
+                                                    return 1;
+                                                })
+                                        )
+                                )
+                        )
+                        .then(
+                            Commands.literal("realtime")
+                                .then(
+                                    Commands.argument("enabled", BoolArgumentType.bool())
+                                        .executes(ctx -> {
+                                            boolean enabled = BoolArgumentType.getBool(ctx, "enabled");
+                                            this.handler().tickRealTime(enabled);
+                                            ctx.getSource().getSender().sendMessage(enabled ? "Vehicle physics now follows real time." : "Vehicle physics now follows the server tick rate.");
+                                            return 1;
+                                        })
+                                )
+                        )
+                )
+                .then(
+                    Commands.literal("record")
+                        .then(
+                            Commands.literal("start")
+                                .executes(ctx -> {
+                                    ctx.getSource().getSender().sendMessage(this.handler().recordStart());
+                                    return 1;
+                                })
+                        )
+                        .then(
+                            Commands.literal("stop")
+                                .executes(ctx -> {
+                                    ctx.getSource().getSender().sendMessage(this.handler().recordStop());
+                                    return 1;
+                                })
+                        )
+                )
+                .then(
+                    Commands.literal("render")
+                        .then(
+                            Commands.literal("status")
+                                .executes(ctx -> {
+                                    ctx.getSource().getSender().sendMessage(this.handler().getRenderStatus());
+                                    return 1;
+                                })
+                        )
+                        .then(
+                            Commands.literal("budget")
+                                .then(
+                                    Commands.argument("updates", IntegerArgumentType.integer(1))
+                                        .executes(ctx -> {
+                                            int updates = IntegerArgumentType.getInteger(ctx, "updates");
+                                            this.handler().renderBudget(updates);
+                                            ctx.getSource().getSender().sendMessage("Players now get up to " + updates + " vehicle entity updates per tick.");
+                                            return 1;
+                                        })
+                                )
+                        )
+                        .then(
+                            Commands.literal("deadreckoning")
+                                .then(
+                                    Commands.argument("enabled", BoolArgumentType.bool())
+                                        .executes(ctx -> {
+                                            boolean enabled = BoolArgumentType.getBool(ctx, "enabled");
+                                            this.handler().renderDeadReckoning(enabled);
+                                            ctx.getSource().getSender().sendMessage("Dead reckoning is now " + (enabled ? "enabled" : "disabled") + ".");
+                                            return 1;
+                                        })
+                                )
+                                .then(
+                                    Commands.literal("threshold")
+                                        .then(
+                                            Commands.argument("meters", DoubleArgumentType.doubleArg(0))
+                                                .then(
+                                                    Commands.argument("degrees", DoubleArgumentType.doubleArg(0))
+                                                        .executes(ctx -> {
+                                                            double meters = DoubleArgumentType.getDouble(ctx, "meters");
+                                                            double degrees = DoubleArgumentType.getDouble(ctx, "degrees");
+                                                            this.handler().renderDeadReckoningThreshold(meters, degrees);
+                                                            ctx.getSource().getSender().sendMessage("Vehicles now send a new prediction when it is off by " + meters + " m or " + degrees + " degrees.");
+                                                            return 1;
+                                                        })
+                                                )
+                                        )
+                                )
+                        )
                 )
                 .then(
                     Commands.literal("debug")
@@ -12,6 +12,7 @@ public final class TorquePaper extends JavaPlugin {
     public void onEnable() {
         PaperPlatform platform = new PaperPlatform(this);
         this.torque = new Torque(platform);
+        this.getServer().getPluginManager().registerEvents(new PaperEventListener(platform), this);
 
         // Command registration
         PaperTorqueCommand command = new PaperTorqueCommand(platform);
@@ -3,6 +3,7 @@ package ca.bkaw.torque.paper.platform;
 import ca.bkaw.torque.platform.BlockState;
 import ca.bkaw.torque.platform.World;
 import org.bukkit.Material;
+import org.bukkit.block.Block;
 import org.bukkit.block.data.BlockData;
 import org.bukkit.block.data.Waterlogged;
 import org.joml.Vector3ic;
@@ -10,10 +11,14 @@ import org.joml.Vector3ic;
 public record PaperBlockState(BlockData blockData) implements BlockState {
     @Override
     public boolean isWaterlogged() {
-        if (this.blockData.getMaterial() == Material.WATER) {
+        return isWaterlogged(this.blockData);
+    }
+
+    static boolean isWaterlogged(BlockData blockData) {
+        if (blockData.getMaterial() == Material.WATER) {
             return true;
         }
-        if (this.blockData instanceof Waterlogged waterlogged) {
+        if (blockData instanceof Waterlogged waterlogged) {
             return waterlogged.isWaterlogged();
         }
         return false;
@@ -21,6 +26,10 @@ public record PaperBlockState(BlockData blockData) implements BlockState {
 
     @Override
     public boolean isCollidable(World world, Vector3ic position) {
-        return !((PaperWorld) world).world().getBlockAt(position.x(), position.y(), position.z()).isPassable();
+        return isCollidable(((PaperWorld) world).world().getBlockAt(position.x(), position.y(), position.z()));
+    }
+
+    static boolean isCollidable(Block block) {
+        return !block.isPassable();
     }
 }
@@ -108,4 +108,9 @@ public record PaperItemDisplay(org.bukkit.entity.ItemDisplay entity) implements
     public void setGlowColor(int glowColor) {
         this.entity.setGlowColorOverride(Color.fromRGB(glowColor));
     }
+
+    @Override
+    public void setViewRange(float viewRange) {
+        this.entity.setViewRange(viewRange);
+    }
 }
@@ -1,5 +1,6 @@
 package ca.bkaw.torque.paper.platform;
 
+import ca.bkaw.torque.PlatformEvents;
 import ca.bkaw.torque.TorqueCommand;
 import ca.bkaw.torque.assets.send.BuiltInTcpResourcePackSender;
 import ca.bkaw.torque.paper.TorquePaper;
@@ -20,6 +21,7 @@ import java.lang.reflect.Proxy;
 public class PaperPlatform implements Platform {
     private final TorquePaper plugin;
     private @Nullable TorqueCommand torqueCommand;
+    private @Nullable PlatformEvents eventHandler;
 
     public PaperPlatform(TorquePaper plugin) {
         this.plugin = plugin;
@@ -35,6 +37,10 @@ public class PaperPlatform implements Platform {
         return this.torqueCommand;
     }
 
+    public @Nullable PlatformEvents getEventHandler() {
+        return this.eventHandler;
+    }
+
     @Override
     public ItemStack createModelItem(@NotNull Identifier modelIdentifier) {
         Material material = Material.STICK;
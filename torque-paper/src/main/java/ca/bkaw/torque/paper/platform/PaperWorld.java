@@ -4,12 +4,18 @@ import ca.bkaw.torque.platform.BlockState;
 import ca.bkaw.torque.platform.Identifier;
 import ca.bkaw.torque.platform.InteractionEntity;
 import ca.bkaw.torque.platform.ItemDisplay;
+import ca.bkaw.torque.platform.Player;
+import org.bukkit.Chunk;
 import org.bukkit.Location;
 import org.bukkit.Particle;
+import org.bukkit.block.Block;
 import org.jetbrains.annotations.NotNull;
 import org.joml.Vector3dc;
 import org.joml.Vector3ic;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public record PaperWorld(org.bukkit.World world) implements ca.bkaw.torque.platform.World {
     @Override
     @NotNull
@@ -24,11 +30,68 @@ public record PaperWorld(org.bukkit.World world) implements ca.bkaw.torque.platf
         return new PaperInteractionEntity(this.world.spawn(location, org.bukkit.entity.Interaction.class));
     }
 
+    @Override
+    public @NotNull List<Player> getPlayers() {
+        List<Player> players = new ArrayList<>();
+        for (org.bukkit.entity.Player player : this.world.getPlayers()) {
+            players.add(new PaperPlayer(player));
+        }
+        return players;
+    }
+
     @Override
     public @NotNull BlockState getBlock(@NotNull Vector3ic position) {
         return new PaperBlockState(this.world.getBlockData(position.x(), position.y(), position.z()));
     }
 
+    @Override
+    public void getBlockFlags(int minX, int minY, int minZ, int maxX, int maxY, int maxZ, byte @NotNull [] dest) {
+        int sizeX = maxX - minX + 1;
+        int sizeZ = maxZ - minZ + 1;
+        int minHeight = this.world.getMinHeight();
+        int maxHeight = this.world.getMaxHeight();
+        for (int chunkX = minX >> 4; chunkX <= maxX >> 4; chunkX++) {
+            for (int chunkZ = minZ >> 4; chunkZ <= maxZ >> 4; chunkZ++) {
+                // Never load or generate chunks here. Blocks in chunks that are not
+                // loaded are collidable, so that vehicles stop at the edge of the
+                // loaded area. The cache reads them again when the chunk loads.
+                Chunk chunk = this.world.isChunkLoaded(chunkX, chunkZ) ? this.world.getChunkAt(chunkX, chunkZ) : null;
+                int fromX = Math.max(minX, chunkX << 4);
+                int toX = Math.min(maxX, (chunkX << 4) + 15);
+                int fromZ = Math.max(minZ, chunkZ << 4);
+                int toZ = Math.min(maxZ, (chunkZ << 4) + 15);
+                for (int y = minY; y <= maxY; y++) {
+                    boolean outside = y < minHeight || y >= maxHeight;
+                    for (int z = fromZ; z <= toZ; z++) {
+                        for (int x = fromX; x <= toX; x++) {
+                            byte flags = 0;
+                            if (!outside && chunk == null) {
+                                flags = COLLIDABLE;
+                            } else if (!outside) {
+                                Block block = chunk.getBlock(x & 15, y, z & 15);
+                                if (!block.getType().isAir()) {
+                                    if (PaperBlockState.isCollidable(block)) {
+                                        flags |= COLLIDABLE;
+                                    }
+                                    if (PaperBlockState.isWaterlogged(block.getBlockData())) {
+                                        flags |= WATERLOGGED;
+                                    }
+                                }
+                            }
+                            dest[((y - minY) * sizeZ + (z - minZ)) * sizeX + (x - minX)] = flags;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public boolean reportsBlockChanges() {
+        // Plugins can set blocks without applying physics, which has no event.
+        return false;
+    }
+
     @Override
     public void spawnParticle(Vector3ic blockPos, Identifier identifier) {
         this.world.spawnParticle(Particle.SMOKE, blockPos.x(), blockPos.y(), blockPos.z(), 1);
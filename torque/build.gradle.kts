@@ -1,5 +1,8 @@
 plugins {
     id("java")
+    // The headless platform is only used by tests, benchmarks and the scenario
+    // runner, so it is kept out of the plugin jar.
+    id("java-test-fixtures")
 }
 
 version = property("version") as String
@@ -20,6 +23,55 @@ dependencies {
     testImplementation("org.junit.jupiter:junit-jupiter")
 }
 
+// The dependencies are provided by the server at runtime, so the headless
+// platform and the tests need them on their own classpath.
+configurations {
+    testFixturesCompileOnly { extendsFrom(compileOnly.get()) }
+    testCompileOnly { extendsFrom(compileOnly.get()) }
+    testRuntimeOnly { extendsFrom(compileOnly.get()) }
+}
+
 tasks.test {
     useJUnitPlatform()
-}
\ No newline at end of file
+    jvmArgs("--add-modules", "jdk.incubator.vector")
+    systemProperty("torque.assets", file("src/main/resources").absolutePath)
+}
+
+// The Vector API rigid body kernel is compiled on its own, so that nothing else
+// depends on the incubator module. It is only loaded when the module is available
+// at runtime, see RigidBodyStore.RigidBodyKernel.
+val vector: SourceSet by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output + sourceSets.main.get().compileClasspath
+}
+
+tasks.named<JavaCompile>(vector.compileJavaTaskName) {
+    // Javac warns that the module is incubating on every compile, and only
+    // disabling all lint warnings turns that off. This source set only has the
+    // kernel, so no other warnings are hidden.
+    options.compilerArgs.addAll(listOf("--add-modules", "jdk.incubator.vector", "-Xlint:none"))
+}
+
+tasks.jar {
+    from(vector.output)
+}
+
+sourceSets.named("testFixtures") { runtimeClasspath += vector.output }
+sourceSets.test { runtimeClasspath += vector.output }
+
+val headlessRuntime: Configuration by configurations.creating {
+    extendsFrom(configurations.compileOnly.get())
+    isCanBeResolved = true
+    isCanBeConsumed = false
+}
+
+tasks.register<JavaExec>("runScenario") {
+    group = "application"
+    description = "Runs vehicles on a headless platform and reports the tick time."
+    mainClass.set("ca.bkaw.torque.headless.ScenarioRunner")
+    classpath = sourceSets["testFixtures"].runtimeClasspath + headlessRuntime
+    jvmArgs("--add-modules", "jdk.incubator.vector")
+    systemProperty("torque.assets", file("src/main/resources").absolutePath)
+    val scenarioDir = layout.buildDirectory.dir("scenario")
+    workingDir(scenarioDir)
+    doFirst { scenarioDir.get().asFile.mkdirs() }
+}
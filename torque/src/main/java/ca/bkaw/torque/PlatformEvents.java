@@ -1,6 +1,7 @@
 package ca.bkaw.torque;
 
 import ca.bkaw.torque.components.SeatsComponent;
+import ca.bkaw.torque.platform.World;
 import ca.bkaw.torque.platform.entity.ItemDisplay;
 import ca.bkaw.torque.platform.entity.Player;
 import ca.bkaw.torque.vehicle.Vehicle;
@@ -45,4 +46,16 @@ public class PlatformEvents {
         vehicle.getComponent(SeatsComponent.class)
             .ifPresent(seats -> seats.addPassenger(player));
     }
+
+    public void onBlockChange(World world, int x, int y, int z) {
+        this.torque.getVehicleManager().invalidateBlock(world, x, y, z);
+    }
+
+    public void onChunkLoad(World world, int chunkX, int chunkZ) {
+        this.torque.getVehicleManager().invalidateChunk(world, chunkX, chunkZ);
+    }
+
+    public void onChunkUnload(World world, int chunkX, int chunkZ) {
+        this.torque.getVehicleManager().invalidateChunk(world, chunkX, chunkZ);
+    }
 }
@@ -5,15 +5,25 @@ import ca.bkaw.torque.components.SeatsComponent;
 import ca.bkaw.torque.platform.Identifier;
 import ca.bkaw.torque.platform.entity.Player;
 import ca.bkaw.torque.platform.World;
+import ca.bkaw.torque.render.DeadReckoning;
+import ca.bkaw.torque.render.UpdateScheduler;
 import ca.bkaw.torque.util.Debug;
+import ca.bkaw.torque.vehicle.TimeStep;
 import ca.bkaw.torque.vehicle.Vehicle;
 import ca.bkaw.torque.vehicle.VehicleManager;
+import ca.bkaw.torque.vehicle.VehicleRecorder;
 import ca.bkaw.torque.vehicle.VehicleType;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.joml.Quaternionf;
 import org.joml.Vector3d;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.logging.Level;
+
 /**
  * A handler for the {@code /torque} command. Note that the platform performs the
  * registration of the command and simply calls methods on this class.
@@ -71,7 +81,7 @@ public class TorqueCommand {
                 if (vehicle != null) {
                     vehicle.getComponent(RigidBodyComponent.class).ifPresent(rbc -> {
                         // Rotate 45 degrees around the Y axis.
-                        ((Quaternionf) rbc.getOrientation()).rotateAxis((float) Math.PI / 4, 0, 1, 0); // 45 degrees in radians
+                        rbc.setOrientation(new Quaternionf(rbc.getOrientation()).rotateAxis((float) Math.PI / 4, 0, 1, 0)); // 45 degrees in radians
                     });
                 }
             }
@@ -130,6 +140,37 @@ public class TorqueCommand {
         this.torque.getVehicleManager().stepTicks(steps);
     }
 
+    /**
+     * Set whether vehicles are ticked on multiple threads.
+     *
+     * @param parallel Whether to tick in parallel.
+     */
+    public void tickParallel(boolean parallel) {
+        this.torque.getVehicleManager().setParallelTicking(parallel);
+    }
+
+    /**
+     * Set the number of physics substeps vehicles take each tick.
+     *
+     * @param substeps The number of substeps, or the maximum number of substeps if adaptive.
+     * @param adaptive Whether only fast vehicles should take the extra substeps.
+     */
+    public void tickSubsteps(int substeps, boolean adaptive) {
+        TimeStep timeStep = this.torque.getVehicleManager().getTimeStep();
+        timeStep.setSubsteps(substeps);
+        timeStep.setAdaptive(adaptive);
+    }
+
+    /**
+     * Set whether vehicle physics should follow real time instead of the server
+     * tick rate.
+     *
+     * @param realTime Whether to follow real time.
+     */
+    public void tickRealTime(boolean realTime) {
+        this.torque.getVehicleManager().getTimeStep().setRealTime(realTime);
+    }
+
     /**
      * Get information about the current tick state.
      *
@@ -137,10 +178,119 @@ public class TorqueCommand {
      */
     public String getTickStatus() {
         VehicleManager vm = this.torque.getVehicleManager();
+        String threading = vm.isParallelTicking() ? " Vehicles tick in parallel." : "";
+        TimeStep timeStep = vm.getTimeStep();
+        String substeps = " Substeps: " + timeStep.getSubsteps()
+            + (timeStep.isAdaptive() ? " (adaptive)" : "")
+            + (timeStep.isRealTime() ? ", following real time." : ".");
+        String sleeping = " Awake vehicles: " + vm.getAwakeVehicleCount()
+            + ", sleeping vehicles: " + vm.getSleepingVehicleCount() + ".";
         if (vm.isTickingFrozen()) {
-            return "Ticking is frozen. Remaining steps: " + vm.getRemainingSteps();
+            return "Ticking is frozen. Remaining steps: " + vm.getRemainingSteps() + "." + threading + substeps + sleeping;
         } else {
-            return "Ticking is running normally.";
+            return "Ticking is running normally." + threading + substeps + sleeping;
+        }
+    }
+
+    /**
+     * Set the number of entity updates of vehicles that are sent to each player per
+     * tick.
+     *
+     * @param budget The budget, unit: entity updates per player per tick.
+     */
+    public void renderBudget(int budget) {
+        this.torque.getVehicleManager().getUpdateScheduler().setBudget(budget);
+    }
+
+    /**
+     * Set whether vehicles should send predicted states and only update the entities
+     * when the prediction is no longer accurate.
+     *
+     * @param enabled Whether to send predicted states.
+     */
+    public void renderDeadReckoning(boolean enabled) {
+        this.torque.getVehicleManager().getDeadReckoning().setEnabled(enabled);
+    }
+
+    /**
+     * Set how far the rendered state of a vehicle may be from the actual state
+     * before a new prediction is sent.
+     *
+     * @param meters The largest distance, unit: meter.
+     * @param degrees The largest angle, unit: degrees.
+     */
+    public void renderDeadReckoningThreshold(double meters, double degrees) {
+        this.torque.getVehicleManager().getDeadReckoning().setThresholds(meters, Math.toRadians(degrees));
+    }
+
+    /**
+     * Get information about the vehicle updates sent to players.
+     *
+     * @return A string describing the updates.
+     */
+    public String getRenderStatus() {
+        UpdateScheduler scheduler = this.torque.getVehicleManager().getUpdateScheduler();
+        DeadReckoning deadReckoning = this.torque.getVehicleManager().getDeadReckoning();
+        String prediction = deadReckoning.isEnabled()
+            ? String.format(" Dead reckoning is enabled with thresholds %.2f m and %.1f degrees.",
+                deadReckoning.getPositionThreshold(), Math.toDegrees(deadReckoning.getAngleThreshold()))
+            : " Dead reckoning is disabled.";
+        return "Budget: " + scheduler.getBudget() + " entity updates per player per tick."
+            + " Vehicle updates sent: " + scheduler.getSentCount()
+            + ", deferred: " + scheduler.getDeferredCount()
+            + ", dropped: " + scheduler.getDroppedCount() + "."
+            + prediction;
+    }
+
+    /**
+     * Start recording the simulation of vehicles to a file in the
+     * {@code torque-recordings} directory.
+     *
+     * @return A message describing the result.
+     */
+    public String recordStart() {
+        VehicleManager vm = this.torque.getVehicleManager();
+        if (vm.getRecorder() != null) {
+            return "Vehicles are already being recorded.";
+        }
+        OutputStream outputStream = null;
+        try {
+            Path directory = Path.of("torque-recordings");
+            Files.createDirectories(directory);
+            Path path = directory.resolve("recording-" + System.currentTimeMillis() + ".trqr");
+            outputStream = Files.newOutputStream(path);
+            vm.startRecording(outputStream);
+            return "Recording vehicles to " + path + ".";
+        } catch (IOException e) {
+            if (outputStream != null) {
+                try {
+                    outputStream.close();
+                } catch (IOException closeException) {
+                    e.addSuppressed(closeException);
+                }
+            }
+            Torque.LOGGER.log(Level.WARNING, "Failed to start recording vehicles.", e);
+            return "Failed to start recording: " + e.getMessage();
+        }
+    }
+
+    /**
+     * Stop recording the simulation of vehicles.
+     *
+     * @return A message describing the result.
+     */
+    public String recordStop() {
+        VehicleManager vm = this.torque.getVehicleManager();
+        VehicleRecorder recorder = vm.getRecorder();
+        if (recorder == null) {
+            return "Vehicles are not being recorded.";
+        }
+        try {
+            vm.stopRecording();
+            return "Stopped recording after " + recorder.getTickCount() + " ticks.";
+        } catch (IOException e) {
+            Torque.LOGGER.log(Level.WARNING, "Failed to save the vehicle recording.", e);
+            return "Failed to save the recording: " + e.getMessage();
         }
     }
 
@@ -6,6 +6,7 @@ import ca.bkaw.torque.assets.model.ModelElementList;
 import ca.bkaw.torque.assets.model.ModelExtractor;
 import ca.bkaw.torque.assets.send.BuiltInTcpResourcePackSender;
 import ca.bkaw.torque.assets.send.ResourcePackSender;
+import ca.bkaw.torque.model.CollisionShape;
 import ca.bkaw.torque.model.TagHandler;
 import ca.bkaw.torque.model.VehicleModel;
 import ca.bkaw.torque.model.VehicleModelPart;
@@ -248,6 +249,15 @@ public class TorqueAssets {
             new Vector3f(0, (float) -diff.y / 16.0f + 0.5f, 0)
         );
 
+        // Simplify the elements into the collision shape. Uses the elements before
+        // hidden elements were removed and the model was scaled down, since hidden
+        // elements are skipped and the shape must have the original size.
+        ModelElementList collisionElements = modelToKeep.getAllElements();
+        CollisionShape collisionShape = CollisionShape.fromElements(
+            collisionElements != null ? collisionElements : elements,
+            new Vector3d(primary.translation())
+        );
+
         // Save model parts
         List<VehicleModelPart> vehicleModelParts = new ArrayList<>();
         for (ModelExtractor.ExtractedModel extractedModel : extractedModels) {
@@ -292,6 +302,7 @@ public class TorqueAssets {
             modelToKeep,
             primary,
             vehicleModelParts,
+            collisionShape,
             tagHandlerData
         );
 
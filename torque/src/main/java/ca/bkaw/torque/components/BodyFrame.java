@@ -0,0 +1,104 @@
+package ca.bkaw.torque.components;
+
+import org.joml.Matrix3d;
+import org.joml.Matrix3dc;
+import org.joml.Quaterniond;
+import org.joml.Quaterniondc;
+import org.joml.Vector3d;
+import org.joml.Vector3dc;
+
+/**
+ * Values derived from the orientation of a rigid body, computed once each time the
+ * orientation changes instead of by every component that needs them.
+ * <p>
+ * Get the frame of a rigid body using {@link RigidBodyComponent#getFrame()}. The
+ * returned values must not be modified, and are only valid until the orientation of
+ * the rigid body changes.
+ * <p>
+ * All vectors are in world coordinates.
+ */
+public class BodyFrame {
+    private final Quaterniond orientation = new Quaterniond();
+    private final Matrix3d rotation = new Matrix3d();
+    private final Vector3d right = new Vector3d();
+    private final Vector3d up = new Vector3d();
+    private final Vector3d forward = new Vector3d();
+    private final Matrix3d worldInertiaTensorInverse = new Matrix3d();
+    private final Matrix3d rotationTranspose = new Matrix3d();
+    /**
+     * The orientation version that the frame was computed for, or -1 if the frame
+     * has not been computed.
+     */
+    int version = -1;
+
+    /**
+     * Compute the frame from the orientation of a rigid body.
+     *
+     * @param store The store containing the rigid body.
+     * @param slot The slot of the rigid body.
+     * @param localInertiaTensorInverse The inverse inertia tensor local to the
+     *                                  unrotated vehicle.
+     */
+    void update(RigidBodyStore store, int slot, Matrix3dc localInertiaTensorInverse) {
+        this.orientation.set(store.qx[slot], store.qy[slot], store.qz[slot], store.qw[slot]);
+        this.orientation.get(this.rotation);
+        // The columns of the rotation matrix are the rotated axes.
+        this.rotation.getColumn(0, this.right);
+        this.rotation.getColumn(1, this.up);
+        this.rotation.getColumn(2, this.forward).negate();
+        // R * I^-1 * R^T
+        this.worldInertiaTensorInverse.set(this.rotation)
+            .mul(localInertiaTensorInverse)
+            .mul(this.rotation.transpose(this.rotationTranspose));
+        this.version = store.orientationVersion[slot];
+    }
+
+    public Quaterniondc getOrientation() {
+        return this.orientation;
+    }
+
+    /**
+     * Get the rotation matrix of the orientation.
+     *
+     * @return The rotation matrix.
+     */
+    public Matrix3dc getRotation() {
+        return this.rotation;
+    }
+
+    /**
+     * Get the direction that is right of the vehicle, the rotated positive X axis.
+     *
+     * @return The unit vector.
+     */
+    public Vector3dc getRight() {
+        return this.right;
+    }
+
+    /**
+     * Get the direction that is up from the vehicle, the rotated positive Y axis.
+     *
+     * @return The unit vector.
+     */
+    public Vector3dc getUp() {
+        return this.up;
+    }
+
+    /**
+     * Get the direction that the vehicle is facing, the rotated negative Z axis.
+     *
+     * @return The unit vector.
+     */
+    public Vector3dc getForward() {
+        return this.forward;
+    }
+
+    /**
+     * Get the inverse inertia tensor in world coordinates.
+     *
+     * @return The inverse inertia tensor. Unit: (kg m^2)^-1
+     */
+    public Matrix3dc getWorldInertiaTensorInverse() {
+        return this.worldInertiaTensorInverse;
+    }
+}
@@ -1,6 +1,5 @@
 package ca.bkaw.torque.components;
 
-import ca.bkaw.torque.platform.BlockState;
 import ca.bkaw.torque.platform.DataInput;
 import ca.bkaw.torque.platform.DataOutput;
 import ca.bkaw.torque.platform.Identifier;
@@ -8,22 +7,21 @@ import ca.bkaw.torque.vehicle.Vehicle;
 import ca.bkaw.torque.vehicle.VehicleComponent;
 import ca.bkaw.torque.vehicle.VehicleComponentType;
 import org.jetbrains.annotations.NotNull;
-import org.joml.RoundingMode;
 import org.joml.Vector3d;
-import org.joml.Vector3i;
+import org.joml.Vector3dc;
 
 public class FloatComponent implements VehicleComponent {
-    public static final VehicleComponentType TYPE = VehicleComponentType.create(
-        new Identifier("torque", "float"),
-        FloatComponent::new
-    );
+    public static final VehicleComponentType<FloatComponent> TYPE = VehicleComponentType.builder(
+        new Identifier("torque", "float")
+    ).physics().create(FloatComponent.class, FloatComponent::new);
+    private static final Vector3dc BUOYANT_FORCE = new Vector3d(0, 2000, 0); // unit: Newton
 
     public FloatComponent(Vehicle vehicle, DataInput dataInput) {
 
     }
 
     @Override
-    public @NotNull VehicleComponentType getType() {
+    public @NotNull VehicleComponentType<FloatComponent> getType() {
         return TYPE;
     }
 
@@ -32,12 +30,14 @@ public class FloatComponent implements VehicleComponent {
 
     @Override
     public void tick(Vehicle vehicle) {
-        vehicle.getComponent(RigidBodyComponent.class).ifPresent(rbc -> {
-            BlockState block = rbc.getWorld().getBlock(new Vector3i(rbc.getPosition(), RoundingMode.TRUNCATE));
-            if (block.isWaterlogged()) {
-                // Add buoyant force
-                rbc.addForce(new Vector3d(0, 2000, 0), rbc.getPosition());
-            }
-        });
+        RigidBodyComponent rbc = vehicle.get(RigidBodyComponent.TYPE);
+        if (rbc == null) {
+            return;
+        }
+        Vector3dc position = rbc.getPosition();
+        if (rbc.getCollisionCache().isWaterlogged((int) position.x(), (int) position.y(), (int) position.z())) {
+            // Add buoyant force
+            rbc.addForce(BUOYANT_FORCE, position);
+        }
     }
 }
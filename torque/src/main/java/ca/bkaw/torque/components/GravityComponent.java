@@ -8,22 +8,24 @@ import ca.bkaw.torque.vehicle.Vehicle;
 import ca.bkaw.torque.vehicle.VehicleComponent;
 import ca.bkaw.torque.vehicle.VehicleComponentType;
 import org.jetbrains.annotations.NotNull;
-import org.joml.Quaterniond;
 import org.joml.RoundingMode;
 import org.joml.Vector3d;
 import org.joml.Vector3i;
 
 public class GravityComponent implements VehicleComponent {
-    public static final VehicleComponentType TYPE = VehicleComponentType.create(
-        new Identifier("torque", "gravity"),
-        GravityComponent::new
-    );
+    public static final VehicleComponentType<GravityComponent> TYPE = VehicleComponentType.builder(
+        new Identifier("torque", "gravity")
+    ).physics().create(GravityComponent.class, GravityComponent::new);
     public static final double GRAVITATIONAL_ACCELERATION = 9.8; // unit: m/s²
 
+    // Scratch objects, reused each tick to avoid allocating.
+    private final Vector3d force = new Vector3d();
+    private final Vector3d position = new Vector3d();
+
     public GravityComponent(Vehicle vehicle, DataInput dataInput) {}
 
     @Override
-    public @NotNull VehicleComponentType getType() {
+    public @NotNull VehicleComponentType<GravityComponent> getType() {
         return TYPE;
     }
 
@@ -32,22 +34,24 @@ public class GravityComponent implements VehicleComponent {
 
     @Override
     public void tick(Vehicle vehicle) {
-        vehicle.getComponent(RigidBodyComponent.class).ifPresent(rbc -> {
-            // Apply a downward force to simulate gravity
-            double magnitude = -GRAVITATIONAL_ACCELERATION * vehicle.getType().mass();
-            // rbc.addForce(new Vector3d(0, magnitude, 0), rbc.getPosition());
-            double spreadDistance = 1;
-            double yOffset = 0;
-            this.gravityPoint(rbc, magnitude / 4, new Vector3d(spreadDistance, yOffset, spreadDistance));
-            this.gravityPoint(rbc, magnitude / 4, new Vector3d(spreadDistance, yOffset, -spreadDistance));
-            this.gravityPoint(rbc, magnitude / 4, new Vector3d(-spreadDistance, yOffset, -spreadDistance));
-            this.gravityPoint(rbc, magnitude / 4, new Vector3d(-spreadDistance, yOffset, spreadDistance));
-        });
+        RigidBodyComponent rbc = vehicle.get(RigidBodyComponent.TYPE);
+        if (rbc == null) {
+            return;
+        }
+        // Apply a downward force to simulate gravity
+        double magnitude = -GRAVITATIONAL_ACCELERATION * vehicle.getType().mass();
+        // rbc.addForce(new Vector3d(0, magnitude, 0), rbc.getPosition());
+        double spreadDistance = 1;
+        double yOffset = 0;
+        this.gravityPoint(rbc, magnitude / 4, spreadDistance, yOffset, spreadDistance);
+        this.gravityPoint(rbc, magnitude / 4, spreadDistance, yOffset, -spreadDistance);
+        this.gravityPoint(rbc, magnitude / 4, -spreadDistance, yOffset, -spreadDistance);
+        this.gravityPoint(rbc, magnitude / 4, -spreadDistance, yOffset, spreadDistance);
     }
 
-    private void gravityPoint(RigidBodyComponent rbc, double magnitude, Vector3d offset) {
-        Vector3d position = rbc.getPosition().add(offset.rotate(new Quaterniond(rbc.getOrientation())), new Vector3d());
-        rbc.addForce(new Vector3d(0, magnitude, 0), position);
+    private void gravityPoint(RigidBodyComponent rbc, double magnitude, double offsetX, double offsetY, double offsetZ) {
+        Vector3d position = this.position.set(offsetX, offsetY, offsetZ).rotate(rbc.getFrame().getOrientation()).add(rbc.getPosition());
+        rbc.addForce(this.force.set(0, magnitude, 0), position);
 
     }
 }
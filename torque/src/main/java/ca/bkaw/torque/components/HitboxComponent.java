@@ -10,11 +10,12 @@ import com.google.gson.JsonObject;
 import org.jetbrains.annotations.NotNull;
 
 public class HitboxComponent implements VehicleComponent {
-    public static final VehicleComponentType TYPE = VehicleComponentType.builder(
+    public static final VehicleComponentType<HitboxComponent> TYPE = VehicleComponentType.builder(
             new Identifier("torque", "hitbox")
         )
         .configParser(HitboxComponent::parseConfig)
-        .create(HitboxComponent::new);
+        .threadSafe()
+        .create(HitboxComponent.class, HitboxComponent::new);
 
     public record HitboxConfig(float width, float height) {}
 
@@ -34,7 +35,7 @@ public class HitboxComponent implements VehicleComponent {
     }
 
     @Override
-    public @NotNull VehicleComponentType getType() {
+    public @NotNull VehicleComponentType<HitboxComponent> getType() {
         return TYPE;
     }
 
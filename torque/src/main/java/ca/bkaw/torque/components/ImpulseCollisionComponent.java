@@ -1,91 +1,225 @@
 package ca.bkaw.torque.components;
 
+import ca.bkaw.torque.model.CollisionShape;
 import ca.bkaw.torque.platform.DataInput;
 import ca.bkaw.torque.platform.DataOutput;
 import ca.bkaw.torque.platform.Identifier;
 import ca.bkaw.torque.platform.World;
 import ca.bkaw.torque.util.Debug;
 import ca.bkaw.torque.util.OBB;
+import ca.bkaw.torque.util.Util;
+import ca.bkaw.torque.vehicle.CollisionCache;
 import ca.bkaw.torque.vehicle.Vehicle;
 import ca.bkaw.torque.vehicle.VehicleComponent;
 import ca.bkaw.torque.vehicle.VehicleComponentType;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
 import org.jetbrains.annotations.NotNull;
 import org.joml.Matrix3d;
-import org.joml.Quaterniond;
+import org.joml.Matrix3dc;
 import org.joml.Vector3d;
 import org.joml.Vector3dc;
-import org.joml.Vector3ic;
+import org.joml.Vector3i;
 
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 
 public class ImpulseCollisionComponent implements VehicleComponent {
-    public static final VehicleComponentType TYPE = VehicleComponentType.create(
-        new Identifier("torque", "impulse_collision"),
-        ImpulseCollisionComponent::new
-    );
-
-    private OBB obb;
+    public static final VehicleComponentType<ImpulseCollisionComponent> TYPE = VehicleComponentType.builder(
+        new Identifier("torque", "impulse_collision")
+    ).physics().create(ImpulseCollisionComponent.class, ImpulseCollisionComponent::new);
+    private static final int MAX_ITERATIONS = 10;
+    /**
+     * The solver stops iterating once no contact point changes the velocity by more
+     * than this during an iteration, unit: meter/second.
+     */
+    private static final double RESIDUAL_TOLERANCE = 1e-3;
+
+    private final CollisionShape shape;
+    /**
+     * The box of the root of the collision shape, covering the whole vehicle.
+     */
+    private final OBB obb = new OBB();
+    /**
+     * The contact points by the packed position of their block. Contact points are
+     * kept while the block stays in contact, so that the solver can start from the
+     * impulses of the previous tick.
+     */
+    private final Long2ObjectOpenHashMap<ContactPoint> manifold = new Long2ObjectOpenHashMap<>();
+    private int tickCount;
+
+    // Scratch objects, reused each tick to avoid allocating.
+    private final LongArrayList blocks = new LongArrayList();
+    private final LongOpenHashSet visitedBlocks = new LongOpenHashSet();
+    private final IntArrayList nodeStack = new IntArrayList();
+    private final OBB nodeObb = new OBB();
+    private final Vector3d nodeHalfSize = new Vector3d();
+    private final List<ContactPoint> contactPoints = new ArrayList<>();
+    private final List<ContactPoint> freeContactPoints = new ArrayList<>();
+    private final Vector3i blockPos = new Vector3i();
+    private final Vector3d center = new Vector3d();
+    private final Vector3d nextVelocity = new Vector3d();
+    private final Vector3d nextAngularVelocity = new Vector3d();
+    private final Vector3d temp = new Vector3d();
+    private final Vector3d impulse = new Vector3d();
+    private final Matrix3d inertiaTensor = new Matrix3d();
 
     public ImpulseCollisionComponent(Vehicle vehicle, DataInput dataInput) {
-
+        this.shape = vehicle.getType().model().getCollisionShape();
     }
 
     @Override
-    public @NotNull VehicleComponentType getType() {
+    public @NotNull VehicleComponentType<ImpulseCollisionComponent> getType() {
         return TYPE;
     }
 
     @Override
     public void save(Vehicle vehicle, DataOutput data) {}
 
-    private record ContactPoint(
-        Vector3dc position,
-        Vector3dc normal,
-        Vector3d impulse
-    ) {}
+    private static final class ContactPoint {
+        private final Vector3d position = new Vector3d();
+        private final Vector3d normal = new Vector3d();
+        /**
+         * The vector from the center of mass of the vehicle to the contact point.
+         */
+        private final Vector3d r = new Vector3d();
+        /**
+         * The total impulse applied along the normal at this contact point during the
+         * last solve. Never negative. Unit: Newton-second.
+         */
+        private double accumulatedImpulse;
+        private double effectiveMass; // unit: kg
+        private int lastSeen;
+    }
 
     @Override
     public void tick(Vehicle vehicle) {
-        vehicle.getComponent(RigidBodyComponent.class).ifPresent(rbc -> {
-            this.obb = new OBB(
-                new Vector3d(rbc.getPosition()).add(new Vector3d(0, 0.8, 0).rotate(new Quaterniond(rbc.getOrientation()))),
-                new Vector3d(1, 0.8, 2.25),
-                rbc.getOrientation()
-            );
-            Debug.visualizeObb(rbc.getWorld(), this.obb, "glass");
-
-            List<ContactPoint> contactPoints = this.getContactPoints(rbc);
-
-            if (!contactPoints.isEmpty()) {
-                this.handleCollisions(vehicle, rbc, contactPoints);
-            }
-        });
+        RigidBodyComponent rbc = vehicle.get(RigidBodyComponent.TYPE);
+        if (rbc == null) {
+            return;
+        }
+        this.updateBox(rbc);
+        Debug.visualizeObb(rbc.getWorld(), this.obb, "glass");
+
+        this.findContactPoints(rbc);
+
+        if (!this.contactPoints.isEmpty()) {
+            this.handleCollisions(vehicle, rbc);
+        }
+    }
+
+    /**
+     * Move the collision box of the vehicle to the current position and orientation
+     * of the rigid body.
+     *
+     * @param rbc The rigid body.
+     * @return The collision box. Reused, only valid until the next update.
+     */
+    private OBB updateBox(RigidBodyComponent rbc) {
+        return this.updateNodeBox(rbc, 0, this.obb);
+    }
+
+    /**
+     * Move the box of a node of the collision shape to the current position and
+     * orientation of the rigid body.
+     *
+     * @param rbc The rigid body.
+     * @param node The index of the node in the collision shape.
+     * @param dest The box to store the result in.
+     * @return The box.
+     */
+    private OBB updateNodeBox(RigidBodyComponent rbc, int node, OBB dest) {
+        // c_world = R c_local + p
+        Vector3d center = rbc.getOrientation().transform(this.shape.getCenter(node, this.center)).add(rbc.getPosition());
+        return dest.set(center, this.shape.getHalfSize(node, this.nodeHalfSize), rbc.getOrientation());
     }
 
-    private List<ContactPoint> getContactPoints(RigidBodyComponent rbc) {
-        List<ContactPoint> contactPoints = new ArrayList<>();
+    /**
+     * Find the contact points with the blocks inside the collision shape and store
+     * them in {@link #contactPoints}. Contact points with blocks that were also in
+     * contact during the previous tick keep their accumulated impulse, and contact
+     * points with blocks that are no longer in contact are removed.
+     * <p>
+     * The hierarchy of the collision shape is traversed from the root, and the
+     * children of a node are only visited if a collidable block is inside the node,
+     * so most of the empty space around the vehicle is skipped with one check.
+     *
+     * @param rbc The rigid body.
+     */
+    private void findContactPoints(RigidBodyComponent rbc) {
+        this.contactPoints.clear();
+        this.tickCount++;
 
         World world = rbc.getWorld();
-        for (Vector3ic blockPos : this.obb.getBlocksInsideApprox()) {
-            if (world.getBlock(blockPos).isCollidable(rbc.getWorld(), blockPos)) {
-                // Stop the delta position in this direction.
-                Vector3d direction = new Vector3d(blockPos).sub(rbc.getPosition());
-                // Find the closest axis-aligned direction.
-                Vector3d absDirection = new Vector3d(direction).absolute();
-                if (absDirection.x > absDirection.y && absDirection.x > absDirection.z) {
-                    direction.set(direction.x, 0, 0);
-                } else if (absDirection.y > absDirection.x && absDirection.y > absDirection.z) {
-                    direction.set(0, direction.y, 0);
-                } else {
-                    direction.set(0, 0, direction.z);
+        CollisionCache collisionCache = rbc.getCollisionCache();
+        CollisionShape shape = this.shape;
+        LongArrayList blocks = this.blocks;
+        LongOpenHashSet visitedBlocks = this.visitedBlocks;
+        IntArrayList nodeStack = this.nodeStack;
+        visitedBlocks.clear();
+        nodeStack.clear();
+        nodeStack.add(0);
+        while (!nodeStack.isEmpty()) {
+            int node = nodeStack.popInt();
+            OBB nodeObb = node == 0 ? this.obb : this.updateNodeBox(rbc, node, this.nodeObb);
+            blocks.clear();
+            nodeObb.getBlocksInside(blocks);
+            if (!shape.isLeaf(node)) {
+                for (int i = 0; i < blocks.size(); i++) {
+                    if (collisionCache.isCollidable(blocks.getLong(i))) {
+                        nodeStack.add(shape.getLeftChild(node));
+                        nodeStack.add(shape.getRightChild(node));
+                        break;
+                    }
                 }
-                direction.normalize();
+                continue;
+            }
+            this.addContactPoints(world, collisionCache, blocks);
+        }
 
-                Vector3d normal = direction.negate();
-                normal = new Vector3d(0, 1, 0);
-                Vector3d contactPosition = new Vector3d(blockPos).add(0.5, 0.5, 0.5).add(normal.mul(0.5, new Vector3d()));
-                contactPoints.add(new ContactPoint(contactPosition, normal, new Vector3d()));
+        // Remove the contact points with blocks that are no longer in contact.
+        if (this.manifold.size() != this.contactPoints.size()) {
+            Iterator<ContactPoint> iterator = this.manifold.values().iterator();
+            while (iterator.hasNext()) {
+                ContactPoint contactPoint = iterator.next();
+                if (contactPoint.lastSeen != this.tickCount) {
+                    iterator.remove();
+                    this.freeContactPoints.add(contactPoint);
+                }
+            }
+        }
+    }
+
+    /**
+     * Add contact points for the collidable blocks inside a leaf of the collision
+     * shape. Blocks inside several leaves only get one contact point.
+     *
+     * @param world The world.
+     * @param collisionCache The collision cache of the world.
+     * @param blocks The packed positions of the blocks inside the leaf.
+     */
+    private void addContactPoints(World world, CollisionCache collisionCache, LongArrayList blocks) {
+        Vector3i blockPos = this.blockPos;
+        for (int i = 0; i < blocks.size(); i++) {
+            long packed = blocks.getLong(i);
+            if (!this.visitedBlocks.add(packed)) {
+                continue;
+            }
+            blockPos.set(Util.unpackBlockX(packed), Util.unpackBlockY(packed), Util.unpackBlockZ(packed));
+            if (collisionCache.isCollidable(packed)) {
+                ContactPoint contactPoint = this.manifold.get(packed);
+                if (contactPoint == null) {
+                    contactPoint = this.newContactPoint();
+                    this.manifold.put(packed, contactPoint);
+                }
+                contactPoint.lastSeen = this.tickCount;
+                // The normal always points up for now.
+                contactPoint.normal.set(0, 1, 0);
+                contactPoint.position.set(blockPos).add(0.5, 0.5, 0.5).fma(0.5, contactPoint.normal);
+                this.contactPoints.add(contactPoint);
 
                 Debug.highlightFullBlock(world, blockPos, "red_wool");
                 // Debug.visualizeVectorAt(world, contactPosition, normal, "pink_wool");
@@ -94,135 +228,122 @@ public class ImpulseCollisionComponent implements VehicleComponent {
                 Debug.highlightBlockSmall(world, blockPos, "stone");
             }
         }
-        return contactPoints;
     }
 
-    private void handleCollisions(Vehicle vehicle, RigidBodyComponent rbc, List<ContactPoint> contactPoints) {
-        final double deltaTime = 1 / 20.0; // one tick, unit: seconds
-
-        // Apply all external forces to see the acceleration without collisions.
-        Vector3d predictedAcceleration = new Vector3d(rbc.getNetForce()).div(vehicle.getType().mass());
-
-        Matrix3d inertiaTensorInverse = rbc.getInertiaTensorInverse(vehicle);
-        Vector3d predictedAngularAcceleration = new Vector3d(rbc.getNetTorque()).mul(inertiaTensorInverse);
-
-        // The velocity that would happen if there were no collisions.
-        Vector3d predictedVelocity = new Vector3d(rbc.getVelocity()).add(predictedAcceleration.mul(deltaTime));
-        Vector3d predictedAngularVelocity = new Vector3d(rbc.getAngularVelocity()).add(predictedAngularAcceleration.mul(deltaTime));
+    private ContactPoint newContactPoint() {
+        ContactPoint contactPoint = this.freeContactPoints.isEmpty()
+            ? new ContactPoint()
+            : this.freeContactPoints.removeLast();
+        contactPoint.accumulatedImpulse = 0;
+        return contactPoint;
+    }
 
-        // The velocity that will happen after applying the collisions.
-        Vector3d nextVelocity = new Vector3d(predictedVelocity);
-        Vector3d nextAngularVelocity = new Vector3d(predictedAngularVelocity);
+    private void handleCollisions(Vehicle vehicle, RigidBodyComponent rbc) {
+        final double deltaTime = rbc.getDeltaTime(); // the current substep, unit: seconds
+        double mass = vehicle.getType().mass(); // unit: kg
+        Vector3dc position = rbc.getPosition();
+        Vector3d temp = this.temp;
+        List<ContactPoint> contactPoints = this.contactPoints;
+
+        Matrix3dc inertiaTensorInverse = rbc.getInertiaTensorInverse(vehicle);
+
+        // The velocity that would happen if there were no collisions, after applying
+        // all external forces. This is also the starting point for the velocity that
+        // will happen after applying the collisions.
+        Vector3d nextVelocity = this.nextVelocity.set(rbc.getNetForce()).mul(deltaTime / mass).add(rbc.getVelocity());
+        Vector3d nextAngularVelocity = this.nextAngularVelocity.set(rbc.getNetTorque()).mul(inertiaTensorInverse).mul(deltaTime).add(rbc.getAngularVelocity());
+
+        for (int i = 0; i < contactPoints.size(); i++) {
+            ContactPoint contactPoint = contactPoints.get(i);
+            Vector3d r = contactPoint.position.sub(position, contactPoint.r);
+            contactPoint.effectiveMass = 1.0 / (
+                1.0 / mass +
+                    contactPoint.normal.dot(
+                        r.cross(contactPoint.normal, temp) // r × n
+                            .mul(inertiaTensorInverse)
+                            .cross(r)
+                    )
+            ); // Unit: kg
+
+            // Warm start: apply the impulse from the previous tick right away. For a
+            // vehicle at rest, this is almost exactly the impulse that is needed, so
+            // the iterations below only have to make small corrections.
+            if (contactPoint.accumulatedImpulse > 0) {
+                this.applyImpulse(contactPoint, contactPoint.accumulatedImpulse, mass, inertiaTensorInverse);
+            }
+        }
 
+        // Sequential impulses: resolve one contact point at a time, and repeat since
+        // resolving one contact point affects the others. The impulse accumulated at
+        // each contact point may never pull the vehicle, but an iteration may reduce
+        // an impulse that a previous iteration or the warm start applied.
         int iteration = 0;
-        while (iteration < 10) {
+        double residual;
+        do {
             iteration++;
-            boolean changed = false;
-            // Debug.print("===================== Iteration " + iteration + " ====================");
-
-            for (ContactPoint contactPoint : contactPoints) {
-                // The vector from the vehicle's center of mass to the contact point.
-                Vector3d r = new Vector3d(contactPoint.position).sub(rbc.getPosition());
+            residual = 0;
+            for (int i = 0; i < contactPoints.size(); i++) {
+                ContactPoint contactPoint = contactPoints.get(i);
 
                 // The relative velocity at the contact point. Takes into account both the
                 // linear velocity and the angular velocity.
                 // v_rel = (v + omega × r) ⋅ n
-                double relativeVelocity = new Vector3d(nextVelocity).add(
-                    nextAngularVelocity.cross(r, new Vector3d())
-                ).dot(contactPoint.normal); // Unit: m/s
-
-                if (relativeVelocity > -0.01) {
-                    // The vehicle is moving away from the surface, no impulse needed.
-                    // Debug.print("Contact Point " + contactPoint.position + " is moving away, relative velocity = " + Util.formatSi("m/s", relativeVelocity));
-                    continue;
-                }
-
-                double effectiveMass = 1.0 / (
-                    1.0 / vehicle.getType().mass() +
-                        contactPoint.normal.dot(
-                            (new Vector3d(r).cross(contactPoint.normal) // r × n
-                                .mul(inertiaTensorInverse)
-                            ).cross(r, new Vector3d())
-                        )
-                ); // Unit: kg
-
-                final double restitutionCoefficient = 0; // Unitless, 0 = inelastic, 1 = elastic
-                double impulseMagnitude = -(1 + restitutionCoefficient) * relativeVelocity * effectiveMass;
-                if (impulseMagnitude < 1e-3) {
-                    // The impulse is negative. The contact point is trying to pull the vehicle.
-                    // This is not allowed. Or it is very small, so we ignore it.
-                    continue;
+                double relativeVelocity = nextAngularVelocity.cross(contactPoint.r, temp)
+                    .add(nextVelocity)
+                    .dot(contactPoint.normal); // Unit: m/s
+
+                // Inelastic, remove all velocity into the surface.
+                double impulseMagnitude = -relativeVelocity * contactPoint.effectiveMass; // Unit: Ns
+                double previousImpulse = contactPoint.accumulatedImpulse;
+                contactPoint.accumulatedImpulse = Math.max(previousImpulse + impulseMagnitude, 0);
+                double appliedImpulse = contactPoint.accumulatedImpulse - previousImpulse;
+                if (appliedImpulse != 0) {
+                    this.applyImpulse(contactPoint, appliedImpulse, mass, inertiaTensorInverse);
                 }
-                changed = true;
-                // Debug.print("Contact Point " + contactPoint.position + " applying impulse " + Util.formatSi("Ns", impulseMagnitude) + " rel velocity = " + Util.formatSi("m/s", relativeVelocity));
-
-                Vector3d impulse = new Vector3d(contactPoint.normal).mul(impulseMagnitude);
-
-                // Keep track of the total impulse applied at by contact point.
-                contactPoint.impulse.add(impulse);
-
-                // Apply the impulse to the next velocity.
-                // deltaV = impulse / mass
-                Vector3d deltaVelocity = impulse.div(vehicle.getType().mass(), new Vector3d());
-                nextVelocity.add(deltaVelocity);
-                // deltaOmega = I^-1 * (r × impulse)
-                Vector3d deltaAngularVelocity = new Vector3d(r).cross(impulse).mul(inertiaTensorInverse);
-                nextAngularVelocity.add(deltaAngularVelocity);
-
-                // Now that the next velocity and angular velocity have been updated,
-                // this will affect the other contact points which may react by
-                // applying other impulses. We repeat for a few iterations until
-                // all contact points have been resolved so that the vehicle does
-                // not clip through the surface at any contact point.
+                residual = Math.max(residual, Math.abs(appliedImpulse) / mass);
             }
+        } while (residual > RESIDUAL_TOLERANCE && iteration < MAX_ITERATIONS);
 
-            // Early exit if no impulses were applied this iteration.
-            if (!changed) {
-                break;
-            }
-        }
-        // Debug.print("iteration = " + iteration);
-        if (iteration >= 10) {
+        if (residual > RESIDUAL_TOLERANCE) {
             Debug.print("ImpulseCollisionComponent: Too many iterations, vehicle may be stuck in a collision.");
         }
 
         // Ensure no energy is added to the system.
         // This is important to prevent the vehicle from gaining energy from collisions.
-        Matrix3d inertiaTensor = new Matrix3d(inertiaTensorInverse).invert();
+        Matrix3d inertiaTensor = this.inertiaTensor.set(inertiaTensorInverse).invert();
 
-        double currentLinearKineticEnergy = 0.5 * vehicle.getType().mass() * rbc.getVelocity().lengthSquared(); // Unit: Joules
-        double currentAngularKineticEnergy = 0.5 * rbc.getAngularVelocity().dot(inertiaTensor.transform(rbc.getAngularVelocity(), new Vector3d())); // Unit: Joules
+        double currentLinearKineticEnergy = 0.5 * mass * rbc.getVelocity().lengthSquared(); // Unit: Joules
+        double currentAngularKineticEnergy = 0.5 * rbc.getAngularVelocity().dot(inertiaTensor.transform(rbc.getAngularVelocity(), temp)); // Unit: Joules
         double currentTotalKineticEnergy = currentLinearKineticEnergy + currentAngularKineticEnergy;
 
-        double nextLinearKineticEnergy = 0.5 * vehicle.getType().mass() * nextVelocity.lengthSquared(); // Unit: Joules
-        double nextAngularKineticEnergy = 0.5 * nextAngularVelocity.dot(inertiaTensor.transform(nextAngularVelocity, new Vector3d())); // Unit: Joules
+        double nextLinearKineticEnergy = 0.5 * mass * nextVelocity.lengthSquared(); // Unit: Joules
+        double nextAngularKineticEnergy = 0.5 * nextAngularVelocity.dot(inertiaTensor.transform(nextAngularVelocity, temp)); // Unit: Joules
         double nextTotalKineticEnergy = nextLinearKineticEnergy + nextAngularKineticEnergy;
 
-        double scale = 1.0;
         if (nextTotalKineticEnergy > currentTotalKineticEnergy) {
             // Energy was added to the system. Scale down the next velocities.
-            scale = Math.sqrt(currentTotalKineticEnergy / nextTotalKineticEnergy);
-            scale = scale * 0.9; // Penalty for trying to create energy.
+            double scale = Math.sqrt(currentTotalKineticEnergy / nextTotalKineticEnergy);
             nextVelocity.mul(scale);
             nextAngularVelocity.mul(scale);
         }
 
-        // Now that collisions have been resolved at all contact points, we need to
-        // apply all the impulses. This will ensure the actual velocity of the vehicle
-        // matches the "next" velocities we have calculated above.
-        //
-        // The way we apply an impulse is to calculate the average force that would
-        // be applied over the delta time, and then apply that force at the contact
-        // point.
-
         rbc.setVelocity(nextVelocity);
         rbc.setAngularVelocity(nextAngularVelocity);
-
-        // for (ContactPoint contactPoint : contactPoints) {
-        //     Vector3d averageForce = new Vector3d(contactPoint.impulse).div(deltaTime).mul(scale);
-        //     rbc.addForce(averageForce, contactPoint.position);
-        //     Debug.visualizeVectorAt(rbc.getWorld(), contactPoint.position, new Vector3d(averageForce).div(1000), "pink_wool");
-        // }
     }
 
+    /**
+     * Apply an impulse along the normal of a contact point to the next velocities.
+     *
+     * @param contactPoint The contact point.
+     * @param impulseMagnitude The impulse. Unit: Newton-second.
+     * @param mass The mass of the vehicle. Unit: kg.
+     * @param inertiaTensorInverse The inverse inertia tensor in world coordinates.
+     */
+    private void applyImpulse(ContactPoint contactPoint, double impulseMagnitude, double mass, Matrix3dc inertiaTensorInverse) {
+        Vector3d impulse = this.impulse.set(contactPoint.normal).mul(impulseMagnitude);
+        // deltaV = impulse / mass
+        this.nextVelocity.fma(1 / mass, impulse);
+        // deltaOmega = I^-1 * (r × impulse)
+        this.nextAngularVelocity.add(contactPoint.r.cross(impulse, this.temp).mul(inertiaTensorInverse));
+    }
 }
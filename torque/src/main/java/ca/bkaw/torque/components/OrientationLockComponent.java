@@ -10,20 +10,23 @@ import org.jetbrains.annotations.NotNull;
 import org.joml.Quaternionf;
 import org.joml.Quaternionfc;
 import org.joml.Vector3d;
-import org.joml.Vector3f;
 
 public class OrientationLockComponent implements VehicleComponent {
-    public static VehicleComponentType TYPE = VehicleComponentType.create(
-        new Identifier("torque", "orientation_lock"),
-        OrientationLockComponent::new
-    );
+    public static VehicleComponentType<OrientationLockComponent> TYPE = VehicleComponentType.builder(
+        new Identifier("torque", "orientation_lock")
+    ).physics().create(OrientationLockComponent.class, OrientationLockComponent::new);
+
+    // Scratch objects, reused each tick to avoid allocating.
+    private final Vector3d filteredAngularVelocity = new Vector3d();
+    private final Quaternionf twist = new Quaternionf();
+    private final Quaternionf smoothed = new Quaternionf();
 
     public OrientationLockComponent(Vehicle vehicle, DataInput dataInput) {
 
     }
 
     @Override
-    public @NotNull VehicleComponentType getType() {
+    public @NotNull VehicleComponentType<OrientationLockComponent> getType() {
         return TYPE;
     }
 
@@ -32,36 +35,32 @@ public class OrientationLockComponent implements VehicleComponent {
 
     @Override
     public void tick(Vehicle vehicle) {
-       vehicle.getComponent(RigidBodyComponent.class).ifPresent(rbc -> {
-            Quaternionfc currentOrientation = rbc.getOrientation();
-            Vector3d angularVelocity = rbc.getAngularVelocity();
+        RigidBodyComponent rbc = vehicle.get(RigidBodyComponent.TYPE);
+        if (rbc == null) {
+            return;
+        }
+        Quaternionfc currentOrientation = rbc.getOrientation();
+        Vector3d angularVelocity = rbc.getAngularVelocity();
 
-            boolean isColliding = vehicle.getComponent(SimpleCollisionComponent.class)
-                .map(SimpleCollisionComponent::isColliding)
-                .orElse(false);
-            if (!isColliding) {
-                // No orientation lock if colliding. Let the vehicle rotate freely.
-                return;
-            }
+        SimpleCollisionComponent simpleCollision = vehicle.get(SimpleCollisionComponent.TYPE);
+        if (simpleCollision == null || !simpleCollision.isColliding()) {
+            // No orientation lock if colliding. Let the vehicle rotate freely.
+            return;
+        }
 
-            float smoothingFactor = 0.3f;
+        // Smooth by 0.3 per tick, regardless of the number of substeps.
+        float smoothingFactor = 1 - (float) Math.pow(1 - 0.3, rbc.getDeltaTime() / RigidBodyComponent.DELTA_TIME);
 
-            // Only keep the component of angular velocity around the Y axis and apply smoothing
-            Vector3d direction = new Vector3d(0, 1, 0); // Y axis
-            double projection = angularVelocity.dot(direction) / direction.lengthSquared();
-            Vector3d filteredAngularVelocity = new Vector3d(direction).mul(projection);
-            Vector3d smoothedAngularVelocity = new Vector3d(angularVelocity).lerp(filteredAngularVelocity, smoothingFactor);
-            rbc.setAngularVelocity(smoothedAngularVelocity);
+        // Only keep the component of angular velocity around the Y axis and apply smoothing
+        // The angular velocity is a view, so it can be modified before being set.
+        Vector3d smoothedAngularVelocity = angularVelocity.lerp(this.filteredAngularVelocity.set(0, angularVelocity.y, 0), smoothingFactor);
+        rbc.setAngularVelocity(smoothedAngularVelocity);
 
-            // Swing-Twist decomposition to isolate yaw (twist around Y axis)
-            Vector3f directionF = new Vector3f(0, 1, 0);
-            Vector3f ra = new Vector3f(currentOrientation.x(), currentOrientation.y(), currentOrientation.z());
-            Vector3f p = new Vector3f(directionF).mul(ra.dot(directionF) / directionF.lengthSquared());
-            Quaternionf twist = new Quaternionf(p.x, p.y, p.z, currentOrientation.w()).normalize();
+        // Swing-Twist decomposition to isolate yaw (twist around Y axis)
+        Quaternionf twist = this.twist.set(0, currentOrientation.y(), 0, currentOrientation.w()).normalize();
 
-            Quaternionf smoothed = new Quaternionf(currentOrientation).slerp(twist, smoothingFactor);
+        Quaternionf smoothed = this.smoothed.set(currentOrientation).slerp(twist, smoothingFactor);
 
-            rbc.setOrientation(smoothed); // TODO not the spirit
-        });
+        rbc.setOrientation(smoothed); // TODO not the spirit
     }
-}
+}
\ No newline at end of file
@@ -4,108 +4,232 @@ import ca.bkaw.torque.platform.DataOutput;
 import ca.bkaw.torque.platform.Identifier;
 import ca.bkaw.torque.platform.DataInput;
 import ca.bkaw.torque.platform.World;
+import ca.bkaw.torque.vehicle.CollisionCache;
 import ca.bkaw.torque.vehicle.Vehicle;
 import ca.bkaw.torque.vehicle.VehicleComponent;
 import ca.bkaw.torque.vehicle.VehicleComponentType;
+import ca.bkaw.torque.vehicle.VehicleManager;
 import org.jetbrains.annotations.NotNull;
-import org.joml.Matrix3d;
+import org.joml.Matrix3dc;
 import org.joml.Quaternionf;
 import org.joml.Quaternionfc;
 import org.joml.Vector3d;
 import org.joml.Vector3dc;
 import org.joml.Vector3f;
+import org.joml.Vector3i;
 
 public class RigidBodyComponent implements VehicleComponent {
-    public static final VehicleComponentType TYPE = VehicleComponentType.create(
-        new Identifier("torque", "rigid_body"),
-        RigidBodyComponent::new
-    );
+    public static final VehicleComponentType<RigidBodyComponent> TYPE = VehicleComponentType.builder(
+        new Identifier("torque", "rigid_body")
+    ).physics().create(RigidBodyComponent.class, RigidBodyComponent::new);
     public static final double DELTA_TIME = 1 / 20.0; // one tick, unit: second
 
+    // Sleeping
+    public static final double SLEEP_VELOCITY = 0.05; // unit: meter/second
+    public static final double SLEEP_ANGULAR_VELOCITY = 0.05; // unit: radian/second
+    public static final double SLEEP_TIME = 2; // the time at rest before sleeping, unit: second
+
     // All vectors are stored in world coordinates.
     // The position is at the center of mass.
 
-    // Position and velocity
+    // The state is stored in a slot in the store.
+    private final @NotNull RigidBodyStore store;
+    private int slot;
     private World world;
-    private final Vector3d position; // unit: meter
-    private final Vector3d velocity; // unit: meter/second
-    private final Quaternionf orientation;
-    private final Vector3d angularVelocity; // unit: radian/second
+    private double deltaTime = DELTA_TIME; // the length of the current substep, unit: second
+    private final @NotNull VehicleManager vehicleManager;
+    private CollisionCache collisionCache;
+
+    // Views of the state in the store, updated by the getters.
+    private final Vector3d position = new Vector3d(); // unit: meter
+    private final Vector3d velocity = new Vector3d(); // unit: meter/second
+    private final Quaternionf orientation = new Quaternionf();
+    private final Vector3d angularVelocity = new Vector3d(); // unit: radian/second
+    private final Vector3d netForce = new Vector3d(); // unit: Newton
+    private final Vector3d netTorque = new Vector3d(); // unit: Newton-meter
+    private final Matrix3dc localInertiaTensorInverse; // unit: (kg m^2)^-1
+    private final BodyFrame frame = new BodyFrame();
 
-    // Accumulated each frame
-    private final Vector3d netForce; // unit: Newton
-    private final Vector3d netTorque; // unit: Newton-meter
+    // Sleeping
+    private boolean sleeping;
+    private double restingTime; // unit: second
+    private final Vector3i supportBlockPos = new Vector3i();
+    private boolean supportCollidable;
+    private boolean supportWaterlogged;
 
     public RigidBodyComponent(Vehicle vehicle, DataInput data) {
         // The world is not serialized. Use the world of the entity.
         this.world = null;
-        this.position = new Vector3d(data.readVector3f("position", new Vector3f()));
-        this.velocity = new Vector3d(data.readVector3f("velocity", new Vector3f()));
-        this.orientation = data.readQuaternionf("orientation", new Quaternionf());
-        this.angularVelocity = new Vector3d(data.readVector3f("angular_velocity", new Vector3f()));
-        this.netForce = new Vector3d();
-        this.netTorque = new Vector3d();
+        this.vehicleManager = vehicle.getTorque().getVehicleManager();
+        this.store = this.vehicleManager.getRigidBodyStore();
+        this.slot = this.store.allocate();
+        this.localInertiaTensorInverse = vehicle.getType().localInertiaTensorInverse();
+        this.setPosition(new Vector3d(data.readVector3f("position", new Vector3f())));
+        this.setVelocity(new Vector3d(data.readVector3f("velocity", new Vector3f())));
+        this.setOrientation(data.readQuaternionf("orientation", new Quaternionf()));
+        this.setAngularVelocity(new Vector3d(data.readVector3f("angular_velocity", new Vector3f())));
     }
 
     @Override
-    public @NotNull VehicleComponentType getType() {
+    public @NotNull VehicleComponentType<RigidBodyComponent> getType() {
         return TYPE;
     }
 
     @Override
     public void save(Vehicle vehicle, DataOutput data) {
-        data.writeVector3f("position", new Vector3f(this.position));
-        data.writeVector3f("velocity", new Vector3f(this.velocity));
-        data.writeQuaternionf("orientation", this.orientation);
-        data.writeVector3f("angular_velocity", new Vector3f(this.angularVelocity));
+        data.writeVector3f("position", new Vector3f(this.getPosition()));
+        data.writeVector3f("velocity", new Vector3f(this.getVelocity()));
+        data.writeQuaternionf("orientation", this.store.getOrientation(this.slot, this.orientation));
+        data.writeVector3f("angular_velocity", new Vector3f(this.getAngularVelocity()));
+    }
+
+    @Override
+    public void remove(Vehicle vehicle) {
+        if (this.slot >= 0) {
+            this.store.free(this.slot);
+            this.slot = -1;
+        }
     }
 
     @Override
     public void tick(Vehicle vehicle) {
+        RigidBodyStore store = this.store;
+        int i = this.slot;
+        double dt = this.deltaTime;
+
+        // Finish the integration from the previous step if it was batched.
+        store.integrate(i);
+
+        // Apply linear acceleration.
+        double velocityChange = dt / vehicle.getType().mass(); // unit: (meter/second) / Newton
+        store.vx[i] += store.fx[i] * velocityChange;
+        store.vy[i] += store.fy[i] * velocityChange;
+        store.vz[i] += store.fz[i] * velocityChange;
+        store.fx[i] = store.fy[i] = store.fz[i] = 0;
 
-        // Apply linear motion.
-        Vector3d acceleration = this.netForce.div(vehicle.getType().mass()); // unit: meter/second^2
-        this.velocity.add(acceleration.mul(DELTA_TIME));
-        vehicle.getComponent(SimpleCollisionComponent.class).ifPresent(simpleCollision -> simpleCollision.run(vehicle));
-        this.position.add(this.velocity.mul(DELTA_TIME, new Vector3d()));
-        this.netForce.zero();
-
-        // Apply angular motion.
-        Matrix3d worldInertiaTensorInverse = this.getInertiaTensorInverse(vehicle); // unit: (kg m^2)^-1
-        Vector3d angularAcceleration = this.netTorque.mul(worldInertiaTensorInverse); // unit: radians/second^2
-        this.angularVelocity.add(angularAcceleration.mul(DELTA_TIME));
-        // Update orientation based on angular velocity.
-        float angle = (float) (this.angularVelocity.length() * DELTA_TIME); // unit: radians
-        if (angle > 1e-6) {
-            Quaternionf deltaOrientation = new Quaternionf().rotateAxis(
-                angle,
-                (float) this.angularVelocity.x(), (float) this.angularVelocity.y(), (float) this.angularVelocity.z()
-            );
-            this.orientation.mul(deltaOrientation).normalize();
+        // Apply angular acceleration.
+        Matrix3dc worldInertiaTensorInverse = this.getFrame().getWorldInertiaTensorInverse(); // unit: (kg m^2)^-1
+        Vector3d angularAcceleration = store.getNetTorque(i, this.netTorque).mul(worldInertiaTensorInverse); // unit: radians/second^2
+        store.wx[i] += angularAcceleration.x * dt;
+        store.wy[i] += angularAcceleration.y * dt;
+        store.wz[i] += angularAcceleration.z * dt;
+        store.tx[i] = store.ty[i] = store.tz[i] = 0;
+
+        SimpleCollisionComponent simpleCollision = vehicle.get(SimpleCollisionComponent.TYPE);
+        if (simpleCollision != null) {
+            simpleCollision.run(vehicle);
         }
-        this.netTorque.zero();
 
-        // Dampen angular velocity to prevent jitter.
-        // this.angularVelocity.mul(0.8);
-        if (this.angularVelocity.lengthSquared() < 1e-2) {
-            this.angularVelocity.zero();
+        // Apply linear and angular motion, see RigidBodyStore.RigidBodyKernel.
+        store.scheduleIntegration(i, dt);
+
+        this.updateRestingTime(vehicle);
+    }
+
+    /**
+     * Count the time that the rigid body has been at rest for.
+     *
+     * @param vehicle The vehicle that this rigid body component belongs to.
+     */
+    private void updateRestingTime(Vehicle vehicle) {
+        SeatsComponent seats = vehicle.get(SeatsComponent.TYPE);
+        boolean occupied = seats != null && !seats.getPassengerData().isEmpty();
+        if (occupied
+            || this.getVelocity().lengthSquared() > SLEEP_VELOCITY * SLEEP_VELOCITY
+            || this.getAngularVelocity().lengthSquared() > SLEEP_ANGULAR_VELOCITY * SLEEP_ANGULAR_VELOCITY) {
+            this.restingTime = 0;
+            return;
         }
+        this.restingTime += this.deltaTime;
+    }
+
+    /**
+     * Put the rigid body to sleep if it has been at rest for long enough.
+     * <p>
+     * Called once per tick after all components of all vehicles have ticked. The
+     * other components keep applying forces while the vehicle is at rest, like the
+     * wheels holding it up, which would wake it up again if it fell asleep while
+     * they are ticking.
+     */
+    public void updateSleeping() {
+        if (this.sleeping || this.restingTime < SLEEP_TIME) {
+            return;
+        }
+
+        // Remember the block the vehicle is resting on so that the vehicle can wake
+        // up if the block changes.
+        Vector3dc position = this.getPosition();
+        this.supportBlockPos.set(
+            (int) Math.floor(position.x()),
+            (int) Math.floor(position.y() - 0.5),
+            (int) Math.floor(position.z())
+        );
+        Vector3i pos = this.supportBlockPos;
+        this.supportCollidable = this.collisionCache.isCollidable(pos.x, pos.y, pos.z);
+        this.supportWaterlogged = this.collisionCache.isWaterlogged(pos.x, pos.y, pos.z);
+
+        this.store.setVelocity(this.slot, 0, 0, 0);
+        this.store.setAngularVelocity(this.slot, 0, 0, 0);
+        this.store.fx[this.slot] = this.store.fy[this.slot] = this.store.fz[this.slot] = 0;
+        this.store.tx[this.slot] = this.store.ty[this.slot] = this.store.tz[this.slot] = 0;
+        this.sleeping = true;
+    }
+
+    /**
+     * Check whether the rigid body is sleeping.
+     * <p>
+     * Sleeping rigid bodies are at rest. Their vehicles are neither ticked nor
+     * rendered until they are woken up.
+     *
+     * @return True if sleeping.
+     */
+    public boolean isSleeping() {
+        return this.sleeping;
+    }
+
+    /**
+     * Wake up the rigid body if it is sleeping.
+     */
+    public void wake() {
+        if (this.sleeping) {
+            this.sleeping = false;
+            this.restingTime = 0;
+        }
+    }
+
+    /**
+     * Check whether the block that the sleeping rigid body is resting on has changed
+     * since the rigid body fell asleep. Must be called on the server thread.
+     *
+     * @return True if the block has changed.
+     */
+    public boolean hasSupportChanged() {
+        Vector3i pos = this.supportBlockPos;
+        return this.collisionCache.isCollidable(pos.x, pos.y, pos.z) != this.supportCollidable
+            || this.collisionCache.isWaterlogged(pos.x, pos.y, pos.z) != this.supportWaterlogged;
+    }
+
+    /**
+     * Get the values derived from the orientation of the rigid body. The frame is
+     * only recomputed when the orientation has changed since the last call.
+     *
+     * @return The frame. Must not be modified.
+     */
+    public BodyFrame getFrame() {
+        if (this.frame.version != this.store.orientationVersion[this.slot]) {
+            this.frame.update(this.store, this.slot, this.localInertiaTensorInverse);
+        }
+        return this.frame;
     }
 
     /**
      * Get the inertia tensor inverse in world coordinates.
      * 
      * @param vehicle The vehicle that this rigid body component belongs to.
-     * @return The inertia tensor inverse in world coordinates.
+     * @return The inertia tensor inverse in world coordinates. Must not be modified.
      */
-    public Matrix3d getInertiaTensorInverse(Vehicle vehicle) {
-        // TODO cache per tick?
-        // Get the inertia tensor inverse in world coordinates.
-        Matrix3d localInertiaTensorInverse = vehicle.getType().localInertiaTensorInverse();
-        Matrix3d rotationMatrix = this.orientation.get(new Matrix3d());
-        return new Matrix3d(rotationMatrix)
-            .mul(localInertiaTensorInverse)
-            .mul(rotationMatrix.transpose()); // unit: (kg m^2)^-1, world coordinates
+    public Matrix3dc getInertiaTensorInverse(Vehicle vehicle) {
+        return this.getFrame().getWorldInertiaTensorInverse();
     }
 
     /**
@@ -118,32 +242,70 @@ public class RigidBodyComponent implements VehicleComponent {
         if (!force.isFinite()) {
             throw new IllegalArgumentException("Force must be a finite vector.");
         }
-        this.netForce.add(force);
+        this.wake();
+        RigidBodyStore store = this.store;
+        int i = this.slot;
+        store.fx[i] += force.x();
+        store.fy[i] += force.y();
+        store.fz[i] += force.z();
 
         // The point is provided in world coordinates, so we need to convert it to local
         // coordinates for the cross product in the torque calculation.
-        Vector3d localPoint = new Vector3d(point).sub(this.position); // unit: meter
-        Vector3d torque = localPoint.cross(force); // unit: Newton-meter
-        this.netTorque.add(torque);
+        double localX = point.x() - store.px[i]; // unit: meter
+        double localY = point.y() - store.py[i];
+        double localZ = point.z() - store.pz[i];
+        // unit: Newton-meter
+        store.tx[i] += localY * force.z() - localZ * force.y();
+        store.ty[i] += localZ * force.x() - localX * force.z();
+        store.tz[i] += localX * force.y() - localY * force.x();
+    }
+
+    /**
+     * Get the length of the current physics substep.
+     *
+     * @return The time step. Unit: second.
+     */
+    public double getDeltaTime() {
+        return this.deltaTime;
+    }
+
+    /**
+     * Set the length of the physics substeps.
+     *
+     * @param deltaTime The time step. Unit: second.
+     */
+    public void setDeltaTime(double deltaTime) {
+        this.deltaTime = deltaTime;
     }
 
     public World getWorld() {
         return this.world;
     }
 
+    /**
+     * Get the collision cache of the world that the rigid body is in. Collision checks
+     * should use the cache instead of reading blocks from the world.
+     *
+     * @return The collision cache.
+     */
+    public CollisionCache getCollisionCache() {
+        return this.collisionCache;
+    }
+
+    // The getters return a view of the state in the store. The view is updated each
+    // time the getter is called, and modifying it does not modify the state. Use the
+    // setters to modify the state.
+
     public Vector3dc getPosition() {
-        return this.position;
+        return this.store.getPosition(this.slot, this.position);
     }
 
     public Vector3d getVelocity() {
-        return this.velocity;
+        return this.store.getVelocity(this.slot, this.velocity);
     }
 
     public Quaternionfc getOrientation() {
-        if (false) {
-            this.orientation.rotateAxis(0.05f, 0, 1, 0);
-        }
-        return this.orientation;
+        return this.store.getOrientation(this.slot, this.orientation);
     }
 
     /**
@@ -152,34 +314,35 @@ public class RigidBodyComponent implements VehicleComponent {
      * @return The net force. Unit: Newton.
      */
     public Vector3d getNetForce() {
-        return this.netForce;
+        return this.store.getNetForce(this.slot, this.netForce);
     }
 
     public Vector3d getNetTorque() {
-        return this.netTorque;
+        return this.store.getNetTorque(this.slot, this.netTorque);
     }
 
     public Vector3d getAngularVelocity() {
-        return this.angularVelocity;
+        return this.store.getAngularVelocity(this.slot, this.angularVelocity);
     }
 
     public void setWorld(@NotNull World world) {
         this.world = world;
+        this.collisionCache = this.vehicleManager.getCollisionCache(world);
     }
 
     public void setPosition(Vector3dc position) {
-        this.position.set(position);
+        this.store.setPosition(this.slot, position.x(), position.y(), position.z());
     }
 
     public void setOrientation(Quaternionfc orientation) {
-        this.orientation.set(orientation);
+        this.store.setOrientation(this.slot, orientation.x(), orientation.y(), orientation.z(), orientation.w());
     }
 
     public void setVelocity(Vector3d nextVelocity) {
-        this.velocity.set(nextVelocity);
+        this.store.setVelocity(this.slot, nextVelocity.x(), nextVelocity.y(), nextVelocity.z());
     }
 
     public void setAngularVelocity(Vector3d angularVelocity) {
-        this.angularVelocity.set(angularVelocity);
+        this.store.setAngularVelocity(this.slot, angularVelocity.x(), angularVelocity.y(), angularVelocity.z());
     }
 }
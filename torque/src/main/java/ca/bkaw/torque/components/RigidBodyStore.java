@@ -0,0 +1,294 @@
+package ca.bkaw.torque.components;
+
+import ca.bkaw.torque.Torque;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import org.joml.Quaternionf;
+import org.joml.Vector3d;
+
+import java.util.Arrays;
+
+/**
+ * Stores the state of all rigid bodies in contiguous arrays, one slot per rigid
+ * body.
+ * <p>
+ * Each {@link RigidBodyComponent} is a view over its slot. Keeping the state of all
+ * rigid bodies next to each other allows the position and orientation of all rigid
+ * bodies to be integrated in one batch, see {@link #integratePending()}.
+ * <p>
+ * All vectors are in world coordinates.
+ */
+public class RigidBodyStore {
+    private static final int INITIAL_CAPACITY = 64;
+
+    // Package-private so that the kernels can access the arrays directly.
+    double[] px, py, pz; // position, unit: meter
+    double[] vx, vy, vz; // velocity, unit: meter/second
+    double[] wx, wy, wz; // angular velocity, unit: radian/second
+    double[] qx, qy, qz, qw; // orientation
+    double[] fx, fy, fz; // net force, unit: Newton
+    double[] tx, ty, tz; // net torque, unit: Newton-meter
+    /**
+     * The time to integrate the position and orientation by, or 0 if nothing is
+     * pending. Unit: second.
+     */
+    double[] pendingTime;
+    /**
+     * Incremented each time the orientation changes, so that values derived from the
+     * orientation can be cached, see {@link BodyFrame}.
+     */
+    int[] orientationVersion;
+
+    private int size = 0;
+    private final IntArrayList freeSlots = new IntArrayList();
+    private final RigidBodyKernel kernel = RigidBodyKernel.create();
+    private boolean batched = false;
+    /**
+     * Whether a slot may have a pending integration. Set by rigid bodies ticking on
+     * any thread, which only ever set it to true, and read after they have ticked.
+     */
+    private boolean hasPending = false;
+
+    public RigidBodyStore() {
+        this.resize(INITIAL_CAPACITY);
+    }
+
+    private void resize(int capacity) {
+        this.px = resize(this.px, capacity);
+        this.py = resize(this.py, capacity);
+        this.pz = resize(this.pz, capacity);
+        this.vx = resize(this.vx, capacity);
+        this.vy = resize(this.vy, capacity);
+        this.vz = resize(this.vz, capacity);
+        this.wx = resize(this.wx, capacity);
+        this.wy = resize(this.wy, capacity);
+        this.wz = resize(this.wz, capacity);
+        this.qx = resize(this.qx, capacity);
+        this.qy = resize(this.qy, capacity);
+        this.qz = resize(this.qz, capacity);
+        this.qw = resize(this.qw, capacity);
+        this.fx = resize(this.fx, capacity);
+        this.fy = resize(this.fy, capacity);
+        this.fz = resize(this.fz, capacity);
+        this.tx = resize(this.tx, capacity);
+        this.ty = resize(this.ty, capacity);
+        this.tz = resize(this.tz, capacity);
+        this.pendingTime = resize(this.pendingTime, capacity);
+        this.orientationVersion = this.orientationVersion == null
+            ? new int[capacity]
+            : Arrays.copyOf(this.orientationVersion, capacity);
+    }
+
+    private static double[] resize(double[] array, int capacity) {
+        return array == null ? new double[capacity] : Arrays.copyOf(array, capacity);
+    }
+
+    /**
+     * Allocate a slot for a rigid body. The slot starts at rest at the origin.
+     * <p>
+     * Must not be called while rigid bodies are ticking.
+     *
+     * @return The slot.
+     */
+    public int allocate() {
+        int slot;
+        if (!this.freeSlots.isEmpty()) {
+            slot = this.freeSlots.popInt();
+        } else {
+            if (this.size == this.px.length) {
+                this.resize(this.size * 2);
+            }
+            slot = this.size++;
+        }
+        this.clear(slot);
+        return slot;
+    }
+
+    /**
+     * Free a slot so that it can be reused by another rigid body.
+     *
+     * @param slot The slot.
+     */
+    public void free(int slot) {
+        // Clear the slot so that integrating it does nothing.
+        this.clear(slot);
+        this.freeSlots.add(slot);
+    }
+
+    private void clear(int slot) {
+        this.px[slot] = this.py[slot] = this.pz[slot] = 0;
+        this.vx[slot] = this.vy[slot] = this.vz[slot] = 0;
+        this.wx[slot] = this.wy[slot] = this.wz[slot] = 0;
+        this.qx[slot] = this.qy[slot] = this.qz[slot] = 0;
+        this.qw[slot] = 1;
+        this.fx[slot] = this.fy[slot] = this.fz[slot] = 0;
+        this.tx[slot] = this.ty[slot] = this.tz[slot] = 0;
+        this.pendingTime[slot] = 0;
+        this.orientationVersion[slot]++;
+    }
+
+    /**
+     * Get the number of slots that are in use, including freed slots that have not
+     * been reused yet.
+     *
+     * @return The number of slots.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Check whether the integration of the position and orientation is deferred
+     * until {@link #integratePending()} is called.
+     *
+     * @return True if integration is batched.
+     */
+    public boolean isBatched() {
+        return this.batched;
+    }
+
+    /**
+     * Set whether the integration of the position and orientation should be deferred
+     * until {@link #integratePending()} is called, instead of happening immediately
+     * when the rigid body ticks.
+     * <p>
+     * Batching integrates all rigid bodies in one pass over the arrays, but
+     * components that tick after the rigid body see the position and orientation
+     * from before the tick.
+     *
+     * @param batched Whether to batch integration.
+     */
+    public void setBatched(boolean batched) {
+        if (!batched) {
+            this.integratePending();
+        }
+        this.batched = batched;
+    }
+
+    /**
+     * Schedule the position and orientation of a slot to be integrated. If
+     * integration is not batched, the slot is integrated immediately.
+     *
+     * @param slot The slot.
+     * @param deltaTime The time to integrate by. Unit: second.
+     */
+    void scheduleIntegration(int slot, double deltaTime) {
+        this.pendingTime[slot] = deltaTime;
+        if (!this.batched) {
+            this.integrate(slot);
+        } else {
+            this.hasPending = true;
+        }
+    }
+
+    /**
+     * Integrate the slot if it has a pending integration.
+     *
+     * @param slot The slot.
+     */
+    void integrate(int slot) {
+        if (this.pendingTime[slot] != 0) {
+            this.kernel.integrate(this, slot, slot + 1);
+        }
+    }
+
+    /**
+     * Integrate the position and orientation of all slots with a pending
+     * integration. Must not be called while rigid bodies are ticking.
+     */
+    public void integratePending() {
+        if (!this.hasPending) {
+            return;
+        }
+        this.hasPending = false;
+        this.kernel.integrate(this, 0, this.size);
+    }
+
+    Vector3d getPosition(int slot, Vector3d dest) {
+        return dest.set(this.px[slot], this.py[slot], this.pz[slot]);
+    }
+
+    void setPosition(int slot, double x, double y, double z) {
+        this.px[slot] = x;
+        this.py[slot] = y;
+        this.pz[slot] = z;
+    }
+
+    Vector3d getVelocity(int slot, Vector3d dest) {
+        return dest.set(this.vx[slot], this.vy[slot], this.vz[slot]);
+    }
+
+    void setVelocity(int slot, double x, double y, double z) {
+        this.vx[slot] = x;
+        this.vy[slot] = y;
+        this.vz[slot] = z;
+    }
+
+    Vector3d getAngularVelocity(int slot, Vector3d dest) {
+        return dest.set(this.wx[slot], this.wy[slot], this.wz[slot]);
+    }
+
+    void setAngularVelocity(int slot, double x, double y, double z) {
+        this.wx[slot] = x;
+        this.wy[slot] = y;
+        this.wz[slot] = z;
+    }
+
+    Quaternionf getOrientation(int slot, Quaternionf dest) {
+        return dest.set((float) this.qx[slot], (float) this.qy[slot], (float) this.qz[slot], (float) this.qw[slot]);
+    }
+
+    void setOrientation(int slot, double x, double y, double z, double w) {
+        this.qx[slot] = x;
+        this.qy[slot] = y;
+        this.qz[slot] = z;
+        this.qw[slot] = w;
+        this.orientationVersion[slot]++;
+    }
+
+    Vector3d getNetForce(int slot, Vector3d dest) {
+        return dest.set(this.fx[slot], this.fy[slot], this.fz[slot]);
+    }
+
+    Vector3d getNetTorque(int slot, Vector3d dest) {
+        return dest.set(this.tx[slot], this.ty[slot], this.tz[slot]);
+    }
+
+    /**
+     * A kernel that integrates the position and orientation of a range of slots.
+     */
+    interface RigidBodyKernel {
+        /**
+         * Integrate the slots that have a pending integration time, and clear the
+         * pending time.
+         * <p>
+         * The position is moved by the velocity, the orientation is rotated by the
+         * angular velocity, and small angular velocities are clamped to zero. The
+         * orientation version of each slot that rotates is incremented.
+         *
+         * @param store The store.
+         * @param from The first slot, inclusive.
+         * @param to The last slot, exclusive.
+         */
+        void integrate(RigidBodyStore store, int from, int to);
+
+        /**
+         * Create the fastest kernel available. The Vector API kernel is used if the
+         * {@code jdk.incubator.vector} module was added to the JVM, otherwise the
+         * scalar kernel is used.
+         *
+         * @return The kernel.
+         */
+        static RigidBodyKernel create() {
+            if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+                try {
+                    return (RigidBodyKernel) Class.forName("ca.bkaw.torque.components.VectorRigidBodyKernel")
+                        .getDeclaredConstructor()
+                        .newInstance();
+                } catch (ReflectiveOperationException | LinkageError e) {
+                    Torque.LOGGER.warning("Failed to load the Vector API rigid body kernel, using the scalar kernel. " + e);
+                }
+            }
+            return new ScalarRigidBodyKernel();
+        }
+    }
+}
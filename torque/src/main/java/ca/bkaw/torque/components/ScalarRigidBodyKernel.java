@@ -0,0 +1,67 @@
+package ca.bkaw.torque.components;
+
+/**
+ * Integrates rigid bodies one slot at a time.
+ */
+class ScalarRigidBodyKernel implements RigidBodyStore.RigidBodyKernel {
+    /**
+     * Rotations smaller than this are skipped, unit: radian.
+     */
+    static final double MIN_ANGLE = 1e-6;
+    /**
+     * Angular velocities with a squared length below this are clamped to zero to
+     * prevent jitter, unit: (radian/second)^2.
+     */
+    static final double MIN_ANGULAR_VELOCITY_SQUARED = 1e-2;
+
+    @Override
+    public void integrate(RigidBodyStore store, int from, int to) {
+        double[] px = store.px, py = store.py, pz = store.pz;
+        double[] vx = store.vx, vy = store.vy, vz = store.vz;
+        double[] wx = store.wx, wy = store.wy, wz = store.wz;
+        double[] qx = store.qx, qy = store.qy, qz = store.qz, qw = store.qw;
+        double[] pendingTime = store.pendingTime;
+        int[] orientationVersion = store.orientationVersion;
+
+        for (int i = from; i < to; i++) {
+            double dt = pendingTime[i];
+            if (dt == 0) {
+                continue;
+            }
+            pendingTime[i] = 0;
+
+            // Apply linear motion.
+            px[i] += vx[i] * dt;
+            py[i] += vy[i] * dt;
+            pz[i] += vz[i] * dt;
+
+            // Rotate the orientation by the angular velocity.
+            double angularSpeedSquared = wx[i] * wx[i] + wy[i] * wy[i] + wz[i] * wz[i];
+            double angularSpeed = Math.sqrt(angularSpeedSquared);
+            double angle = angularSpeed * dt; // unit: radians
+            if (angle > MIN_ANGLE) {
+                double s = Math.sin(angle * 0.5) / angularSpeed;
+                double dx = wx[i] * s, dy = wy[i] * s, dz = wz[i] * s;
+                double dw = Math.cos(angle * 0.5);
+                double x = qx[i], y = qy[i], z = qz[i], w = qw[i];
+                double nx = w * dx + x * dw + y * dz - z * dy;
+                double ny = w * dy - x * dz + y * dw + z * dx;
+                double nz = w * dz + x * dy - y * dx + z * dw;
+                double nw = w * dw - x * dx - y * dy - z * dz;
+                double invLength = 1 / Math.sqrt(nx * nx + ny * ny + nz * nz + nw * nw);
+                qx[i] = nx * invLength;
+                qy[i] = ny * invLength;
+                qz[i] = nz * invLength;
+                qw[i] = nw * invLength;
+                orientationVersion[i]++;
+            }
+
+            // Dampen angular velocity to prevent jitter.
+            if (angularSpeedSquared < MIN_ANGULAR_VELOCITY_SQUARED) {
+                wx[i] = 0;
+                wy[i] = 0;
+                wz[i] = 0;
+            }
+        }
+    }
+}
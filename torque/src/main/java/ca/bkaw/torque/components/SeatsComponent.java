@@ -25,13 +25,26 @@ import java.util.Map;
  * The component that keeps track of the passengers in the vehicle.
  */
 public class SeatsComponent implements VehicleComponent {
-    public static final VehicleComponentType TYPE = VehicleComponentType.create(
+    public static final VehicleComponentType<SeatsComponent> TYPE = VehicleComponentType.create(
         new Identifier("torque", "seats"),
+        SeatsComponent.class,
         SeatsComponent::new
     );
 
     private final @NotNull Vehicle vehicle;
+    /**
+     * The seats of the vehicle. Used to loop over the passengers while ticking,
+     * since iterating the map allocates.
+     */
+    private final List<SeatTags.Seat> seats;
     private final Map<SeatTags.Seat, PassengerData> passengerData = new HashMap<>();
+    /**
+     * Whether the driver input comes from a replay instead of the passengers, see
+     * {@link #setReplayInput(Input)}.
+     */
+    private boolean replaying = false;
+    private @Nullable Input replayInput;
+    private @Nullable Input nextReplayInput;
 
     public record PassengerData(Player passenger, long enteredAt, Input input) {
         public PassengerData(Player passenger) {
@@ -50,10 +63,11 @@ public class SeatsComponent implements VehicleComponent {
 
     public SeatsComponent(@NotNull Vehicle vehicle, DataInput data) {
         this.vehicle = vehicle;
+        this.seats = vehicle.getType().model().getTagData(SeatTags.class).orElse(List.of());
     }
 
     @Override
-    public @NotNull VehicleComponentType getType() {
+    public @NotNull VehicleComponentType<SeatsComponent> getType() {
         return TYPE;
     }
 
@@ -65,17 +79,26 @@ public class SeatsComponent implements VehicleComponent {
 
     @Override
     public void tick(Vehicle vehicle) {
-        var iter = this.passengerData.entrySet().iterator();
-        while (iter.hasNext()) {
-            var entry = iter.next();
-            PassengerData passengerData = entry.getValue();
+        if (this.replaying) {
+            // Switch input at the same point as passenger input is updated below.
+            this.replayInput = this.nextReplayInput;
+        }
+        if (this.passengerData.isEmpty()) {
+            return;
+        }
+        for (int i = 0; i < this.seats.size(); i++) {
+            SeatTags.Seat seat = this.seats.get(i);
+            PassengerData passengerData = this.passengerData.get(seat);
+            if (passengerData == null) {
+                continue;
+            }
             // Update input for the passenger
             passengerData.passenger.getInput(passengerData.input);
 
             if (passengerData.input.shift) {
                 // If the passenger is holding shift, exit the seat
                 passengerData.exitSeat();
-                iter.remove();
+                this.passengerData.remove(seat);
                 VehicleManager vehicleManager = vehicle.getTorque().getVehicleManager();
                 vehicleManager.setCurrentVehicle(passengerData.passenger, null);
             }
@@ -141,8 +164,7 @@ public class SeatsComponent implements VehicleComponent {
         Vector3f vehiclePosition = new Vector3f(rbc.getPosition());
         Quaternionfc vehicleOrientation = rbc.getOrientation();
 
-        List<SeatTags.Seat> seats = this.vehicle.getType().model().getTagData(SeatTags.class).orElse(List.of());
-        for (SeatTags.Seat seat : seats) {
+        for (SeatTags.Seat seat : this.seats) {
             if (this.getPassenger(seat) != null) {
                 continue; // Seat is already occupied
             }
@@ -184,6 +206,10 @@ public class SeatsComponent implements VehicleComponent {
         if (passenger != null) {
             this.passengerData.put(seat, new PassengerData(passenger));
             vehicleManager.setCurrentVehicle(passenger, this.vehicle);
+            RigidBodyComponent rbc = this.vehicle.get(RigidBodyComponent.TYPE);
+            if (rbc != null) {
+                rbc.wake();
+            }
             VehicleRenderer vehicleRenderer = vehicleManager.getRenderer(this.vehicle);
             if (vehicleRenderer != null) {
                 vehicleRenderer.passengerChanged(seat, passenger);
@@ -221,13 +247,22 @@ public class SeatsComponent implements VehicleComponent {
      */
     @Nullable
     public Input getDriverInput() {
+        if (this.replaying) {
+            return this.replayInput;
+        }
+        if (this.passengerData.isEmpty()) {
+            return null;
+        }
         Input input = null;
-        for (var entry : this.passengerData.entrySet()) {
-            SeatTags.Seat seat = entry.getKey();
-            PassengerData passengerData = entry.getValue();
+        for (int i = 0; i < this.seats.size(); i++) {
+            SeatTags.Seat seat = this.seats.get(i);
             if (!seat.driver()) {
                 continue;
             }
+            PassengerData passengerData = this.passengerData.get(seat);
+            if (passengerData == null) {
+                continue;
+            }
             if (input == null) {
                 input = passengerData.input();
             } else {
@@ -237,4 +272,24 @@ public class SeatsComponent implements VehicleComponent {
         }
         return input;
     }
+
+    /**
+     * Replace the driver input with recorded input. The input is used from the next
+     * time this component ticks, like when the input of a passenger is updated.
+     * <p>
+     * Once called, the input of passengers is no longer used as driver input.
+     *
+     * @param input The recorded input, or null if there is no driver.
+     * @see ca.bkaw.torque.vehicle.VehicleReplay
+     */
+    public void setReplayInput(@Nullable Input input) {
+        this.replaying = true;
+        if (input == null) {
+            this.nextReplayInput = null;
+            return;
+        }
+        Input copy = new Input();
+        copy.set(input);
+        this.nextReplayInput = copy;
+    }
 }
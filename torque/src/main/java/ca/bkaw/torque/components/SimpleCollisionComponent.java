@@ -1,31 +1,53 @@
 package ca.bkaw.torque.components;
 
+import ca.bkaw.torque.model.CollisionShape;
 import ca.bkaw.torque.platform.DataInput;
 import ca.bkaw.torque.platform.DataOutput;
 import ca.bkaw.torque.platform.Identifier;
 import ca.bkaw.torque.platform.World;
 import ca.bkaw.torque.util.Debug;
 import ca.bkaw.torque.util.OBB;
+import ca.bkaw.torque.vehicle.CollisionCache;
 import ca.bkaw.torque.vehicle.Vehicle;
 import ca.bkaw.torque.vehicle.VehicleComponent;
 import ca.bkaw.torque.vehicle.VehicleComponentType;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
-import org.joml.Quaterniond;
 import org.joml.RoundingMode;
 import org.joml.Vector3d;
 import org.joml.Vector3dc;
 import org.joml.Vector3i;
 
 public class SimpleCollisionComponent implements VehicleComponent {
-    public static final VehicleComponentType TYPE = VehicleComponentType.create(
-        new Identifier("torque", "simple_collision"),
-        SimpleCollisionComponent::new
-    );
+    public static final VehicleComponentType<SimpleCollisionComponent> TYPE = VehicleComponentType.builder(
+        new Identifier("torque", "simple_collision")
+    ).threadSafe().create(SimpleCollisionComponent.class, SimpleCollisionComponent::new);
+    /**
+     * The distance a vehicle must move during a step for continuous collision
+     * detection to be used, unit: meter. Below this distance, the blocks checked
+     * ahead of the vehicle are close enough together that no block is skipped.
+     */
+    private static final double CONTINUOUS_DISTANCE = 0.5;
+    /**
+     * The height of blocks that the vehicle can step up onto, unit: meter.
+     */
+    private static final double STEP_HEIGHT = 1;
 
-    private OBB obb;
+    private final CollisionShape shape;
+    private final OBB obb = new OBB();
     private @Nullable Vector3i highestCollisionBlock;
 
+    // Scratch objects, reused each tick to avoid allocating.
+    private final Vector3i highestCollisionBlockPos = new Vector3i();
+    private final Vector3d center = new Vector3d();
+    private final Vector3d halfSize = new Vector3d();
+    private final Vector3d backward = new Vector3d();
+    private final Vector3d checkPosition = new Vector3d();
+    private final Vector3d velocity = new Vector3d();
+    private final Vector3d extent = new Vector3d();
+    private final Vector3d hitNormal = new Vector3d();
+    private final Vector3d temp = new Vector3d();
+
     /**
      * Whether the vehicle has ground contact.
      * <p>
@@ -38,10 +60,12 @@ public class SimpleCollisionComponent implements VehicleComponent {
      */
     private boolean isColliding = false;
 
-    public SimpleCollisionComponent(Vehicle vehicle, DataInput dataInput) {}
+    public SimpleCollisionComponent(Vehicle vehicle, DataInput dataInput) {
+        this.shape = vehicle.getType().model().getCollisionShape();
+    }
 
     @Override
-    public @NotNull VehicleComponentType getType() {
+    public @NotNull VehicleComponentType<SimpleCollisionComponent> getType() {
         return TYPE;
     }
 
@@ -52,138 +76,170 @@ public class SimpleCollisionComponent implements VehicleComponent {
     public void tick(Vehicle vehicle) {}
 
     public void run(Vehicle vehicle) {
-        vehicle.getComponent(RigidBodyComponent.class).ifPresent(rbc -> {
-            this.obb = new OBB(
-                new Vector3d(rbc.getPosition()).add(new Vector3d(0, 0.8, 0).rotate(new Quaterniond(rbc.getOrientation()))),
-                new Vector3d(1, 0.8, 2.25),
-                rbc.getOrientation()
+        RigidBodyComponent rbc = vehicle.get(RigidBodyComponent.TYPE);
+        if (rbc == null) {
+            return;
+        }
+        // Only the root of the collision shape, which covers the whole vehicle, is used.
+        // c_world = R c_local + p
+        this.obb.set(
+            rbc.getOrientation().transform(this.shape.getCenter(0, this.center)).add(rbc.getPosition()),
+            this.shape.getHalfSize(0, this.halfSize),
+            rbc.getOrientation()
+        );
+        World world = rbc.getWorld();
+        CollisionCache collisionCache = rbc.getCollisionCache();
+        // Debug.visualizeObb(world, this.obb, "glass");
+
+        Vector3dc center = this.obb.getCenter();
+        Vector3d velocity = this.velocity.set(rbc.getVelocity());
+
+        // Local axes
+        BodyFrame frame = rbc.getFrame();
+        Vector3dc right = frame.getRight();
+        Vector3dc up = frame.getUp();
+        Vector3d backward = this.backward.set(frame.getForward()).negate();
+
+        this.highestCollisionBlock = null;
+
+        this.onGround = false;
+        this.isColliding = false;
+
+        // Fast vehicles may move past thin walls between the checks below, so sweep
+        // the box along the velocity and stop the vehicle at the first block it hits.
+        double deltaTime = rbc.getDeltaTime();
+        if (velocity.lengthSquared() * deltaTime * deltaTime > CONTINUOUS_DISTANCE * CONTINUOUS_DISTANCE) {
+            Vector3d extent = this.obb.getExtent(this.extent);
+            double timeOfImpact = collisionCache.sweep(
+                center.x() - extent.x, center.y() - extent.y, center.z() - extent.z,
+                center.x() + extent.x, center.y() + extent.y, center.z() + extent.z,
+                velocity.x * deltaTime, velocity.y * deltaTime, velocity.z * deltaTime,
+                STEP_HEIGHT, this.hitNormal
             );
-            World world = rbc.getWorld();
-            // Debug.visualizeObb(world, this.obb, "glass");
-
-            Vector3dc center = this.obb.getCenter();
-            Vector3d velocity = rbc.getVelocity();
-
-            // Local axes
-            Quaterniond orientation = new Quaterniond(rbc.getOrientation());
-            Vector3d right = new Vector3d(1, 0, 0).rotate(orientation);
-            Vector3d up = new Vector3d(0, 1, 0).rotate(orientation);
-            Vector3d backward = new Vector3d(0, 0, 1).rotate(orientation);
-
-            // Project velocity onto local axes
-            double velRight = velocity.dot(right);
-            double velUp = velocity.dot(up);
-            double velBackward = velocity.dot(backward);
-
-            // Variables needed for stepping
-            double originalVelRight = velRight;
-            double originalVelBackward = velBackward;
-            this.highestCollisionBlock = null;
-
-            this.onGround = false;
-            this.isColliding = false;
-
-            // Variables needed for collision checks
-            Vector3dc halfSize = this.obb.getHalfSize();
-            Vector3d checkPosition = new Vector3d();
-
-            // As an optimization, offsetUp loops backwards so that the highest up value is checked first.
-            // That way, the highestCollisionBlock is set to the highest block that collides first,
-            // and we can skip further checks since we know a collision will occur. Note that this only
-            // works if the vehicle is upright (the up vector is roughly aligned with the world up vector).
-            // This is the case most of the time, so assume it is true. If not true, the vehicle may step
-            // incorrectly sometimes.
-
-            // right/left collision
-            if (Math.abs(velRight) > 1e-6) {
-                double offsetRight = velRight * RigidBodyComponent.DELTA_TIME + (velRight > 0 ? halfSize.x() : -halfSize.x());
-
-                rightLoop:
-                for (double offsetUp = halfSize.y(); offsetUp >= -halfSize.y(); offsetUp -= 1) {
-                    checkPosition.set(center)
-                        .fma(offsetRight, right) // + offsetRight * right
-                        .fma(offsetUp, up) // + offsetUp * up
-                        .fma(-halfSize.z(), backward); // Start at the right position
-                    for (double offsetBackward = -halfSize.z(); offsetBackward <= halfSize.z(); offsetBackward += 1) {
-                        if (this.doCollisionBlockCheck(world, checkPosition)) {
-                            velRight = 0;
-                            this.isColliding = true;
-                            break rightLoop;
-                        }
-                        checkPosition.add(backward); // checkPosition += backward
+            if (timeOfImpact < 1) {
+                // Only move as far as the block along the normal.
+                double normalVelocity = velocity.dot(this.hitNormal);
+                velocity.fma(-normalVelocity * (1 - timeOfImpact), this.hitNormal);
+                this.isColliding = true;
+            }
+        }
+
+        // Project velocity onto local axes
+        double velRight = velocity.dot(right);
+        double velUp = velocity.dot(up);
+        double velBackward = velocity.dot(backward);
+
+        // Variables needed for stepping
+        double originalVelRight = velRight;
+        double originalVelBackward = velBackward;
+
+        // Variables needed for collision checks
+        Vector3dc halfSize = this.obb.getHalfSize();
+        Vector3d checkPosition = this.checkPosition;
+
+        // As an optimization, offsetUp loops backwards so that the highest up value is checked first.
+        // That way, the highestCollisionBlock is set to the highest block that collides first,
+        // and we can skip further checks since we know a collision will occur. Note that this only
+        // works if the vehicle is upright (the up vector is roughly aligned with the world up vector).
+        // This is the case most of the time, so assume it is true. If not true, the vehicle may step
+        // incorrectly sometimes.
+
+        // right/left collision
+        if (Math.abs(velRight) > 1e-6) {
+            double offsetRight = velRight * rbc.getDeltaTime() + (velRight > 0 ? halfSize.x() : -halfSize.x());
+
+            rightLoop:
+            for (double offsetUp = halfSize.y(); offsetUp >= -halfSize.y(); offsetUp -= 1) {
+                checkPosition.set(center)
+                    .fma(offsetRight, right) // + offsetRight * right
+                    .fma(offsetUp, up) // + offsetUp * up
+                    .fma(-halfSize.z(), backward); // Start at the right position
+                for (double offsetBackward = -halfSize.z(); offsetBackward <= halfSize.z(); offsetBackward += 1) {
+                    if (this.doCollisionBlockCheck(collisionCache, world, checkPosition)) {
+                        velRight = 0;
+                        this.isColliding = true;
+                        break rightLoop;
                     }
+                    checkPosition.add(backward); // checkPosition += backward
                 }
             }
+        }
 
-            // up/down collision
-            if (Math.abs(velUp) > 1e-6) {
-                double offsetUp = velUp * RigidBodyComponent.DELTA_TIME + (velUp > 0 ? halfSize.y() : -halfSize.y());
+        // up/down collision
+        // While the suspension of the wheels carries the vehicle, the wheels check
+        // the ground instead.
+        WheelComponent wheels = vehicle.get(WheelComponent.TYPE);
+        boolean suspended = wheels != null && wheels.hasSuspension() && wheels.isGrounded();
+        if (suspended) {
+            this.onGround = true;
+        }
+        if (Math.abs(velUp) > 1e-6 && !(suspended && velUp < 0)) {
+            double offsetUp = velUp * rbc.getDeltaTime() + (velUp > 0 ? halfSize.y() : -halfSize.y());
 
-                for (double offsetRight = -halfSize.x(); offsetRight <= halfSize.x(); offsetRight += 1) {
-                    checkPosition.set(center)
-                        .fma(offsetUp, up) // + offsetUp * up
-                        .fma(offsetRight, right) // + offsetRight * right
-                        .fma(-halfSize.z(), backward); // Start at the right position
-                    for (double offsetBackward = -halfSize.z(); offsetBackward <= halfSize.z(); offsetBackward += 1) {
-                        if (this.doCollisionBlockCheck(world, checkPosition)) {
-                            if (velUp < 0) {
-                                // If the vehicle is moving dow into the ground.
-                                this.onGround = true;
-                            }
-                            velUp = 0;
-                            this.isColliding = true;
-                            break;
+            for (double offsetRight = -halfSize.x(); offsetRight <= halfSize.x(); offsetRight += 1) {
+                checkPosition.set(center)
+                    .fma(offsetUp, up) // + offsetUp * up
+                    .fma(offsetRight, right) // + offsetRight * right
+                    .fma(-halfSize.z(), backward); // Start at the right position
+                for (double offsetBackward = -halfSize.z(); offsetBackward <= halfSize.z(); offsetBackward += 1) {
+                    if (this.doCollisionBlockCheck(collisionCache, world, checkPosition)) {
+                        if (velUp < 0) {
+                            // If the vehicle is moving dow into the ground.
+                            this.onGround = true;
                         }
-                        checkPosition.add(backward); // checkPosition += * backward
+                        velUp = 0;
+                        this.isColliding = true;
+                        break;
                     }
+                    checkPosition.add(backward); // checkPosition += * backward
                 }
             }
+        }
 
-            // forward/backward collision
-            if (Math.abs(velBackward) > 1e-6) {
-                double offsetBackward = velBackward * RigidBodyComponent.DELTA_TIME + (velBackward > 0 ? halfSize.z() : -halfSize.z());
-
-                backwardLoop:
-                for (double offsetUp = halfSize.y(); offsetUp >= -halfSize.y(); offsetUp -= 1) {
-                    checkPosition.set(center)
-                        .fma(offsetBackward, backward) // + offsetBackward * backward
-                        .fma(offsetUp, up) // + offsetUp * up
-                        .fma(-halfSize.x(), right); // Start at the right position
-                    for (double offsetRight = -halfSize.x(); offsetRight <= halfSize.x(); offsetRight += 1) {
-                        if (this.doCollisionBlockCheck(world, checkPosition)) {
-                            velBackward = 0;
-                            this.isColliding = true;
-                            break backwardLoop;
-                        }
-                        checkPosition.add(right); // checkPosition += * right
+        // forward/backward collision
+        if (Math.abs(velBackward) > 1e-6) {
+            double offsetBackward = velBackward * rbc.getDeltaTime() + (velBackward > 0 ? halfSize.z() : -halfSize.z());
+
+            backwardLoop:
+            for (double offsetUp = halfSize.y(); offsetUp >= -halfSize.y(); offsetUp -= 1) {
+                checkPosition.set(center)
+                    .fma(offsetBackward, backward) // + offsetBackward * backward
+                    .fma(offsetUp, up) // + offsetUp * up
+                    .fma(-halfSize.x(), right); // Start at the right position
+                for (double offsetRight = -halfSize.x(); offsetRight <= halfSize.x(); offsetRight += 1) {
+                    if (this.doCollisionBlockCheck(collisionCache, world, checkPosition)) {
+                        velBackward = 0;
+                        this.isColliding = true;
+                        break backwardLoop;
                     }
+                    checkPosition.add(right); // checkPosition += * right
                 }
             }
+        }
 
-            // Stepping
-            int currentY = (int) Math.floor(new Vector3d(center).fma(-halfSize.y(), up).y() + 0);
-            // Debug.highlightFullBlock(world, new Vector3i((int) Math.floor(center.x()), currentY, (int) Math.floor(center.z())), "yellow_wool");
-            if (this.highestCollisionBlock != null && this.highestCollisionBlock.y() == currentY) {
-                // If the highest collision block is at the same height as the vehicle, we can step up
-                rbc.setPosition(new Vector3d(rbc.getPosition()).add(up)); // Not the spirit :(
-                velRight = originalVelRight;
-                velBackward = originalVelBackward;
-            }
+        // Stepping
+        int currentY = (int) Math.floor(center.y() - halfSize.y() * up.y());
+        // Debug.highlightFullBlock(world, new Vector3i((int) Math.floor(center.x()), currentY, (int) Math.floor(center.z())), "yellow_wool");
+        if (this.highestCollisionBlock != null && this.highestCollisionBlock.y() == currentY) {
+            // If the highest collision block is at the same height as the vehicle, we can step up
+            rbc.setPosition(this.temp.set(rbc.getPosition()).add(up)); // Not the spirit :(
+            velRight = originalVelRight;
+            velBackward = originalVelBackward;
+        }
 
-            rbc.setVelocity(new Vector3d()
-                .fma(velRight, right)
-                .fma(velUp, up)
-                .fma(velBackward, backward));
-        });
+        rbc.setVelocity(this.temp.zero()
+            .fma(velRight, right)
+            .fma(velUp, up)
+            .fma(velBackward, backward));
     }
 
     private final Vector3i blockPos = new Vector3i(); // Performance optimization to avoid creating a new object each time
 
-    private boolean doCollisionBlockCheck(World world, Vector3d position) {
+    private boolean doCollisionBlockCheck(CollisionCache collisionCache, World world, Vector3d position) {
         blockPos.set(position, RoundingMode.FLOOR);
-        if (world.getBlock(blockPos).isCollidable(world, blockPos)) {
+        if (collisionCache.isCollidable(blockPos.x, blockPos.y, blockPos.z)) {
             if (this.highestCollisionBlock == null || blockPos.y > this.highestCollisionBlock.y) {
-                this.highestCollisionBlock = new Vector3i(blockPos);
+                this.highestCollisionBlock = this.highestCollisionBlockPos.set(blockPos);
             }
             Debug.highlightFullBlock(world, blockPos, "red_wool");
             return true;
@@ -13,10 +13,9 @@ import org.jetbrains.annotations.Nullable;
 import org.joml.Quaternionf;
 
 public class SteeringWheelComponent implements VehicleComponent, PartTransformationProvider {
-    public static final VehicleComponentType TYPE = VehicleComponentType.create(
-        new Identifier("torque", "steering_wheel"),
-        SteeringWheelComponent::new
-    );
+    public static final VehicleComponentType<SteeringWheelComponent> TYPE = VehicleComponentType.builder(
+        new Identifier("torque", "steering_wheel")
+    ).threadSafe().create(SteeringWheelComponent.class, SteeringWheelComponent::new);
 
     private float angle; // unit: radians
 
@@ -25,7 +24,7 @@ public class SteeringWheelComponent implements VehicleComponent, PartTransformat
     }
 
     @Override
-    public @NotNull VehicleComponentType getType() {
+    public @NotNull VehicleComponentType<SteeringWheelComponent> getType() {
         return TYPE;
     }
 
@@ -36,9 +35,8 @@ public class SteeringWheelComponent implements VehicleComponent, PartTransformat
 
     @Override
     public void tick(Vehicle vehicle) {
-        Input driverInput = vehicle.getComponent(SeatsComponent.class)
-            .map(SeatsComponent::getDriverInput)
-            .orElse(null);
+        SeatsComponent seats = vehicle.get(SeatsComponent.TYPE);
+        Input driverInput = seats != null ? seats.getDriverInput() : null;
 
         this.angle *= 0.95f;
 
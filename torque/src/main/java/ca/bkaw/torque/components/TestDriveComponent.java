@@ -8,16 +8,14 @@ import ca.bkaw.torque.vehicle.Vehicle;
 import ca.bkaw.torque.vehicle.VehicleComponent;
 import ca.bkaw.torque.vehicle.VehicleComponentType;
 import org.jetbrains.annotations.NotNull;
-import org.joml.Quaterniond;
 import org.joml.Quaternionf;
 import org.joml.Vector3d;
 import org.joml.Vector3dc;
 
 public class TestDriveComponent implements VehicleComponent {
-    public static final VehicleComponentType TYPE = VehicleComponentType.create(
-        new Identifier("torque", "test_drive"),
-        TestDriveComponent::new
-    );
+    public static final VehicleComponentType<TestDriveComponent> TYPE = VehicleComponentType.builder(
+        new Identifier("torque", "test_drive")
+    ).physics().create(TestDriveComponent.class, TestDriveComponent::new);
 
     private final Vehicle vehicle;
 
@@ -26,7 +24,7 @@ public class TestDriveComponent implements VehicleComponent {
     }
 
     @Override
-    public @NotNull VehicleComponentType getType() {
+    public @NotNull VehicleComponentType<TestDriveComponent> getType() {
         return TYPE;
     }
 
@@ -37,58 +35,59 @@ public class TestDriveComponent implements VehicleComponent {
 
     @Override
     public void tick(Vehicle vehicle) {
-        Input driverInput = this.vehicle.getComponent(SeatsComponent.class)
-            .map(SeatsComponent::getDriverInput)
-            .orElse(null);
+        SeatsComponent seats = this.vehicle.get(SeatsComponent.TYPE);
+        Input driverInput = seats != null ? seats.getDriverInput() : null;
 
         if (driverInput == null) {
             return;
         }
 
-        this.vehicle.getComponent(RigidBodyComponent.class).ifPresent(rbc -> {
-            Vector3dc position = rbc.getPosition();
-            double magnitude = 10_000; // unit: Newton
-            if (driverInput.sprint) {
-                magnitude *= 10;
-            }
-            if (driverInput.forward && false) {
-                rbc.addForce(new Vector3d(0, 0, -magnitude).rotate(new Quaterniond(rbc.getOrientation())), position);
-            }
-            if (driverInput.backward && false) {
-                rbc.addForce(new Vector3d(0, 0, magnitude).rotate(new Quaterniond(rbc.getOrientation())), position);
+        RigidBodyComponent rbc = this.vehicle.get(RigidBodyComponent.TYPE);
+        if (rbc == null) {
+            return;
+        }
+        Vector3dc position = rbc.getPosition();
+        double magnitude = 10_000; // unit: Newton
+        if (driverInput.sprint) {
+            magnitude *= 10;
+        }
+        if (driverInput.forward && false) {
+            rbc.addForce(new Vector3d(0, 0, -magnitude).rotate(rbc.getFrame().getOrientation()), position);
+        }
+        if (driverInput.backward && false) {
+            rbc.addForce(new Vector3d(0, 0, magnitude).rotate(rbc.getFrame().getOrientation()), position);
+        }
+        if (false) {
+            if (driverInput.right) {
+                rbc.addForce(new Vector3d(magnitude, 0, 0).rotate(rbc.getFrame().getOrientation()), position);
             }
-            if (false) {
-                if (driverInput.right) {
-                    rbc.addForce(new Vector3d(magnitude, 0, 0).rotate(new Quaterniond(rbc.getOrientation())), position);
-                }
-                if (driverInput.left) {
-                    rbc.addForce(new Vector3d(-magnitude, 0, 0).rotate(new Quaterniond(rbc.getOrientation())), position);
-                }
-                return;
+            if (driverInput.left) {
+                rbc.addForce(new Vector3d(-magnitude, 0, 0).rotate(rbc.getFrame().getOrientation()), position);
             }
+            return;
+        }
 
-            // Steering by applying lateral forces at front and rear
-            double steerForce = 5_000; // Adjust for steering sensitivity
-            double steerOffset = 2.0;  // Distance from center of mass
+        // Steering by applying lateral forces at front and rear
+        double steerForce = 5_000; // Adjust for steering sensitivity
+        double steerOffset = 2.0;  // Distance from center of mass
 
-            if (driverInput.left && false) {
-                // Rightward force at front, leftward at rear
-                Vector3d front = new Vector3d(0, 0, steerOffset).rotate(new Quaterniond(rbc.getOrientation())).add(position, new Vector3d());
-                Vector3d rear = new Vector3d(0, 0, -steerOffset).rotate(new Quaterniond(rbc.getOrientation())).add(position, new Vector3d());
-                Vector3d right = new Vector3d(1, 0, 0).rotate(new Quaterniond(rbc.getOrientation()));
-                Vector3d left = new Vector3d(-1, 0, 0).rotate(new Quaterniond(rbc.getOrientation()));
-                rbc.addForce(right.mul(steerForce, new Vector3d()), front);
-                rbc.addForce(left.mul(steerForce, new Vector3d()), rear);
-            }
-            if (driverInput.right && false) {
-                // Leftward force at front, rightward at rear
-                Vector3d front = new Vector3d(0, 0, steerOffset).rotate(new Quaterniond(rbc.getOrientation())).add(position, new Vector3d());
-                Vector3d rear = new Vector3d(0, 0, -steerOffset).rotate(new Quaterniond(rbc.getOrientation())).add(position, new Vector3d());
-                Vector3d right = new Vector3d(1, 0, 0).rotate(new Quaterniond(rbc.getOrientation()));
-                Vector3d left = new Vector3d(-1, 0, 0).rotate(new Quaterniond(rbc.getOrientation()));
-                rbc.addForce(left.mul(steerForce, new Vector3d()), front);
-                rbc.addForce(right.mul(steerForce, new Vector3d()), rear);
-            }
-        });
+        if (driverInput.left && false) {
+            // Rightward force at front, leftward at rear
+            Vector3d front = new Vector3d(0, 0, steerOffset).rotate(rbc.getFrame().getOrientation()).add(position, new Vector3d());
+            Vector3d rear = new Vector3d(0, 0, -steerOffset).rotate(rbc.getFrame().getOrientation()).add(position, new Vector3d());
+            Vector3d right = new Vector3d(1, 0, 0).rotate(rbc.getFrame().getOrientation());
+            Vector3d left = new Vector3d(-1, 0, 0).rotate(rbc.getFrame().getOrientation());
+            rbc.addForce(right.mul(steerForce, new Vector3d()), front);
+            rbc.addForce(left.mul(steerForce, new Vector3d()), rear);
+        }
+        if (driverInput.right && false) {
+            // Leftward force at front, rightward at rear
+            Vector3d front = new Vector3d(0, 0, steerOffset).rotate(rbc.getFrame().getOrientation()).add(position, new Vector3d());
+            Vector3d rear = new Vector3d(0, 0, -steerOffset).rotate(rbc.getFrame().getOrientation()).add(position, new Vector3d());
+            Vector3d right = new Vector3d(1, 0, 0).rotate(rbc.getFrame().getOrientation());
+            Vector3d left = new Vector3d(-1, 0, 0).rotate(rbc.getFrame().getOrientation());
+            rbc.addForce(left.mul(steerForce, new Vector3d()), front);
+            rbc.addForce(right.mul(steerForce, new Vector3d()), rear);
+        }
     }
 }
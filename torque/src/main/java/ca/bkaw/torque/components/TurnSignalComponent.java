@@ -13,10 +13,9 @@ import org.joml.Quaternionf;
 import org.joml.Vector3f;
 
 public class TurnSignalComponent implements VehicleComponent, PartTransformationProvider {
-    public static final VehicleComponentType TYPE = VehicleComponentType.create(
-        new Identifier("torque", "turn_signal"),
-        TurnSignalComponent::new
-    );
+    public static final VehicleComponentType<TurnSignalComponent> TYPE = VehicleComponentType.builder(
+        new Identifier("torque", "turn_signal")
+    ).threadSafe().create(TurnSignalComponent.class, TurnSignalComponent::new);
 
     public static int YELLOW = 0xFFFF00;
 
@@ -27,7 +26,7 @@ public class TurnSignalComponent implements VehicleComponent, PartTransformation
     public TurnSignalComponent(Vehicle vehicle, DataInput dataInput) {}
 
     @Override
-    public @NotNull VehicleComponentType getType() {
+    public @NotNull VehicleComponentType<TurnSignalComponent> getType() {
         return TYPE;
     }
 
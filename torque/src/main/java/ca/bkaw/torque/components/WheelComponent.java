@@ -13,9 +13,9 @@ import ca.bkaw.torque.vehicle.VehicleComponentType;
 import com.google.gson.JsonObject;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
-import org.joml.Quaterniond;
 import org.joml.Quaterniondc;
 import org.joml.Quaternionf;
+import org.joml.Vector3f;
 import org.joml.Vector3d;
 import org.joml.Vector3dc;
 
@@ -26,20 +26,59 @@ import java.util.List;
  * Example component that controls wheel rotation based on vehicle movement.
  */
 public class WheelComponent implements VehicleComponent, PartTransformationProvider {
-    public static final VehicleComponentType TYPE = VehicleComponentType.builder(
+    public static final VehicleComponentType<WheelComponent> TYPE = VehicleComponentType.builder(
         new Identifier("torque", "wheel")
-    ).create(WheelComponent::new);
+    )
+        .configParser(WheelComponent::parseConfig)
+        .physics()
+        .create(WheelComponent.class, WheelComponent::new);
 
     /**
      * The ratio between how much the wheels turn for each degree of the steering wheel.
      */
     public static final float STEERING_WHEEL_RATIO = 1f / 10f;
 
+    /**
+     * @param suspension The suspension of the wheels, or null if the vehicle is held
+     *                   up by its collision components instead.
+     */
+    public record WheelConfig(@Nullable Suspension suspension) {}
+
+    /**
+     * A spring and damper between each wheel and the vehicle.
+     * <p>
+     * Each tick, a ray is cast down from the top of the suspension of each wheel. The
+     * spring pushes the vehicle up at the wheel when the ground is closer than the
+     * rest length, and the wheel only applies tire forces while it touches the
+     * ground.
+     *
+     * @param restLength The length of the suspension when it carries no load,
+     *                   unit: meter.
+     * @param stiffness The spring constant at each wheel, unit: Newton/meter.
+     * @param damping The damping coefficient at each wheel, unit: Newton-second/meter.
+     */
+    public record Suspension(double restLength, double stiffness, double damping) {}
+
+    private static WheelConfig parseConfig(JsonObject jsonObject) {
+        if (!jsonObject.has("suspension")) {
+            return new WheelConfig(null);
+        }
+        JsonObject suspension = jsonObject.getAsJsonObject("suspension");
+        double restLength = suspension.has("rest_length") ? suspension.get("rest_length").getAsDouble() : 0.3;
+        double stiffness = suspension.has("stiffness") ? suspension.get("stiffness").getAsDouble() : 50_000;
+        double damping = suspension.has("damping") ? suspension.get("damping").getAsDouble() : 4_000;
+        if (restLength <= 0 || stiffness <= 0 || damping < 0) {
+            throw new IllegalArgumentException("Invalid suspension config: rest_length and stiffness must be positive and damping must not be negative");
+        }
+        return new WheelConfig(new Suspension(restLength, stiffness, damping));
+    }
+
     private static final class WheelData {
         private final WheelTags.Wheel wheel;
         private float rotation; // unit: rad
         private float speed; // unit: rad/s
         private double steerAngle; // unit: rad
+        private boolean grounded;
 
         public WheelData(WheelTags.Wheel wheel, float rotation, float speed) {
             this.wheel = wheel;
@@ -52,8 +91,18 @@ public class WheelComponent implements VehicleComponent, PartTransformationProvi
     private final double wheelbase;
     private final double backAxleOffset;
     private final int numberOfDrivenWheels;
-
-    public WheelComponent(Vehicle vehicle, JsonObject config, DataInput dataInput) {
+    private final @Nullable Suspension suspension;
+
+    // Scratch objects, reused each tick to avoid allocating.
+    private final Vector3d steeredForward = new Vector3d();
+    private final Vector3d wheelRight = new Vector3d();
+    private final Vector3d worldContactPatch = new Vector3d();
+    private final Vector3d velocity = new Vector3d();
+    private final Vector3d force = new Vector3d();
+    private final Vector3d suspensionTop = new Vector3d();
+
+    public WheelComponent(Vehicle vehicle, WheelConfig config, DataInput dataInput) {
+        this.suspension = config.suspension();
         vehicle.getType().model().getTagData(WheelTags.class)
             .ifPresent(wheels -> wheels.forEach(wheel ->
                 this.wheels.add(new WheelData(wheel, 0, 0))
@@ -61,7 +110,8 @@ public class WheelComponent implements VehicleComponent, PartTransformationProvi
         double minZ = Double.MAX_VALUE;
         double maxZ = -Double.MAX_VALUE;
         int numberOfDrivenWheels = 0;
-        for (WheelData wheel : this.wheels) {
+        for (int i = 0; i < this.wheels.size(); i++) {
+            WheelData wheel = this.wheels.get(i);
             double z = wheel.wheel.contactPatch().z;
             if (z < minZ) minZ = z;
             if (z > maxZ) maxZ = z;
@@ -76,7 +126,7 @@ public class WheelComponent implements VehicleComponent, PartTransformationProvi
     }
 
     @Override
-    public @NotNull VehicleComponentType getType() {
+    public @NotNull VehicleComponentType<WheelComponent> getType() {
         return TYPE;
     }
 
@@ -85,18 +135,18 @@ public class WheelComponent implements VehicleComponent, PartTransformationProvi
 
     @Override
     public void tick(Vehicle vehicle) {
-        RigidBodyComponent rbc = vehicle.getComponent(RigidBodyComponent.class).orElse(null);
+        RigidBodyComponent rbc = vehicle.get(RigidBodyComponent.TYPE);
         if (rbc == null) {
             return;
         }
         Vector3dc vehiclePosition = rbc.getPosition();
         Vector3dc vehicleVelocity = rbc.getVelocity();
         Vector3dc vehicleAngularVelocity = rbc.getAngularVelocity();
-        Quaterniondc orientation = new Quaterniond(rbc.getOrientation());
+        BodyFrame frame = rbc.getFrame();
+        Quaterniondc orientation = frame.getOrientation();
 
-        Input driverInput = vehicle.getComponent(SeatsComponent.class)
-            .map(SeatsComponent::getDriverInput)
-            .orElse(null);
+        SeatsComponent seats = vehicle.get(SeatsComponent.TYPE);
+        Input driverInput = seats != null ? seats.getDriverInput() : null;
 
         double driveMagnitude = 0;
         if (driverInput != null) {
@@ -107,12 +157,11 @@ public class WheelComponent implements VehicleComponent, PartTransformationProvi
             }
         }
 
-        Vector3d vehicleForward = new Vector3d(0, 0, -1).rotate(orientation);
-        Vector3d vehicleUp = new Vector3d(0, 1, 0).rotate(orientation);
+        Vector3dc vehicleForward = frame.getForward();
+        Vector3dc vehicleUp = frame.getUp();
 
-        float steeringWheelAngle = vehicle.getComponent(SteeringWheelComponent.class)
-            .map(SteeringWheelComponent::getAngle)
-            .orElse(0.0f);
+        SteeringWheelComponent steeringWheel = vehicle.get(SteeringWheelComponent.TYPE);
+        float steeringWheelAngle = steeringWheel != null ? steeringWheel.getAngle() : 0.0f;
 
         // Ackermann steering geometry
         float averageSteeringAngle = steeringWheelAngle * STEERING_WHEEL_RATIO;
@@ -122,11 +171,12 @@ public class WheelComponent implements VehicleComponent, PartTransformationProvi
         } else {
             turningRadius = this.wheelbase * Math.tan(Math.PI / 2 - averageSteeringAngle);
         }
-        if (Double.isFinite(turningRadius) && Math.abs(turningRadius) < 30) {
+        if (Debug.getInstance() != null && Double.isFinite(turningRadius) && Math.abs(turningRadius) < 30) {
             Debug.highlightPositionSmall(rbc.getWorld(), new Vector3d(turningRadius, 0, this.backAxleOffset).rotate(orientation).add(vehiclePosition), "blue_wool");
         }
 
-        for (WheelData wheel : this.wheels) {
+        for (int i = 0; i < this.wheels.size(); i++) {
+            WheelData wheel = this.wheels.get(i);
             // Calculate direction vectors and the contact patch position.
             Vector3dc wheelForward = vehicleForward;
             if (wheel.wheel.steerable()) {
@@ -138,34 +188,46 @@ public class WheelComponent implements VehicleComponent, PartTransformationProvi
                 // tan(steerAngle) = delta y / delta x
                 // => steerAngle = arctan(delta y / delta x)
                 wheel.steerAngle = Math.atan((this.backAxleOffset - cp.z) / (turningRadius - cp.x));
-                wheelForward = new Vector3d(vehicleForward).rotateY(-wheel.steerAngle);
+                wheelForward = this.steeredForward.set(vehicleForward).rotateY(-wheel.steerAngle);
             }
 
-            Vector3d wheelRight = new Vector3d(vehicleUp).cross(wheelForward);
+            Vector3d wheelRight = vehicleUp.cross(wheelForward, this.wheelRight);
 
-            Vector3d worldContactPatch = new Vector3d(wheel.wheel.contactPatch())
+            Vector3d worldContactPatch = this.worldContactPatch.set(wheel.wheel.contactPatch())
                 .add(vehicle.getType().model().getPrimary().translation())
                 .rotate(orientation)
                 .add(vehiclePosition);
 
+            // Get the local velocity of the wheel, with the effect of angular velocity
+            Vector3d velocity = worldContactPatch.sub(vehiclePosition, this.velocity).cross(vehicleAngularVelocity).negate().add(vehicleVelocity);
+
+            if (this.suspension != null) {
+                this.applySuspension(rbc, wheel, worldContactPatch, velocity, vehicleUp);
+                if (!wheel.grounded) {
+                    // No tire forces without ground contact.
+                    continue;
+                }
+            }
+
             // Apply driving force from engine to driven wheels
             if (wheel.wheel.driven()) {
-                Vector3d drivingForce = new Vector3d(wheelForward).mul(driveMagnitude / this.numberOfDrivenWheels);
+                Vector3d drivingForce = this.force.set(wheelForward).mul(driveMagnitude / this.numberOfDrivenWheels);
                 rbc.addForce(drivingForce, worldContactPatch);
-                Debug.visualizeVectorAt(rbc.getWorld(), worldContactPatch, new Vector3d(drivingForce).div(1000), "red_wool");
+                if (Debug.getInstance() != null) {
+                    Debug.visualizeVectorAt(rbc.getWorld(), worldContactPatch, new Vector3d(drivingForce).div(1000), "red_wool");
+                }
             }
 
-            // Update visual wheel rotation
-            wheel.rotation += wheel.speed * (float) RigidBodyComponent.DELTA_TIME;
+            double forwardSpeed = velocity.dot(wheelForward);
+            double lateralSpeed = velocity.dot(wheelRight);
 
-            // Get the local velocity of the wheel, with the effect of angular velocity
-            Vector3d velocity = new Vector3d(vehicleAngularVelocity).cross(new Vector3d(worldContactPatch).sub(vehiclePosition)).add(vehicleVelocity);
+            // Update visual wheel rotation. The wheel rolls without slipping, so it
+            // spins at the ground speed at the contact patch divided by its radius.
+            wheel.speed = (float) (forwardSpeed / wheel.wheel.radius());
+            wheel.rotation += wheel.speed * (float) rbc.getDeltaTime();
 
             // Cornering force (lateral force)
             // Firstly, we need to calculate the slip angle.
-            double forwardSpeed = velocity.dot(wheelForward);
-            double lateralSpeed = velocity.dot(wheelRight);
-
             double slipAngle = Math.atan2(lateralSpeed, Math.abs(forwardSpeed) + 0.01);
 
             // At low velocities, limit the slip angle to avoid oscillations.
@@ -174,11 +236,74 @@ public class WheelComponent implements VehicleComponent, PartTransformationProvi
             // Simple formula with a hard-coded cornering stiffness
             double lateralForceMagnitude = -slipAngle * 15000;
 
-            Vector3d lateralForce = new Vector3d(wheelRight).mul(lateralForceMagnitude);
+            Vector3d lateralForce = this.force.set(wheelRight).mul(lateralForceMagnitude);
             rbc.addForce(lateralForce, worldContactPatch);
 
-            Debug.visualizeVectorAt(rbc.getWorld(), worldContactPatch, new Vector3d(lateralForce).div(1000), "pink_wool");
+            if (Debug.getInstance() != null) {
+                Debug.visualizeVectorAt(rbc.getWorld(), worldContactPatch, new Vector3d(lateralForce).div(1000), "pink_wool");
+            }
+        }
+    }
+
+    /**
+     * Cast a ray down from the top of the suspension of a wheel and apply the spring
+     * and damper force.
+     *
+     * @param rbc The rigid body.
+     * @param wheel The wheel.
+     * @param worldContactPatch The contact patch of the wheel in world coordinates.
+     * @param velocity The velocity of the contact patch.
+     * @param vehicleUp The up direction of the vehicle.
+     */
+    private void applySuspension(RigidBodyComponent rbc, WheelData wheel, Vector3dc worldContactPatch, Vector3dc velocity, Vector3dc vehicleUp) {
+        Suspension suspension = this.suspension;
+        // The ray starts where the contact patch is when the suspension is fully
+        // compressed, and is as long as the suspension.
+        Vector3d top = this.suspensionTop.set(worldContactPatch).fma(suspension.restLength(), vehicleUp);
+        double distance = rbc.getCollisionCache().raycast(
+            top.x, top.y, top.z,
+            -vehicleUp.x(), -vehicleUp.y(), -vehicleUp.z(),
+            suspension.restLength()
+        );
+        wheel.grounded = distance <= suspension.restLength();
+        if (!wheel.grounded) {
+            return;
+        }
+        double compression = suspension.restLength() - distance; // unit: meter
+        double compressionSpeed = -velocity.dot(vehicleUp); // unit: meter/second
+        double forceMagnitude = suspension.stiffness() * compression + suspension.damping() * compressionSpeed;
+        if (forceMagnitude <= 0) {
+            // The suspension can push the vehicle up, but not pull it down.
+            return;
+        }
+        rbc.addForce(this.force.set(vehicleUp).mul(forceMagnitude), worldContactPatch);
+        if (Debug.getInstance() != null) {
+            Debug.visualizeVectorAt(rbc.getWorld(), worldContactPatch, new Vector3d(this.force).div(1000), "lime_wool");
+        }
+    }
+
+    /**
+     * Check whether the wheels are held up by a suspension.
+     *
+     * @return True if the wheels have a suspension.
+     */
+    public boolean hasSuspension() {
+        return this.suspension != null;
+    }
+
+    /**
+     * Check whether any wheel with a suspension touched the ground during the last
+     * tick.
+     *
+     * @return True if a wheel is on the ground.
+     */
+    public boolean isGrounded() {
+        for (int i = 0; i < this.wheels.size(); i++) {
+            if (this.wheels.get(i).grounded) {
+                return true;
+            }
         }
+        return false;
     }
 
     @Override
@@ -188,6 +313,7 @@ public class WheelComponent implements VehicleComponent, PartTransformationProvi
         }
 
         Quaternionf rotation = new Quaternionf();
+        Vector3f angularVelocity = new Vector3f();
 
         for (WheelData wheelData : this.wheels) {
             if (wheelData.wheel == wheel) {
@@ -195,11 +321,13 @@ public class WheelComponent implements VehicleComponent, PartTransformationProvi
                     rotation.rotateY((float) -wheelData.steerAngle);
                 }
                 rotation.rotateX(-wheelData.rotation);
+                // The wheel keeps spinning, which lets the renderer predict it.
+                angularVelocity.set(-wheelData.speed, 0, 0);
                 break;
             }
         }
 
-        return new PartTransform(rotation);
+        return new PartTransform(rotation, new Vector3f(), false, null, angularVelocity);
     }
 
 }
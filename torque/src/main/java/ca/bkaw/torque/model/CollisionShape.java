@@ -0,0 +1,283 @@
+package ca.bkaw.torque.model;
+
+import ca.bkaw.torque.assets.TorqueAssets;
+import ca.bkaw.torque.assets.model.ModelElement;
+import ca.bkaw.torque.assets.model.ModelElementList;
+import ca.bkaw.torque.assets.model.ModelElementRotation;
+import org.jetbrains.annotations.NotNull;
+import org.joml.Matrix3d;
+import org.joml.Vector3d;
+import org.joml.Vector3dc;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The collision shape of a vehicle model, a small set of boxes organized in a
+ * bounding volume hierarchy (BVH).
+ * <p>
+ * The shape is created from the elements of the model when the vehicle model is
+ * created. Each element becomes a box, and boxes are merged while merging adds little
+ * empty space, and until there are at most {@link #MAX_BOXES} boxes.
+ * <p>
+ * The nodes of the hierarchy are axis-aligned boxes in the local coordinates of the
+ * vehicle, relative to the position of the rigid body. Node 0 is the root and covers
+ * the whole shape. Each node is either a leaf with one box, or has two children
+ * whose boxes it covers. Unit: meter.
+ * <p>
+ * The shape is immutable and shared between all vehicles of a type.
+ */
+public class CollisionShape {
+    /**
+     * The maximum number of boxes in a shape.
+     */
+    public static final int MAX_BOXES = 16;
+    /**
+     * How much empty space merging two boxes may add, as a fraction of the volume of
+     * the merged box, for the boxes to be merged even when there are few boxes.
+     */
+    private static final double MERGE_TOLERANCE = 0.1;
+
+    // Three values per node.
+    private final double[] centers;
+    private final double[] halfSizes;
+    private final int[] leftChildren; // -1 for leaves
+    private final int[] rightChildren; // -1 for leaves
+
+    private CollisionShape(double[] centers, double[] halfSizes, int[] leftChildren, int[] rightChildren) {
+        this.centers = centers;
+        this.halfSizes = halfSizes;
+        this.leftChildren = leftChildren;
+        this.rightChildren = rightChildren;
+    }
+
+    /**
+     * Create a shape consisting of a single box.
+     *
+     * @param center The center of the box, relative to the position of the rigid body.
+     * @param halfSize The half size of the box.
+     * @return The shape.
+     */
+    public static CollisionShape box(@NotNull Vector3dc center, @NotNull Vector3dc halfSize) {
+        return new CollisionShape(
+            new double[] {center.x(), center.y(), center.z()},
+            new double[] {halfSize.x(), halfSize.y(), halfSize.z()},
+            new int[] {-1},
+            new int[] {-1}
+        );
+    }
+
+    /**
+     * Create a shape from the elements of a model.
+     *
+     * @param elements The elements, centered on the center of mass. Hidden elements,
+     *                 whose name starts with a dot, are skipped.
+     * @param translation The offset from the position of the rigid body to the center
+     *                    of mass of the model. Unit: meter.
+     * @return The shape.
+     * @throws IllegalArgumentException If there are no visible elements.
+     */
+    public static CollisionShape fromElements(@NotNull ModelElementList elements, @NotNull Vector3dc translation) {
+        List<double[]> boxes = new ArrayList<>();
+        for (ModelElement element : elements.getElements()) {
+            String name = element.getName();
+            if (name != null && name.startsWith(".")) {
+                continue;
+            }
+            boxes.add(getBounds(element, translation));
+        }
+        if (boxes.isEmpty()) {
+            throw new IllegalArgumentException("Cannot create a collision shape without elements");
+        }
+        merge(boxes);
+
+        int nodeCount = 2 * boxes.size() - 1;
+        CollisionShape shape = new CollisionShape(
+            new double[nodeCount * 3],
+            new double[nodeCount * 3],
+            new int[nodeCount],
+            new int[nodeCount]
+        );
+        shape.build(boxes, 0, boxes.size(), new int[] {0});
+        return shape;
+    }
+
+    /**
+     * Get the axis-aligned bounds of an element, including its rotation.
+     *
+     * @return The bounds as {minX, minY, minZ, maxX, maxY, maxZ}, in meters relative
+     * to the position of the rigid body.
+     */
+    private static double[] getBounds(ModelElement element, Vector3dc translation) {
+        Vector3d from = element.getFrom();
+        Vector3d to = element.getTo();
+        ModelElementRotation rotation = element.getRotation();
+        Matrix3d rotationMatrix = null;
+        if (rotation != null) {
+            rotationMatrix = new Matrix3d();
+            double angleRad = Math.toRadians(rotation.getAngle()); // Unit: rad
+            switch (rotation.getAxis()) {
+                case X -> rotationMatrix.rotateX(angleRad);
+                case Y -> rotationMatrix.rotateY(angleRad);
+                case Z -> rotationMatrix.rotateZ(angleRad);
+            }
+        }
+        double[] bounds = {
+            Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY,
+            Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY
+        };
+        Vector3d corner = new Vector3d();
+        for (int i = 0; i < 8; i++) {
+            corner.set(
+                (i & 1) == 0 ? from.x : to.x,
+                (i & 2) == 0 ? from.y : to.y,
+                (i & 4) == 0 ? from.z : to.z
+            );
+            if (rotationMatrix != null) {
+                // c_rotated = R(c - o) + o
+                Vector3d origin = rotation.getOrigin();
+                corner.sub(origin).mul(rotationMatrix).add(origin);
+            }
+            Vector3d offset = TorqueAssets.getElementOffset(corner).add(translation); // unit: meter
+            for (int axis = 0; axis < 3; axis++) {
+                bounds[axis] = Math.min(bounds[axis], offset.get(axis));
+                bounds[axis + 3] = Math.max(bounds[axis + 3], offset.get(axis));
+            }
+        }
+        return bounds;
+    }
+
+    /**
+     * Merge the pair of boxes that adds the least empty space, until no pair can be
+     * merged within the tolerance and there are at most {@link #MAX_BOXES} boxes.
+     */
+    private static void merge(List<double[]> boxes) {
+        while (boxes.size() > 1) {
+            int bestI = -1, bestJ = -1;
+            double bestWaste = Double.POSITIVE_INFINITY;
+            double bestVolume = 0;
+            for (int i = 0; i < boxes.size(); i++) {
+                double[] a = boxes.get(i);
+                for (int j = i + 1; j < boxes.size(); j++) {
+                    double[] b = boxes.get(j);
+                    double unionVolume = volume(
+                        Math.min(a[0], b[0]), Math.min(a[1], b[1]), Math.min(a[2], b[2]),
+                        Math.max(a[3], b[3]), Math.max(a[4], b[4]), Math.max(a[5], b[5])
+                    );
+                    // Overlapping boxes may have negative waste, which is fine.
+                    double waste = unionVolume - volume(a) - volume(b);
+                    if (waste < bestWaste) {
+                        bestWaste = waste;
+                        bestVolume = unionVolume;
+                        bestI = i;
+                        bestJ = j;
+                    }
+                }
+            }
+            if (boxes.size() <= MAX_BOXES && bestWaste > MERGE_TOLERANCE * bestVolume) {
+                break;
+            }
+            double[] a = boxes.get(bestI);
+            double[] b = boxes.remove(bestJ);
+            for (int axis = 0; axis < 3; axis++) {
+                a[axis] = Math.min(a[axis], b[axis]);
+                a[axis + 3] = Math.max(a[axis + 3], b[axis + 3]);
+            }
+        }
+    }
+
+    private static double volume(double[] box) {
+        return volume(box[0], box[1], box[2], box[3], box[4], box[5]);
+    }
+
+    private static double volume(double minX, double minY, double minZ, double maxX, double maxY, double maxZ) {
+        return (maxX - minX) * (maxY - minY) * (maxZ - minZ);
+    }
+
+    /**
+     * Build the node for a range of boxes, splitting the boxes at the middle of the
+     * longest axis of the node.
+     *
+     * @param boxes The boxes. The range is reordered.
+     * @param from The first box, inclusive.
+     * @param to The last box, exclusive.
+     * @param nextNode The index of the next free node, incremented for each node.
+     * @return The index of the node.
+     */
+    private int build(List<double[]> boxes, int from, int to, int[] nextNode) {
+        int node = nextNode[0]++;
+        double[] bounds = boxes.get(from).clone();
+        for (int i = from + 1; i < to; i++) {
+            double[] box = boxes.get(i);
+            for (int axis = 0; axis < 3; axis++) {
+                bounds[axis] = Math.min(bounds[axis], box[axis]);
+                bounds[axis + 3] = Math.max(bounds[axis + 3], box[axis + 3]);
+            }
+        }
+        for (int axis = 0; axis < 3; axis++) {
+            this.centers[node * 3 + axis] = (bounds[axis] + bounds[axis + 3]) / 2;
+            this.halfSizes[node * 3 + axis] = (bounds[axis + 3] - bounds[axis]) / 2;
+        }
+        if (to - from == 1) {
+            this.leftChildren[node] = -1;
+            this.rightChildren[node] = -1;
+            return node;
+        }
+        int longestAxis = 0;
+        for (int axis = 1; axis < 3; axis++) {
+            if (this.halfSizes[node * 3 + axis] > this.halfSizes[node * 3 + longestAxis]) {
+                longestAxis = axis;
+            }
+        }
+        int splitAxis = longestAxis;
+        boxes.subList(from, to).sort(Comparator.comparingDouble(box -> box[splitAxis] + box[splitAxis + 3]));
+        int middle = (from + to) / 2;
+        this.leftChildren[node] = this.build(boxes, from, middle, nextNode);
+        this.rightChildren[node] = this.build(boxes, middle, to, nextNode);
+        return node;
+    }
+
+    /**
+     * Get the number of nodes in the hierarchy.
+     *
+     * @return The number of nodes.
+     */
+    public int getNodeCount() {
+        return this.leftChildren.length;
+    }
+
+    /**
+     * Get the center of the box of a node.
+     *
+     * @param node The index of the node.
+     * @param dest The vector to store the result in.
+     * @return The center, relative to the position of the rigid body.
+     */
+    public Vector3d getCenter(int node, Vector3d dest) {
+        return dest.set(this.centers[node * 3], this.centers[node * 3 + 1], this.centers[node * 3 + 2]);
+    }
+
+    /**
+     * Get the half size of the box of a node.
+     *
+     * @param node The index of the node.
+     * @param dest The vector to store the result in.
+     * @return The half size.
+     */
+    public Vector3d getHalfSize(int node, Vector3d dest) {
+        return dest.set(this.halfSizes[node * 3], this.halfSizes[node * 3 + 1], this.halfSizes[node * 3 + 2]);
+    }
+
+    public boolean isLeaf(int node) {
+        return this.leftChildren[node] < 0;
+    }
+
+    public int getLeftChild(int node) {
+        return this.leftChildren[node];
+    }
+
+    public int getRightChild(int node) {
+        return this.rightChildren[node];
+    }
+}
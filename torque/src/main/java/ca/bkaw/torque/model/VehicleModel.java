@@ -16,15 +16,17 @@ public class VehicleModel {
     private final VehicleModelPart hologram;
     private final VehicleModelPart primary;
     private final List<VehicleModelPart> parts;
+    private final CollisionShape collisionShape;
     private Map<Class<? extends TagHandler<?>>, Object> tagHandlerData;
 
-    public VehicleModel(Identifier identifier, @NotNull Model model, VehicleModelPart primary, List<VehicleModelPart> parts, Map<Class<? extends TagHandler<?>>, Object> tagHandlerData) {
+    public VehicleModel(Identifier identifier, @NotNull Model model, VehicleModelPart primary, List<VehicleModelPart> parts, CollisionShape collisionShape, Map<Class<? extends TagHandler<?>>, Object> tagHandlerData) {
         this.identifier = identifier;
         this.model = model;
         this.primary = primary;
         this.inline = null;
         this.hologram = null;
         this.parts = parts;
+        this.collisionShape = collisionShape;
         this.tagHandlerData = tagHandlerData;
     }
 
@@ -40,6 +42,15 @@ public class VehicleModel {
         return this.parts;
     }
 
+    /**
+     * Get the collision shape, simplified from the elements of the model.
+     *
+     * @return The collision shape.
+     */
+    public CollisionShape getCollisionShape() {
+        return this.collisionShape;
+    }
+
     public @Nullable Model getModel() {
         return this.model;
     }
@@ -23,6 +23,16 @@ public class Input {
         return this.forward || this.backward || this.left || this.right || this.jump || this.shift || this.sprint;
     }
 
+    public void set(Input other) {
+        this.forward = other.forward;
+        this.backward = other.backward;
+        this.left = other.left;
+        this.right = other.right;
+        this.jump = other.jump;
+        this.shift = other.shift;
+        this.sprint = other.sprint;
+    }
+
     public void merge(Input other) {
         this.forward = this.forward | other.forward;
         this.backward = this.backward | other.backward;
@@ -2,14 +2,28 @@ package ca.bkaw.torque.platform;
 
 import ca.bkaw.torque.platform.entity.InteractionEntity;
 import ca.bkaw.torque.platform.entity.ItemDisplay;
+import ca.bkaw.torque.platform.entity.Player;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.joml.Vector3dc;
+import org.joml.Vector3i;
 import org.joml.Vector3ic;
 
+import java.util.List;
+
 /**
  * A world/dimension in the game, such as the overworld, the nether or the end.
  */
 public interface World {
+    /**
+     * Flag for blocks that are collidable, see {@link #getBlockFlags}.
+     */
+    byte COLLIDABLE = 1;
+    /**
+     * Flag for blocks that are water or waterlogged, see {@link #getBlockFlags}.
+     */
+    byte WATERLOGGED = 2;
+
     /**
      * Spawn an item display entity.
      *
@@ -19,6 +33,26 @@ public interface World {
     @NotNull
     ItemDisplay spawnItemDisplay(@NotNull Vector3dc position);
 
+    /**
+     * Spawn an item display that only exists on the clients, riding another item
+     * display.
+     * <p>
+     * The platform sends the entity directly to the players that can see the host,
+     * and the server does not tick, track or save it. The entity is removed when it
+     * is removed or when the host is removed. It is not persisted, so it must be
+     * created again when the host is loaded.
+     * <p>
+     * Platforms that cannot send entities to players return null, in which case
+     * {@link #spawnItemDisplay} should be used instead.
+     *
+     * @param host The item display that the entity rides.
+     * @return The item display, or null if virtual entities are not supported.
+     */
+    @Nullable
+    default ItemDisplay spawnVirtualItemDisplay(@NotNull ItemDisplay host) {
+        return null;
+    }
+
     /**
      * Spawn an interaction entity.
      *
@@ -28,6 +62,19 @@ public interface World {
     @NotNull
     InteractionEntity spawnInteractionEntity(@NotNull Vector3dc position);
 
+    /**
+     * Get the players in the world.
+     * <p>
+     * Worlds that players cannot be in, such as copies of blocks, return an empty
+     * list.
+     *
+     * @return The players.
+     */
+    @NotNull
+    default List<Player> getPlayers() {
+        return List.of();
+    }
+
     /**
      * Get the block state at the given position in the world.
      *
@@ -37,5 +84,60 @@ public interface World {
     @NotNull
     BlockState getBlock(@NotNull Vector3ic position);
 
+    /**
+     * Read the {@link #COLLIDABLE} and {@link #WATERLOGGED} flags of all blocks in a
+     * box in one call.
+     * <p>
+     * The flags of the block at (x, y, z) are stored at index
+     * {@code ((y - minY) * sizeZ + (z - minZ)) * sizeX + (x - minX)}, where the sizes
+     * are the number of blocks along each axis. Blocks outside the world have no
+     * flags. Platforms may report blocks in chunks that are not loaded as
+     * {@link #COLLIDABLE} instead of loading the chunk.
+     * <p>
+     * Platforms should override this with an implementation that does not look up
+     * each block separately.
+     *
+     * @param minX The minimum x coordinate, inclusive.
+     * @param minY The minimum y coordinate, inclusive.
+     * @param minZ The minimum z coordinate, inclusive.
+     * @param maxX The maximum x coordinate, inclusive.
+     * @param maxY The maximum y coordinate, inclusive.
+     * @param maxZ The maximum z coordinate, inclusive.
+     * @param dest The array to store the flags in. Must fit all blocks in the box.
+     */
+    default void getBlockFlags(int minX, int minY, int minZ, int maxX, int maxY, int maxZ, byte @NotNull [] dest) {
+        int sizeX = maxX - minX + 1;
+        int sizeZ = maxZ - minZ + 1;
+        Vector3i position = new Vector3i();
+        for (int y = minY; y <= maxY; y++) {
+            for (int z = minZ; z <= maxZ; z++) {
+                for (int x = minX; x <= maxX; x++) {
+                    BlockState block = this.getBlock(position.set(x, y, z));
+                    byte flags = 0;
+                    if (block.isCollidable(this, position)) {
+                        flags |= COLLIDABLE;
+                    }
+                    if (block.isWaterlogged()) {
+                        flags |= WATERLOGGED;
+                    }
+                    dest[((y - minY) * sizeZ + (z - minZ)) * sizeX + (x - minX)] = flags;
+                }
+            }
+        }
+    }
+
+    /**
+     * Check whether the platform reports every block change in this world to
+     * {@link ca.bkaw.torque.PlatformEvents#onBlockChange}.
+     * <p>
+     * When false, blocks that were read are read again after a few seconds, so that
+     * changes without an event are noticed eventually.
+     *
+     * @return True if all block changes are reported.
+     */
+    default boolean reportsBlockChanges() {
+        return true;
+    }
+
     void spawnParticle(Vector3ic blockPos, Identifier identifier);
 }
@@ -117,4 +117,13 @@ public interface ItemDisplay extends Entity {
      * @param glowColor The color of the glow, in RGB format.
      */
     void setGlowColor(int glowColor);
+
+    /**
+     * Set how far away the item display is rendered, as a multiplier of the entity
+     * render distance of the client. The default is 1, which is 64 blocks with the
+     * default client settings.
+     *
+     * @param viewRange The view range.
+     */
+    void setViewRange(float viewRange);
 }
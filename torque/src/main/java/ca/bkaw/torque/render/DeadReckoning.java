@@ -0,0 +1,147 @@
+package ca.bkaw.torque.render;
+
+import ca.bkaw.torque.components.RigidBodyComponent;
+
+/**
+ * Settings for sending predicted states of vehicles instead of the current state
+ * each tick.
+ * <p>
+ * When enabled, {@link VehicleRenderer} sends where each entity will be a number of
+ * ticks ahead, predicted from the velocity and angular velocity, with an
+ * interpolation duration of the same number of ticks. The client then moves the
+ * entity there smoothly without further updates. The renderer keeps track of where
+ * the client renders the entity, and only sends a new prediction when that is
+ * further than the thresholds from the actual state, or when the client reaches the
+ * end of the prediction.
+ * <p>
+ * A vehicle driving straight or turning steadily therefore only sends updates when
+ * it changes speed or direction.
+ */
+public class DeadReckoning {
+    /**
+     * The default largest distance between the actual and the rendered position,
+     * unit: meter.
+     */
+    public static final double DEFAULT_POSITION_THRESHOLD = 0.05;
+    /**
+     * The default largest angle between the actual and the rendered rotation, unit:
+     * radians.
+     */
+    public static final double DEFAULT_ANGLE_THRESHOLD = Math.toRadians(2);
+    /**
+     * The default number of ticks to predict ahead.
+     */
+    public static final int DEFAULT_MAX_PREDICTION_TICKS = 20;
+    /**
+     * The largest number of ticks that the client can interpolate the position over.
+     */
+    public static final int MAX_PREDICTION_TICKS = 59;
+    /**
+     * The largest angle that an entity may rotate during a prediction, unit: radians.
+     * The client interpolates rotations along the shortest path, so a rotation
+     * close to half a turn could be rendered in the wrong direction.
+     */
+    private static final double MAX_PREDICTED_ANGLE = Math.PI / 4;
+
+    private boolean enabled = true;
+    private double positionThreshold = DEFAULT_POSITION_THRESHOLD; // unit: meter
+    private double angleThreshold = DEFAULT_ANGLE_THRESHOLD; // unit: radians
+    private int maxPredictionTicks = DEFAULT_MAX_PREDICTION_TICKS;
+
+    /**
+     * Get the number of ticks to predict ahead for an entity.
+     * <p>
+     * The client interpolates positions along a straight line, while a turning or
+     * accelerating vehicle moves along a curve. The entity is therefore predicted no
+     * further than where the distance between the line and the curve stays within
+     * the position threshold, and fast rotations are predicted fewer ticks ahead, see
+     * {@link #MAX_PREDICTED_ANGLE}. A vehicle moving at a steady velocity is
+     * predicted {@link #getMaxPredictionTicks()} ahead.
+     * <p>
+     * The number of ticks is halved until the prediction is short enough, so that
+     * the interpolation duration sent to the client rarely changes.
+     *
+     * @param speed The speed of the entity position, unit: m/s.
+     * @param acceleration The acceleration of the entity position, unit: m/s^2.
+     * @param angularSpeed The rotation speed of the entity, unit: rad/s.
+     * @param radius The distance from the center of the rotation to the rendered
+     *               translation, unit: meter.
+     * @return The number of ticks, at least 1.
+     */
+    public int getPredictionTicks(double speed, double acceleration, double angularSpeed, double radius) {
+        // Moving along a curve for a time t, the distance between the middle of the
+        // chord and the curve is about t^2 * curvature / 8, where the curvature is
+        // the acceleration plus the centripetal acceleration of the turn.
+        double curvature = acceleration + angularSpeed * (speed + radius * angularSpeed); // unit: m/s^2
+        double maxTime = Math.min(
+            MAX_PREDICTED_ANGLE / angularSpeed,
+            Math.sqrt(8 * this.positionThreshold / curvature)
+        ); // unit: seconds
+        double maxTicks = maxTime / RigidBodyComponent.DELTA_TIME;
+        int ticks = this.maxPredictionTicks;
+        while (ticks > 1 && ticks > maxTicks) {
+            ticks /= 2;
+        }
+        return ticks;
+    }
+
+    public boolean isEnabled() {
+        return this.enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Get the largest distance between the actual and the rendered position before a
+     * new prediction is sent.
+     *
+     * @return The distance, unit: meter.
+     */
+    public double getPositionThreshold() {
+        return this.positionThreshold;
+    }
+
+    /**
+     * Get the largest angle between the actual and the rendered rotation before a new
+     * prediction is sent.
+     *
+     * @return The angle, unit: radians.
+     */
+    public double getAngleThreshold() {
+        return this.angleThreshold;
+    }
+
+    /**
+     * Set the largest error between the actual and the rendered state before a new
+     * prediction is sent.
+     *
+     * @param positionThreshold The largest distance, unit: meter.
+     * @param angleThreshold The largest angle, unit: radians.
+     */
+    public void setThresholds(double positionThreshold, double angleThreshold) {
+        if (!(positionThreshold >= 0) || !(angleThreshold >= 0)) {
+            throw new IllegalArgumentException("The thresholds must not be negative.");
+        }
+        this.positionThreshold = positionThreshold;
+        this.angleThreshold = angleThreshold;
+    }
+
+    public int getMaxPredictionTicks() {
+        return this.maxPredictionTicks;
+    }
+
+    /**
+     * Set the largest number of ticks to predict ahead.
+     *
+     * @param maxPredictionTicks The number of ticks, between 1 and
+     *                           {@link #MAX_PREDICTION_TICKS}.
+     */
+    public void setMaxPredictionTicks(int maxPredictionTicks) {
+        if (maxPredictionTicks < 1 || maxPredictionTicks > MAX_PREDICTION_TICKS) {
+            throw new IllegalArgumentException("The number of ticks must be between 1 and " + MAX_PREDICTION_TICKS + ".");
+        }
+        this.maxPredictionTicks = maxPredictionTicks;
+    }
+}
@@ -0,0 +1,180 @@
+package ca.bkaw.torque.render;
+
+import ca.bkaw.torque.components.RigidBodyComponent;
+import ca.bkaw.torque.components.SeatsComponent;
+import ca.bkaw.torque.platform.World;
+import ca.bkaw.torque.platform.entity.Player;
+import ca.bkaw.torque.vehicle.Vehicle;
+import ca.bkaw.torque.vehicle.VehicleGrid;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntList;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.joml.Vector3d;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Decides how much detail each vehicle is rendered with, depending on how close the
+ * players are.
+ * <p>
+ * Once per tick, the vehicles near each player are found using the
+ * {@link VehicleGrid} of the world that the player is in. Each vehicle is rendered
+ * at the {@link RenderLevel} for the distance to the closest player. Vehicles with
+ * passengers are always rendered at {@link RenderLevel#FULL}.
+ * <p>
+ * Entity updates are sent to every player that tracks the entity, so the level is
+ * chosen per vehicle and not per player. Players further away get the same updates
+ * as the closest player.
+ * <p>
+ * Must only be used on the server thread.
+ */
+public class InterestManager {
+    private final List<Player> players = new ArrayList<>();
+    private final Map<Vehicle, Interest> interests = new IdentityHashMap<>();
+
+    // Scratch objects, reused each tick to avoid allocating.
+    private final List<Vehicle> nearbyVehicles = new ArrayList<>();
+    private final List<Interest> unusedInterests = new ArrayList<>();
+
+    /**
+     * The players that a vehicle is relevant to this tick.
+     */
+    public static class Interest {
+        private final IntArrayList players = new IntArrayList();
+        private double distance; // unit: meter
+        private @NotNull RenderLevel level = RenderLevel.DISTANT;
+
+        /**
+         * Get the indices of the players that the vehicle is relevant to, see
+         * {@link InterestManager#getPlayer(int)}.
+         *
+         * @return The indices.
+         */
+        public @NotNull IntList getPlayers() {
+            return this.players;
+        }
+
+        /**
+         * Get the distance to the closest player.
+         *
+         * @return The distance, unit: meter.
+         */
+        public double getDistance() {
+            return this.distance;
+        }
+
+        /**
+         * Get the level for the distance to the closest player.
+         *
+         * @return The level.
+         */
+        public @NotNull RenderLevel getLevel() {
+            return this.level;
+        }
+    }
+
+    /**
+     * Find the vehicles near each player and update the level of the vehicles.
+     *
+     * @param vehicleGrids The spatial index of the vehicles in each world.
+     */
+    public void update(@NotNull Map<World, VehicleGrid> vehicleGrids) {
+        this.unusedInterests.addAll(this.interests.values());
+        this.interests.clear();
+        this.players.clear();
+        for (Map.Entry<World, VehicleGrid> entry : vehicleGrids.entrySet()) {
+            VehicleGrid grid = entry.getValue();
+            if (grid.size() == 0) {
+                continue;
+            }
+            for (Player player : entry.getKey().getPlayers()) {
+                this.players.add(player);
+                this.updatePlayer(grid, player, this.players.size() - 1);
+            }
+        }
+    }
+
+    private void updatePlayer(@NotNull VehicleGrid grid, @NotNull Player player, int playerIndex) {
+        Vector3d position = player.getPosition();
+        this.nearbyVehicles.clear();
+        grid.getWithinRadius(position, RenderLevel.FAR.getMaxDistance(), this.nearbyVehicles);
+        for (int i = 0; i < this.nearbyVehicles.size(); i++) {
+            Vehicle vehicle = this.nearbyVehicles.get(i);
+            RigidBodyComponent rbc = vehicle.get(RigidBodyComponent.TYPE);
+            if (rbc == null) {
+                continue;
+            }
+            Interest interest = this.interests.get(vehicle);
+            if (interest == null) {
+                interest = this.unusedInterests.isEmpty() ? new Interest() : this.unusedInterests.removeLast();
+                interest.players.clear();
+                interest.distance = Double.POSITIVE_INFINITY;
+                this.interests.put(vehicle, interest);
+            }
+            interest.players.add(playerIndex);
+            double distance = rbc.getPosition().distance(position);
+            if (distance < interest.distance) {
+                interest.distance = distance;
+                interest.level = RenderLevel.forDistance(distance);
+            }
+        }
+    }
+
+    /**
+     * Get the number of players that were checked this tick.
+     *
+     * @return The number of players.
+     */
+    public int getPlayerCount() {
+        return this.players.size();
+    }
+
+    /**
+     * Get a player that was checked this tick.
+     *
+     * @param index The index of the player, between 0 and {@link #getPlayerCount()}.
+     * @return The player.
+     */
+    public @NotNull Player getPlayer(int index) {
+        return this.players.get(index);
+    }
+
+    /**
+     * Get the players that a vehicle is relevant to this tick.
+     *
+     * @param vehicle The vehicle.
+     * @return The interest, or null if no player is close to the vehicle.
+     */
+    public @Nullable Interest getInterest(@NotNull Vehicle vehicle) {
+        return this.interests.get(vehicle);
+    }
+
+    /**
+     * Get the level that a vehicle should be rendered at this tick.
+     *
+     * @param vehicle The vehicle.
+     * @return The level.
+     */
+    public @NotNull RenderLevel getLevel(@NotNull Vehicle vehicle) {
+        if (isOccupied(vehicle)) {
+            return RenderLevel.FULL;
+        }
+        Interest interest = this.interests.get(vehicle);
+        return interest != null ? interest.level : RenderLevel.DISTANT;
+    }
+
+    /**
+     * Check whether a vehicle has passengers.
+     *
+     * @param vehicle The vehicle.
+     * @return True if the vehicle has passengers.
+     */
+    public static boolean isOccupied(@NotNull Vehicle vehicle) {
+        SeatsComponent seats = vehicle.get(SeatsComponent.TYPE);
+        return seats != null && !seats.getPassengerData().isEmpty();
+    }
+}
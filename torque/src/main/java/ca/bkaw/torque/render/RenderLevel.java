@@ -0,0 +1,80 @@
+package ca.bkaw.torque.render;
+
+/**
+ * How much detail a vehicle is rendered with, depending on how close the closest
+ * player is. See {@link InterestManager}.
+ */
+public enum RenderLevel {
+    /**
+     * Nearby and occupied vehicles, rendered each tick with all parts.
+     */
+    FULL(24, 1, true),
+    /**
+     * Vehicles at a medium distance, rendered every other tick without small parts.
+     */
+    REDUCED(48, 2, false),
+    /**
+     * Far vehicles, rendered every fourth tick without small parts.
+     */
+    FAR(96, 4, false),
+    /**
+     * Vehicles that no player is close to. Clients do not render entities this far
+     * away with the default settings, so the vehicle is only rendered occasionally
+     * to keep the entities close to the vehicle for tracking.
+     */
+    DISTANT(Double.POSITIVE_INFINITY, 10, false);
+
+    private final double maxDistance; // unit: meter
+    private final int updateInterval; // unit: ticks
+    private final boolean smallPartsVisible;
+
+    RenderLevel(double maxDistance, int updateInterval, boolean smallPartsVisible) {
+        this.maxDistance = maxDistance;
+        this.updateInterval = updateInterval;
+        this.smallPartsVisible = smallPartsVisible;
+    }
+
+    /**
+     * Get the level for a vehicle at a distance from a player.
+     *
+     * @param distance The distance, unit: meter.
+     * @return The level.
+     */
+    public static RenderLevel forDistance(double distance) {
+        for (RenderLevel level : values()) {
+            if (distance <= level.maxDistance) {
+                return level;
+            }
+        }
+        return DISTANT;
+    }
+
+    /**
+     * Get the largest distance from a player that vehicles are rendered at this
+     * level at.
+     *
+     * @return The distance, unit: meter.
+     */
+    public double getMaxDistance() {
+        return this.maxDistance;
+    }
+
+    /**
+     * Get how often the vehicle is rendered. The client interpolates over the same
+     * number of ticks, so that the vehicle moves smoothly between the updates.
+     *
+     * @return The number of ticks between each render, unit: ticks.
+     */
+    public int getUpdateInterval() {
+        return this.updateInterval;
+    }
+
+    /**
+     * Get whether small parts, like the steering wheel and lights, are rendered.
+     *
+     * @return True if small parts are rendered.
+     */
+    public boolean areSmallPartsVisible() {
+        return this.smallPartsVisible;
+    }
+}
@@ -0,0 +1,219 @@
+package ca.bkaw.torque.render;
+
+import ca.bkaw.torque.components.RigidBodyComponent;
+import ca.bkaw.torque.vehicle.Vehicle;
+import it.unimi.dsi.fastutil.ints.IntList;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.joml.Vector3d;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Limits the number of vehicle entity updates that are sent to each player per
+ * tick.
+ * <p>
+ * The vehicles that are due to be rendered this tick are ranked by priority. Vehicles
+ * that are close, fast, large on the screen and have not been updated for a while
+ * come first. They are rendered in that order, and the entities that each update
+ * changed are charged to the budget of every player that the vehicle is relevant
+ * to, see {@link InterestManager}. When a player has no budget left for an update, the
+ * update is deferred to a later tick. The client then interpolates over the time
+ * since the previous update, which hides the gap.
+ * <p>
+ * Entity updates are sent to every player that tracks the entity, so a deferred
+ * update is deferred for all players. Updates of vehicles with passengers are never
+ * deferred, and no update is deferred for more than {@link #MAX_DEFERRED_TICKS}.
+ * <p>
+ * Must only be used on the server thread.
+ */
+public class UpdateScheduler {
+    /**
+     * The default budget, unit: entity updates per player per tick.
+     */
+    public static final int DEFAULT_BUDGET = 256;
+    /**
+     * The largest number of ticks that an update is deferred, so that all vehicles are
+     * updated even when the budget is too small.
+     */
+    public static final int MAX_DEFERRED_TICKS = 10;
+    /**
+     * How much the speed of a vehicle adds to its priority, unit: s/m.
+     */
+    private static final double SPEED_WEIGHT = 0.1;
+
+    private static final Comparator<Update> HIGHEST_PRIORITY_FIRST
+        = Comparator.comparingDouble((Update update) -> update.priority).reversed();
+
+    private int budget = DEFAULT_BUDGET; // unit: entity updates per player per tick
+    private long sentCount = 0;
+    private long deferredCount = 0;
+    private long droppedCount = 0;
+
+    // Scratch objects, reused each tick to avoid allocating.
+    private final PriorityQueue<Update> queue = new PriorityQueue<>(HIGHEST_PRIORITY_FIRST);
+    private final List<Update> updates = new ArrayList<>();
+    private int updateCount = 0;
+    private int[] remainingBudgets = new int[0];
+    private final Vector3d halfSize = new Vector3d();
+
+    private static class Update {
+        private VehicleRenderer renderer;
+        private RenderLevel level;
+        private @Nullable InterestManager.Interest interest;
+        private boolean occupied;
+        private double priority;
+        private int cost; // unit: entity updates, at most
+    }
+
+    /**
+     * Add a vehicle to render this tick, if it is due to be rendered.
+     * <p>
+     * Called each tick for each vehicle that is awake, before {@link #sendUpdates}.
+     *
+     * @param renderer The renderer of the vehicle.
+     * @param interestManager The interest manager, updated for this tick.
+     */
+    public void schedule(@NotNull VehicleRenderer renderer, @NotNull InterestManager interestManager) {
+        Vehicle vehicle = renderer.getVehicle();
+        RenderLevel level = interestManager.getLevel(vehicle);
+        renderer.tick();
+        if (!renderer.isRenderDue(level)) {
+            return;
+        }
+        if (this.updateCount == this.updates.size()) {
+            this.updates.add(new Update());
+        }
+        Update update = this.updates.get(this.updateCount++);
+        update.renderer = renderer;
+        update.level = level;
+        update.interest = interestManager.getInterest(vehicle);
+        update.occupied = InterestManager.isOccupied(vehicle);
+        update.cost = renderer.getEntityCount(level);
+        update.priority = this.getPriority(renderer, update.interest);
+        this.queue.add(update);
+    }
+
+    /**
+     * Get how important it is to update a vehicle.
+     */
+    private double getPriority(@NotNull VehicleRenderer renderer, @Nullable InterestManager.Interest interest) {
+        Vehicle vehicle = renderer.getVehicle();
+        double distance = interest != null ? Math.max(interest.getDistance(), 1) : Double.POSITIVE_INFINITY;
+        // The size of the vehicle on the screen of the closest player.
+        double size = vehicle.getType().model().getCollisionShape().getHalfSize(0, this.halfSize).length();
+        double screenSize = size / distance;
+        RigidBodyComponent rbc = vehicle.get(RigidBodyComponent.TYPE);
+        double speed = rbc != null ? rbc.getVelocity().length() : 0; // unit: m/s
+        return screenSize * (1 + speed * SPEED_WEIGHT) * renderer.getTicksSinceRender();
+    }
+
+    /**
+     * Render the scheduled vehicles in order of priority while the players have
+     * budget left, and defer the rest.
+     *
+     * @param interestManager The interest manager, updated for this tick.
+     */
+    public void sendUpdates(@NotNull InterestManager interestManager) {
+        int playerCount = interestManager.getPlayerCount();
+        if (this.remainingBudgets.length < playerCount) {
+            this.remainingBudgets = new int[playerCount];
+        }
+        for (int i = 0; i < playerCount; i++) {
+            this.remainingBudgets[i] = this.budget;
+        }
+
+        Update update;
+        while ((update = this.queue.poll()) != null) {
+            VehicleRenderer renderer = update.renderer;
+            IntList players = update.interest != null ? update.interest.getPlayers() : IntList.of();
+            if (!update.occupied
+                && renderer.getTicksSinceRender() < update.level.getUpdateInterval() + MAX_DEFERRED_TICKS
+                && !this.canAfford(players, update.cost)) {
+                this.deferredCount++;
+                continue;
+            }
+            // Updates that would have been sent while the update was deferred were
+            // replaced by this update.
+            int dropped = Math.max(renderer.getTicksSinceRender() / update.level.getUpdateInterval() - 1, 0);
+            // Charge what was sent, which is less than the cost with DeadReckoning.
+            int updatedCount = renderer.render(update.level);
+            for (int i = 0; i < players.size(); i++) {
+                this.remainingBudgets[players.getInt(i)] -= updatedCount;
+            }
+            if (updatedCount > 0) {
+                this.droppedCount += dropped;
+                this.sentCount++;
+            }
+        }
+
+        for (int i = 0; i < this.updateCount; i++) {
+            Update unused = this.updates.get(i);
+            unused.renderer = null;
+            unused.interest = null;
+        }
+        this.updateCount = 0;
+    }
+
+    private boolean canAfford(@NotNull IntList players, int cost) {
+        for (int i = 0; i < players.size(); i++) {
+            if (this.remainingBudgets[players.getInt(i)] < cost) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Get the number of entity updates that are sent to each player per tick.
+     *
+     * @return The budget, unit: entity updates per player per tick.
+     */
+    public int getBudget() {
+        return this.budget;
+    }
+
+    /**
+     * Set the number of entity updates that are sent to each player per tick.
+     *
+     * @param budget The budget, unit: entity updates per player per tick.
+     */
+    public void setBudget(int budget) {
+        if (budget < 1) {
+            throw new IllegalArgumentException("The budget must be positive.");
+        }
+        this.budget = budget;
+    }
+
+    /**
+     * Get the number of vehicle updates that have been sent.
+     *
+     * @return The number of updates.
+     */
+    public long getSentCount() {
+        return this.sentCount;
+    }
+
+    /**
+     * Get the number of times that a vehicle update has been deferred by a tick
+     * because a player had no budget left.
+     *
+     * @return The number of times.
+     */
+    public long getDeferredCount() {
+        return this.deferredCount;
+    }
+
+    /**
+     * Get the number of vehicle updates that were never sent, because a deferred
+     * update was sent in their place.
+     *
+     * @return The number of updates.
+     */
+    public long getDroppedCount() {
+        return this.droppedCount;
+    }
+}
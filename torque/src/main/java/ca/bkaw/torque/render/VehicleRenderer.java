@@ -14,57 +14,345 @@ import ca.bkaw.torque.tags.SeatTags;
 import ca.bkaw.torque.util.Debug;
 import ca.bkaw.torque.vehicle.PartTransformationProvider;
 import ca.bkaw.torque.vehicle.Vehicle;
-import ca.bkaw.torque.vehicle.VehicleComponent;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.joml.Matrix4f;
 import org.joml.Quaternionf;
 import org.joml.Quaternionfc;
 import org.joml.Vector3f;
+import org.joml.Vector3fc;
 import org.joml.Vector3d;
 import org.joml.Vector3dc;
 
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 public class VehicleRenderer {
     private static final Quaternionf ROTATE_Y_180 = new Quaternionf().rotateAxis((float) Math.PI, 0, 1, 0);
 
-    public record RenderEntity(@NotNull ItemDisplay display, @NotNull Matrix4f transformation) {}
+    /**
+     * The smallest change of an element of a transformation matrix that is sent to
+     * the client. Smaller changes are not visible.
+     */
+    private static final float TRANSFORMATION_EPSILON = 1e-4f;
+    /**
+     * The smallest change of position that is sent to the client, unit: meter.
+     */
+    private static final double POSITION_EPSILON = 1e-4;
+    /**
+     * The distance that clients render entities at with a view range of 1 and the
+     * default settings, unit: meter.
+     */
+    private static final double DEFAULT_VIEW_DISTANCE = 64;
+    /**
+     * The longest duration that the client interpolates over, unit: ticks.
+     */
+    private static final int MAX_INTERPOLATION_DURATION = 59;
+    /**
+     * The view range of small parts, so that clients stop rendering them at the
+     * distance where they are no longer updated, see
+     * {@link RenderLevel#areSmallPartsVisible()}.
+     */
+    private static final float SMALL_PART_VIEW_RANGE
+        = (float) (RenderLevel.FULL.getMaxDistance() / DEFAULT_VIEW_DISTANCE);
+
+    /**
+     * An entity that renders a part of the vehicle, along with the state that was
+     * last sent to it.
+     * <p>
+     * Values are only passed to the entity when they differ from the last sent value,
+     * so that vehicles that are standing still do not cause any entity updates.
+     * <p>
+     * With {@link DeadReckoning}, the entity also keeps track of the state that the
+     * client interpolates from and to, so that it can tell where the client renders
+     * the entity without sending anything.
+     */
+    public static class RenderEntity {
+        private final @NotNull ItemDisplay display;
+        /**
+         * The transformation being built for this tick.
+         */
+        private final Matrix4f transformation = new Matrix4f();
+        private final Matrix4f sentTransformation = new Matrix4f();
+        private final Vector3d sentPosition = new Vector3d();
+        private boolean sentGlowing;
+        private int sentGlowColor;
+        private int sentInterpolationDuration = -1;
+        private boolean hasSentTransformation = false;
+        private boolean hasSentPosition = false;
+        private boolean hasSentGlowing = false;
+        private boolean hasSentGlowColor = false;
+        /**
+         * Whether a value was sent since the last render.
+         */
+        private boolean updated = false;
+
+        // The client interpolates from the "from" state to the sent state over
+        // predictionTicks ticks. The rotation and translation are the parts of the
+        // transformation that the client interpolates.
+        private final Vector3f fromTranslation = new Vector3f();
+        private final Quaternionf fromRotation = new Quaternionf();
+        private final Vector3d fromPosition = new Vector3d();
+        private final Vector3f sentTranslation = new Vector3f();
+        private final Quaternionf sentRotation = new Quaternionf();
+        private int predictionTicks = 0; // unit: ticks, 0 when nothing is predicted
+        private int predictionAge = 0; // unit: ticks
+
+        // Scratch objects, reused each tick to avoid allocating.
+        private final Vector3f translation = new Vector3f();
+        private final Quaternionf rotation = new Quaternionf();
+        private final Vector3f clientTranslation = new Vector3f();
+        private final Quaternionf clientRotation = new Quaternionf();
+        private final Vector3d clientPosition = new Vector3d();
+
+        public RenderEntity(@NotNull ItemDisplay display) {
+            this.display = display;
+        }
+
+        public @NotNull ItemDisplay display() {
+            return this.display;
+        }
+
+        /**
+         * Send the transformation that was built in {@link #transformation} if it
+         * differs visibly from the last sent transformation.
+         * <p>
+         * The interpolation is restarted together with the new transformation, so the
+         * client interpolates from where the entity is rendered to the new
+         * transformation. When nothing is sent, the client finishes the previous
+         * interpolation and keeps rendering the last transformation.
+         */
+        private void sendTransformation() {
+            if (this.hasSentTransformation && this.sentTransformation.equals(this.transformation, TRANSFORMATION_EPSILON)) {
+                return;
+            }
+            this.sentTransformation.set(this.transformation);
+            this.hasSentTransformation = true;
+            this.transformation.getTranslation(this.sentTranslation);
+            this.transformation.getNormalizedRotation(this.sentRotation);
+            this.display.setTransformation(this.transformation);
+            this.display.setStartInterpolation(0);
+            this.updated = true;
+        }
+
+        /**
+         * Send the position if it differs visibly from the last sent position.
+         *
+         * @param position The position.
+         */
+        private void sendPosition(@NotNull Vector3dc position) {
+            if (this.hasSentPosition && this.sentPosition.equals(position, POSITION_EPSILON)) {
+                return;
+            }
+            this.sentPosition.set(position);
+            this.hasSentPosition = true;
+            this.display.setPosition(position);
+            this.updated = true;
+        }
+
+        /**
+         * Send the number of ticks that the client interpolates the position and
+         * transformation over, if it differs from the last sent duration.
+         *
+         * @param ticks The number of ticks.
+         */
+        private void sendInterpolationDuration(int ticks) {
+            if (this.sentInterpolationDuration == ticks) {
+                return;
+            }
+            this.sentInterpolationDuration = ticks;
+            this.display.setTeleportDuration(ticks);
+            this.display.setInterpolationDuration(ticks);
+            this.updated = true;
+        }
+
+        /**
+         * Send the glow state if it differs from the last sent glow state.
+         *
+         * @param glowing Whether the entity should glow.
+         * @param glowColor The glow color, or null to keep the current color.
+         */
+        private void sendGlowing(boolean glowing, @Nullable Integer glowColor) {
+            if (!this.hasSentGlowing || this.sentGlowing != glowing) {
+                this.sentGlowing = glowing;
+                this.hasSentGlowing = true;
+                this.display.setGlowing(glowing);
+                this.updated = true;
+            }
+            if (glowColor != null && (!this.hasSentGlowColor || this.sentGlowColor != glowColor)) {
+                this.sentGlowColor = glowColor;
+                this.hasSentGlowColor = true;
+                this.display.setGlowColor(glowColor);
+                this.updated = true;
+            }
+        }
+
+        /**
+         * Send the transformation that was built in {@link #transformation} as the
+         * current state, to be interpolated over the given number of ticks.
+         *
+         * @param ticks The number of ticks since the last update.
+         * @param position The position, or null to not send a position.
+         */
+        private void sendCurrent(int ticks, @Nullable Vector3dc position) {
+            this.predictionTicks = 0;
+            this.sendInterpolationDuration(ticks);
+            this.sendTransformation();
+            if (position != null) {
+                this.sendPosition(position);
+            }
+        }
+
+        /**
+         * Get the distance from the origin of the vehicle to the translation of the
+         * transformation that was built in {@link #transformation}.
+         *
+         * @return The distance, unit: meter.
+         */
+        private float getTranslationLength() {
+            return this.transformation.getTranslation(this.translation).length();
+        }
+
+        /**
+         * Compute the state that the client renders the entity at now.
+         */
+        private void updateClientState() {
+            float progress = this.predictionTicks > 0
+                ? Math.min(this.predictionAge / (float) this.predictionTicks, 1)
+                : 1;
+            this.fromTranslation.lerp(this.sentTranslation, progress, this.clientTranslation);
+            this.fromRotation.slerp(this.sentRotation, progress, this.clientRotation);
+            this.fromPosition.lerp(this.sentPosition, progress, this.clientPosition);
+        }
+
+        /**
+         * Check whether the client renders the entity close enough to the actual
+         * state that was built in {@link #transformation}, and will keep doing so
+         * until the next render.
+         *
+         * @param deadReckoning The thresholds.
+         * @param position The actual position, or null to not check the position.
+         * @param nextRenderTicks The number of ticks until the next render.
+         * @return True if no new prediction needs to be sent.
+         */
+        private boolean isPredictionAccurate(@NotNull DeadReckoning deadReckoning, @Nullable Vector3dc position, int nextRenderTicks) {
+            if (this.predictionTicks == 0 || this.predictionAge + nextRenderTicks > this.predictionTicks) {
+                return false;
+            }
+            this.updateClientState();
+            this.transformation.getTranslation(this.translation);
+            this.transformation.getNormalizedRotation(this.rotation);
+            double angle = 2 * Math.acos(Math.min(Math.abs(this.rotation.dot(this.clientRotation)), 1));
+            return this.translation.distance(this.clientTranslation) <= deadReckoning.getPositionThreshold()
+                && angle <= deadReckoning.getAngleThreshold()
+                && (position == null || position.distance(this.clientPosition) <= deadReckoning.getPositionThreshold());
+        }
+
+        /**
+         * Send the predicted transformation that was built in {@link #transformation},
+         * to be interpolated towards from where the client renders the entity now.
+         *
+         * @param ticks The number of ticks ahead that the transformation is
+         *              predicted.
+         * @param position The predicted position, or null to not send a position.
+         */
+        private void sendPrediction(int ticks, @Nullable Vector3dc position) {
+            this.updateClientState();
+            this.fromTranslation.set(this.clientTranslation);
+            this.fromRotation.set(this.clientRotation);
+            this.fromPosition.set(this.clientPosition);
+            boolean hadSentTransformation = this.hasSentTransformation;
+            boolean hadSentPosition = this.hasSentPosition;
+
+            this.sendInterpolationDuration(ticks);
+            this.sendTransformation();
+            if (position != null) {
+                this.sendPosition(position);
+            }
+            // The first values are not interpolated.
+            if (!hadSentTransformation) {
+                this.fromTranslation.set(this.sentTranslation);
+                this.fromRotation.set(this.sentRotation);
+            }
+            if (!hadSentPosition) {
+                this.fromPosition.set(this.sentPosition);
+            }
+            this.predictionTicks = ticks;
+            this.predictionAge = 0;
+        }
+    }
 
     private final @NotNull Vehicle vehicle;
     private final @NotNull RenderEntity primary;
     private final Map<VehicleModelPart, RenderEntity> partEntities = new HashMap<>();
+    /**
+     * The entities of the parts that are small enough to be hidden at a distance,
+     * like the steering wheel and lights.
+     */
+    private final Set<RenderEntity> smallPartEntities = new HashSet<>();
     private final @Nullable SeatTags.Seat viewportSeat;
     private final Map<SeatTags.Seat, RenderEntity> seatEntities = new HashMap<>();
     private final @Nullable InteractionEntity hitbox;
+    private final Vector3d sentHitboxPosition = new Vector3d();
+    private boolean hasSentHitboxPosition = false;
+    private @NotNull RenderLevel level = RenderLevel.FULL;
+    private int ticksSinceRender = 0; // unit: ticks
+    /**
+     * Whether the exact state was sent after the vehicle stopped moving, see
+     * {@link #renderStopped()}.
+     */
+    private boolean stopped = false;
+    /**
+     * The velocity at the last render, to estimate the acceleration for
+     * {@link DeadReckoning}.
+     */
+    private final Vector3d lastVelocity = new Vector3d(); // unit: m/s
 
     // Cached from RigidBodyComponent
     private World vehicleWorld;
     private Vector3dc vehiclePosition;
     private Quaternionfc vehicleOrientation;
 
+    // Scratch objects, reused each tick to avoid allocating.
+    private final Vector3d primaryPosition = new Vector3d();
+    private final Vector3f viewportTranslation = new Vector3f();
+    private final Vector3f predictedViewportTranslation = new Vector3f();
+    private final Quaternionf predictedOrientation = new Quaternionf();
+    private final Quaternionf predictedPartRotation = new Quaternionf();
+    private final Vector3d acceleration = new Vector3d();
+
     public VehicleRenderer(@NotNull Vehicle vehicle, ItemDisplay primaryEntity) {
         this.vehicle = vehicle;
 
-        this.primary = new RenderEntity(
-            primaryEntity,
-            new Matrix4f()
-        );
-        this.primary.display.setTeleportDuration(1);
-        this.primary.display.setInterpolationDuration(1);
+        this.primary = new RenderEntity(primaryEntity);
+        this.primary.sendInterpolationDuration(this.level.getUpdateInterval());
 
         for (VehicleModelPart vehiclePart : vehicle.getType().model().getParts()) {
-            ItemDisplay partEntity = primaryEntity.getWorld().spawnItemDisplay(primaryEntity.getPosition());
+            // Parts are only rendered, so use virtual entities when the platform
+            // supports them to avoid the server ticking, tracking and saving them.
+            ItemDisplay partEntity = primaryEntity.getWorld().spawnVirtualItemDisplay(primaryEntity);
+            boolean virtual = partEntity != null;
+            if (partEntity == null) {
+                partEntity = primaryEntity.getWorld().spawnItemDisplay(primaryEntity.getPosition());
+            }
             partEntity.setItem(
                 vehicle.getTorque().getPlatform().createModelItem(vehiclePart.modelIdentifier())
             );
-            partEntity.setTeleportDuration(1);
-            partEntity.setInterpolationDuration(1);
-            partEntity.mountVehicle(primaryEntity);
-            this.partEntities.put(vehiclePart, new RenderEntity(partEntity, new Matrix4f()));
-            vehicle.getTorque().getVehicleManager().setVehiclePart(partEntity, vehicle);
+            RenderEntity renderEntity = new RenderEntity(partEntity);
+            renderEntity.sendInterpolationDuration(this.level.getUpdateInterval());
+            if (isSmallPart(vehiclePart)) {
+                partEntity.setViewRange(SMALL_PART_VIEW_RANGE);
+                this.smallPartEntities.add(renderEntity);
+            }
+            this.partEntities.put(vehiclePart, renderEntity);
+            if (!virtual) {
+                partEntity.mountVehicle(primaryEntity);
+                vehicle.getTorque().getVehicleManager().setVehiclePart(partEntity, vehicle);
+            }
         }
 
         List<SeatTags.Seat> seats = vehicle.getType().model().getTagData(SeatTags.class).orElse(List.of());
@@ -102,10 +390,18 @@ public class VehicleRenderer {
         return this.primary.display;
     }
 
+    private static boolean isSmallPart(@NotNull VehicleModelPart part) {
+        return part.name().contains("steering_wheel") || part.name().startsWith("light");
+    }
+
     private Vector3f getSeatTranslation(@NotNull SeatTags.Seat seat) {
-        return new Vector3f(seat.translation())
+        return this.getSeatTranslation(seat, this.vehicleOrientation, new Vector3f());
+    }
+
+    private Vector3f getSeatTranslation(@NotNull SeatTags.Seat seat, @NotNull Quaternionfc orientation, @NotNull Vector3f dest) {
+        return dest.set(seat.translation())
             .add(this.vehicle.getType().model().getPrimary().translation())
-            .rotate(this.vehicleOrientation);
+            .rotate(orientation);
     }
 
     /**
@@ -118,78 +414,288 @@ public class VehicleRenderer {
      */
     @NotNull
     private PartTransformationProvider.PartTransform getPartTransform(@NotNull String partName, @Nullable Object partData) {
-        for (VehicleComponent component : this.vehicle.getComponents()) {
-            if (component instanceof PartTransformationProvider provider) {
-                PartTransformationProvider.PartTransform transform = provider.getPartTransform(partName, partData, this.vehicle);
-                if (transform != null) {
-                    return transform;
-                }
+        for (PartTransformationProvider provider : this.vehicle.getPartTransformationProviders()) {
+            PartTransformationProvider.PartTransform transform = provider.getPartTransform(partName, partData, this.vehicle);
+            if (transform != null) {
+                return transform;
             }
         }
         return new PartTransformationProvider.PartTransform(new Quaternionf(), new Vector3f(), false, null);
     }
 
-    public void render() {
-        RigidBodyComponent rigidBody = this.vehicle.getComponent(RigidBodyComponent.class).orElseThrow();
+    /**
+     * Count a tick since the vehicle was last rendered. Called once per tick while the
+     * vehicle is awake, before checking {@link #isRenderDue}.
+     */
+    public void tick() {
+        this.ticksSinceRender++;
+    }
 
-        this.vehicleWorld = rigidBody.getWorld();
-        this.vehiclePosition = rigidBody.getPosition();
-        this.vehicleOrientation = rigidBody.getOrientation();
+    /**
+     * Get the number of ticks since the vehicle was last rendered.
+     *
+     * @return The number of ticks, unit: ticks.
+     */
+    public int getTicksSinceRender() {
+        return this.ticksSinceRender;
+    }
 
-        Vector3f viewportTranslation = this.viewportSeat != null
-            ? this.getSeatTranslation(this.viewportSeat)
-            : new Vector3f();
-        viewportTranslation.negate();
+    /**
+     * Check whether it is time to render the vehicle at the given level. Vehicles
+     * are rendered right away when their level changes.
+     *
+     * @param level The level, see {@link InterestManager}.
+     * @return True if the vehicle should be rendered.
+     */
+    public boolean isRenderDue(@NotNull RenderLevel level) {
+        return level != this.level || this.ticksSinceRender >= level.getUpdateInterval();
+    }
 
-        VehicleModelPart primaryPart = this.vehicle.getType().model().getPrimary();
+    /**
+     * Get the number of entities that are updated when the vehicle is rendered at the
+     * given level, at most.
+     *
+     * @param level The level.
+     * @return The number of entities.
+     */
+    public int getEntityCount(@NotNull RenderLevel level) {
+        int count = 1 + this.partEntities.size() + this.seatEntities.size() + (this.hitbox != null ? 1 : 0);
+        if (!level.areSmallPartsVisible()) {
+            count -= this.smallPartEntities.size();
+        }
+        return count;
+    }
 
-        // Transformations apply in reverse order because
-        // of how matrix multiplication works
-        this.primary.transformation.identity()
-            .translate(viewportTranslation)
-            .rotate(this.vehicleOrientation)
-            .translate(primaryPart.translation())
-            .scale(primaryPart.scale())
-            .rotate(ROTATE_Y_180)
-            .translate((float) Math.random() * 0.0001f, 0, 0)
-        ;
-        this.primary.display.setTransformation(this.primary.transformation);
-        this.primary.display.setPosition(this.vehiclePosition.sub(viewportTranslation, new Vector3d()));
-        this.primary.display.setStartInterpolation(0);
+    /**
+     * Render the vehicle at a level.
+     *
+     * @param level The level, see {@link InterestManager}.
+     * @return The number of entities that were updated.
+     */
+    public int render(@NotNull RenderLevel level) {
+        this.level = level;
+        return this.render();
+    }
+
+    /**
+     * Send the exact state of a vehicle that stopped moving, once. The client may
+     * otherwise be left rendering a skipped or predicted state.
+     */
+    public void renderStopped() {
+        if (!this.stopped) {
+            this.render((DeadReckoning) null);
+            this.stopped = true;
+        }
+    }
+
+    /**
+     * Render the vehicle now.
+     *
+     * @return The number of entities that were updated.
+     */
+    public int render() {
+        DeadReckoning deadReckoning = this.vehicle.getTorque().getVehicleManager().getDeadReckoning();
+        return this.render(deadReckoning.isEnabled() ? deadReckoning : null);
+    }
+
+    /**
+     * Render the vehicle.
+     *
+     * @param deadReckoning The dead reckoning settings, or null to send the current
+     *                      state.
+     * @return The number of entities that were updated.
+     */
+    private int render(@Nullable DeadReckoning deadReckoning) {
+        // Interpolate over the time since the last render, which is longer than the
+        // update interval when the render was deferred, see UpdateScheduler.
+        int elapsedTicks = this.ticksSinceRender;
+        int interpolationDuration = Math.clamp(elapsedTicks, 1, MAX_INTERPOLATION_DURATION);
+        int nextRenderTicks = this.level.getUpdateInterval();
+        this.ticksSinceRender = 0;
+        this.stopped = false;
+        boolean smallPartsVisible = this.level.areSmallPartsVisible();
+
+        RigidBodyComponent rigidBody = Objects.requireNonNull(this.vehicle.get(RigidBodyComponent.TYPE));
+
+        this.vehicleWorld = rigidBody.getWorld();
+        this.vehiclePosition = rigidBody.getPosition();
+        this.vehicleOrientation = rigidBody.getOrientation();
+        Vector3dc velocity = rigidBody.getVelocity();
+        Vector3dc angularVelocity = rigidBody.getAngularVelocity();
+        double angularSpeed = angularVelocity.length();
+        if (elapsedTicks > 0) {
+            velocity.sub(this.lastVelocity, this.acceleration).div(elapsedTicks * RigidBodyComponent.DELTA_TIME);
+        } else {
+            this.acceleration.zero();
+        }
+        this.lastVelocity.set(velocity);
+
+        // Perform primary rendering.
+        this.getViewportTranslation(this.vehicleOrientation, this.viewportTranslation);
+        this.buildPrimaryTransformation(this.primary.transformation, this.vehicleOrientation, this.viewportTranslation);
+        this.vehiclePosition.sub(this.viewportTranslation, this.primaryPosition);
+        if (deadReckoning == null) {
+            this.primary.sendCurrent(interpolationDuration, this.primaryPosition);
+        } else {
+            this.primary.predictionAge += elapsedTicks;
+            if (!this.primary.isPredictionAccurate(deadReckoning, this.primaryPosition, nextRenderTicks)) {
+                // The position turns with the viewport translation as well.
+                double radius = this.primary.getTranslationLength() + this.viewportTranslation.length();
+                int ticks = Math.max(
+                    deadReckoning.getPredictionTicks(velocity.length(), this.acceleration.length(), angularSpeed, radius),
+                    nextRenderTicks
+                );
+                this.predictOrientation(angularVelocity, ticks, this.predictedOrientation);
+                this.getViewportTranslation(this.predictedOrientation, this.viewportTranslation);
+                this.buildPrimaryTransformation(this.primary.transformation, this.predictedOrientation, this.viewportTranslation);
+                double time = ticks * RigidBodyComponent.DELTA_TIME; // unit: seconds
+                this.primaryPosition.set(this.acceleration)
+                    .mul(time * time / 2)
+                    .fma(time, velocity)
+                    .add(this.vehiclePosition)
+                    .sub(this.viewportTranslation);
+                this.primary.sendPrediction(ticks, this.primaryPosition);
+            }
+        }
 
         // Perform part rendering.
+        this.getViewportTranslation(this.vehicleOrientation, this.viewportTranslation);
         for (Map.Entry<VehicleModelPart, RenderEntity> entry : this.partEntities.entrySet()) {
             VehicleModelPart modelPart = entry.getKey();
             RenderEntity partEntity = entry.getValue();
-            
+            if (!smallPartsVisible && this.smallPartEntities.contains(partEntity)) {
+                // Clients do not render small parts this far away, see
+                // SMALL_PART_VIEW_RANGE. Send a new prediction once they are
+                // visible again.
+                partEntity.predictionTicks = 0;
+                continue;
+            }
+
             // Get the rotation for this part from components
             PartTransformationProvider.PartTransform partTransform = this.getPartTransform(modelPart.name(), modelPart.data());
 
-            partEntity.display.setGlowing(partTransform.isGlowing());
-            Integer glowColor = partTransform.getGlowColor();
-            if (glowColor != null) {
-                partEntity.display.setGlowColor(glowColor);
-            }
+            partEntity.sendGlowing(partTransform.isGlowing(), partTransform.getGlowColor());
 
-            partEntity.transformation.identity()
-                .translate(viewportTranslation)
-                .rotate(this.vehicleOrientation)
-                .translate(modelPart.translation())
-                .scale(modelPart.scale())
-                .rotate(partTransform.getRotation()) // Apply component-controlled rotation
-                .rotate(ROTATE_Y_180)
-                .translate((float) Math.random() * 0.0001f, 0, 0)
-            ;
-            partEntity.display.setTransformation(partEntity.transformation);
-            partEntity.display.setStartInterpolation(0);
+            this.buildPartTransformation(partEntity.transformation, this.vehicleOrientation, this.viewportTranslation, modelPart, partTransform.getRotation());
+            if (deadReckoning == null) {
+                partEntity.sendCurrent(interpolationDuration, null);
+                continue;
+            }
+            partEntity.predictionAge += elapsedTicks;
+            if (partEntity.isPredictionAccurate(deadReckoning, null, nextRenderTicks)) {
+                continue;
+            }
+            Vector3fc partAngularVelocity = partTransform.getAngularVelocity();
+            float partAngularSpeed = partAngularVelocity.length();
+            // The part rotating around itself does not move its translation.
+            int ticks = Math.min(
+                deadReckoning.getPredictionTicks(0, 0, angularSpeed, partEntity.getTranslationLength()),
+                deadReckoning.getPredictionTicks(0, 0, angularSpeed + partAngularSpeed, 0)
+            );
+            ticks = Math.max(ticks, nextRenderTicks);
+            this.predictOrientation(angularVelocity, ticks, this.predictedOrientation);
+            this.predictedPartRotation.set(partTransform.getRotation());
+            if (partAngularSpeed > 0) {
+                float angle = partAngularSpeed * ticks * (float) RigidBodyComponent.DELTA_TIME;
+                this.predictedPartRotation.rotateAxis(
+                    angle,
+                    partAngularVelocity.x() / partAngularSpeed,
+                    partAngularVelocity.y() / partAngularSpeed,
+                    partAngularVelocity.z() / partAngularSpeed
+                );
+            }
+            this.getViewportTranslation(this.predictedOrientation, this.predictedViewportTranslation);
+            this.buildPartTransformation(partEntity.transformation, this.predictedOrientation, this.predictedViewportTranslation, modelPart, this.predictedPartRotation);
+            partEntity.sendPrediction(ticks, null);
         }
 
         // Perform seat rendering.
-        this.vehicle.getComponent(SeatsComponent.class).ifPresent(this::renderSeats);
+        SeatsComponent seats = this.vehicle.get(SeatsComponent.TYPE);
+        if (seats != null) {
+            this.renderSeats(seats);
+        }
 
         // Perform hitbox rendering.
-        if (this.hitbox != null) {
+        int updatedCount = 0;
+        if (this.hitbox != null
+            && (!this.hasSentHitboxPosition || !this.sentHitboxPosition.equals(this.vehiclePosition, POSITION_EPSILON))) {
+            this.sentHitboxPosition.set(this.vehiclePosition);
+            this.hasSentHitboxPosition = true;
             this.hitbox.setPosition(this.vehiclePosition);
+            updatedCount++;
+        }
+
+        updatedCount += countUpdated(this.primary);
+        for (RenderEntity entity : this.partEntities.values()) {
+            updatedCount += countUpdated(entity);
+        }
+        for (RenderEntity entity : this.seatEntities.values()) {
+            if (entity != this.primary) {
+                updatedCount += countUpdated(entity);
+            }
+        }
+        return updatedCount;
+    }
+
+    private static int countUpdated(@NotNull RenderEntity entity) {
+        boolean updated = entity.updated;
+        entity.updated = false;
+        return updated ? 1 : 0;
+    }
+
+    /**
+     * Get the translation that moves the viewport seat to the position of the
+     * primary entity, so that the primary entity is where the driver sits.
+     */
+    private void getViewportTranslation(@NotNull Quaternionfc orientation, @NotNull Vector3f dest) {
+        if (this.viewportSeat != null) {
+            this.getSeatTranslation(this.viewportSeat, orientation, dest).negate();
+        } else {
+            dest.zero();
+        }
+    }
+
+    private void buildPrimaryTransformation(@NotNull Matrix4f dest, @NotNull Quaternionfc orientation, @NotNull Vector3fc viewportTranslation) {
+        VehicleModelPart primaryPart = this.vehicle.getType().model().getPrimary();
+
+        // Transformations apply in reverse order because
+        // of how matrix multiplication works
+        dest.identity()
+            .translate(viewportTranslation)
+            .rotate(orientation)
+            .translate(primaryPart.translation())
+            .scale(primaryPart.scale())
+            .rotate(ROTATE_Y_180)
+        ;
+    }
+
+    private void buildPartTransformation(@NotNull Matrix4f dest, @NotNull Quaternionfc orientation, @NotNull Vector3fc viewportTranslation, @NotNull VehicleModelPart modelPart, @NotNull Quaternionfc partRotation) {
+        dest.identity()
+            .translate(viewportTranslation)
+            .rotate(orientation)
+            .translate(modelPart.translation())
+            .scale(modelPart.scale())
+            .rotate(partRotation) // Apply component-controlled rotation
+            .rotate(ROTATE_Y_180)
+        ;
+    }
+
+    /**
+     * Predict the orientation of the vehicle a number of ticks ahead, assuming that
+     * the angular velocity stays the same.
+     */
+    private void predictOrientation(@NotNull Vector3dc angularVelocity, int ticks, @NotNull Quaternionf dest) {
+        dest.set(this.vehicleOrientation);
+        double angularSpeed = angularVelocity.length();
+        if (angularSpeed > 0) {
+            // The angular velocity is in the local space of the vehicle, like when
+            // the rigid body is integrated.
+            dest.rotateAxis(
+                (float) (angularSpeed * ticks * RigidBodyComponent.DELTA_TIME),
+                (float) (angularVelocity.x() / angularSpeed),
+                (float) (angularVelocity.y() / angularSpeed),
+                (float) (angularVelocity.z() / angularSpeed)
+            );
         }
     }
 
@@ -220,15 +726,14 @@ public class VehicleRenderer {
                 // Create a new render entity for this seat
                 ItemDisplay display = this.vehicleWorld.spawnItemDisplay(seatPosition);
                 this.vehicle.getTorque().getVehicleManager().setVehiclePart(display, this.vehicle);
-                display.setTeleportDuration(1);
-                renderEntity = new RenderEntity(display, new Matrix4f());
+                renderEntity = new RenderEntity(display);
+                renderEntity.sendInterpolationDuration(this.level.getUpdateInterval());
                 this.seatEntities.put(seat, renderEntity);
                 passengerData.passenger().mountVehicle(display);
                 Debug.print("Creating seat now");
             }
 
-            renderEntity.display.setPosition(seatPosition);
-            renderEntity.display.setStartInterpolation(0);
+            renderEntity.sendPosition(seatPosition);
         }
 
         if (count < this.seatEntities.size()) {
@@ -20,6 +20,30 @@ public class AABB {
         this.maxZ = maxZ;
     }
 
+    public double getMinX() {
+        return this.minX;
+    }
+
+    public double getMinY() {
+        return this.minY;
+    }
+
+    public double getMinZ() {
+        return this.minZ;
+    }
+
+    public double getMaxX() {
+        return this.maxX;
+    }
+
+    public double getMaxY() {
+        return this.maxY;
+    }
+
+    public double getMaxZ() {
+        return this.maxZ;
+    }
+
     public boolean contains(double x, double y, double z) {
         return x >= this.minX && x <= this.maxX &&
                y >= this.minY && y <= this.maxY &&
@@ -1,14 +1,10 @@
 package ca.bkaw.torque.util;
 
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import org.joml.Quaternionf;
 import org.joml.Quaternionfc;
-import org.joml.RoundingMode;
 import org.joml.Vector3d;
 import org.joml.Vector3dc;
-import org.joml.Vector3i;
-import org.joml.Vector3ic;
-
-import java.util.HashSet;
-import java.util.Set;
 
 /**
  * An oriented bounding box (OBB).
@@ -16,14 +12,53 @@ import java.util.Set;
  * An OBB is a bounding box not necessarily aligned with the axes.
  */
 public class OBB {
-    private final Vector3dc center;
-    private final Vector3dc halfSize;
-    private final Quaternionfc rotation;
+    /**
+     * The number of axes that are checked when finding the blocks inside the box.
+     */
+    private static final int SEPARATING_AXES = 12;
+    /**
+     * Margin added when checking for overlap, to include blocks that touch the box
+     * despite rounding errors.
+     */
+    private static final double EPSILON = 1e-9;
+    /**
+     * How close to perpendicular to a direction an axis of the box must be for the
+     * support point to be centered along that axis, as the cosine of the angle.
+     */
+    private static final double FLAT_TOLERANCE = 0.05;
+
+    private final Vector3d center = new Vector3d();
+    private final Vector3d halfSize = new Vector3d();
+    private final Quaternionf rotation = new Quaternionf();
+
+    // Scratch objects, to avoid allocating when iterating blocks.
+    private final Vector3d directionX = new Vector3d();
+    private final Vector3d directionY = new Vector3d();
+    private final Vector3d directionZ = new Vector3d();
+    private final double[] axes = new double[SEPARATING_AXES * 3];
+    private final double[] radii = new double[SEPARATING_AXES];
+    private final double[] boxAxes = new double[9];
+
+    public OBB() {}
 
     public OBB(Vector3dc center, Vector3dc halfSize, Quaternionfc rotation) {
-        this.center = center;
-        this.halfSize = halfSize;
-        this.rotation = rotation;
+        this.set(center, halfSize, rotation);
+    }
+
+    /**
+     * Set the box. The values are copied, so the OBB can be reused instead of
+     * creating a new one each tick.
+     *
+     * @param center The center of the box.
+     * @param halfSize The half size of the box along its local axes.
+     * @param rotation The rotation of the box.
+     * @return This OBB.
+     */
+    public OBB set(Vector3dc center, Vector3dc halfSize, Quaternionfc rotation) {
+        this.center.set(center);
+        this.halfSize.set(halfSize);
+        this.rotation.set(rotation);
+        return this;
     }
 
     public Vector3dc getCenter() {
@@ -50,35 +85,194 @@ public class OBB {
         return corners;
     }
 
-    public Set<Vector3ic> getBlocksInsideApprox() {
-        Set<Vector3ic> vectors = new HashSet<>();
+    /**
+     * Get the half size of the axis-aligned box that covers this box.
+     *
+     * @param dest The vector to store the result in.
+     * @return The half size.
+     */
+    public Vector3d getExtent(Vector3d dest) {
+        double[] a = this.computeAxes();
+        double hx = this.halfSize.x, hy = this.halfSize.y, hz = this.halfSize.z;
+        return dest.set(
+            hx * Math.abs(a[0]) + hy * Math.abs(a[3]) + hz * Math.abs(a[6]),
+            hx * Math.abs(a[1]) + hy * Math.abs(a[4]) + hz * Math.abs(a[7]),
+            hx * Math.abs(a[2]) + hy * Math.abs(a[5]) + hz * Math.abs(a[8])
+        );
+    }
 
-        // Start in the negative corner
-        Vector3d start = this.rotation.transform(new Vector3d(this.halfSize).negate()).add(this.center);
+    /**
+     * Get the point of the box that is furthest along a direction.
+     * <p>
+     * When a face or edge of the box is almost perpendicular to the direction, the
+     * center of the face or edge is returned instead of one of its corners.
+     *
+     * @param direction The direction.
+     * @param dest The vector to store the result in.
+     * @return The support point.
+     */
+    public Vector3d getSupportPoint(Vector3dc direction, Vector3d dest) {
+        double[] a = this.computeAxes();
+        dest.set(this.center);
+        for (int i = 0; i < 3; i++) {
+            double ax = a[i * 3], ay = a[i * 3 + 1], az = a[i * 3 + 2];
+            double dot = direction.x() * ax + direction.y() * ay + direction.z() * az;
+            if (Math.abs(dot) < FLAT_TOLERANCE * direction.length()) {
+                continue;
+            }
+            double offset = Math.copySign(this.halfSize.get(i), dot);
+            dest.add(ax * offset, ay * offset, az * offset);
+        }
+        return dest;
+    }
 
-        Vector3d directionX = this.rotation.transform(new Vector3d(1, 0, 0));
-        Vector3d directionY = this.rotation.transform(new Vector3d(0, 1, 0));
-        Vector3d directionZ = this.rotation.transform(new Vector3d(0, 0, 1));
+    /**
+     * Check whether this box overlaps another box using the separating axis theorem,
+     * and find the axis along which the boxes overlap the least.
+     *
+     * @param other The other box.
+     * @param normal The vector to store the unit axis of least overlap in, pointing
+     *               from this box towards the other box. Only set if the boxes
+     *               overlap.
+     * @return How far the boxes overlap along the normal, or a negative number if the
+     * boxes do not overlap. Unit: meter.
+     */
+    public double getPenetration(OBB other, Vector3d normal) {
+        double[] a = this.computeAxes();
+        double[] b = other.computeAxes();
+        double dx = other.center.x - this.center.x;
+        double dy = other.center.y - this.center.y;
+        double dz = other.center.z - this.center.z;
+        double minDepth = Double.POSITIVE_INFINITY;
+        // The 3 axes of each box, and the 9 cross products of their axes.
+        for (int k = 0; k < 15; k++) {
+            double lx, ly, lz;
+            if (k < 3) {
+                lx = a[k * 3]; ly = a[k * 3 + 1]; lz = a[k * 3 + 2];
+            } else if (k < 6) {
+                lx = b[(k - 3) * 3]; ly = b[(k - 3) * 3 + 1]; lz = b[(k - 3) * 3 + 2];
+            } else {
+                int i = (k - 6) / 3 * 3, j = (k - 6) % 3 * 3;
+                lx = a[i + 1] * b[j + 2] - a[i + 2] * b[j + 1];
+                ly = a[i + 2] * b[j] - a[i] * b[j + 2];
+                lz = a[i] * b[j + 1] - a[i + 1] * b[j];
+                double length = Math.sqrt(lx * lx + ly * ly + lz * lz);
+                if (length < 1e-6) {
+                    // Parallel edges, already covered by the face axes.
+                    continue;
+                }
+                lx /= length; ly /= length; lz /= length;
+            }
+            double distance = dx * lx + dy * ly + dz * lz;
+            double depth = projectedRadius(this.halfSize, a, lx, ly, lz)
+                + projectedRadius(other.halfSize, b, lx, ly, lz)
+                - Math.abs(distance);
+            if (depth < 0) {
+                return depth;
+            }
+            if (depth < minDepth) {
+                minDepth = depth;
+                double sign = distance < 0 ? -1 : 1;
+                normal.set(lx * sign, ly * sign, lz * sign);
+            }
+        }
+        return minDepth;
+    }
+
+    private static double projectedRadius(Vector3dc halfSize, double[] axes, double lx, double ly, double lz) {
+        return halfSize.x() * Math.abs(lx * axes[0] + ly * axes[1] + lz * axes[2])
+            + halfSize.y() * Math.abs(lx * axes[3] + ly * axes[4] + lz * axes[5])
+            + halfSize.z() * Math.abs(lx * axes[6] + ly * axes[7] + lz * axes[8]);
+    }
+
+    /**
+     * Compute the rotated axes of the box into {@link #boxAxes}.
+     *
+     * @return The axes, three components per axis.
+     */
+    private double[] computeAxes() {
+        Vector3d axisX = this.rotation.transform(this.directionX.set(1, 0, 0));
+        Vector3d axisY = this.rotation.transform(this.directionY.set(0, 1, 0));
+        Vector3d axisZ = this.rotation.transform(this.directionZ.set(0, 0, 1));
+        double[] axes = this.boxAxes;
+        setAxis(axes, 0, axisX.x, axisX.y, axisX.z);
+        setAxis(axes, 1, axisY.x, axisY.y, axisY.z);
+        setAxis(axes, 2, axisZ.x, axisZ.y, axisZ.z);
+        return axes;
+    }
+
+    /**
+     * Add the blocks that overlap the box to a list. The positions are packed using
+     * {@link Util#packBlockPosition(int, int, int)}, and each position is added once.
+     * Blocks that only touch the surface of the box are included.
+     * <p>
+     * The blocks in the axis-aligned box that covers the OBB are checked against the
+     * OBB using the separating axis theorem, so no block is missed and no block
+     * outside the OBB is included.
+     *
+     * @param dest The list to add the packed positions to.
+     */
+    public void getBlocksInside(LongArrayList dest) {
+        Vector3d axisX = this.rotation.transform(this.directionX.set(1, 0, 0));
+        Vector3d axisY = this.rotation.transform(this.directionY.set(0, 1, 0));
+        Vector3d axisZ = this.rotation.transform(this.directionZ.set(0, 0, 1));
+        double hx = this.halfSize.x, hy = this.halfSize.y, hz = this.halfSize.z;
+        double cx = this.center.x, cy = this.center.y, cz = this.center.z;
 
-        Vector3d deltaX = new Vector3d();
-        Vector3d deltaY = new Vector3d();
-        Vector3d deltaZ = new Vector3d();
+        // The world axes never separate the blocks of the covering box from the OBB,
+        // so only the axes of the OBB and the cross products of the world axes and
+        // the axes of the OBB need to be checked.
+        double[] axes = this.axes;
+        setAxis(axes, 0, axisX.x, axisX.y, axisX.z);
+        setAxis(axes, 1, axisY.x, axisY.y, axisY.z);
+        setAxis(axes, 2, axisZ.x, axisZ.y, axisZ.z);
+        for (int i = 0; i < 3; i++) {
+            double ax = axes[i * 3], ay = axes[i * 3 + 1], az = axes[i * 3 + 2];
+            setAxis(axes, 3 + i * 3, 0, -az, ay); // world X × axis
+            setAxis(axes, 4 + i * 3, az, 0, -ax); // world Y × axis
+            setAxis(axes, 5 + i * 3, -ay, ax, 0); // world Z × axis
+        }
+        // The sum of the projected radii of the OBB and a block on each axis.
+        double[] radii = this.radii;
+        for (int i = 0; i < SEPARATING_AXES; i++) {
+            double lx = axes[i * 3], ly = axes[i * 3 + 1], lz = axes[i * 3 + 2];
+            double obbRadius = hx * Math.abs(lx * axisX.x + ly * axisX.y + lz * axisX.z)
+                + hy * Math.abs(lx * axisY.x + ly * axisY.y + lz * axisY.z)
+                + hz * Math.abs(lx * axisZ.x + ly * axisZ.y + lz * axisZ.z);
+            double blockRadius = 0.5 * (Math.abs(lx) + Math.abs(ly) + Math.abs(lz));
+            radii[i] = obbRadius + blockRadius + EPSILON;
+        }
 
-        Vector3d point = new Vector3d();
+        // The covering axis-aligned box.
+        double extentX = hx * Math.abs(axisX.x) + hy * Math.abs(axisY.x) + hz * Math.abs(axisZ.x);
+        double extentY = hx * Math.abs(axisX.y) + hy * Math.abs(axisY.y) + hz * Math.abs(axisZ.y);
+        double extentZ = hx * Math.abs(axisX.z) + hy * Math.abs(axisY.z) + hz * Math.abs(axisZ.z);
+        int minX = (int) Math.floor(cx - extentX), maxX = (int) Math.floor(cx + extentX);
+        int minY = (int) Math.floor(cy - extentY), maxY = (int) Math.floor(cy + extentY);
+        int minZ = (int) Math.floor(cz - extentZ), maxZ = (int) Math.floor(cz + extentZ);
 
-        for (int localDeltaX = 0; localDeltaX <= 2 * this.halfSize.x(); localDeltaX++) {
-            for (int localDeltaY = 0; localDeltaY <= 2 * this.halfSize.y(); localDeltaY++) {
-                for (int localDeltaZ = 0; localDeltaZ <= 2 * this.halfSize.z(); localDeltaZ++) {
-                    point.set(start).add(deltaX).add(deltaY).add(deltaZ);
-                    vectors.add(new Vector3i(point, RoundingMode.FLOOR));
-                    deltaZ.add(directionZ);
+        for (int x = minX; x <= maxX; x++) {
+            double dx = x + 0.5 - cx;
+            for (int y = minY; y <= maxY; y++) {
+                double dy = y + 0.5 - cy;
+                blocks:
+                for (int z = minZ; z <= maxZ; z++) {
+                    double dz = z + 0.5 - cz;
+                    for (int i = 0; i < SEPARATING_AXES; i++) {
+                        double distance = dx * axes[i * 3] + dy * axes[i * 3 + 1] + dz * axes[i * 3 + 2];
+                        if (Math.abs(distance) > radii[i]) {
+                            continue blocks;
+                        }
+                    }
+                    dest.add(Util.packBlockPosition(x, y, z));
                 }
-                deltaZ.zero();
-                deltaY.add(directionY);
             }
-            deltaY.zero();
-            deltaX.add(directionX);
         }
-        return vectors;
+    }
+
+    private static void setAxis(double[] axes, int index, double x, double y, double z) {
+        axes[index * 3] = x;
+        axes[index * 3 + 1] = y;
+        axes[index * 3 + 2] = z;
     }
 }
@@ -25,4 +25,30 @@ public class Util {
     public static String formatSi(String unit, Vector3dc vector) {
         return formatSi(unit, vector.length());
     }
+
+    /**
+     * Pack block coordinates into a single long, using the same layout as the game.
+     * <p>
+     * The x and z coordinates use 26 bits each and the y coordinate uses 12 bits.
+     *
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     * @param z The z coordinate.
+     * @return The packed coordinates.
+     */
+    public static long packBlockPosition(int x, int y, int z) {
+        return ((long) x & 0x3FFFFFF) << 38 | ((long) z & 0x3FFFFFF) << 12 | ((long) y & 0xFFF);
+    }
+
+    public static int unpackBlockX(long packed) {
+        return (int) (packed >> 38);
+    }
+
+    public static int unpackBlockY(long packed) {
+        return (int) (packed << 52 >> 52);
+    }
+
+    public static int unpackBlockZ(long packed) {
+        return (int) (packed << 26 >> 38);
+    }
 }
@@ -0,0 +1,672 @@
+package ca.bkaw.torque.vehicle;
+
+import ca.bkaw.torque.platform.World;
+import ca.bkaw.torque.util.Util;
+import it.unimi.dsi.fastutil.longs.LongList;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.joml.Vector3d;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * A cache of which blocks in a world are collidable and waterlogged, so that
+ * collision checks do not have to read blocks from the platform.
+ * <p>
+ * The cache is split into chunk sections of 16x16x16 blocks. Each section stores one
+ * bit per block, and sections that are entirely air or entirely collidable are
+ * marked so that most checks can return early. Sections are loaded the first time
+ * they are checked, and are reloaded after a block in them changes, see
+ * {@link #invalidateBlock(int, int, int)}. Sections that vehicles have not been near
+ * for a while are dropped when the cache grows, so that it does not keep every
+ * section that a vehicle has ever visited.
+ * <p>
+ * The cache may be read from any thread. Sections are only loaded on the server
+ * thread. When a vehicle that is ticking off the server thread checks a section that
+ * is not loaded, loading is handed to the server thread.
+ */
+public class CollisionCache {
+    private static final int SECTION_SIZE = 16;
+    private static final int BLOCKS_PER_SECTION = SECTION_SIZE * SECTION_SIZE * SECTION_SIZE;
+    private static final int INITIAL_CAPACITY = 16;
+    /**
+     * The number of ticks after which a section that no vehicle has been near may be
+     * dropped.
+     */
+    private static final int EVICT_TICKS = 60 * 20;
+    /**
+     * The number of ticks after which a section is read again, in worlds that do not
+     * report all block changes, see {@link World#reportsBlockChanges()}.
+     */
+    private static final int REFRESH_TICKS = 5 * 20;
+    /**
+     * Margin used when sweeping, so that blocks the box only touches are not hit.
+     */
+    private static final double EPSILON = 1e-7;
+
+    private final @NotNull VehicleManager vehicleManager;
+    private final @NotNull World world;
+    private final @NotNull Thread serverThread;
+    /**
+     * The flags of the sections being read, reused to avoid allocating. Grows to fit
+     * the tallest column of sections read at once.
+     */
+    private byte[] sectionFlags = new byte[BLOCKS_PER_SECTION];
+    /**
+     * The loaded sections. Only the server thread modifies the table, and it is
+     * replaced by a larger copy when it is full, so that it can be read without
+     * locking.
+     */
+    private volatile Table table = new Table(INITIAL_CAPACITY);
+    // The range of section y coordinates that have been loaded, used to find the
+    // sections of a chunk.
+    private int minSectionY = Integer.MAX_VALUE;
+    private int maxSectionY = Integer.MIN_VALUE;
+    private int tick;
+    /**
+     * Sections loaded before this tick are read again the next time they are
+     * checked.
+     */
+    private int refreshBefore = Integer.MIN_VALUE;
+
+    CollisionCache(@NotNull VehicleManager vehicleManager, @NotNull World world) {
+        this.vehicleManager = vehicleManager;
+        this.world = world;
+        this.serverThread = Thread.currentThread();
+    }
+
+    public @NotNull World getWorld() {
+        return this.world;
+    }
+
+    /**
+     * Check whether a block is collidable.
+     *
+     * @param packedPosition The block position, packed using
+     *                       {@link Util#packBlockPosition(int, int, int)}.
+     * @return True if the block is collidable.
+     */
+    public boolean isCollidable(long packedPosition) {
+        return this.isCollidable(
+            Util.unpackBlockX(packedPosition), Util.unpackBlockY(packedPosition), Util.unpackBlockZ(packedPosition)
+        );
+    }
+
+    /**
+     * Check whether a block is collidable.
+     *
+     * @param x The x coordinate of the block.
+     * @param y The y coordinate of the block.
+     * @param z The z coordinate of the block.
+     * @return True if the block is collidable.
+     */
+    public boolean isCollidable(int x, int y, int z) {
+        Section section = this.getSection(x >> 4, y >> 4, z >> 4);
+        if (section.allAir) {
+            return false;
+        }
+        if (section.allCollidable) {
+            return true;
+        }
+        return isSet(section.collidable, x, y, z);
+    }
+
+    /**
+     * Check whether a block is water or a waterlogged block.
+     *
+     * @param packedPosition The block position, packed using
+     *                       {@link Util#packBlockPosition(int, int, int)}.
+     * @return True if the block is waterlogged.
+     */
+    public boolean isWaterlogged(long packedPosition) {
+        return this.isWaterlogged(
+            Util.unpackBlockX(packedPosition), Util.unpackBlockY(packedPosition), Util.unpackBlockZ(packedPosition)
+        );
+    }
+
+    /**
+     * Check whether a block is water or a waterlogged block.
+     *
+     * @param x The x coordinate of the block.
+     * @param y The y coordinate of the block.
+     * @param z The z coordinate of the block.
+     * @return True if the block is waterlogged.
+     */
+    public boolean isWaterlogged(int x, int y, int z) {
+        Section section = this.getSection(x >> 4, y >> 4, z >> 4);
+        if (section.waterlogged == null) {
+            return false;
+        }
+        return isSet(section.waterlogged, x, y, z);
+    }
+
+    /**
+     * Cast a ray and find the distance to the first collidable block it hits, by
+     * stepping through the blocks along the ray with a 3D DDA traversal.
+     *
+     * @param x The x coordinate of the start of the ray.
+     * @param y The y coordinate of the start of the ray.
+     * @param z The z coordinate of the start of the ray.
+     * @param directionX The x component of the unit direction of the ray.
+     * @param directionY The y component of the unit direction of the ray.
+     * @param directionZ The z component of the unit direction of the ray.
+     * @param maxDistance The length of the ray, unit: meter.
+     * @return The distance to the block that was hit, 0 if the ray starts inside a
+     * block, or {@link Double#POSITIVE_INFINITY} if no block was hit within the
+     * length of the ray. Unit: meter.
+     */
+    public double raycast(
+        double x, double y, double z,
+        double directionX, double directionY, double directionZ,
+        double maxDistance
+    ) {
+        int blockX = (int) Math.floor(x);
+        int blockY = (int) Math.floor(y);
+        int blockZ = (int) Math.floor(z);
+        if (this.isCollidable(blockX, blockY, blockZ)) {
+            return 0;
+        }
+        int stepX = directionX > 0 ? 1 : directionX < 0 ? -1 : 0;
+        int stepY = directionY > 0 ? 1 : directionY < 0 ? -1 : 0;
+        int stepZ = directionZ > 0 ? 1 : directionZ < 0 ? -1 : 0;
+        // The distance along the ray between block boundaries on each axis.
+        double deltaX = stepX != 0 ? Math.abs(1 / directionX) : Double.POSITIVE_INFINITY;
+        double deltaY = stepY != 0 ? Math.abs(1 / directionY) : Double.POSITIVE_INFINITY;
+        double deltaZ = stepZ != 0 ? Math.abs(1 / directionZ) : Double.POSITIVE_INFINITY;
+        // The distance along the ray to the next block boundary on each axis.
+        double nextX = stepX != 0 ? ((stepX > 0 ? blockX + 1 : blockX) - x) / directionX : Double.POSITIVE_INFINITY;
+        double nextY = stepY != 0 ? ((stepY > 0 ? blockY + 1 : blockY) - y) / directionY : Double.POSITIVE_INFINITY;
+        double nextZ = stepZ != 0 ? ((stepZ > 0 ? blockZ + 1 : blockZ) - z) / directionZ : Double.POSITIVE_INFINITY;
+        while (true) {
+            double distance;
+            if (nextX < nextY && nextX < nextZ) {
+                distance = nextX;
+                blockX += stepX;
+                nextX += deltaX;
+            } else if (nextY < nextZ) {
+                distance = nextY;
+                blockY += stepY;
+                nextY += deltaY;
+            } else {
+                distance = nextZ;
+                blockZ += stepZ;
+                nextZ += deltaZ;
+            }
+            if (distance > maxDistance) {
+                return Double.POSITIVE_INFINITY;
+            }
+            if (this.isCollidable(blockX, blockY, blockZ)) {
+                return distance;
+            }
+        }
+    }
+
+    /**
+     * Sweep an axis-aligned box along a movement and find the first collidable block
+     * that it hits, by stepping through the blocks that the leading faces of the box
+     * enter, like a 3D DDA traversal. Blocks that the box already overlaps at the
+     * start are ignored.
+     * <p>
+     * Blocks in the lowest {@code stepHeight} meters of the box are ignored when the
+     * box moves horizontally into them, for boxes that can step up onto blocks.
+     *
+     * @param minX The minimum x coordinate of the box.
+     * @param minY The minimum y coordinate of the box.
+     * @param minZ The minimum z coordinate of the box.
+     * @param maxX The maximum x coordinate of the box.
+     * @param maxY The maximum y coordinate of the box.
+     * @param maxZ The maximum z coordinate of the box.
+     * @param dx The movement along the x axis, unit: meter.
+     * @param dy The movement along the y axis, unit: meter.
+     * @param dz The movement along the z axis, unit: meter.
+     * @param stepHeight The height of blocks to ignore when moving horizontally,
+     *                   unit: meter.
+     * @param normal The vector to store the normal of the hit block face in. Only set
+     *               if a block was hit.
+     * @return The fraction of the movement before the box hits a block, or 1 if it
+     * does not hit any block.
+     */
+    public double sweep(
+        double minX, double minY, double minZ, double maxX, double maxY, double maxZ,
+        double dx, double dy, double dz, double stepHeight, @NotNull Vector3d normal
+    ) {
+        int stepX = dx > 0 ? 1 : dx < 0 ? -1 : 0;
+        int stepY = dy > 0 ? 1 : dy < 0 ? -1 : 0;
+        int stepZ = dz > 0 ? 1 : dz < 0 ? -1 : 0;
+        // The block that the leading face is in on each axis. A face on a block
+        // boundary is in the block behind it.
+        int cellX = stepX > 0 ? (int) Math.ceil(maxX) - 1 : (int) Math.floor(minX);
+        int cellY = stepY > 0 ? (int) Math.ceil(maxY) - 1 : (int) Math.floor(minY);
+        int cellZ = stepZ > 0 ? (int) Math.ceil(maxZ) - 1 : (int) Math.floor(minZ);
+        // The fraction of the movement until the leading face enters the next block.
+        double nextX = stepX > 0 ? (cellX + 1 - maxX) / dx : stepX < 0 ? (cellX - minX) / dx : Double.POSITIVE_INFINITY;
+        double nextY = stepY > 0 ? (cellY + 1 - maxY) / dy : stepY < 0 ? (cellY - minY) / dy : Double.POSITIVE_INFINITY;
+        double nextZ = stepZ > 0 ? (cellZ + 1 - maxZ) / dz : stepZ < 0 ? (cellZ - minZ) / dz : Double.POSITIVE_INFINITY;
+        // The fraction of the movement between block boundaries on each axis.
+        double timeDeltaX = 1 / Math.abs(dx);
+        double timeDeltaY = 1 / Math.abs(dy);
+        double timeDeltaZ = 1 / Math.abs(dz);
+
+        while (true) {
+            int axis = nextX < nextY
+                ? (nextX < nextZ ? 0 : 2)
+                : (nextY < nextZ ? 1 : 2);
+            double time;
+            int step;
+            if (axis == 0) {
+                time = nextX;
+                step = stepX;
+                cellX += stepX;
+                nextX += timeDeltaX;
+            } else if (axis == 1) {
+                time = nextY;
+                step = stepY;
+                cellY += stepY;
+                nextY += timeDeltaY;
+            } else {
+                time = nextZ;
+                step = stepZ;
+                cellZ += stepZ;
+                nextZ += timeDeltaZ;
+            }
+            if (time > 1) {
+                return 1;
+            }
+
+            // Check the layer of blocks that the leading face enters, at the position
+            // of the box at this time.
+            int fromX = axis == 0 ? cellX : (int) Math.floor(minX + dx * time + EPSILON);
+            int toX = axis == 0 ? cellX : (int) Math.floor(maxX + dx * time - EPSILON);
+            int fromY = axis == 1 ? cellY : (int) Math.floor(minY + dy * time + stepHeight + EPSILON);
+            int toY = axis == 1 ? cellY : (int) Math.floor(maxY + dy * time - EPSILON);
+            int fromZ = axis == 2 ? cellZ : (int) Math.floor(minZ + dz * time + EPSILON);
+            int toZ = axis == 2 ? cellZ : (int) Math.floor(maxZ + dz * time - EPSILON);
+            for (int x = fromX; x <= toX; x++) {
+                for (int y = fromY; y <= toY; y++) {
+                    for (int z = fromZ; z <= toZ; z++) {
+                        if (this.isCollidable(x, y, z)) {
+                            normal.zero().setComponent(axis, -step);
+                            return time;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static boolean isSet(long[] bits, int x, int y, int z) {
+        int index = (y & 15) << 8 | (z & 15) << 4 | (x & 15);
+        return (bits[index >>> 6] & 1L << index) != 0;
+    }
+
+    private static void set(long[] bits, int index) {
+        bits[index >>> 6] |= 1L << index;
+    }
+
+    private @NotNull Section getSection(int sectionX, int sectionY, int sectionZ) {
+        long key = Util.packBlockPosition(sectionX, sectionY, sectionZ);
+        Section section = this.table.get(key);
+        if (!this.isMissing(section)) {
+            return section;
+        }
+        if (Thread.currentThread() == this.serverThread) {
+            return this.loadSection(key);
+        }
+        return this.vehicleManager.callOnServerThread(() -> this.loadSection(key));
+    }
+
+    /**
+     * Load a section, unless another thread already loaded it. Must be called on the
+     * server thread.
+     *
+     * @param key The packed section position.
+     * @return The section.
+     */
+    private @NotNull Section loadSection(long key) {
+        Section section = this.table.get(key);
+        if (!this.isMissing(section)) {
+            section.lastUsed = this.tick;
+            return section;
+        }
+        int sectionY = Util.unpackBlockY(key);
+        byte[] flags = this.readSections(Util.unpackBlockX(key), sectionY, sectionY, Util.unpackBlockZ(key));
+        section = this.createSection(key, flags, 0);
+        this.put(section);
+        return section;
+    }
+
+    /**
+     * Load all sections in a list that are not loaded yet. Must be called on the
+     * server thread.
+     * <p>
+     * Used to load the sections that vehicles will check before they tick, so that
+     * vehicles ticking off the server thread do not have to wait for the server
+     * thread to load them one by one. The missing sections of each chunk are read
+     * from the world in one call.
+     *
+     * @param keys The packed section positions, without duplicates. Sections in the
+     *             same chunk must be next to each other.
+     */
+    void loadSections(@NotNull LongList keys) {
+        int start = 0;
+        while (start < keys.size()) {
+            int chunkX = Util.unpackBlockX(keys.getLong(start));
+            int chunkZ = Util.unpackBlockZ(keys.getLong(start));
+            // Find the sections of this chunk, and the range of the missing ones.
+            int end = start;
+            int minSectionY = Integer.MAX_VALUE;
+            int maxSectionY = Integer.MIN_VALUE;
+            for (; end < keys.size(); end++) {
+                long key = keys.getLong(end);
+                if (Util.unpackBlockX(key) != chunkX || Util.unpackBlockZ(key) != chunkZ) {
+                    break;
+                }
+                Section section = this.table.get(key);
+                if (this.isMissing(section)) {
+                    int sectionY = Util.unpackBlockY(key);
+                    minSectionY = Math.min(minSectionY, sectionY);
+                    maxSectionY = Math.max(maxSectionY, sectionY);
+                } else {
+                    section.lastUsed = this.tick;
+                }
+            }
+            if (minSectionY <= maxSectionY) {
+                byte[] flags = this.readSections(chunkX, minSectionY, maxSectionY, chunkZ);
+                for (int i = start; i < end; i++) {
+                    long key = keys.getLong(i);
+                    if (this.isMissing(this.table.get(key))) {
+                        int offset = (Util.unpackBlockY(key) - minSectionY) * BLOCKS_PER_SECTION;
+                        this.put(this.createSection(key, flags, offset));
+                    }
+                }
+            }
+            start = end;
+        }
+    }
+
+    private boolean isMissing(@Nullable Section section) {
+        return section == null || section.stale || section.loadedAt < this.refreshBefore;
+    }
+
+    /**
+     * Add a section, replacing the section at the same position. Must be called on
+     * the server thread.
+     *
+     * @param section The section.
+     */
+    private void put(@NotNull Section section) {
+        Table table = this.table;
+        if (!table.hasRoom()) {
+            // Copy to a new table before adding, then publish both at once.
+            table = this.rebuild(table);
+            table.put(section);
+            this.table = table;
+        } else {
+            table.put(section);
+        }
+        int sectionY = Util.unpackBlockY(section.key);
+        this.minSectionY = Math.min(this.minSectionY, sectionY);
+        this.maxSectionY = Math.max(this.maxSectionY, sectionY);
+    }
+
+    /**
+     * Copy the sections that are still in use to a new table, leaving out stale
+     * sections and sections that no vehicle has been near for a while.
+     *
+     * @param table The full table.
+     * @return The new table, with room for more sections.
+     */
+    private @NotNull Table rebuild(@NotNull Table table) {
+        int evictBefore = this.tick - EVICT_TICKS;
+        int count = 0;
+        for (Section section : table.sections) {
+            if (isKept(section, evictBefore)) {
+                count++;
+            }
+        }
+        int capacity = INITIAL_CAPACITY;
+        while (capacity < (count + 1) * 4) {
+            capacity *= 2;
+        }
+        Table rebuilt = new Table(capacity);
+        for (Section section : table.sections) {
+            if (isKept(section, evictBefore)) {
+                rebuilt.put(section);
+            }
+        }
+        return rebuilt;
+    }
+
+    private static boolean isKept(@Nullable Section section, int evictBefore) {
+        return section != null && section != Table.REMOVED && !section.stale && section.lastUsed >= evictBefore;
+    }
+
+    /**
+     * Read the flags of a column of sections in a chunk from the world.
+     *
+     * @param chunkX The x coordinate of the chunk.
+     * @param minSectionY The y coordinate of the lowest section, inclusive.
+     * @param maxSectionY The y coordinate of the highest section, inclusive.
+     * @param chunkZ The z coordinate of the chunk.
+     * @return The flags, one section after another from the lowest section. The
+     * array is reused by the next read.
+     */
+    private byte @NotNull [] readSections(int chunkX, int minSectionY, int maxSectionY, int chunkZ) {
+        int length = (maxSectionY - minSectionY + 1) * BLOCKS_PER_SECTION;
+        if (this.sectionFlags.length < length) {
+            this.sectionFlags = new byte[length];
+        }
+        byte[] flags = this.sectionFlags;
+        int minX = chunkX * SECTION_SIZE;
+        int minZ = chunkZ * SECTION_SIZE;
+        // The flags are ordered by y, z and then x, so each section is a contiguous
+        // part of the array.
+        this.world.getBlockFlags(
+            minX, minSectionY * SECTION_SIZE, minZ,
+            minX + SECTION_SIZE - 1, maxSectionY * SECTION_SIZE + SECTION_SIZE - 1, minZ + SECTION_SIZE - 1,
+            flags
+        );
+        return flags;
+    }
+
+    private @NotNull Section createSection(long key, byte @NotNull [] flags, int offset) {
+        VehicleRecorder recorder = this.vehicleManager.getRecorder();
+        if (recorder != null) {
+            recorder.recordSection(this.world, key, flags, offset);
+        }
+        long[] collidable = new long[BLOCKS_PER_SECTION / Long.SIZE];
+        long[] waterlogged = new long[BLOCKS_PER_SECTION / Long.SIZE];
+        int collidableCount = 0;
+        int waterloggedCount = 0;
+        // The flags are ordered by y, z and then x, the same order as the bits.
+        for (int index = 0; index < BLOCKS_PER_SECTION; index++) {
+            byte blockFlags = flags[offset + index];
+            if ((blockFlags & World.COLLIDABLE) != 0) {
+                set(collidable, index);
+                collidableCount++;
+            }
+            if ((blockFlags & World.WATERLOGGED) != 0) {
+                set(waterlogged, index);
+                waterloggedCount++;
+            }
+        }
+        return new Section(
+            key,
+            collidableCount == 0 || collidableCount == BLOCKS_PER_SECTION ? null : collidable,
+            waterloggedCount == 0 ? null : waterlogged,
+            collidableCount == 0 && waterloggedCount == 0,
+            collidableCount == BLOCKS_PER_SECTION,
+            this.tick
+        );
+    }
+
+    /**
+     * Mark the section containing a block as changed, so that it is reloaded the
+     * next time it is checked. Must be called on the server thread.
+     *
+     * @param x The x coordinate of the block.
+     * @param y The y coordinate of the block.
+     * @param z The z coordinate of the block.
+     */
+    public void invalidateBlock(int x, int y, int z) {
+        Section section = this.table.get(Util.packBlockPosition(x >> 4, y >> 4, z >> 4));
+        if (section != null) {
+            section.stale = true;
+        }
+    }
+
+    /**
+     * Remove all sections of a chunk, for example when the chunk is unloaded. Must be
+     * called on the server thread.
+     *
+     * @param chunkX The x coordinate of the chunk.
+     * @param chunkZ The z coordinate of the chunk.
+     */
+    public void invalidateChunk(int chunkX, int chunkZ) {
+        Table table = this.table;
+        for (int sectionY = this.minSectionY; sectionY <= this.maxSectionY; sectionY++) {
+            table.remove(Util.packBlockPosition(chunkX, sectionY, chunkZ));
+        }
+    }
+
+    /**
+     * Remove all sections, so that they are read from the world again. Must be called
+     * on the server thread.
+     */
+    void clear() {
+        this.table = new Table(INITIAL_CAPACITY);
+        this.minSectionY = Integer.MAX_VALUE;
+        this.maxSectionY = Integer.MIN_VALUE;
+    }
+
+    /**
+     * Advance the cache by one tick. Must be called on the server thread once per
+     * tick, before vehicles tick.
+     */
+    void tick() {
+        this.tick++;
+        if (!this.world.reportsBlockChanges()) {
+            this.refreshBefore = this.tick - REFRESH_TICKS;
+        }
+    }
+
+    /**
+     * Get the number of loaded sections.
+     *
+     * @return The number of sections.
+     */
+    public int getSectionCount() {
+        return this.table.size;
+    }
+
+    private static final class Section {
+        private final long key;
+        private final long @Nullable [] collidable; // null if all air or all collidable
+        private final long @Nullable [] waterlogged; // null if nothing is waterlogged
+        private final boolean allAir;
+        private final boolean allCollidable;
+        private final int loadedAt; // the tick the section was read
+        private volatile boolean stale;
+        private int lastUsed; // the last tick a vehicle was near, only used on the server thread
+
+        private Section(long key, long @Nullable [] collidable, long @Nullable [] waterlogged, boolean allAir, boolean allCollidable, int loadedAt) {
+            this.key = key;
+            this.collidable = collidable;
+            this.waterlogged = waterlogged;
+            this.allAir = allAir;
+            this.allCollidable = allCollidable;
+            this.loadedAt = loadedAt;
+            this.lastUsed = loadedAt;
+        }
+    }
+
+    /**
+     * An open addressing hash table of sections by their packed position.
+     * <p>
+     * Only the server thread modifies the table. Other threads may read it at the
+     * same time, so slots are written with release semantics, and removed sections
+     * are replaced by a marker instead of emptying the slot, so that lookups of other
+     * sections still find them.
+     */
+    private static final class Table {
+        private static final Section REMOVED = new Section(0, null, null, true, false, 0);
+        private static final VarHandle SECTIONS = MethodHandles.arrayElementVarHandle(Section[].class);
+
+        private final Section[] sections;
+        private final int mask;
+        private int size;
+        private int removed; // the number of slots with the removed marker
+
+        private Table(int capacity) {
+            this.sections = new Section[capacity];
+            this.mask = capacity - 1;
+        }
+
+        private static int slot(long key, int mask) {
+            long hash = key * 0x9E3779B97F4A7C15L;
+            return (int) (hash ^ hash >>> 32) & mask;
+        }
+
+        private @Nullable Section get(long key) {
+            for (int i = slot(key, this.mask); ; i = (i + 1) & this.mask) {
+                Section section = (Section) SECTIONS.getAcquire(this.sections, i);
+                if (section == null) {
+                    return null;
+                }
+                if (section != REMOVED && section.key == key) {
+                    return section;
+                }
+            }
+        }
+
+        /**
+         * Check whether a section can be added while keeping the table at most half
+         * full, counting removed slots.
+         */
+        private boolean hasRoom() {
+            return (this.size + this.removed + 1) * 2 <= this.sections.length;
+        }
+
+        private void put(Section section) {
+            int free = -1;
+            for (int i = slot(section.key, this.mask); ; i = (i + 1) & this.mask) {
+                Section existing = this.sections[i];
+                if (existing == null) {
+                    // The section is not in the table. Reuse the first removed slot.
+                    if (free < 0) {
+                        free = i;
+                    } else {
+                        this.removed--;
+                    }
+                    this.size++;
+                    SECTIONS.setRelease(this.sections, free, section);
+                    return;
+                }
+                if (existing == REMOVED) {
+                    if (free < 0) {
+                        free = i;
+                    }
+                } else if (existing.key == section.key) {
+                    SECTIONS.setRelease(this.sections, i, section);
+                    return;
+                }
+            }
+        }
+
+        private void remove(long key) {
+            for (int i = slot(key, this.mask); ; i = (i + 1) & this.mask) {
+                Section section = this.sections[i];
+                if (section == null) {
+                    return;
+                }
+                if (section != REMOVED && section.key == key) {
+                    SECTIONS.setRelease(this.sections, i, REMOVED);
+                    this.size--;
+                    this.removed++;
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package ca.bkaw.torque.vehicle;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Supplier;
+
+/**
+ * Ticks vehicles on multiple threads.
+ * <p>
+ * The components of each vehicle are split into {@link VehicleType#tickPhases() phases}
+ * of consecutive {@link VehicleComponentType#threadSafe() thread safe} and non thread
+ * safe components. The thread safe phases of all vehicles are ticked in parallel on a
+ * {@link ForkJoinPool}, and the other phases are ticked on the server thread.
+ * Components still tick in the configured order, and vehicles do not affect each
+ * other while ticking, so the result is identical to ticking the vehicles one after
+ * another.
+ * <p>
+ * Blocks are read through the {@link CollisionCache}, which may be read from any
+ * thread.
+ */
+class ParallelVehicleTicker {
+    /**
+     * The number of vehicles below which a task ticks its vehicles itself instead of
+     * splitting the work further.
+     */
+    private static final int THRESHOLD = 4;
+    private static final Runnable DONE = () -> {};
+
+    private final ForkJoinPool pool;
+    private final BlockingQueue<Runnable> serverThreadTasks = new LinkedBlockingQueue<>();
+    private Thread serverThread;
+
+    ParallelVehicleTicker(int parallelism) {
+        this.pool = new ForkJoinPool(parallelism, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("Torque Vehicle Ticker #" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+    }
+
+    /**
+     * Tick the vehicles. Must be called on the server thread.
+     *
+     * @param vehicles The vehicles to tick.
+     */
+    void tick(@NotNull List<Vehicle> vehicles) {
+        this.serverThread = Thread.currentThread();
+        Vehicle[] vehicleArray = vehicles.toArray(new Vehicle[0]);
+        // The index of the next phase to tick for each vehicle, or -1 if the extra
+        // physics steps have not been ticked yet.
+        int[] cursors = new int[vehicleArray.length];
+        Arrays.fill(cursors, -1);
+
+        boolean remaining = true;
+        while (remaining) {
+            // Tick thread safe components in parallel.
+            boolean anyThreadSafe = false;
+            for (int i = 0; i < vehicleArray.length; i++) {
+                VehicleType.TickPhase[] phases = vehicleArray[i].getType().tickPhases();
+                if (cursors[i] < 0 || cursors[i] < phases.length && phases[cursors[i]].threadSafe()) {
+                    anyThreadSafe = true;
+                    break;
+                }
+            }
+            if (anyThreadSafe) {
+                this.runParallel(new PhaseTask(vehicleArray, cursors, 0, vehicleArray.length));
+            }
+
+            // Tick non thread safe components on the server thread.
+            remaining = false;
+            for (int i = 0; i < vehicleArray.length; i++) {
+                tickPhase(vehicleArray[i], cursors, i, false);
+                if (cursors[i] < vehicleArray[i].getType().tickPhases().length) {
+                    remaining = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Tick the next phase of a vehicle if it has the given thread safety.
+     * <p>
+     * The extra physics steps are thread safe and are ticked before the first phase.
+     *
+     * @param vehicle The vehicle.
+     * @param cursors The index of the next phase to tick for each vehicle.
+     * @param i The index of the vehicle.
+     * @param threadSafe The thread safety of the phase to tick.
+     */
+    private static void tickPhase(Vehicle vehicle, int[] cursors, int i, boolean threadSafe) {
+        if (cursors[i] < 0) {
+            if (!threadSafe) {
+                return;
+            }
+            vehicle.tickExtraPhysicsSteps();
+            cursors[i] = 0;
+        }
+        VehicleType.TickPhase[] phases = vehicle.getType().tickPhases();
+        if (cursors[i] < phases.length && phases[cursors[i]].threadSafe() == threadSafe) {
+            vehicle.tickPhase(phases[cursors[i]]);
+            cursors[i]++;
+        }
+    }
+
+    /**
+     * Run the task on the pool and run tasks that are handed to the server thread
+     * until the task is done.
+     *
+     * @param task The task.
+     */
+    private void runParallel(@NotNull RecursiveAction task) {
+        CompletableFuture<Void> future = CompletableFuture.runAsync(task::invoke, this.pool);
+        future.whenComplete((result, throwable) -> this.serverThreadTasks.add(DONE));
+        try {
+            Runnable serverThreadTask;
+            while ((serverThreadTask = this.serverThreadTasks.take()) != DONE) {
+                serverThreadTask.run();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while ticking vehicles.", e);
+        }
+        future.join();
+    }
+
+    /**
+     * Run something on the server thread and wait for the result.
+     * <p>
+     * If called on the server thread, the supplier runs immediately.
+     *
+     * @param supplier The code to run.
+     * @return The result of the supplier.
+     * @param <T> The type of the result.
+     */
+    <T> T callOnServerThread(@NotNull Supplier<T> supplier) {
+        if (Thread.currentThread() == this.serverThread) {
+            return supplier.get();
+        }
+        CompletableFuture<T> future = new CompletableFuture<>();
+        this.serverThreadTasks.add(() -> {
+            try {
+                future.complete(supplier.get());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        });
+        return future.join();
+    }
+
+    /**
+     * Shut down the threads of this ticker.
+     */
+    void close() {
+        this.pool.shutdown();
+    }
+
+    private static class PhaseTask extends RecursiveAction {
+        private final Vehicle[] vehicles;
+        private final int[] cursors;
+        private final int from;
+        private final int to;
+
+        private PhaseTask(Vehicle[] vehicles, int[] cursors, int from, int to) {
+            this.vehicles = vehicles;
+            this.cursors = cursors;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.to - this.from <= THRESHOLD) {
+                for (int i = this.from; i < this.to; i++) {
+                    tickPhase(this.vehicles[i], this.cursors, i, true);
+                }
+                return;
+            }
+            int middle = (this.from + this.to) >>> 1;
+            invokeAll(
+                new PhaseTask(this.vehicles, this.cursors, this.from, middle),
+                new PhaseTask(this.vehicles, this.cursors, middle, this.to)
+            );
+        }
+    }
+}
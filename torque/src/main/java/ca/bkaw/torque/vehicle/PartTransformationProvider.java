@@ -32,6 +32,7 @@ public interface PartTransformationProvider {
         private final @NotNull Vector3f translation;
         private final boolean glowing;
         private final @Nullable Integer glowColor;
+        private final @NotNull Vector3f angularVelocity;
 
         /**
          * Create a part transform with only rotation.
@@ -52,10 +53,27 @@ public interface PartTransformationProvider {
          */
         public PartTransform(@NotNull Quaternionf rotation, @NotNull Vector3f translation,
                            boolean glowing, @Nullable Integer glowColor) {
+            this(rotation, translation, glowing, glowColor, new Vector3f());
+        }
+
+        /**
+         * Create a part transform for a part that keeps rotating, so that the
+         * renderer can predict its rotation.
+         *
+         * @param rotation The rotation to apply
+         * @param translation The translation to apply
+         * @param glowing Whether the part should glow
+         * @param glowColor The glow color (RGB values 0-1), or null for default glow color
+         * @param angularVelocity The rotation speed around each axis of the part, after
+         *                        the rotation. Unit: rad/s
+         */
+        public PartTransform(@NotNull Quaternionf rotation, @NotNull Vector3f translation,
+                           boolean glowing, @Nullable Integer glowColor, @NotNull Vector3f angularVelocity) {
             this.rotation = rotation;
             this.translation = translation;
             this.glowing = glowing;
             this.glowColor = glowColor;
+            this.angularVelocity = angularVelocity;
         }
 
         /**
@@ -96,5 +114,16 @@ public interface PartTransformationProvider {
         public Integer getGlowColor() {
             return this.glowColor;
         }
+
+        /**
+         * Get the speed that the part keeps rotating at, around each axis of the
+         * part after the rotation.
+         *
+         * @return The angular velocity. Unit: rad/s
+         */
+        @NotNull
+        public Vector3f getAngularVelocity() {
+            return this.angularVelocity;
+        }
     }
 }
@@ -0,0 +1,141 @@
+package ca.bkaw.torque.vehicle;
+
+import ca.bkaw.torque.components.RigidBodyComponent;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Decides how many physics steps vehicles take each server tick, and how long each
+ * step is.
+ * <p>
+ * Each step simulates {@link RigidBodyComponent#DELTA_TIME} seconds, split into a
+ * number of substeps. Normally one step is taken each tick. In real time mode, steps
+ * are taken based on the time that has passed, so that simulated time does not slow
+ * down when the server is lagging.
+ * <p>
+ * In adaptive mode, the number of substeps depends on the speed of the vehicle, so
+ * that only fast vehicles pay for the extra substeps.
+ */
+public class TimeStep {
+    /**
+     * The maximum amount of time to catch up on in one tick in real time mode, unit:
+     * second. Prevents the server from falling further behind when it cannot keep up.
+     */
+    public static final double MAX_CATCH_UP = 0.25;
+    /**
+     * How early a tick may be while still counting as a full step in real time mode,
+     * as a fraction of a step. Absorbs jitter in the tick rate.
+     */
+    private static final double TOLERANCE = 0.1;
+    /**
+     * The speed per substep in adaptive mode, unit: meter/second. At this speed, a
+     * vehicle moves 0.4 meters per substep.
+     */
+    public static final double ADAPTIVE_SPEED = 8;
+
+    private int substeps = 1;
+    private boolean adaptive = false;
+    private boolean realTime = false;
+    private long lastTickNanos = -1;
+    private double accumulator = 0; // unit: second
+    private int steps = 1;
+
+    /**
+     * Compute the number of steps to take during this tick. Called once at the start
+     * of each tick.
+     */
+    void beginTick() {
+        long now = System.nanoTime();
+        if (!this.realTime || this.lastTickNanos < 0) {
+            this.steps = 1;
+            this.accumulator = 0;
+        } else {
+            this.accumulator += Math.min((now - this.lastTickNanos) / 1e9, MAX_CATCH_UP);
+            this.steps = (int) (this.accumulator / RigidBodyComponent.DELTA_TIME + TOLERANCE);
+            this.accumulator -= this.steps * RigidBodyComponent.DELTA_TIME;
+        }
+        this.lastTickNanos = now;
+    }
+
+    /**
+     * Get the number of steps to take during this tick. May be zero in real time
+     * mode if the tick came early.
+     *
+     * @return The number of steps.
+     */
+    public int getSteps() {
+        return this.steps;
+    }
+
+    /**
+     * Get the number of substeps per step for a rigid body.
+     *
+     * @param rbc The rigid body.
+     * @return The number of substeps, at least 1.
+     */
+    public int getSubsteps(@NotNull RigidBodyComponent rbc) {
+        if (!this.adaptive) {
+            return this.substeps;
+        }
+        double speed = rbc.getVelocity().length();
+        int substeps = 1 + (int) (speed / ADAPTIVE_SPEED);
+        return Math.min(substeps, this.substeps);
+    }
+
+    /**
+     * Get the number of substeps per step. In adaptive mode, this is the maximum
+     * number of substeps.
+     *
+     * @return The number of substeps.
+     */
+    public int getSubsteps() {
+        return this.substeps;
+    }
+
+    /**
+     * Set the number of substeps per step. In adaptive mode, this is the maximum
+     * number of substeps.
+     *
+     * @param substeps The number of substeps, at least 1.
+     */
+    public void setSubsteps(int substeps) {
+        if (substeps < 1) {
+            throw new IllegalArgumentException("There must be at least one substep, got: " + substeps);
+        }
+        this.substeps = substeps;
+    }
+
+    public boolean isAdaptive() {
+        return this.adaptive;
+    }
+
+    /**
+     * Set whether the number of substeps should depend on the speed of the vehicle.
+     *
+     * @param adaptive Whether to use adaptive substepping.
+     */
+    public void setAdaptive(boolean adaptive) {
+        this.adaptive = adaptive;
+    }
+
+    public boolean isRealTime() {
+        return this.realTime;
+    }
+
+    /**
+     * Set whether steps should be taken based on the time that has passed instead of
+     * once per tick.
+     *
+     * @param realTime Whether to use real time.
+     */
+    public void setRealTime(boolean realTime) {
+        this.realTime = realTime;
+        this.reset();
+    }
+
+    /**
+     * Forget the time of the last tick, so that the next tick takes one step.
+     */
+    void reset() {
+        this.lastTickNanos = -1;
+    }
+}
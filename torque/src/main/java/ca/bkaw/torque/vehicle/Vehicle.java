@@ -2,8 +2,9 @@ package ca.bkaw.torque.vehicle;
 
 import ca.bkaw.torque.Torque;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -12,13 +13,23 @@ import java.util.Optional;
  * A loaded vehicle in the world. Components perform all logic.
  */
 public class Vehicle {
+    private static final PartTransformationProvider[] NO_PROVIDERS = new PartTransformationProvider[0];
+
     private final @NotNull Torque torque;
     private final @NotNull VehicleType type;
-    private final List<VehicleComponent> components = new ArrayList<>();
+    /** The components in tick order. */
+    private final VehicleComponent[] components;
+    private int componentCount = 0;
+    /** The components indexed by {@link VehicleComponentType#index()}. */
+    private VehicleComponent[] componentsByType;
+    private PartTransformationProvider[] partTransformationProviders = NO_PROVIDERS;
+    private int physicsSteps = 1;
 
     public Vehicle(@NotNull Torque torque, @NotNull VehicleType type) {
         this.torque = torque;
         this.type = type;
+        this.components = new VehicleComponent[type.components().size()];
+        this.componentsByType = new VehicleComponent[VehicleComponentType.count()];
     }
 
     /**
@@ -29,7 +40,8 @@ public class Vehicle {
      * @param <T> The type of component.
      */
     public <T extends VehicleComponent> Optional<T> getComponent(@NotNull Class<T> type) {
-        for (VehicleComponent component : this.components) {
+        for (int i = 0; i < this.componentCount; i++) {
+            VehicleComponent component = this.components[i];
             if (type.isInstance(component)) {
                 T obj = type.cast(component);
                 return Optional.of(obj);
@@ -38,17 +50,71 @@ public class Vehicle {
         return Optional.empty();
     }
 
+    /**
+     * Get a component on the vehicle by its type.
+     * <p>
+     * Unlike {@link #getComponent(Class)}, this does not search the components and
+     * does not allocate, so it is suitable for use while ticking.
+     *
+     * @param type The type of the component.
+     * @return The component, or null if the vehicle does not have a component of the type.
+     * @param <T> The class of the component.
+     */
+    @Nullable
+    public <T extends VehicleComponent> T get(@NotNull VehicleComponentType<T> type) {
+        int index = type.index();
+        if (index >= this.componentsByType.length) {
+            return null;
+        }
+        return type.componentClass().cast(this.componentsByType[index]);
+    }
+
     /**
      * Add a component to the vehicle.
+     * <p>
+     * Components must be added in the order they are configured in the
+     * {@link VehicleType}.
      *
      * @param component The component to add.
+     * @throws IllegalArgumentException If the component does not match the next
+     * component configured in the vehicle type.
      */
     public void addComponent(@NotNull VehicleComponent component) {
-        this.components.add(component);
+        VehicleComponentType<?> componentType = component.getType();
+        if (this.componentCount >= this.components.length
+            || this.type.components().get(this.componentCount).type() != componentType) {
+            throw new IllegalArgumentException("Component " + componentType.identifier()
+                + " does not match the components of the vehicle type " + this.type.identifier());
+        }
+        this.components[this.componentCount++] = component;
+
+        int index = componentType.index();
+        if (index >= this.componentsByType.length) {
+            this.componentsByType = Arrays.copyOf(this.componentsByType, index + 1);
+        }
+        if (this.componentsByType[index] == null) {
+            this.componentsByType[index] = component;
+        }
+        if (component instanceof PartTransformationProvider provider) {
+            this.partTransformationProviders = Arrays.copyOf(
+                this.partTransformationProviders, this.partTransformationProviders.length + 1
+            );
+            this.partTransformationProviders[this.partTransformationProviders.length - 1] = provider;
+        }
     }
 
     public List<VehicleComponent> getComponents() {
-        return Collections.unmodifiableList(this.components);
+        return Collections.unmodifiableList(Arrays.asList(this.components).subList(0, this.componentCount));
+    }
+
+    /**
+     * Get the components that implement {@link PartTransformationProvider}, in tick
+     * order.
+     *
+     * @return The array of providers. Must not be modified.
+     */
+    public PartTransformationProvider[] getPartTransformationProviders() {
+        return this.partTransformationProviders;
     }
 
     public @NotNull Torque getTorque() {
@@ -59,12 +125,71 @@ public class Vehicle {
         return this.type;
     }
 
+    /**
+     * Called when the vehicle is removed from the world. The vehicle will not be
+     * used afterwards.
+     */
+    void remove() {
+        for (int i = 0; i < this.componentCount; i++) {
+            this.components[i].remove(this);
+        }
+    }
+
+    /**
+     * Set the number of physics steps to take during the next tick.
+     * <p>
+     * All components tick once during the last step, and the
+     * {@link VehicleComponentType#physics() physics components} also tick during each
+     * of the steps before it.
+     *
+     * @param physicsSteps The number of steps, at least 1.
+     */
+    public void setPhysicsSteps(int physicsSteps) {
+        if (physicsSteps < 1) {
+            throw new IllegalArgumentException("A tick must have at least one physics step, got: " + physicsSteps);
+        }
+        this.physicsSteps = physicsSteps;
+    }
+
     /**
      * Called each tick.
      */
     public void tick() {
-        for (VehicleComponent component : this.components) {
-            component.tick(this);
+        this.tickExtraPhysicsSteps();
+        for (int i = 0; i < this.componentCount; i++) {
+            this.components[i].tick(this);
+        }
+    }
+
+    /**
+     * Tick the physics components for all physics steps except the last one.
+     * <p>
+     * Ticking the extra physics steps and then all {@link VehicleType#tickPhases()
+     * tick phases} is equivalent to {@link #tick()}.
+     */
+    void tickExtraPhysicsSteps() {
+        int[] physicsComponents = this.type.physicsComponents();
+        for (int step = 1; step < this.physicsSteps; step++) {
+            for (int index : physicsComponents) {
+                if (index < this.componentCount) {
+                    this.components[index].tick(this);
+                }
+            }
+        }
+    }
+
+    /**
+     * Tick the components in one of the {@link VehicleType#tickPhases() tick phases}
+     * of the vehicle type.
+     * <p>
+     * Ticking all phases in order is equivalent to {@link #tick()}.
+     *
+     * @param phase The phase to tick.
+     */
+    void tickPhase(@NotNull VehicleType.TickPhase phase) {
+        int to = Math.min(phase.to(), this.componentCount);
+        for (int i = phase.from(); i < to; i++) {
+            this.components[i].tick(this);
         }
     }
 }
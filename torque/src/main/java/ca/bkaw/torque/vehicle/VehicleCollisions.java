@@ -0,0 +1,247 @@
+package ca.bkaw.torque.vehicle;
+
+import ca.bkaw.torque.components.ImpulseCollisionComponent;
+import ca.bkaw.torque.components.RigidBodyComponent;
+import ca.bkaw.torque.model.CollisionShape;
+import ca.bkaw.torque.platform.World;
+import ca.bkaw.torque.util.OBB;
+import org.jetbrains.annotations.NotNull;
+import org.joml.Matrix3dc;
+import org.joml.Vector3d;
+import org.joml.Vector3dc;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resolves collisions between vehicles that have a {@link RigidBodyComponent}.
+ * <p>
+ * Each vehicle is represented by the root box of the {@link CollisionShape} of its
+ * model, moved to the position and orientation of the rigid body.
+ * <p>
+ * Colliding pairs are found using sweep and prune. The bounding boxes of the vehicles
+ * are kept sorted by their minimum x coordinate, so only vehicles whose boxes overlap
+ * along the x axis are compared. Vehicles barely move between ticks, so the list is
+ * kept sorted using insertion sort, which is close to linear for a list that is
+ * almost sorted.
+ * <p>
+ * Pairs whose bounding boxes overlap are checked using
+ * {@link OBB#getPenetration(OBB, Vector3d)}. Colliding vehicles receive an impulse
+ * at the contact point, using the same math as {@link ImpulseCollisionComponent},
+ * and are pushed apart so that they do not stay inside each other. Sleeping vehicles
+ * are woken up when another vehicle comes into contact with them.
+ * <p>
+ * Must only be used on the server thread.
+ */
+class VehicleCollisions {
+    /**
+     * The fraction of the overlap that is corrected each tick by moving the vehicles
+     * apart.
+     */
+    private static final double POSITION_CORRECTION = 0.8;
+    /**
+     * The overlap that is allowed without moving the vehicles apart, so that resting
+     * contacts do not jitter. Unit: meter.
+     */
+    private static final double ALLOWED_PENETRATION = 0.01;
+
+    private final List<Entry> entries = new ArrayList<>();
+    private final Map<Vehicle, Entry> entryMap = new IdentityHashMap<>();
+    private int tick;
+
+    // Scratch objects, reused each tick to avoid allocating.
+    private final Vector3d normal = new Vector3d();
+    private final Vector3d contactPoint = new Vector3d();
+    private final Vector3d supportPoint = new Vector3d();
+    private final Vector3d rA = new Vector3d();
+    private final Vector3d rB = new Vector3d();
+    private final Vector3d velocityA = new Vector3d();
+    private final Vector3d velocityB = new Vector3d();
+    private final Vector3d angularVelocityA = new Vector3d();
+    private final Vector3d angularVelocityB = new Vector3d();
+    private final Vector3d impulse = new Vector3d();
+    private final Vector3d temp = new Vector3d();
+    private final Vector3d extent = new Vector3d();
+    private final Vector3d position = new Vector3d();
+    private final Vector3d halfSize = new Vector3d();
+
+    private static final class Entry {
+        private final Vehicle vehicle;
+        private final RigidBodyComponent rbc;
+        private final CollisionShape shape;
+        private final OBB box = new OBB();
+        private World world;
+        private double minX, minY, minZ, maxX, maxY, maxZ;
+        private int lastSeen;
+
+        private Entry(Vehicle vehicle, RigidBodyComponent rbc) {
+            this.vehicle = vehicle;
+            this.rbc = rbc;
+            this.shape = vehicle.getType().model().getCollisionShape();
+        }
+    }
+
+    /**
+     * Find and resolve collisions between the vehicles. Called after the vehicles
+     * have ticked and their positions have been integrated.
+     *
+     * @param vehicles All loaded vehicles, including sleeping vehicles.
+     */
+    void tick(@NotNull List<Vehicle> vehicles) {
+        this.tick++;
+        this.updateEntries(vehicles);
+        this.sort();
+
+        List<Entry> entries = this.entries;
+        for (int i = 0; i < entries.size(); i++) {
+            Entry a = entries.get(i);
+            for (int j = i + 1; j < entries.size(); j++) {
+                Entry b = entries.get(j);
+                if (b.minX > a.maxX) {
+                    // The list is sorted, so no later box overlaps along the x axis.
+                    break;
+                }
+                if (b.minY > a.maxY || b.maxY < a.minY || b.minZ > a.maxZ || b.maxZ < a.minZ) {
+                    continue;
+                }
+                if (a.rbc.isSleeping() && b.rbc.isSleeping()) {
+                    continue;
+                }
+                if (!a.world.equals(b.world)) {
+                    continue;
+                }
+                double depth = a.box.getPenetration(b.box, this.normal);
+                if (depth < 0) {
+                    continue;
+                }
+                this.resolve(a, b, this.normal, depth);
+            }
+        }
+    }
+
+    /**
+     * Add entries for new vehicles, remove entries of vehicles that are gone, and
+     * update the bounding boxes.
+     */
+    private void updateEntries(@NotNull List<Vehicle> vehicles) {
+        for (Vehicle vehicle : vehicles) {
+            RigidBodyComponent rbc = vehicle.get(RigidBodyComponent.TYPE);
+            if (rbc == null || rbc.getWorld() == null) {
+                continue;
+            }
+            Entry entry = this.entryMap.get(vehicle);
+            if (entry == null) {
+                entry = new Entry(vehicle, rbc);
+                this.entryMap.put(vehicle, entry);
+                this.entries.add(entry);
+            }
+            entry.lastSeen = this.tick;
+            entry.world = rbc.getWorld();
+            // c_world = R c_local + p
+            Vector3d center = rbc.getOrientation().transform(entry.shape.getCenter(0, this.position)).add(rbc.getPosition());
+            entry.box.set(center, entry.shape.getHalfSize(0, this.halfSize), rbc.getOrientation());
+            Vector3d extent = entry.box.getExtent(this.extent);
+            entry.minX = center.x - extent.x;
+            entry.minY = center.y - extent.y;
+            entry.minZ = center.z - extent.z;
+            entry.maxX = center.x + extent.x;
+            entry.maxY = center.y + extent.y;
+            entry.maxZ = center.z + extent.z;
+        }
+        this.entries.removeIf(entry -> {
+            if (entry.lastSeen != this.tick) {
+                this.entryMap.remove(entry.vehicle);
+                return true;
+            }
+            return false;
+        });
+    }
+
+    /**
+     * Sort the entries by their minimum x coordinate using insertion sort.
+     */
+    private void sort() {
+        List<Entry> entries = this.entries;
+        for (int i = 1; i < entries.size(); i++) {
+            Entry entry = entries.get(i);
+            int j = i - 1;
+            while (j >= 0 && entries.get(j).minX > entry.minX) {
+                entries.set(j + 1, entries.get(j));
+                j--;
+            }
+            entries.set(j + 1, entry);
+        }
+    }
+
+    /**
+     * Apply an impulse to two colliding vehicles so that they stop moving into each
+     * other, and move them apart.
+     *
+     * @param a The first vehicle.
+     * @param b The second vehicle.
+     * @param normal The collision normal, pointing from the first vehicle towards the
+     *               second vehicle.
+     * @param depth How far the vehicles overlap along the normal. Unit: meter.
+     */
+    private void resolve(Entry a, Entry b, Vector3dc normal, double depth) {
+        // The contact point is between the deepest points of the boxes.
+        Vector3d contactPoint = a.box.getSupportPoint(normal, this.contactPoint);
+        b.box.getSupportPoint(this.temp.set(normal).negate(), this.supportPoint);
+        contactPoint.add(this.supportPoint).mul(0.5);
+
+        double inverseMassA = 1 / a.vehicle.getType().mass(); // unit: kg^-1
+        double inverseMassB = 1 / b.vehicle.getType().mass();
+        Matrix3dc inertiaTensorInverseA = a.rbc.getInertiaTensorInverse(a.vehicle);
+        Matrix3dc inertiaTensorInverseB = b.rbc.getInertiaTensorInverse(b.vehicle);
+        // The vectors from the centers of mass to the contact point.
+        Vector3d rA = contactPoint.sub(a.rbc.getPosition(), this.rA);
+        Vector3d rB = contactPoint.sub(b.rbc.getPosition(), this.rB);
+        Vector3d velocityA = this.velocityA.set(a.rbc.getVelocity());
+        Vector3d velocityB = this.velocityB.set(b.rbc.getVelocity());
+        Vector3d angularVelocityA = this.angularVelocityA.set(a.rbc.getAngularVelocity());
+        Vector3d angularVelocityB = this.angularVelocityB.set(b.rbc.getAngularVelocity());
+        Vector3d temp = this.temp;
+
+        // The relative velocity of the second vehicle at the contact point.
+        // v_rel = ((v_b + omega_b × r_b) - (v_a + omega_a × r_a)) ⋅ n
+        double relativeVelocity = angularVelocityB.cross(rB, temp).add(velocityB).dot(normal)
+            - angularVelocityA.cross(rA, temp).add(velocityA).dot(normal); // Unit: m/s
+
+        if (relativeVelocity < 0) {
+            double effectiveMass = 1.0 / (
+                inverseMassA + inverseMassB
+                    + normal.dot(rA.cross(normal, temp).mul(inertiaTensorInverseA).cross(rA))
+                    + normal.dot(rB.cross(normal, temp).mul(inertiaTensorInverseB).cross(rB))
+            ); // Unit: kg
+
+            final double restitutionCoefficient = 0; // Unitless, 0 = inelastic, 1 = elastic
+            double impulseMagnitude = -(1 + restitutionCoefficient) * relativeVelocity * effectiveMass;
+            Vector3d impulse = this.impulse.set(normal).mul(impulseMagnitude);
+
+            // The first vehicle is pushed against the normal, the second along it.
+            velocityA.fma(-inverseMassA, impulse);
+            angularVelocityA.sub(rA.cross(impulse, temp).mul(inertiaTensorInverseA));
+            velocityB.fma(inverseMassB, impulse);
+            angularVelocityB.add(rB.cross(impulse, temp).mul(inertiaTensorInverseB));
+
+            a.rbc.setVelocity(velocityA);
+            a.rbc.setAngularVelocity(angularVelocityA);
+            b.rbc.setVelocity(velocityB);
+            b.rbc.setAngularVelocity(angularVelocityB);
+            a.rbc.wake();
+            b.rbc.wake();
+        }
+
+        // Move the vehicles apart, the lighter vehicle moving further.
+        double correction = Math.max(depth - ALLOWED_PENETRATION, 0) * POSITION_CORRECTION
+            / (inverseMassA + inverseMassB); // unit: kg m
+        if (correction > 0) {
+            a.rbc.setPosition(this.position.set(a.rbc.getPosition()).fma(-correction * inverseMassA, normal));
+            b.rbc.setPosition(this.position.set(b.rbc.getPosition()).fma(correction * inverseMassB, normal));
+            a.rbc.wake();
+            b.rbc.wake();
+        }
+    }
+}
@@ -11,7 +11,7 @@ public interface VehicleComponent {
      * @return The type of this component.
      */
     @NotNull
-    VehicleComponentType getType();
+    VehicleComponentType<?> getType();
 
     /**
      * Serialize component state to the given data.
@@ -30,4 +30,12 @@ public interface VehicleComponent {
      * @param vehicle The vehicle this component belongs to.
      */
     void tick(Vehicle vehicle);
+
+    /**
+     * Called when the vehicle is removed from the world, either because it was
+     * unloaded or destroyed. The component will not be used afterwards.
+     *
+     * @param vehicle The vehicle this component belongs to.
+     */
+    default void remove(Vehicle vehicle) {}
 }
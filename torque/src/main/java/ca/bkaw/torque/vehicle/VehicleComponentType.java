@@ -4,17 +4,42 @@ import ca.bkaw.torque.platform.Identifier;
 import ca.bkaw.torque.platform.DataInput;
 import com.google.gson.JsonObject;
 
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 
-public record VehicleComponentType(
+/**
+ * A type of vehicle component.
+ *
+ * @param identifier The identifier used to refer to the component type in vehicle type files.
+ * @param componentClass The class of the components created by this type.
+ * @param configParser The function that parses the configuration of the component.
+ * @param constructor The constructor that creates the component.
+ * @param threadSafe Whether components of this type may be ticked off the server
+ *                   thread while other vehicles are ticking. Such components must only
+ *                   read blocks through {@code RigidBodyComponent#getCollisionCache()}
+ *                   and must not perform any other platform side effects while ticking.
+ * @param physics Whether components of this type apply forces to or integrate the
+ *                rigid body. Such components are ticked once per physics substep
+ *                instead of once per tick, and are always thread safe.
+ * @param index A dense index that is unique for each component type, used to look up
+ *              components on a vehicle without searching.
+ * @param <C> The class of the components created by this type.
+ */
+public record VehicleComponentType<C extends VehicleComponent>(
     Identifier identifier,
+    Class<C> componentClass,
     Function<JsonObject, ?> configParser,
-    VehicleComponentConstructor<?> constructor
+    VehicleComponentConstructor<?, C> constructor,
+    boolean threadSafe,
+    boolean physics,
+    int index
 ) {
+    private static final AtomicInteger NEXT_INDEX = new AtomicInteger();
+
     @FunctionalInterface
-    public interface VehicleComponentConstructor<T> {
-        VehicleComponent create(Vehicle vehicle, T config, DataInput data);
+    public interface VehicleComponentConstructor<T, C extends VehicleComponent> {
+        C create(Vehicle vehicle, T config, DataInput data);
 
         /**
          * Call the constructor and assume the configuration is of the correct type.
@@ -24,40 +49,100 @@ public record VehicleComponentType(
          * @param data an data input
          * @return the created vehicle component
          */
-        default VehicleComponent createUnsafe(Vehicle vehicle, Object config, DataInput data) {
+        default C createUnsafe(Vehicle vehicle, Object config, DataInput data) {
             @SuppressWarnings("unchecked")
             T tConfig = (T) config;
             return this.create(vehicle, tConfig, data);
         }
     }
 
-    public static VehicleComponentType create(Identifier identifier, BiFunction<Vehicle, DataInput, VehicleComponent> constructor) {
-        return new VehicleComponentType(
-            identifier,
-            Function.identity(),
-            (vehicle, config, data) -> constructor.apply(vehicle, data)
-        );
+    /**
+     * Get the number of component types that have been created. All indexes are
+     * less than this number.
+     *
+     * @return The number of component types.
+     */
+    public static int count() {
+        return NEXT_INDEX.get();
+    }
+
+    public static <C extends VehicleComponent> VehicleComponentType<C> create(
+        Identifier identifier, Class<C> componentClass, BiFunction<Vehicle, DataInput, C> constructor
+    ) {
+        return builder(identifier).create(componentClass, constructor);
     }
 
     public static Builder<JsonObject> builder(Identifier identifier) {
-        return new Builder<>(identifier, Function.identity());
+        return new Builder<>(identifier, Function.identity(), false, false);
     }
 
     public static class Builder<T> {
         private final Identifier identifier;
         private final Function<JsonObject, T> configParser;
+        private final boolean threadSafe;
+        private final boolean physics;
 
-        public Builder(Identifier identifier, Function<JsonObject, T> configParser) {
+        public Builder(Identifier identifier, Function<JsonObject, T> configParser, boolean threadSafe, boolean physics) {
             this.identifier = identifier;
             this.configParser = configParser;
+            this.threadSafe = threadSafe;
+            this.physics = physics;
         }
 
         public <S> Builder<S> configParser(Function<JsonObject, S> configParser) {
-            return new Builder<>(this.identifier, configParser);
+            return new Builder<>(this.identifier, configParser, this.threadSafe, this.physics);
+        }
+
+        /**
+         * Mark the component type as safe to tick in parallel with other vehicles.
+         *
+         * @return The builder.
+         * @see VehicleComponentType#threadSafe()
+         */
+        public Builder<T> threadSafe() {
+            return new Builder<>(this.identifier, this.configParser, true, this.physics);
+        }
+
+        /**
+         * Mark the component type as a physics component. Physics components are
+         * also thread safe.
+         *
+         * @return The builder.
+         * @see VehicleComponentType#physics()
+         */
+        public Builder<T> physics() {
+            return new Builder<>(this.identifier, this.configParser, true, true);
         }
 
-        public VehicleComponentType create(VehicleComponentConstructor<T> constructor) {
-            return new VehicleComponentType(this.identifier, this.configParser, constructor);
+        public <C extends VehicleComponent> VehicleComponentType<C> create(
+            Class<C> componentClass, VehicleComponentConstructor<T, C> constructor
+        ) {
+            return new VehicleComponentType<>(
+                this.identifier, componentClass, this.configParser, constructor,
+                this.threadSafe, this.physics, NEXT_INDEX.getAndIncrement()
+            );
+        }
+
+        /**
+         * Create the component type for a component that does not use its configuration.
+         *
+         * @param componentClass The class of the component.
+         * @param constructor The constructor of the component.
+         * @return The component type.
+         * @param <C> The class of the component.
+         */
+        public <C extends VehicleComponent> VehicleComponentType<C> create(
+            Class<C> componentClass, BiFunction<Vehicle, DataInput, C> constructor
+        ) {
+            return new VehicleComponentType<>(
+                this.identifier,
+                componentClass,
+                Function.identity(),
+                (vehicle, config, data) -> constructor.apply(vehicle, data),
+                this.threadSafe,
+                this.physics,
+                NEXT_INDEX.getAndIncrement()
+            );
         }
     }
 }
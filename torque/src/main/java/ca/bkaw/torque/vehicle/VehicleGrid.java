@@ -0,0 +1,214 @@
+package ca.bkaw.torque.vehicle;
+
+import ca.bkaw.torque.components.RigidBodyComponent;
+import ca.bkaw.torque.util.AABB;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2LongOpenHashMap;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.joml.Vector3dc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A spatial hash grid of the vehicles in a world, for finding vehicles near a
+ * position without checking every vehicle.
+ * <p>
+ * The world is split into columns of {@link #CELL_SIZE} by {@link #CELL_SIZE}
+ * blocks. Each vehicle is stored in the column that contains its position, and is
+ * moved to another column by the {@link VehicleManager} after it moves.
+ * <p>
+ * Must only be used on the server thread.
+ */
+public class VehicleGrid {
+    /**
+     * The width of the cells, unit: meter.
+     */
+    public static final int CELL_SIZE = 16;
+    /**
+     * The number of rings of cells around a position to search for the closest
+     * vehicle before checking every vehicle instead.
+     */
+    private static final int MAX_SEARCH_RINGS = 8;
+
+    private final Long2ObjectOpenHashMap<List<Vehicle>> cells = new Long2ObjectOpenHashMap<>();
+    private final Reference2LongOpenHashMap<Vehicle> vehicleCells = new Reference2LongOpenHashMap<>();
+
+    private static int cellCoordinate(double coordinate) {
+        return Math.floorDiv((int) Math.floor(coordinate), CELL_SIZE);
+    }
+
+    private static long cellKey(int cellX, int cellZ) {
+        return (long) cellX << 32 | cellZ & 0xFFFFFFFFL;
+    }
+
+    private static @NotNull Vector3dc getPosition(@NotNull Vehicle vehicle) {
+        RigidBodyComponent rbc = vehicle.get(RigidBodyComponent.TYPE);
+        return rbc.getPosition();
+    }
+
+    /**
+     * Add a vehicle to the grid, or move it to the cell of its new position.
+     *
+     * @param vehicle The vehicle.
+     * @param position The position of the vehicle.
+     */
+    void update(@NotNull Vehicle vehicle, @NotNull Vector3dc position) {
+        long cell = cellKey(cellCoordinate(position.x()), cellCoordinate(position.z()));
+        if (this.vehicleCells.containsKey(vehicle)) {
+            long previousCell = this.vehicleCells.getLong(vehicle);
+            if (previousCell == cell) {
+                return;
+            }
+            this.removeFromCell(vehicle, previousCell);
+        }
+        this.vehicleCells.put(vehicle, cell);
+        List<Vehicle> vehicles = this.cells.get(cell);
+        if (vehicles == null) {
+            vehicles = new ArrayList<>(1);
+            this.cells.put(cell, vehicles);
+        }
+        vehicles.add(vehicle);
+    }
+
+    /**
+     * Remove a vehicle from the grid.
+     *
+     * @param vehicle The vehicle.
+     */
+    void remove(@NotNull Vehicle vehicle) {
+        if (this.vehicleCells.containsKey(vehicle)) {
+            this.removeFromCell(vehicle, this.vehicleCells.removeLong(vehicle));
+        }
+    }
+
+    private void removeFromCell(@NotNull Vehicle vehicle, long cell) {
+        List<Vehicle> vehicles = this.cells.get(cell);
+        vehicles.remove(vehicle);
+        if (vehicles.isEmpty()) {
+            this.cells.remove(cell);
+        }
+    }
+
+    /**
+     * Get the number of vehicles in the grid.
+     *
+     * @return The number of vehicles.
+     */
+    public int size() {
+        return this.vehicleCells.size();
+    }
+
+    /**
+     * Get the vehicle closest to a position.
+     *
+     * @param position The position.
+     * @return The closest vehicle, or null if there are no vehicles in the grid.
+     */
+    public @Nullable Vehicle getClosest(@NotNull Vector3dc position) {
+        if (this.vehicleCells.isEmpty()) {
+            return null;
+        }
+        int centerX = cellCoordinate(position.x());
+        int centerZ = cellCoordinate(position.z());
+        Vehicle closest = null;
+        double closestDistance = Double.POSITIVE_INFINITY;
+        for (int ring = 0; ring <= MAX_SEARCH_RINGS; ring++) {
+            // Vehicles in this ring are at least (ring - 1) cells away, so stop if
+            // the closest vehicle so far is closer than that.
+            double ringDistance = (ring - 1) * (double) CELL_SIZE;
+            if (closest != null && closestDistance <= ringDistance * ringDistance) {
+                return closest;
+            }
+            // Visit the cells on the border of the square of the ring.
+            for (int dx = -ring; dx <= ring; dx++) {
+                int step = dx == -ring || dx == ring ? 1 : 2 * ring;
+                for (int dz = -ring; dz <= ring; dz += step) {
+                    List<Vehicle> vehicles = this.cells.get(cellKey(centerX + dx, centerZ + dz));
+                    if (vehicles == null) {
+                        continue;
+                    }
+                    for (int i = 0; i < vehicles.size(); i++) {
+                        Vehicle vehicle = vehicles.get(i);
+                        double distance = getPosition(vehicle).distanceSquared(position);
+                        if (distance < closestDistance) {
+                            closest = vehicle;
+                            closestDistance = distance;
+                        }
+                    }
+                }
+            }
+        }
+        double searchedDistance = MAX_SEARCH_RINGS * (double) CELL_SIZE;
+        if (closest != null && closestDistance <= searchedDistance * searchedDistance) {
+            return closest;
+        }
+        // All vehicles are far away, check every vehicle.
+        for (Vehicle vehicle : this.vehicleCells.keySet()) {
+            double distance = getPosition(vehicle).distanceSquared(position);
+            if (distance < closestDistance) {
+                closest = vehicle;
+                closestDistance = distance;
+            }
+        }
+        return closest;
+    }
+
+    /**
+     * Find the vehicles within a distance of a position.
+     *
+     * @param position The position.
+     * @param radius The distance, unit: meter.
+     * @param dest The list to add the vehicles to.
+     */
+    public void getWithinRadius(@NotNull Vector3dc position, double radius, @NotNull List<Vehicle> dest) {
+        double radiusSquared = radius * radius;
+        int minX = cellCoordinate(position.x() - radius);
+        int minZ = cellCoordinate(position.z() - radius);
+        int maxX = cellCoordinate(position.x() + radius);
+        int maxZ = cellCoordinate(position.z() + radius);
+        for (int x = minX; x <= maxX; x++) {
+            for (int z = minZ; z <= maxZ; z++) {
+                List<Vehicle> vehicles = this.cells.get(cellKey(x, z));
+                if (vehicles == null) {
+                    continue;
+                }
+                for (int i = 0; i < vehicles.size(); i++) {
+                    Vehicle vehicle = vehicles.get(i);
+                    if (getPosition(vehicle).distanceSquared(position) <= radiusSquared) {
+                        dest.add(vehicle);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Find the vehicles whose position is inside a box.
+     *
+     * @param box The box.
+     * @param dest The list to add the vehicles to.
+     */
+    public void getInside(@NotNull AABB box, @NotNull List<Vehicle> dest) {
+        int minX = cellCoordinate(box.getMinX());
+        int minZ = cellCoordinate(box.getMinZ());
+        int maxX = cellCoordinate(box.getMaxX());
+        int maxZ = cellCoordinate(box.getMaxZ());
+        for (int x = minX; x <= maxX; x++) {
+            for (int z = minZ; z <= maxZ; z++) {
+                List<Vehicle> vehicles = this.cells.get(cellKey(x, z));
+                if (vehicles == null) {
+                    continue;
+                }
+                for (int i = 0; i < vehicles.size(); i++) {
+                    Vehicle vehicle = vehicles.get(i);
+                    Vector3dc position = getPosition(vehicle);
+                    if (box.contains(position.x(), position.y(), position.z())) {
+                        dest.add(vehicle);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -9,6 +9,7 @@ import ca.bkaw.torque.components.FloatComponent;
 import ca.bkaw.torque.components.GravityComponent;
 import ca.bkaw.torque.components.OrientationLockComponent;
 import ca.bkaw.torque.components.RigidBodyComponent;
+import ca.bkaw.torque.components.RigidBodyStore;
 import ca.bkaw.torque.components.SeatsComponent;
 import ca.bkaw.torque.components.SimpleCollisionComponent;
 import ca.bkaw.torque.components.SteeringWheelComponent;
@@ -23,6 +24,9 @@ import ca.bkaw.torque.platform.entity.Entity;
 import ca.bkaw.torque.platform.entity.ItemDisplay;
 import ca.bkaw.torque.platform.entity.Player;
 import ca.bkaw.torque.platform.World;
+import ca.bkaw.torque.render.DeadReckoning;
+import ca.bkaw.torque.render.InterestManager;
+import ca.bkaw.torque.render.UpdateScheduler;
 import ca.bkaw.torque.render.VehicleRenderer;
 import ca.bkaw.torque.tags.LightTags;
 import ca.bkaw.torque.tags.SeatTags;
@@ -30,9 +34,12 @@ import ca.bkaw.torque.tags.SteeringWheelTags;
 import ca.bkaw.torque.tags.WheelTags;
 import ca.bkaw.torque.util.Debug;
 import ca.bkaw.torque.util.Registry;
+import ca.bkaw.torque.util.Util;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParseException;
 import com.google.gson.JsonParser;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.joml.Vector3d;
@@ -40,21 +47,24 @@ import org.joml.Vector3dc;
 
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.stream.Stream;
 
 public class VehicleManager {
     private final @NotNull Torque torque;
 
     // Registries
-    private final Registry<VehicleComponentType> componentTypeRegistry
+    private final Registry<VehicleComponentType<?>> componentTypeRegistry
         = new Registry<>(VehicleComponentType::identifier);
     private final Registry<VehicleType> vehicleTypeRegistry
         = new Registry<>(VehicleType::identifier);
@@ -66,13 +76,51 @@ public class VehicleManager {
     private final Map<Player, Vehicle> currentVehicleMap = new HashMap<>();
     private final Map<Entity, Vehicle> vehiclePartMap = new HashMap<>();
 
+    // Sleeping
+    private final List<Vehicle> awakeVehicles = new ArrayList<>();
+    private final List<Vehicle> sleepingVehicles = new ArrayList<>();
+
     // Tick control
     private boolean tickingFrozen = false;
     private int remainingSteps = 0;
+    private @Nullable ParallelVehicleTicker parallelTicker;
+    private final TimeStep timeStep = new TimeStep();
+    private final RigidBodyStore rigidBodyStore = new RigidBodyStore();
+
+    // Collision
+    /**
+     * The distance around a vehicle, in addition to the distance it moves during the
+     * tick, within which blocks are loaded into the collision cache before vehicles
+     * tick, unit: meter.
+     */
+    private static final double PREFETCH_RADIUS = 4;
+    private final Map<World, CollisionCache> collisionCaches = new HashMap<>();
+    private final Map<CollisionCache, LongOpenHashSet> prefetchSections = new HashMap<>();
+    private final LongArrayList sortedSections = new LongArrayList();
+    private final VehicleCollisions vehicleCollisions = new VehicleCollisions();
+
+    // Spatial index
+    private final Map<World, VehicleGrid> vehicleGrids = new HashMap<>();
+    private final Map<Vehicle, VehicleGrid> vehicleGridMap = new IdentityHashMap<>();
+
+    // Rendering
+    private final InterestManager interestManager = new InterestManager();
+    private final UpdateScheduler updateScheduler = new UpdateScheduler();
+    private final DeadReckoning deadReckoning = new DeadReckoning();
+
+    // Recording
+    private @Nullable VehicleRecorder recorder;
 
     public VehicleManager(Torque torque) {
         this.torque = torque;
         this.registerBuiltIns();
+        if (Boolean.getBoolean("torque.parallelTicking")) {
+            this.setParallelTicking(true);
+        }
+        this.timeStep.setSubsteps(Math.max(1, Integer.getInteger("torque.physics.substeps", 1)));
+        this.timeStep.setAdaptive(Boolean.getBoolean("torque.physics.adaptive"));
+        this.timeStep.setRealTime(Boolean.getBoolean("torque.physics.realTime"));
+        this.rigidBodyStore.setBatched(Boolean.getBoolean("torque.physics.batchedIntegration"));
         torque.getPlatform().runEachTick(this::tick);
     }
 
@@ -104,6 +152,8 @@ public class VehicleManager {
     private void tick() {
         // Check if ticking is frozen
         if (tickingFrozen) {
+            // Do not catch up on the time spent frozen.
+            this.timeStep.reset();
             // If we have remaining steps, execute one and decrement
             if (remainingSteps > 0) {
                 remainingSteps--;
@@ -113,33 +163,202 @@ public class VehicleManager {
             }
         }
 
-        for (Vehicle vehicle : this.vehicles) {
-            vehicle.tick();
+        this.timeStep.beginTick();
+        // In real time mode, there are no steps when the tick came early. The
+        // vehicles are still rendered.
+        this.tickSteps(this.timeStep.getSteps());
+    }
+
+    /**
+     * Tick all vehicles, taking a number of physics steps, and render them.
+     *
+     * @param steps The number of physics steps to take. If 0, the vehicles are only
+     *              rendered.
+     */
+    void tickSteps(int steps) {
+        Debug debug = Debug.getInstance();
+        if (steps > 0) {
+            this.tickPhysics(steps, debug);
+        }
+
+        this.interestManager.update(this.vehicleGrids);
+        for (int i = 0; i < this.vehicleRenderers.size(); i++) {
+            VehicleRenderer vehicleRenderer = this.vehicleRenderers.get(i);
+            if (!isSleeping(vehicleRenderer.getVehicle())) {
+                this.updateScheduler.schedule(vehicleRenderer, this.interestManager);
+            } else {
+                vehicleRenderer.renderStopped();
+            }
         }
+        this.updateScheduler.sendUpdates(this.interestManager);
+
         Iterator<VehicleRenderer> iter = this.vehicleRenderers.iterator();
         while (iter.hasNext()) {
             VehicleRenderer vehicleRenderer = iter.next();
-            vehicleRenderer.render();
             if (!vehicleRenderer.getPrimaryEntity().isAlive()) {
                 // If we remove first, we can avoid a ConcurrentModificationException
                 iter.remove();
                 this.stopRendering(vehicleRenderer.getVehicle());
                 this.vehicles.remove(vehicleRenderer.getVehicle());
+                this.removeFromVehicleGrid(vehicleRenderer.getVehicle());
+                if (this.recorder != null) {
+                    this.recorder.recordRemove(vehicleRenderer.getVehicle());
+                }
+                vehicleRenderer.getVehicle().remove();
                 Debug.print("Removing a vehicle");
             }
         }
 
-        Debug debug = Debug.getInstance();
         if (debug != null) {
             debug.tick();
         }
     }
 
+    /**
+     * Take a number of physics steps for the awake vehicles, and resolve collisions
+     * between vehicles.
+     *
+     * @param steps The number of physics steps to take, at least 1.
+     * @param debug The debug instance, or null if debugging is disabled.
+     */
+    private void tickPhysics(int steps, @Nullable Debug debug) {
+        this.sortSleepingVehicles();
+        for (Vehicle vehicle : this.awakeVehicles) {
+            RigidBodyComponent rbc = vehicle.get(RigidBodyComponent.TYPE);
+            int substeps = 1;
+            if (rbc != null) {
+                substeps = this.timeStep.getSubsteps(rbc);
+                rbc.setDeltaTime(RigidBodyComponent.DELTA_TIME / substeps);
+            }
+            vehicle.setPhysicsSteps(steps * substeps);
+        }
+        this.prefetchCollisionSections(steps);
+
+        if (this.parallelTicker != null && debug == null) {
+            // Debug visualizations spawn entities while ticking, so only tick in
+            // parallel when debugging is disabled.
+            this.parallelTicker.tick(this.awakeVehicles);
+        } else {
+            for (Vehicle vehicle : this.awakeVehicles) {
+                vehicle.tick();
+            }
+        }
+        this.rigidBodyStore.integratePending();
+        this.vehicleCollisions.tick(this.vehicles);
+        for (Vehicle vehicle : this.awakeVehicles) {
+            this.updateVehicleGrid(vehicle);
+            RigidBodyComponent rbc = vehicle.get(RigidBodyComponent.TYPE);
+            if (rbc != null) {
+                rbc.updateSleeping();
+            }
+        }
+        if (this.recorder != null) {
+            this.recorder.recordTick(this.vehicles, steps);
+        }
+    }
+
+    /**
+     * Load the chunk sections that awake vehicles may check during the tick into the
+     * collision caches.
+     * <p>
+     * The sections of all vehicles are gathered first, so that sections shared by
+     * nearby vehicles are only read once, and are then read chunk by chunk.
+     *
+     * @param steps The number of steps vehicles take during the tick.
+     */
+    private void prefetchCollisionSections(int steps) {
+        for (CollisionCache collisionCache : this.collisionCaches.values()) {
+            collisionCache.tick();
+        }
+        for (LongOpenHashSet sections : this.prefetchSections.values()) {
+            sections.clear();
+        }
+        for (Vehicle vehicle : this.awakeVehicles) {
+            RigidBodyComponent rbc = vehicle.get(RigidBodyComponent.TYPE);
+            if (rbc == null) {
+                continue;
+            }
+            CollisionCache collisionCache = rbc.getCollisionCache();
+            LongOpenHashSet sections = this.prefetchSections.computeIfAbsent(collisionCache, c -> new LongOpenHashSet());
+            Vector3dc position = rbc.getPosition();
+            double radius = PREFETCH_RADIUS + rbc.getVelocity().length() * RigidBodyComponent.DELTA_TIME * steps;
+            int minX = (int) Math.floor(position.x() - radius) >> 4;
+            int minY = (int) Math.floor(position.y() - radius) >> 4;
+            int minZ = (int) Math.floor(position.z() - radius) >> 4;
+            int maxX = (int) Math.floor(position.x() + radius) >> 4;
+            int maxY = (int) Math.floor(position.y() + radius) >> 4;
+            int maxZ = (int) Math.floor(position.z() + radius) >> 4;
+            for (int x = minX; x <= maxX; x++) {
+                for (int z = minZ; z <= maxZ; z++) {
+                    for (int y = minY; y <= maxY; y++) {
+                        sections.add(Util.packBlockPosition(x, y, z));
+                    }
+                }
+            }
+        }
+        LongArrayList sorted = this.sortedSections;
+        for (Map.Entry<CollisionCache, LongOpenHashSet> entry : this.prefetchSections.entrySet()) {
+            if (entry.getValue().isEmpty()) {
+                continue;
+            }
+            sorted.clear();
+            sorted.addAll(entry.getValue());
+            // Packed positions sort by x, then z, then y, so the sections of each
+            // chunk end up next to each other.
+            sorted.sort(null);
+            entry.getKey().loadSections(sorted);
+        }
+    }
+
+    private static boolean isSleeping(@NotNull Vehicle vehicle) {
+        RigidBodyComponent rbc = vehicle.get(RigidBodyComponent.TYPE);
+        return rbc != null && rbc.isSleeping();
+    }
+
+    /**
+     * Split the vehicles into awake and sleeping vehicles, waking up sleeping
+     * vehicles whose supporting block has changed.
+     */
+    private void sortSleepingVehicles() {
+        this.awakeVehicles.clear();
+        this.sleepingVehicles.clear();
+        for (Vehicle vehicle : this.vehicles) {
+            RigidBodyComponent rbc = vehicle.get(RigidBodyComponent.TYPE);
+            if (rbc != null && rbc.isSleeping() && rbc.hasSupportChanged()) {
+                rbc.wake();
+            }
+            if (rbc != null && rbc.isSleeping()) {
+                this.sleepingVehicles.add(vehicle);
+            } else {
+                this.awakeVehicles.add(vehicle);
+            }
+        }
+    }
+
+    /**
+     * Get the number of vehicles that were sleeping during the last tick.
+     *
+     * @return The number of sleeping vehicles.
+     * @see RigidBodyComponent#isSleeping()
+     */
+    public int getSleepingVehicleCount() {
+        return this.sleepingVehicles.size();
+    }
+
+    /**
+     * Get the number of vehicles that were awake during the last tick.
+     *
+     * @return The number of awake vehicles.
+     */
+    public int getAwakeVehicleCount() {
+        return this.awakeVehicles.size();
+    }
+
     public @NotNull Torque getTorque() {
         return this.torque;
     }
 
-    public Registry<VehicleComponentType> getComponentTypeRegistry() {
+    public Registry<VehicleComponentType<?>> getComponentTypeRegistry() {
         return this.componentTypeRegistry;
     }
 
@@ -266,8 +485,25 @@ public class VehicleManager {
      * @param vehicleType The type of vehicle to spawn.
      * @param world The world to spawn the vehicle in.
      * @param position The position in the world to spawn the vehicle at.
+     * @return The vehicle.
      */
-    public void spawnVehicle(@NotNull VehicleType vehicleType, @NotNull World world, @NotNull Vector3dc position) {
+    public @NotNull Vehicle spawnVehicle(@NotNull VehicleType vehicleType, @NotNull World world, @NotNull Vector3dc position) {
+        Vehicle vehicle = this.createVehicle(vehicleType, world, position);
+        ItemDisplay primaryEntity = world.spawnItemDisplay(position);
+        this.vehiclePartMap.put(primaryEntity, vehicle);
+        this.startRendering(vehicle, primaryEntity);
+        return vehicle;
+    }
+
+    /**
+     * Create a new vehicle and add it to the loaded vehicles, without rendering it.
+     *
+     * @param vehicleType The type of vehicle to create.
+     * @param world The world to create the vehicle in.
+     * @param position The position in the world to create the vehicle at.
+     * @return The vehicle.
+     */
+    @NotNull Vehicle createVehicle(@NotNull VehicleType vehicleType, @NotNull World world, @NotNull Vector3dc position) {
         Vehicle vehicle = new Vehicle(this.torque, vehicleType);
         for (VehicleType.ComponentConfiguration configuration : vehicleType.components()) {
             VehicleComponent vehicleComponent = configuration.type().constructor().createUnsafe(vehicle, configuration.configuration(), DataInput.empty());
@@ -278,9 +514,11 @@ public class VehicleManager {
             vehicle.addComponent(vehicleComponent);
         }
         this.vehicles.add(vehicle);
-        ItemDisplay primaryEntity = world.spawnItemDisplay(position);
-        this.vehiclePartMap.put(primaryEntity, vehicle);
-        this.startRendering(vehicle, primaryEntity);
+        this.updateVehicleGrid(vehicle);
+        if (this.recorder != null) {
+            this.recorder.recordSpawn(vehicle);
+        }
+        return vehicle;
     }
 
     /**
@@ -323,9 +561,17 @@ public class VehicleManager {
         Iterator<Vehicle> iterator = this.vehicles.iterator();
         while (iterator.hasNext()) {
             Vehicle vehicle = iterator.next();
-            vehicle.getComponent(SeatsComponent.class).ifPresent(SeatsComponent::ejectAllPassengers);
+            SeatsComponent seats = vehicle.get(SeatsComponent.TYPE);
+            if (seats != null) {
+                seats.ejectAllPassengers();
+            }
             this.stopRendering(vehicle);
             iterator.remove();
+            this.removeFromVehicleGrid(vehicle);
+            if (this.recorder != null) {
+                this.recorder.recordRemove(vehicle);
+            }
+            vehicle.remove();
         }
     }
 
@@ -353,6 +599,10 @@ public class VehicleManager {
             }
         }
         this.vehicles.add(vehicle);
+        this.updateVehicleGrid(vehicle);
+        if (this.recorder != null) {
+            this.recorder.recordSpawn(vehicle);
+        }
         this.startRendering(vehicle, primaryEntity);
     }
 
@@ -370,7 +620,13 @@ public class VehicleManager {
                 iter.remove();
             }
         }
-        this.vehicles.remove(vehicle);
+        if (this.vehicles.remove(vehicle)) {
+            this.removeFromVehicleGrid(vehicle);
+            if (this.recorder != null) {
+                this.recorder.recordRemove(vehicle);
+            }
+            vehicle.remove();
+        }
     }
 
     /**
@@ -406,22 +662,45 @@ public class VehicleManager {
      * @return The closest vehicle, or null if there are no vehicles in the world.
      */
     @Nullable
-    public Vehicle getClosestVehicle(@NotNull World world, @NotNull Vector3d position) {
-        return this.torque.getVehicleManager().getVehicles().stream().min((a, b) -> {
-            World aWorld = a.getComponent(RigidBodyComponent.class).map(RigidBodyComponent::getWorld).orElse(null);
-            World bWorld = b.getComponent(RigidBodyComponent.class).map(RigidBodyComponent::getWorld).orElse(null);
-            Vector3dc aPos = a.getComponent(RigidBodyComponent.class).map(RigidBodyComponent::getPosition).orElse(new Vector3d());
-            Vector3dc bPos = b.getComponent(RigidBodyComponent.class).map(RigidBodyComponent::getPosition).orElse(new Vector3d());
-            double aDistance = aPos.distanceSquared(position);
-            double bDistance = bPos.distanceSquared(position);
-            if (!world.equals(aWorld)) {
-                aDistance = Double.MAX_VALUE;
-            }
-            if (!world.equals(bWorld)) {
-                bDistance = Double.MAX_VALUE;
-            }
-            return Double.compare(aDistance, bDistance);
-        }).orElse(null);
+    public Vehicle getClosestVehicle(@NotNull World world, @NotNull Vector3dc position) {
+        VehicleGrid grid = this.vehicleGrids.get(world);
+        return grid != null ? grid.getClosest(position) : null;
+    }
+
+    /**
+     * Get the spatial index of the vehicles in a world, for finding vehicles near a
+     * position.
+     *
+     * @param world The world.
+     * @return The grid of vehicles in the world.
+     */
+    public @NotNull VehicleGrid getVehicleGrid(@NotNull World world) {
+        return this.vehicleGrids.computeIfAbsent(world, w -> new VehicleGrid());
+    }
+
+    /**
+     * Move a vehicle to the cell of its current position in the grid of its world.
+     *
+     * @param vehicle The vehicle.
+     */
+    private void updateVehicleGrid(@NotNull Vehicle vehicle) {
+        RigidBodyComponent rbc = vehicle.get(RigidBodyComponent.TYPE);
+        if (rbc == null || rbc.getWorld() == null) {
+            return;
+        }
+        VehicleGrid grid = this.getVehicleGrid(rbc.getWorld());
+        VehicleGrid previousGrid = this.vehicleGridMap.put(vehicle, grid);
+        if (previousGrid != null && previousGrid != grid) {
+            previousGrid.remove(vehicle);
+        }
+        grid.update(vehicle, rbc.getPosition());
+    }
+
+    private void removeFromVehicleGrid(@NotNull Vehicle vehicle) {
+        VehicleGrid grid = this.vehicleGridMap.remove(vehicle);
+        if (grid != null) {
+            grid.remove(vehicle);
+        }
     }
 
     /**
@@ -452,6 +731,182 @@ public class VehicleManager {
         }
     }
 
+    /**
+     * Get the time step settings that decide how many physics steps vehicles take
+     * each tick.
+     *
+     * @return The time step settings.
+     */
+    public TimeStep getTimeStep() {
+        return this.timeStep;
+    }
+
+    /**
+     * Get the scheduler that limits how many vehicle updates are sent to players.
+     *
+     * @return The update scheduler.
+     */
+    public @NotNull UpdateScheduler getUpdateScheduler() {
+        return this.updateScheduler;
+    }
+
+    /**
+     * Get the settings for sending predicted states of vehicles to players.
+     *
+     * @return The dead reckoning settings.
+     */
+    public @NotNull DeadReckoning getDeadReckoning() {
+        return this.deadReckoning;
+    }
+
+    /**
+     * Get the store that holds the state of the rigid bodies of all vehicles.
+     *
+     * @return The rigid body store.
+     */
+    public RigidBodyStore getRigidBodyStore() {
+        return this.rigidBodyStore;
+    }
+
+    /**
+     * Get the collision cache of a world. Must be called on the server thread.
+     *
+     * @param world The world.
+     * @return The collision cache.
+     */
+    public @NotNull CollisionCache getCollisionCache(@NotNull World world) {
+        return this.collisionCaches.computeIfAbsent(world, w -> new CollisionCache(this, w));
+    }
+
+    /**
+     * Invalidate the collision cache at a block that changed. Called by the platform
+     * on the server thread.
+     *
+     * @param world The world.
+     * @param x The x coordinate of the block.
+     * @param y The y coordinate of the block.
+     * @param z The z coordinate of the block.
+     */
+    public void invalidateBlock(@NotNull World world, int x, int y, int z) {
+        CollisionCache collisionCache = this.collisionCaches.get(world);
+        if (collisionCache != null) {
+            collisionCache.invalidateBlock(x, y, z);
+            if (this.recorder != null) {
+                this.recorder.recordInvalidateBlock(world, x, y, z);
+            }
+        }
+    }
+
+    /**
+     * Invalidate the collision cache of a chunk that was unloaded. Called by the
+     * platform on the server thread.
+     *
+     * @param world The world.
+     * @param chunkX The x coordinate of the chunk.
+     * @param chunkZ The z coordinate of the chunk.
+     */
+    public void invalidateChunk(@NotNull World world, int chunkX, int chunkZ) {
+        CollisionCache collisionCache = this.collisionCaches.get(world);
+        if (collisionCache != null) {
+            collisionCache.invalidateChunk(chunkX, chunkZ);
+            if (this.recorder != null) {
+                this.recorder.recordInvalidateChunk(world, chunkX, chunkZ);
+            }
+        }
+    }
+
+    /**
+     * Start recording the simulation of the vehicles, so that it can be replayed
+     * using {@link VehicleReplay}.
+     * <p>
+     * The loaded vehicles are recorded with their current state, and the collision
+     * caches are cleared so that all blocks the vehicles touch are recorded.
+     *
+     * @param outputStream The stream to write the recording to. Closed when recording
+     *                     stops.
+     * @throws IOException If an I/O error occurs.
+     * @throws IllegalStateException If already recording.
+     */
+    public void startRecording(@NotNull OutputStream outputStream) throws IOException {
+        if (this.recorder != null) {
+            throw new IllegalStateException("Already recording.");
+        }
+        VehicleRecorder recorder = new VehicleRecorder(outputStream, this.timeStep);
+        for (CollisionCache collisionCache : this.collisionCaches.values()) {
+            collisionCache.clear();
+        }
+        for (Vehicle vehicle : this.vehicles) {
+            recorder.recordSpawn(vehicle);
+        }
+        this.recorder = recorder;
+    }
+
+    /**
+     * Stop recording and close the recording.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    public void stopRecording() throws IOException {
+        VehicleRecorder recorder = this.recorder;
+        if (recorder != null) {
+            this.recorder = null;
+            recorder.close();
+        }
+    }
+
+    /**
+     * Get the recorder that is recording the simulation, if recording.
+     *
+     * @return The recorder, or null if not recording.
+     */
+    public @Nullable VehicleRecorder getRecorder() {
+        return this.recorder;
+    }
+
+    /**
+     * Run something on the server thread and wait for the result. May be called from
+     * any thread while vehicles are ticking.
+     *
+     * @param supplier The code to run.
+     * @return The result of the supplier.
+     * @param <T> The type of the result.
+     */
+    <T> T callOnServerThread(@NotNull Supplier<T> supplier) {
+        ParallelVehicleTicker parallelTicker = this.parallelTicker;
+        if (parallelTicker == null) {
+            return supplier.get();
+        }
+        return parallelTicker.callOnServerThread(supplier);
+    }
+
+    /**
+     * Set whether vehicles should be ticked on multiple threads.
+     *
+     * @param parallelTicking Whether to tick in parallel.
+     * @see ParallelVehicleTicker
+     */
+    public void setParallelTicking(boolean parallelTicking) {
+        if (parallelTicking == (this.parallelTicker != null)) {
+            return;
+        }
+        if (parallelTicking) {
+            int parallelism = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+            this.parallelTicker = new ParallelVehicleTicker(parallelism);
+        } else {
+            this.parallelTicker.close();
+            this.parallelTicker = null;
+        }
+    }
+
+    /**
+     * Check if vehicles are ticked on multiple threads.
+     *
+     * @return True if ticking in parallel, false otherwise.
+     */
+    public boolean isParallelTicking() {
+        return this.parallelTicker != null;
+    }
+
     /**
      * Check if ticking is currently frozen.
      *
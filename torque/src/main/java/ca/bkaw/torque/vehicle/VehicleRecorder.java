@@ -0,0 +1,293 @@
+package ca.bkaw.torque.vehicle;
+
+import ca.bkaw.torque.Torque;
+import ca.bkaw.torque.components.RigidBodyComponent;
+import ca.bkaw.torque.components.SeatsComponent;
+import ca.bkaw.torque.platform.Input;
+import ca.bkaw.torque.platform.World;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import org.jetbrains.annotations.NotNull;
+import org.joml.Quaternionfc;
+import org.joml.Vector3dc;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Records the simulation of vehicles to a compact binary log, so that it can be
+ * simulated again without a server using {@link VehicleReplay}.
+ * <p>
+ * The log contains the state of the vehicles when they spawn, the input of their
+ * drivers each tick, and the block flags of each chunk section that a collision cache
+ * reads while recording. The physics only read blocks through the collision caches,
+ * so the recorded sections are all that is needed to replay the world.
+ * <p>
+ * The log is a gzip compressed stream of records. Each record starts with a byte
+ * that tells what kind of record it is. The records that happen before and during a
+ * tick come before the {@link #TICK} record of that tick.
+ * <p>
+ * Must only be used on the server thread.
+ */
+public class VehicleRecorder implements Closeable {
+    static final int MAGIC = 0x54525152; // "TRQR"
+    static final int VERSION = 1;
+
+    // Record kinds.
+    static final byte END = 0;
+    static final byte SPAWN = 1;
+    static final byte REMOVE = 2;
+    static final byte SECTION = 3;
+    static final byte INVALIDATE_BLOCK = 4;
+    static final byte INVALIDATE_CHUNK = 5;
+    static final byte INPUT = 6;
+    static final byte TICK = 7;
+
+    private final DataOutputStream out;
+    private final Reference2IntOpenHashMap<Vehicle> vehicleIds = new Reference2IntOpenHashMap<>();
+    private final Object2IntOpenHashMap<World> worldIds = new Object2IntOpenHashMap<>();
+    private int nextVehicleId = 0;
+    private int tickCount = 0;
+    private boolean failed = false;
+
+    VehicleRecorder(@NotNull OutputStream outputStream, @NotNull TimeStep timeStep) throws IOException {
+        this.out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(outputStream)));
+        this.vehicleIds.defaultReturnValue(-1);
+        this.worldIds.defaultReturnValue(-1);
+        this.out.writeInt(MAGIC);
+        this.out.writeShort(VERSION);
+        this.out.writeInt(timeStep.getSubsteps());
+        this.out.writeBoolean(timeStep.isAdaptive());
+    }
+
+    /**
+     * Get the number of ticks that have been recorded.
+     *
+     * @return The number of ticks.
+     */
+    public int getTickCount() {
+        return this.tickCount;
+    }
+
+    private int getWorldId(@NotNull World world) {
+        int id = this.worldIds.getInt(world);
+        if (id < 0) {
+            id = this.worldIds.size();
+            this.worldIds.put(world, id);
+        }
+        return id;
+    }
+
+    /**
+     * Handle an error while writing. Recording stops, since the log can no longer be
+     * replayed, but the simulation continues.
+     */
+    private void fail(IOException e) {
+        this.failed = true;
+        Torque.LOGGER.log(Level.WARNING, "Failed to write the vehicle recording, recording has stopped.", e);
+    }
+
+    /**
+     * Record that a vehicle was added, with the current state of its rigid body.
+     *
+     * @param vehicle The vehicle.
+     */
+    void recordSpawn(@NotNull Vehicle vehicle) {
+        RigidBodyComponent rbc = vehicle.get(RigidBodyComponent.TYPE);
+        if (this.failed || rbc == null || rbc.getWorld() == null) {
+            return;
+        }
+        int id = this.nextVehicleId++;
+        this.vehicleIds.put(vehicle, id);
+        try {
+            DataOutputStream out = this.out;
+            out.writeByte(SPAWN);
+            out.writeInt(id);
+            out.writeUTF(vehicle.getType().identifier().toString());
+            out.writeInt(this.getWorldId(rbc.getWorld()));
+            Vector3dc position = rbc.getPosition();
+            out.writeDouble(position.x());
+            out.writeDouble(position.y());
+            out.writeDouble(position.z());
+            Quaternionfc orientation = rbc.getOrientation();
+            out.writeFloat(orientation.x());
+            out.writeFloat(orientation.y());
+            out.writeFloat(orientation.z());
+            out.writeFloat(orientation.w());
+            Vector3dc velocity = rbc.getVelocity();
+            out.writeDouble(velocity.x());
+            out.writeDouble(velocity.y());
+            out.writeDouble(velocity.z());
+            Vector3dc angularVelocity = rbc.getAngularVelocity();
+            out.writeDouble(angularVelocity.x());
+            out.writeDouble(angularVelocity.y());
+            out.writeDouble(angularVelocity.z());
+        } catch (IOException e) {
+            this.fail(e);
+        }
+    }
+
+    /**
+     * Record that a vehicle was removed.
+     *
+     * @param vehicle The vehicle.
+     */
+    void recordRemove(@NotNull Vehicle vehicle) {
+        int id = this.vehicleIds.removeInt(vehicle);
+        if (this.failed || id < 0) {
+            return;
+        }
+        try {
+            this.out.writeByte(REMOVE);
+            this.out.writeInt(id);
+        } catch (IOException e) {
+            this.fail(e);
+        }
+    }
+
+    /**
+     * Record the block flags of a chunk section that a collision cache read.
+     *
+     * @param world The world of the collision cache.
+     * @param key The packed section position.
+     * @param flags The flags of the blocks, see {@link World#getBlockFlags}.
+     * @param offset The index in the flags where the section starts.
+     */
+    void recordSection(@NotNull World world, long key, byte @NotNull [] flags, int offset) {
+        if (this.failed) {
+            return;
+        }
+        try {
+            this.out.writeByte(SECTION);
+            this.out.writeInt(this.getWorldId(world));
+            this.out.writeLong(key);
+            this.out.write(flags, offset, 16 * 16 * 16);
+        } catch (IOException e) {
+            this.fail(e);
+        }
+    }
+
+    /**
+     * Record that a block changed.
+     *
+     * @param world The world.
+     * @param x The x coordinate of the block.
+     * @param y The y coordinate of the block.
+     * @param z The z coordinate of the block.
+     */
+    void recordInvalidateBlock(@NotNull World world, int x, int y, int z) {
+        if (this.failed) {
+            return;
+        }
+        try {
+            this.out.writeByte(INVALIDATE_BLOCK);
+            this.out.writeInt(this.getWorldId(world));
+            this.out.writeInt(x);
+            this.out.writeInt(y);
+            this.out.writeInt(z);
+        } catch (IOException e) {
+            this.fail(e);
+        }
+    }
+
+    /**
+     * Record that a chunk was unloaded.
+     *
+     * @param world The world.
+     * @param chunkX The x coordinate of the chunk.
+     * @param chunkZ The z coordinate of the chunk.
+     */
+    void recordInvalidateChunk(@NotNull World world, int chunkX, int chunkZ) {
+        if (this.failed) {
+            return;
+        }
+        try {
+            this.out.writeByte(INVALIDATE_CHUNK);
+            this.out.writeInt(this.getWorldId(world));
+            this.out.writeInt(chunkX);
+            this.out.writeInt(chunkZ);
+        } catch (IOException e) {
+            this.fail(e);
+        }
+    }
+
+    /**
+     * Record the end of a tick, with the input of the driver of each vehicle as it was
+     * during the tick.
+     *
+     * @param vehicles The loaded vehicles.
+     * @param steps The number of physics steps taken during the tick.
+     */
+    void recordTick(@NotNull List<Vehicle> vehicles, int steps) {
+        if (this.failed) {
+            return;
+        }
+        try {
+            DataOutputStream out = this.out;
+            for (Vehicle vehicle : vehicles) {
+                int id = this.vehicleIds.getInt(vehicle);
+                if (id < 0) {
+                    continue;
+                }
+                SeatsComponent seats = vehicle.get(SeatsComponent.TYPE);
+                Input input = seats != null ? seats.getDriverInput() : null;
+                if (input == null) {
+                    // No input record means that there is no driver.
+                    continue;
+                }
+                out.writeByte(INPUT);
+                out.writeInt(id);
+                out.writeByte(encodeInput(input));
+            }
+            out.writeByte(TICK);
+            out.writeInt(steps);
+            this.tickCount++;
+        } catch (IOException e) {
+            this.fail(e);
+        }
+    }
+
+    /**
+     * Finish the log and close the stream.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (!this.failed) {
+                this.out.writeByte(END);
+            }
+        } finally {
+            this.out.close();
+        }
+    }
+
+    static byte encodeInput(@NotNull Input input) {
+        int bits = 0;
+        if (input.forward) bits |= 1;
+        if (input.backward) bits |= 1 << 1;
+        if (input.left) bits |= 1 << 2;
+        if (input.right) bits |= 1 << 3;
+        if (input.jump) bits |= 1 << 4;
+        if (input.shift) bits |= 1 << 5;
+        if (input.sprint) bits |= 1 << 6;
+        return (byte) bits;
+    }
+
+    static void decodeInput(byte bits, @NotNull Input dest) {
+        dest.forward = (bits & 1) != 0;
+        dest.backward = (bits & 1 << 1) != 0;
+        dest.left = (bits & 1 << 2) != 0;
+        dest.right = (bits & 1 << 3) != 0;
+        dest.jump = (bits & 1 << 4) != 0;
+        dest.shift = (bits & 1 << 5) != 0;
+        dest.sprint = (bits & 1 << 6) != 0;
+    }
+}
@@ -0,0 +1,299 @@
+package ca.bkaw.torque.vehicle;
+
+import ca.bkaw.torque.components.RigidBodyComponent;
+import ca.bkaw.torque.components.SeatsComponent;
+import ca.bkaw.torque.platform.BlockState;
+import ca.bkaw.torque.platform.Identifier;
+import ca.bkaw.torque.platform.Input;
+import ca.bkaw.torque.platform.World;
+import ca.bkaw.torque.platform.entity.InteractionEntity;
+import ca.bkaw.torque.platform.entity.ItemDisplay;
+import ca.bkaw.torque.util.Util;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.joml.Quaternionf;
+import org.joml.Vector3d;
+import org.joml.Vector3dc;
+import org.joml.Vector3ic;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Simulates a log written by {@link VehicleRecorder} again.
+ * <p>
+ * The recorded vehicles are added to the vehicle manager in worlds that only
+ * contain the recorded chunk sections, and are driven by the recorded input. The
+ * replay takes the same steps in the same order each time, so replaying a log always
+ * gives exactly the same result. Vehicles that spawned while recording follow exactly
+ * the same path as they did when recorded. Vehicles that existed when recording
+ * started begin from the state of their rigid body, like after a reload.
+ * <p>
+ * The vehicles are not rendered. The vehicle manager must not tick on its own while
+ * replaying, since each call to {@link #tick()} ticks the vehicle manager.
+ * <p>
+ * Must only be used on the server thread.
+ */
+public class VehicleReplay implements Closeable {
+    private final @NotNull VehicleManager vehicleManager;
+    private final DataInputStream in;
+    private final Int2ObjectOpenHashMap<Vehicle> vehicles = new Int2ObjectOpenHashMap<>();
+    private final List<RecordedWorld> worlds = new ArrayList<>();
+    private int tickCount = 0;
+    private boolean ended = false;
+
+    // Scratch objects, reused each tick to avoid allocating.
+    private final Input input = new Input();
+
+    /**
+     * Start replaying a log. The time step settings of the vehicle manager are set to
+     * the settings used when recording.
+     *
+     * @param vehicleManager The vehicle manager to add the vehicles to.
+     * @param inputStream The stream to read the log from.
+     * @throws IOException If an I/O error occurs.
+     * @throws IllegalArgumentException If the stream is not a vehicle recording.
+     */
+    public VehicleReplay(@NotNull VehicleManager vehicleManager, @NotNull InputStream inputStream) throws IOException {
+        this.vehicleManager = vehicleManager;
+        this.in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(inputStream)));
+        if (this.in.readInt() != VehicleRecorder.MAGIC) {
+            throw new IllegalArgumentException("Not a vehicle recording.");
+        }
+        int version = this.in.readShort();
+        if (version != VehicleRecorder.VERSION) {
+            throw new IllegalArgumentException("Unsupported vehicle recording version: " + version);
+        }
+        TimeStep timeStep = vehicleManager.getTimeStep();
+        timeStep.setSubsteps(this.in.readInt());
+        timeStep.setAdaptive(this.in.readBoolean());
+    }
+
+    /**
+     * Replay the next recorded tick.
+     *
+     * @return True if a tick was replayed, false if the end of the log was reached.
+     * @throws IOException If an I/O error occurs.
+     */
+    public boolean tick() throws IOException {
+        if (this.ended) {
+            return false;
+        }
+        // Vehicles without an input record during the tick have no driver.
+        for (Vehicle vehicle : this.vehicles.values()) {
+            SeatsComponent seats = vehicle.get(SeatsComponent.TYPE);
+            if (seats != null) {
+                seats.setReplayInput(null);
+            }
+        }
+        DataInputStream in = this.in;
+        while (true) {
+            byte kind = in.readByte();
+            switch (kind) {
+                case VehicleRecorder.END -> {
+                    this.ended = true;
+                    return false;
+                }
+                case VehicleRecorder.SPAWN -> this.readSpawn();
+                case VehicleRecorder.REMOVE -> {
+                    Vehicle vehicle = this.vehicles.remove(in.readInt());
+                    if (vehicle != null) {
+                        this.vehicleManager.destroyVehicle(vehicle);
+                    }
+                }
+                case VehicleRecorder.SECTION -> {
+                    RecordedWorld world = this.getWorld(in.readInt());
+                    long key = in.readLong();
+                    byte[] flags = new byte[RecordedWorld.BLOCKS_PER_SECTION];
+                    in.readFully(flags);
+                    world.sections.put(key, flags);
+                }
+                case VehicleRecorder.INVALIDATE_BLOCK -> {
+                    RecordedWorld world = this.getWorld(in.readInt());
+                    this.vehicleManager.invalidateBlock(world, in.readInt(), in.readInt(), in.readInt());
+                }
+                case VehicleRecorder.INVALIDATE_CHUNK -> {
+                    RecordedWorld world = this.getWorld(in.readInt());
+                    this.vehicleManager.invalidateChunk(world, in.readInt(), in.readInt());
+                }
+                case VehicleRecorder.INPUT -> {
+                    Vehicle vehicle = this.vehicles.get(in.readInt());
+                    VehicleRecorder.decodeInput(in.readByte(), this.input);
+                    SeatsComponent seats = vehicle != null ? vehicle.get(SeatsComponent.TYPE) : null;
+                    if (seats != null) {
+                        seats.setReplayInput(this.input);
+                    }
+                }
+                case VehicleRecorder.TICK -> {
+                    this.vehicleManager.tickSteps(in.readInt());
+                    this.tickCount++;
+                    return true;
+                }
+                default -> throw new IOException("Unknown record in vehicle recording: " + kind);
+            }
+        }
+    }
+
+    /**
+     * Replay all remaining ticks.
+     *
+     * @return The number of ticks that have been replayed.
+     * @throws IOException If an I/O error occurs.
+     */
+    public int run() throws IOException {
+        while (this.tick()) {
+            // Continue until the end of the log.
+        }
+        return this.tickCount;
+    }
+
+    private void readSpawn() throws IOException {
+        DataInputStream in = this.in;
+        int id = in.readInt();
+        Identifier typeIdentifier = Identifier.fromString(in.readUTF());
+        RecordedWorld world = this.getWorld(in.readInt());
+        Vector3d position = new Vector3d(in.readDouble(), in.readDouble(), in.readDouble());
+        Quaternionf orientation = new Quaternionf(in.readFloat(), in.readFloat(), in.readFloat(), in.readFloat());
+        Vector3d velocity = new Vector3d(in.readDouble(), in.readDouble(), in.readDouble());
+        Vector3d angularVelocity = new Vector3d(in.readDouble(), in.readDouble(), in.readDouble());
+
+        VehicleType vehicleType = this.vehicleManager.getVehicleTypeRegistry().get(typeIdentifier);
+        if (vehicleType == null) {
+            throw new IllegalArgumentException("Unknown vehicle type in vehicle recording: " + typeIdentifier);
+        }
+        Vehicle vehicle = this.vehicleManager.createVehicle(vehicleType, world, position);
+        RigidBodyComponent rbc = vehicle.get(RigidBodyComponent.TYPE);
+        if (rbc != null) {
+            rbc.setOrientation(orientation);
+            rbc.setVelocity(velocity);
+            rbc.setAngularVelocity(angularVelocity);
+        }
+        SeatsComponent seats = vehicle.get(SeatsComponent.TYPE);
+        if (seats != null) {
+            seats.setReplayInput(null);
+        }
+        this.vehicles.put(id, vehicle);
+    }
+
+    private @NotNull RecordedWorld getWorld(int id) {
+        while (this.worlds.size() <= id) {
+            this.worlds.add(new RecordedWorld());
+        }
+        return this.worlds.get(id);
+    }
+
+    /**
+     * Get the number of ticks that have been replayed.
+     *
+     * @return The number of ticks.
+     */
+    public int getTickCount() {
+        return this.tickCount;
+    }
+
+    /**
+     * Get a replayed vehicle by the order in which it was recorded.
+     *
+     * @param id The index of the vehicle, counting from 0 for the first vehicle in the log.
+     * @return The vehicle, or null if it has not spawned yet or has been removed.
+     */
+    public @Nullable Vehicle getVehicle(int id) {
+        return this.vehicles.get(id);
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.in.close();
+    }
+
+    /**
+     * A world that only contains the recorded chunk sections. Blocks in sections that
+     * were not recorded are air.
+     */
+    private static class RecordedWorld implements World {
+        private static final int BLOCKS_PER_SECTION = 16 * 16 * 16;
+        private static final BlockState[] BLOCK_STATES = new BlockState[4];
+
+        static {
+            for (int i = 0; i < BLOCK_STATES.length; i++) {
+                int flags = i;
+                BLOCK_STATES[i] = new BlockState() {
+                    @Override
+                    public boolean isWaterlogged() {
+                        return (flags & WATERLOGGED) != 0;
+                    }
+
+                    @Override
+                    public boolean isCollidable(World world, Vector3ic position) {
+                        return (flags & COLLIDABLE) != 0;
+                    }
+                };
+            }
+        }
+
+        private final Long2ObjectOpenHashMap<byte[]> sections = new Long2ObjectOpenHashMap<>();
+
+        private byte getFlags(int x, int y, int z) {
+            byte[] section = this.sections.get(Util.packBlockPosition(x >> 4, y >> 4, z >> 4));
+            if (section == null) {
+                return 0;
+            }
+            return section[((y & 15) * 16 + (z & 15)) * 16 + (x & 15)];
+        }
+
+        @Override
+        public void getBlockFlags(int minX, int minY, int minZ, int maxX, int maxY, int maxZ, byte @NotNull [] dest) {
+            if ((minX & 15) == 0 && (minY & 15) == 0 && (minZ & 15) == 0
+                && maxX == minX + 15 && (maxY & 15) == 15 && maxZ == minZ + 15) {
+                // Whole sections of one chunk, which is how the collision cache reads
+                // blocks. Each section is a contiguous part of the destination.
+                for (int sectionY = minY >> 4; sectionY <= maxY >> 4; sectionY++) {
+                    byte[] section = this.sections.get(Util.packBlockPosition(minX >> 4, sectionY, minZ >> 4));
+                    int offset = (sectionY - (minY >> 4)) * BLOCKS_PER_SECTION;
+                    if (section != null) {
+                        System.arraycopy(section, 0, dest, offset, BLOCKS_PER_SECTION);
+                    } else {
+                        Arrays.fill(dest, offset, offset + BLOCKS_PER_SECTION, (byte) 0);
+                    }
+                }
+                return;
+            }
+            int sizeX = maxX - minX + 1;
+            int sizeZ = maxZ - minZ + 1;
+            for (int y = minY; y <= maxY; y++) {
+                for (int z = minZ; z <= maxZ; z++) {
+                    for (int x = minX; x <= maxX; x++) {
+                        dest[((y - minY) * sizeZ + (z - minZ)) * sizeX + (x - minX)] = this.getFlags(x, y, z);
+                    }
+                }
+            }
+        }
+
+        @Override
+        public @NotNull BlockState getBlock(@NotNull Vector3ic position) {
+            return BLOCK_STATES[this.getFlags(position.x(), position.y(), position.z()) & 3];
+        }
+
+        @Override
+        public @NotNull ItemDisplay spawnItemDisplay(@NotNull Vector3dc position) {
+            throw new UnsupportedOperationException("Cannot spawn entities in a replayed world.");
+        }
+
+        @Override
+        public @NotNull InteractionEntity spawnInteractionEntity(@NotNull Vector3dc position) {
+            throw new UnsupportedOperationException("Cannot spawn entities in a replayed world.");
+        }
+
+        @Override
+        public void spawnParticle(Vector3ic blockPos, Identifier identifier) {}
+    }
+}
@@ -12,16 +12,62 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.stream.IntStream;
 
 public record VehicleType(
     Identifier identifier,
     VehicleModel model,
     List<ComponentConfiguration> components,
+    TickPhase[] tickPhases, // must not be modified
+    int[] physicsComponents, // indexes of the physics components, must not be modified
     double mass, // unit: kilogram
     Matrix3d localInertiaTensorInverse // unit: (kg m^2)^-1, local to the unrotated vehicle's coordinate system
 ) {
 
-    record ComponentConfiguration(VehicleComponentType type, Object configuration) {}
+    record ComponentConfiguration(VehicleComponentType<?> type, Object configuration) {}
+
+    /**
+     * A range of consecutive components that are all thread safe, or all non thread
+     * safe.
+     *
+     * @param from The index of the first component in the phase.
+     * @param to The index after the last component in the phase.
+     * @param threadSafe Whether the components in the phase are thread safe.
+     */
+    record TickPhase(int from, int to, boolean threadSafe) {}
+
+    /**
+     * Split the components into phases of consecutive components with the same
+     * thread safety.
+     *
+     * @param components The components.
+     * @return The phases, in tick order.
+     */
+    private static TickPhase[] createTickPhases(List<ComponentConfiguration> components) {
+        List<TickPhase> phases = new ArrayList<>();
+        int from = 0;
+        for (int i = 1; i <= components.size(); i++) {
+            boolean threadSafe = components.get(from).type().threadSafe();
+            if (i == components.size() || components.get(i).type().threadSafe() != threadSafe) {
+                phases.add(new TickPhase(from, i, threadSafe));
+                from = i;
+            }
+        }
+        return phases.toArray(new TickPhase[0]);
+    }
+
+    /**
+     * Find the indexes of the {@link VehicleComponentType#physics() physics}
+     * components.
+     *
+     * @param components The components.
+     * @return The indexes, in tick order.
+     */
+    private static int[] findPhysicsComponents(List<ComponentConfiguration> components) {
+        return IntStream.range(0, components.size())
+            .filter(i -> components.get(i).type().physics())
+            .toArray();
+    }
 
     /**
      * Read a VehicleType from a JSON object.
@@ -57,7 +103,7 @@ public record VehicleType(
             JsonObject componentJson = componentJsonElement.getAsJsonObject();
             String componentTypeString = componentJson.get("type").getAsString();
             Identifier componentTypeIdentifier = Identifier.fromString(componentTypeString);
-            VehicleComponentType vehicleComponentType = vehicleManager.getComponentTypeRegistry().get(componentTypeIdentifier);
+            VehicleComponentType<?> vehicleComponentType = vehicleManager.getComponentTypeRegistry().get(componentTypeIdentifier);
             if (vehicleComponentType == null) {
                 throw new IllegalArgumentException("Unknown vehicle component type: " + componentTypeIdentifier);
             }
@@ -70,6 +116,14 @@ public record VehicleType(
 
         components.trimToSize();
 
-        return new VehicleType(identifier, model, Collections.unmodifiableList(components), mass, localInertiaTensorInverse);
+        return new VehicleType(
+            identifier,
+            model,
+            Collections.unmodifiableList(components),
+            createTickPhases(components),
+            findPhysicsComponents(components),
+            mass,
+            localInertiaTensorInverse
+        );
     }
 }
@@ -0,0 +1,65 @@
+package ca.bkaw.torque.components;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class RigidBodyKernelTest {
+    private static final int SLOTS = 1000;
+
+    private static RigidBodyStore createStore(long seed) {
+        RigidBodyStore store = new RigidBodyStore();
+        Random random = new Random(seed);
+        for (int i = 0; i < SLOTS; i++) {
+            int slot = store.allocate();
+            store.setPosition(slot, random.nextGaussian() * 100, random.nextGaussian() * 100, random.nextGaussian() * 100);
+            store.setVelocity(slot, random.nextGaussian() * 10, random.nextGaussian() * 10, random.nextGaussian() * 10);
+            // Include slots that do not rotate and slots whose rotation is clamped.
+            double scale = switch (i % 3) {
+                case 0 -> 0;
+                case 1 -> 0.01;
+                default -> 2;
+            };
+            store.setAngularVelocity(slot, random.nextGaussian() * scale, random.nextGaussian() * scale, random.nextGaussian() * scale);
+            double x = random.nextGaussian(), y = random.nextGaussian(), z = random.nextGaussian(), w = random.nextGaussian();
+            double length = Math.sqrt(x * x + y * y + z * z + w * w);
+            store.setOrientation(slot, x / length, y / length, z / length, w / length);
+            // Some slots have no pending integration.
+            store.pendingTime[slot] = i % 5 == 0 ? 0 : RigidBodyComponent.DELTA_TIME / (1 + i % 4);
+        }
+        return store;
+    }
+
+    @Test
+    void vectorKernelMatchesScalarKernel() {
+        RigidBodyStore.RigidBodyKernel vectorKernel = RigidBodyStore.RigidBodyKernel.create();
+        assumeTrue(!(vectorKernel instanceof ScalarRigidBodyKernel), "The Vector API is not available.");
+        RigidBodyStore.RigidBodyKernel scalarKernel = new ScalarRigidBodyKernel();
+
+        RigidBodyStore expected = createStore(1);
+        RigidBodyStore actual = createStore(1);
+        for (int step = 0; step < 10; step++) {
+            scalarKernel.integrate(expected, 0, expected.size());
+            vectorKernel.integrate(actual, 0, actual.size());
+            // Compares the bits of each value, so zeros of different signs differ.
+            assertArrayEquals(expected.px, actual.px);
+            assertArrayEquals(expected.py, actual.py);
+            assertArrayEquals(expected.pz, actual.pz);
+            assertArrayEquals(expected.wx, actual.wx);
+            assertArrayEquals(expected.wy, actual.wy);
+            assertArrayEquals(expected.wz, actual.wz);
+            assertArrayEquals(expected.qx, actual.qx);
+            assertArrayEquals(expected.qy, actual.qy);
+            assertArrayEquals(expected.qz, actual.qz);
+            assertArrayEquals(expected.qw, actual.qw);
+            assertArrayEquals(expected.pendingTime, actual.pendingTime);
+            assertArrayEquals(expected.orientationVersion, actual.orientationVersion);
+            for (int slot = 0; slot < SLOTS; slot++) {
+                expected.pendingTime[slot] = actual.pendingTime[slot] = RigidBodyComponent.DELTA_TIME;
+            }
+        }
+    }
+}
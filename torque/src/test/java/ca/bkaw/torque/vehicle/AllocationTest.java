@@ -0,0 +1,78 @@
+package ca.bkaw.torque.vehicle;
+
+import ca.bkaw.torque.Torque;
+import ca.bkaw.torque.components.SeatsComponent;
+import ca.bkaw.torque.headless.HeadlessPlatform;
+import ca.bkaw.torque.headless.HeadlessPlayer;
+import ca.bkaw.torque.headless.HeadlessWorld;
+import ca.bkaw.torque.platform.Identifier;
+import ca.bkaw.torque.platform.World;
+import org.joml.Vector3d;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that ticking the physics of a vehicle does not allocate once the vehicle
+ * is driving in a steady state.
+ */
+class AllocationTest {
+    private static final int GROUND_Y = 64;
+    private static final int LAKE_BOTTOM_Y = 58;
+    private static final int WARMUP_TICKS = 1000;
+    private static final int TICKS = 1000;
+    /**
+     * Allowed allocation per tick, unit: bytes. Leaves room for a section that is
+     * loaded when the vehicle reaches a part of its circle for the first time.
+     */
+    private static final double MAX_BYTES_PER_TICK = 16;
+
+    private static double measureBytesPerTick(String vehicleType, HeadlessWorld.Terrain terrain, double y) {
+        HeadlessPlatform platform = new HeadlessPlatform();
+        VehicleManager vehicleManager = new Torque(platform).getVehicleManager();
+        HeadlessWorld world = platform.createWorld(terrain);
+        VehicleType type = vehicleManager.getVehicleTypeRegistry().get(new Identifier("torque", vehicleType));
+        assertNotNull(type);
+
+        Vector3d position = new Vector3d(0.5, y, 0.5);
+        Vehicle vehicle = vehicleManager.spawnVehicle(type, world, position);
+        HeadlessPlayer driver = new HeadlessPlayer(world, position);
+        SeatsComponent seats = vehicle.get(SeatsComponent.TYPE);
+        assertNotNull(seats);
+        assertTrue(seats.addPassenger(driver));
+        // Drive in a circle so that the vehicle stays awake and near the same blocks.
+        driver.getInput().forward = true;
+        driver.getInput().left = true;
+
+        for (int tick = 0; tick < WARMUP_TICKS; tick++) {
+            platform.tick();
+        }
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long start = threadBean.getCurrentThreadAllocatedBytes();
+        for (int tick = 0; tick < TICKS; tick++) {
+            vehicle.tick();
+        }
+        long allocated = threadBean.getCurrentThreadAllocatedBytes() - start;
+        return allocated / (double) TICKS;
+    }
+
+    @Test
+    void carPhysicsDoesNotAllocate() {
+        double bytesPerTick = measureBytesPerTick("car", (x, y, z) -> y < GROUND_Y ? World.COLLIDABLE : 0, GROUND_Y + 1);
+        assertTrue(bytesPerTick <= MAX_BYTES_PER_TICK, "A car tick allocated " + bytesPerTick + " bytes.");
+    }
+
+    @Test
+    void boatPhysicsDoesNotAllocate() {
+        double bytesPerTick = measureBytesPerTick("boat", (x, y, z) -> {
+            if (y < LAKE_BOTTOM_Y) {
+                return World.COLLIDABLE;
+            }
+            return y < GROUND_Y ? World.WATERLOGGED : 0;
+        }, GROUND_Y);
+        assertTrue(bytesPerTick <= MAX_BYTES_PER_TICK, "A boat tick allocated " + bytesPerTick + " bytes.");
+    }
+}
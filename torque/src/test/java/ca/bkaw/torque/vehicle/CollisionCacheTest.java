@@ -0,0 +1,93 @@
+package ca.bkaw.torque.vehicle;
+
+import ca.bkaw.torque.Torque;
+import ca.bkaw.torque.headless.HeadlessPlatform;
+import ca.bkaw.torque.headless.HeadlessWorld;
+import ca.bkaw.torque.platform.World;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CollisionCacheTest {
+    private static final int CHUNKS = 32;
+
+    /**
+     * Terrain with a different pattern in every section, so that a section read at
+     * the wrong position is noticed.
+     */
+    private static byte terrain(int x, int y, int z) {
+        return (x * 7 + y * 13 + z * 3 + (x >> 4) * (z >> 4)) % 5 == 0 ? World.COLLIDABLE : 0;
+    }
+
+    private static void assertMatches(HeadlessWorld world, CollisionCache cache, int chunkX, int chunkZ) {
+        for (int y = 0; y < 48; y += 5) {
+            for (int z = 0; z < 16; z += 3) {
+                for (int x = 0; x < 16; x += 3) {
+                    int blockX = chunkX * 16 + x;
+                    int blockZ = chunkZ * 16 + z;
+                    boolean expected = (world.getFlags(blockX, y, blockZ) & World.COLLIDABLE) != 0;
+                    assertEquals(expected, cache.isCollidable(blockX, y, blockZ), "at " + blockX + " " + y + " " + blockZ);
+                }
+            }
+        }
+    }
+
+    @Test
+    void sectionsStayCorrectWhileTheCacheGrowsAndIsInvalidated() {
+        HeadlessPlatform platform = new HeadlessPlatform();
+        VehicleManager vehicleManager = new Torque(platform).getVehicleManager();
+        HeadlessWorld world = platform.createWorld(CollisionCacheTest::terrain);
+        CollisionCache cache = vehicleManager.getCollisionCache(world);
+
+        for (int chunkX = 0; chunkX < CHUNKS; chunkX++) {
+            for (int chunkZ = 0; chunkZ < CHUNKS; chunkZ++) {
+                assertMatches(world, cache, chunkX, chunkZ);
+            }
+        }
+        assertEquals(CHUNKS * CHUNKS * 3, cache.getSectionCount());
+
+        // Change blocks without telling the cache, then invalidate every other chunk.
+        for (int chunkX = 0; chunkX < CHUNKS; chunkX++) {
+            for (int chunkZ = 0; chunkZ < CHUNKS; chunkZ++) {
+                world.setFlags(chunkX * 16, 0, chunkZ * 16, World.COLLIDABLE);
+                world.setFlags(chunkX * 16 + 15, 0, chunkZ * 16, (byte) 0);
+                if ((chunkX + chunkZ) % 2 == 0) {
+                    cache.invalidateChunk(chunkX, chunkZ);
+                }
+            }
+        }
+        assertEquals(CHUNKS * CHUNKS * 3 / 2, cache.getSectionCount());
+        for (int chunkX = 0; chunkX < CHUNKS; chunkX++) {
+            for (int chunkZ = 0; chunkZ < CHUNKS; chunkZ++) {
+                if ((chunkX + chunkZ) % 2 != 0) {
+                    cache.invalidateBlock(chunkX * 16, 0, chunkZ * 16);
+                }
+                assertMatches(world, cache, chunkX, chunkZ);
+            }
+        }
+        assertEquals(CHUNKS * CHUNKS * 3, cache.getSectionCount());
+    }
+
+    @Test
+    void unusedSectionsAreDroppedWhenTheCacheGrows() {
+        HeadlessPlatform platform = new HeadlessPlatform();
+        VehicleManager vehicleManager = new Torque(platform).getVehicleManager();
+        HeadlessWorld world = platform.createWorld(CollisionCacheTest::terrain);
+        CollisionCache cache = vehicleManager.getCollisionCache(world);
+
+        for (int chunkX = 0; chunkX < CHUNKS; chunkX++) {
+            cache.isCollidable(chunkX * 16, 0, 0);
+        }
+        for (int tick = 0; tick < 2 * 60 * 20; tick++) {
+            cache.tick();
+        }
+        for (int chunkX = 0; chunkX < CHUNKS; chunkX++) {
+            cache.isCollidable(chunkX * 16, 0, 16);
+        }
+        assertTrue(cache.getSectionCount() < 2 * CHUNKS, "Unused sections were not dropped.");
+        for (int chunkX = 0; chunkX < CHUNKS; chunkX++) {
+            assertMatches(world, cache, chunkX, 0);
+        }
+    }
+}
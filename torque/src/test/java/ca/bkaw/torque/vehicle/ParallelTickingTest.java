@@ -0,0 +1,115 @@
+package ca.bkaw.torque.vehicle;
+
+import ca.bkaw.torque.Torque;
+import ca.bkaw.torque.components.RigidBodyComponent;
+import ca.bkaw.torque.components.SeatsComponent;
+import ca.bkaw.torque.headless.HeadlessPlatform;
+import ca.bkaw.torque.headless.HeadlessPlayer;
+import ca.bkaw.torque.headless.HeadlessWorld;
+import ca.bkaw.torque.platform.Identifier;
+import ca.bkaw.torque.platform.Input;
+import ca.bkaw.torque.platform.World;
+import org.joml.Quaternionf;
+import org.joml.Vector3d;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ParallelTickingTest {
+    private static final int GROUND_Y = 64;
+    private static final int LAKE_BOTTOM_Y = 58;
+    private static final int TICKS = 300;
+    /**
+     * The number of vehicles of each type, enough for the ticker to split the
+     * vehicles between several tasks.
+     */
+    private static final int VEHICLES_PER_TYPE = 8;
+
+    /**
+     * Ground with a few bumps for x >= 0, and a lake for x < 0.
+     */
+    private static byte terrain(int x, int y, int z) {
+        if (x >= 0) {
+            boolean bump = y == GROUND_Y && Math.floorMod(x * 3 + z * 7, 23) == 0;
+            return y < GROUND_Y || bump ? World.COLLIDABLE : 0;
+        }
+        if (y < LAKE_BOTTOM_Y) {
+            return World.COLLIDABLE;
+        }
+        return y < GROUND_Y ? World.WATERLOGGED : 0;
+    }
+
+    /**
+     * Run the same scenario and get the final rigid bodies of the vehicles.
+     *
+     * @param parallel Whether to tick the vehicles in parallel.
+     * @return The rigid bodies, in the order the vehicles were spawned.
+     */
+    private static List<RigidBodyComponent> run(boolean parallel) {
+        HeadlessPlatform platform = new HeadlessPlatform();
+        VehicleManager vehicleManager = new Torque(platform).getVehicleManager();
+        vehicleManager.setParallelTicking(parallel);
+        assertEquals(parallel, vehicleManager.isParallelTicking());
+        HeadlessWorld world = platform.createWorld(ParallelTickingTest::terrain);
+
+        List<HeadlessPlayer> drivers = new ArrayList<>();
+        List<RigidBodyComponent> rigidBodies = new ArrayList<>();
+        for (int i = 0; i < VEHICLES_PER_TYPE; i++) {
+            // Cars close enough to each other to collide, and boats on the lake.
+            rigidBodies.add(spawn(vehicleManager, world, "car", new Vector3d(8.5 + i * 3, GROUND_Y + 1, 0.5 + i * 5), drivers));
+            rigidBodies.add(spawn(vehicleManager, world, "boat", new Vector3d(-10.5 - i * 4, GROUND_Y, 0.5), drivers));
+        }
+
+        try {
+            for (int tick = 0; tick < TICKS; tick++) {
+                for (int i = 0; i < drivers.size(); i++) {
+                    Input input = drivers.get(i).getInput();
+                    int phase = (tick / 40 + i) % 4;
+                    input.forward = phase != 3;
+                    input.backward = phase == 3;
+                    input.left = phase == 1;
+                    input.right = phase == 2;
+                }
+                platform.tick();
+            }
+        } finally {
+            vehicleManager.setParallelTicking(false);
+        }
+        return rigidBodies;
+    }
+
+    private static RigidBodyComponent spawn(VehicleManager vehicleManager, HeadlessWorld world, String type, Vector3d position, List<HeadlessPlayer> drivers) {
+        VehicleType vehicleType = vehicleManager.getVehicleTypeRegistry().get(new Identifier("torque", type));
+        assertNotNull(vehicleType);
+        Vehicle vehicle = vehicleManager.spawnVehicle(vehicleType, world, position);
+        HeadlessPlayer driver = new HeadlessPlayer(world, position);
+        SeatsComponent seats = vehicle.get(SeatsComponent.TYPE);
+        assertNotNull(seats);
+        assertTrue(seats.addPassenger(driver));
+        drivers.add(driver);
+        RigidBodyComponent rbc = vehicle.get(RigidBodyComponent.TYPE);
+        assertNotNull(rbc);
+        return rbc;
+    }
+
+    @Test
+    void parallelTickingGivesIdenticalState() {
+        List<RigidBodyComponent> serial = run(false);
+        List<RigidBodyComponent> parallel = run(true);
+        assertEquals(serial.size(), parallel.size());
+        for (int i = 0; i < serial.size(); i++) {
+            RigidBodyComponent expected = serial.get(i);
+            RigidBodyComponent actual = parallel.get(i);
+            // Vector and quaternion equality compares the bits of each component.
+            assertEquals(new Vector3d(expected.getPosition()), new Vector3d(actual.getPosition()), "position of vehicle " + i);
+            assertEquals(new Vector3d(expected.getVelocity()), new Vector3d(actual.getVelocity()), "velocity of vehicle " + i);
+            assertEquals(new Vector3d(expected.getAngularVelocity()), new Vector3d(actual.getAngularVelocity()), "angular velocity of vehicle " + i);
+            assertEquals(new Quaternionf(expected.getOrientation()), new Quaternionf(actual.getOrientation()), "orientation of vehicle " + i);
+        }
+    }
+}
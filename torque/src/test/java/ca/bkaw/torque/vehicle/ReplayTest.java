@@ -0,0 +1,104 @@
+package ca.bkaw.torque.vehicle;
+
+import ca.bkaw.torque.Torque;
+import ca.bkaw.torque.components.RigidBodyComponent;
+import ca.bkaw.torque.components.SeatsComponent;
+import ca.bkaw.torque.headless.HeadlessPlatform;
+import ca.bkaw.torque.headless.HeadlessPlayer;
+import ca.bkaw.torque.headless.HeadlessWorld;
+import ca.bkaw.torque.platform.Identifier;
+import ca.bkaw.torque.platform.Input;
+import ca.bkaw.torque.platform.World;
+import org.joml.Quaternionf;
+import org.joml.Vector3d;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReplayTest {
+    private static final int GROUND_Y = 64;
+    private static final int LAKE_BOTTOM_Y = 58;
+    private static final int TICKS = 400;
+
+    /**
+     * Ground with a few bumps for x >= 0, and a lake for x < 0.
+     */
+    private static byte terrain(int x, int y, int z) {
+        if (x >= 0) {
+            boolean bump = y == GROUND_Y && Math.floorMod(x * 3 + z * 7, 23) == 0;
+            return y < GROUND_Y || bump ? World.COLLIDABLE : 0;
+        }
+        if (y < LAKE_BOTTOM_Y) {
+            return World.COLLIDABLE;
+        }
+        return y < GROUND_Y ? World.WATERLOGGED : 0;
+    }
+
+    private static Vehicle spawn(VehicleManager vehicleManager, HeadlessWorld world, String type, Vector3d position, List<HeadlessPlayer> drivers) {
+        VehicleType vehicleType = vehicleManager.getVehicleTypeRegistry().get(new Identifier("torque", type));
+        assertNotNull(vehicleType);
+        Vehicle vehicle = vehicleManager.spawnVehicle(vehicleType, world, position);
+        HeadlessPlayer driver = new HeadlessPlayer(world, position);
+        SeatsComponent seats = vehicle.get(SeatsComponent.TYPE);
+        assertNotNull(seats);
+        assertTrue(seats.addPassenger(driver));
+        drivers.add(driver);
+        return vehicle;
+    }
+
+    @Test
+    void replayGivesIdenticalState() throws IOException {
+        HeadlessPlatform platform = new HeadlessPlatform();
+        VehicleManager vehicleManager = new Torque(platform).getVehicleManager();
+        HeadlessWorld world = platform.createWorld(ReplayTest::terrain);
+
+        ByteArrayOutputStream recording = new ByteArrayOutputStream();
+        vehicleManager.startRecording(recording);
+        List<HeadlessPlayer> drivers = new ArrayList<>();
+        List<Vehicle> vehicles = new ArrayList<>();
+        // Two cars on bumpy ground, and a boat on the lake.
+        vehicles.add(spawn(vehicleManager, world, "car", new Vector3d(8.5, GROUND_Y + 1, 0.5), drivers));
+        vehicles.add(spawn(vehicleManager, world, "car", new Vector3d(8.5, GROUND_Y + 1, 20.5), drivers));
+        vehicles.add(spawn(vehicleManager, world, "boat", new Vector3d(-10.5, GROUND_Y, 0.5), drivers));
+
+        for (int tick = 0; tick < TICKS; tick++) {
+            for (int i = 0; i < drivers.size(); i++) {
+                Input input = drivers.get(i).getInput();
+                int phase = (tick / 50 + i) % 4;
+                input.forward = phase != 3;
+                input.backward = phase == 3;
+                input.left = phase == 1;
+                input.right = phase == 2;
+            }
+            platform.tick();
+        }
+        vehicleManager.stopRecording();
+
+        HeadlessPlatform replayPlatform = new HeadlessPlatform();
+        VehicleManager replayVehicleManager = new Torque(replayPlatform).getVehicleManager();
+        try (VehicleReplay replay = new VehicleReplay(replayVehicleManager, new ByteArrayInputStream(recording.toByteArray()))) {
+            assertEquals(TICKS, replay.run());
+            for (int i = 0; i < vehicles.size(); i++) {
+                RigidBodyComponent expected = vehicles.get(i).get(RigidBodyComponent.TYPE);
+                Vehicle replayed = replay.getVehicle(i);
+                assertNotNull(expected);
+                assertNotNull(replayed);
+                RigidBodyComponent actual = replayed.get(RigidBodyComponent.TYPE);
+                assertNotNull(actual);
+                // Vector and quaternion equality compares the bits of each component.
+                assertEquals(new Vector3d(expected.getPosition()), new Vector3d(actual.getPosition()), "position of vehicle " + i);
+                assertEquals(new Vector3d(expected.getVelocity()), new Vector3d(actual.getVelocity()), "velocity of vehicle " + i);
+                assertEquals(new Vector3d(expected.getAngularVelocity()), new Vector3d(actual.getAngularVelocity()), "angular velocity of vehicle " + i);
+                assertEquals(new Quaternionf(expected.getOrientation()), new Quaternionf(actual.getOrientation()), "orientation of vehicle " + i);
+            }
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package ca.bkaw.torque.vehicle;
+
+import ca.bkaw.torque.Torque;
+import ca.bkaw.torque.components.RigidBodyComponent;
+import ca.bkaw.torque.components.SeatsComponent;
+import ca.bkaw.torque.headless.HeadlessPlatform;
+import ca.bkaw.torque.headless.HeadlessPlayer;
+import ca.bkaw.torque.headless.HeadlessWorld;
+import ca.bkaw.torque.platform.Identifier;
+import ca.bkaw.torque.platform.World;
+import org.joml.Vector3d;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SleepingTest {
+    private static final int GROUND_Y = 64;
+
+    @Test
+    void parkedCarFallsAsleep() {
+        HeadlessPlatform platform = new HeadlessPlatform();
+        VehicleManager vehicleManager = new Torque(platform).getVehicleManager();
+        HeadlessWorld world = platform.createWorld((x, y, z) -> y < GROUND_Y ? World.COLLIDABLE : 0);
+        VehicleType car = vehicleManager.getVehicleTypeRegistry().get(new Identifier("torque", "car"));
+        assertNotNull(car);
+
+        Vehicle vehicle = vehicleManager.spawnVehicle(car, world, new Vector3d(0.5, GROUND_Y + 1, 0.5));
+        RigidBodyComponent rbc = vehicle.get(RigidBodyComponent.TYPE);
+        assertNotNull(rbc);
+
+        // The car settles on its suspension and then has to rest for SLEEP_TIME.
+        for (int tick = 0; tick < 600 && !rbc.isSleeping(); tick++) {
+            platform.tick();
+        }
+        assertTrue(rbc.isSleeping(), "The parked car did not fall asleep.");
+
+        // The wheels keep applying forces, which must not wake the car up.
+        for (int tick = 0; tick < 100; tick++) {
+            platform.tick();
+        }
+        assertTrue(rbc.isSleeping(), "The parked car woke up without being disturbed.");
+        assertEquals(1, vehicleManager.getSleepingVehicleCount());
+    }
+
+    private static RigidBodyComponent spawnParked(HeadlessPlatform platform, VehicleManager vehicleManager, HeadlessWorld world, VehicleType car) {
+        Vehicle vehicle = vehicleManager.spawnVehicle(car, world, new Vector3d(0.5, GROUND_Y + 1, 0.5));
+        RigidBodyComponent rbc = vehicle.get(RigidBodyComponent.TYPE);
+        assertNotNull(rbc);
+        for (int tick = 0; tick < 600 && !rbc.isSleeping(); tick++) {
+            platform.tick();
+        }
+        assertTrue(rbc.isSleeping(), "The parked car did not fall asleep.");
+        return rbc;
+    }
+
+    private static void spawnDriving(VehicleManager vehicleManager, HeadlessWorld world, VehicleType car, Vector3d position) {
+        Vehicle vehicle = vehicleManager.spawnVehicle(car, world, position);
+        HeadlessPlayer driver = new HeadlessPlayer(world, position);
+        SeatsComponent seats = vehicle.get(SeatsComponent.TYPE);
+        assertNotNull(seats);
+        assertTrue(seats.addPassenger(driver));
+        driver.getInput().forward = true;
+    }
+
+    @Test
+    void passingCarDoesNotWakeParkedCar() {
+        HeadlessPlatform platform = new HeadlessPlatform();
+        VehicleManager vehicleManager = new Torque(platform).getVehicleManager();
+        HeadlessWorld world = platform.createWorld((x, y, z) -> y < GROUND_Y ? World.COLLIDABLE : 0);
+        VehicleType car = vehicleManager.getVehicleTypeRegistry().get(new Identifier("torque", "car"));
+        assertNotNull(car);
+        RigidBodyComponent parked = spawnParked(platform, vehicleManager, world, car);
+
+        // Drive past the parked car, close to it but without touching it.
+        spawnDriving(vehicleManager, world, car, new Vector3d(4.5, GROUND_Y + 1, 15.5));
+        for (int tick = 0; tick < 100; tick++) {
+            platform.tick();
+            assertTrue(parked.isSleeping(), "The parked car woke up at tick " + tick + " without being touched.");
+        }
+    }
+
+    @Test
+    void collisionWakesParkedCar() {
+        HeadlessPlatform platform = new HeadlessPlatform();
+        VehicleManager vehicleManager = new Torque(platform).getVehicleManager();
+        HeadlessWorld world = platform.createWorld((x, y, z) -> y < GROUND_Y ? World.COLLIDABLE : 0);
+        VehicleType car = vehicleManager.getVehicleTypeRegistry().get(new Identifier("torque", "car"));
+        assertNotNull(car);
+        RigidBodyComponent parked = spawnParked(platform, vehicleManager, world, car);
+
+        // Drive into the back of the parked car.
+        spawnDriving(vehicleManager, world, car, new Vector3d(0.5, GROUND_Y + 1, 15.5));
+        for (int tick = 0; tick < 100 && parked.isSleeping(); tick++) {
+            platform.tick();
+        }
+        assertFalse(parked.isSleeping(), "The parked car was not woken up by the collision.");
+    }
+}
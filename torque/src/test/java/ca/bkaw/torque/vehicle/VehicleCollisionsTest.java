@@ -0,0 +1,70 @@
+package ca.bkaw.torque.vehicle;
+
+import ca.bkaw.torque.Torque;
+import ca.bkaw.torque.components.RigidBodyComponent;
+import ca.bkaw.torque.components.SeatsComponent;
+import ca.bkaw.torque.headless.HeadlessPlatform;
+import ca.bkaw.torque.headless.HeadlessPlayer;
+import ca.bkaw.torque.headless.HeadlessWorld;
+import ca.bkaw.torque.model.CollisionShape;
+import ca.bkaw.torque.platform.Identifier;
+import ca.bkaw.torque.platform.World;
+import ca.bkaw.torque.util.OBB;
+import org.joml.Quaternionf;
+import org.joml.Vector3d;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VehicleCollisionsTest {
+    private static final int GROUND_Y = 64;
+    private static final int TICKS = 200;
+    /**
+     * How far the boxes of the cars may overlap at the end, unit: meter. The
+     * position correction leaves a small overlap for resting contacts.
+     */
+    private static final double MAX_PENETRATION = 0.1;
+
+    private static RigidBodyComponent spawnDriving(VehicleManager vehicleManager, HeadlessWorld world, Vector3d position, float yaw) {
+        VehicleType car = vehicleManager.getVehicleTypeRegistry().get(new Identifier("torque", "car"));
+        assertNotNull(car);
+        Vehicle vehicle = vehicleManager.spawnVehicle(car, world, position);
+        RigidBodyComponent rbc = vehicle.get(RigidBodyComponent.TYPE);
+        assertNotNull(rbc);
+        rbc.setOrientation(new Quaternionf().rotateY(yaw));
+        HeadlessPlayer driver = new HeadlessPlayer(world, position);
+        SeatsComponent seats = vehicle.get(SeatsComponent.TYPE);
+        assertNotNull(seats);
+        assertTrue(seats.addPassenger(driver));
+        driver.getInput().forward = true;
+        return rbc;
+    }
+
+    private static OBB getBox(RigidBodyComponent rbc, CollisionShape shape) {
+        Vector3d center = rbc.getOrientation().transform(shape.getCenter(0, new Vector3d())).add(rbc.getPosition());
+        return new OBB(center, shape.getHalfSize(0, new Vector3d()), rbc.getOrientation());
+    }
+
+    @Test
+    void carsDrivingIntoEachOtherEndUpSeparated() {
+        HeadlessPlatform platform = new HeadlessPlatform();
+        VehicleManager vehicleManager = new Torque(platform).getVehicleManager();
+        HeadlessWorld world = platform.createWorld((x, y, z) -> y < GROUND_Y ? World.COLLIDABLE : 0);
+
+        // Two cars facing each other, driving forward.
+        RigidBodyComponent a = spawnDriving(vehicleManager, world, new Vector3d(0.5, GROUND_Y + 1, 10.5), 0);
+        RigidBodyComponent b = spawnDriving(vehicleManager, world, new Vector3d(0.5, GROUND_Y + 1, -9.5), (float) Math.PI);
+        double startDistance = a.getPosition().distance(b.getPosition());
+
+        for (int tick = 0; tick < TICKS; tick++) {
+            platform.tick();
+        }
+
+        CollisionShape shape = vehicleManager.getVehicleTypeRegistry().get(new Identifier("torque", "car")).model().getCollisionShape();
+        double depth = getBox(a, shape).getPenetration(getBox(b, shape), new Vector3d());
+        assertTrue(a.getPosition().z() > b.getPosition().z(), "The cars drove through each other.");
+        assertTrue(a.getPosition().distance(b.getPosition()) < startDistance, "The cars did not drive towards each other.");
+        assertTrue(depth < MAX_PENETRATION, "The cars overlap by " + depth + " m.");
+    }
+}
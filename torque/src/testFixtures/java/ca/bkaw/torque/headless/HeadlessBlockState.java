@@ -0,0 +1,52 @@
+package ca.bkaw.torque.headless;
+
+import ca.bkaw.torque.platform.BlockState;
+import ca.bkaw.torque.platform.World;
+import org.joml.Vector3ic;
+
+/**
+ * The block states of a {@link HeadlessWorld}, one for each combination of flags.
+ */
+public enum HeadlessBlockState implements BlockState {
+    AIR(false, false),
+    SOLID(true, false),
+    WATER(false, true),
+    WATERLOGGED_SOLID(true, true);
+
+    private final boolean collidable;
+    private final boolean waterlogged;
+
+    HeadlessBlockState(boolean collidable, boolean waterlogged) {
+        this.collidable = collidable;
+        this.waterlogged = waterlogged;
+    }
+
+    /**
+     * Get the block state for the flags of a block.
+     *
+     * @param flags The flags, see {@link World#getBlockFlags}.
+     * @return The block state.
+     */
+    public static HeadlessBlockState fromFlags(byte flags) {
+        return values()[flags & (World.COLLIDABLE | World.WATERLOGGED)];
+    }
+
+    /**
+     * Get the flags of this block state.
+     *
+     * @return The flags, see {@link World#getBlockFlags}.
+     */
+    public byte getFlags() {
+        return (byte) ((this.collidable ? World.COLLIDABLE : 0) | (this.waterlogged ? World.WATERLOGGED : 0));
+    }
+
+    @Override
+    public boolean isWaterlogged() {
+        return this.waterlogged;
+    }
+
+    @Override
+    public boolean isCollidable(World world, Vector3ic position) {
+        return this.collidable;
+    }
+}
@@ -0,0 +1,78 @@
+package ca.bkaw.torque.headless;
+
+import ca.bkaw.torque.platform.DataInput;
+import ca.bkaw.torque.platform.DataOutput;
+import ca.bkaw.torque.platform.Identifier;
+import org.jetbrains.annotations.NotNull;
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Persistent data stored in memory, used by the entities of a {@link HeadlessWorld}.
+ * <p>
+ * Values are available to read as soon as they are written.
+ */
+public class HeadlessData implements DataInput, DataOutput {
+    private final Map<String, Object> values = new HashMap<>();
+
+    @Override
+    public Identifier readIdentifier(String key, Identifier defaultValue) {
+        return this.values.get(key) instanceof Identifier value ? value : defaultValue;
+    }
+
+    @Override
+    public Vector3f readVector3f(String key, Vector3f defaultValue) {
+        return this.values.get(key) instanceof Vector3f value ? new Vector3f(value) : defaultValue;
+    }
+
+    @Override
+    public Quaternionf readQuaternionf(String key, Quaternionf defaultValue) {
+        return this.values.get(key) instanceof Quaternionf value ? new Quaternionf(value) : defaultValue;
+    }
+
+    @Override
+    public float readFloat(String key, float defaultValue) {
+        return this.values.get(key) instanceof Float value ? value : defaultValue;
+    }
+
+    @Override
+    public @NotNull DataInput getDataInput(String key) {
+        return this.values.get(key) instanceof HeadlessData value ? value : DataInput.empty();
+    }
+
+    @Override
+    public void writeIdentifier(String key, Identifier value) {
+        this.values.put(key, value);
+    }
+
+    @Override
+    public void writeVector3f(String key, Vector3f value) {
+        this.values.put(key, new Vector3f(value));
+    }
+
+    @Override
+    public void writeQuaternionf(String key, Quaternionf value) {
+        this.values.put(key, new Quaternionf(value));
+    }
+
+    @Override
+    public void writeFloat(String key, float value) {
+        this.values.put(key, value);
+    }
+
+    @Override
+    public DataOutput getOrCreateDataOutput(String key) {
+        if (this.values.get(key) instanceof HeadlessData value) {
+            return value;
+        }
+        HeadlessData data = new HeadlessData();
+        this.values.put(key, data);
+        return data;
+    }
+
+    @Override
+    public void save() {}
+}
@@ -0,0 +1,46 @@
+package ca.bkaw.torque.headless;
+
+import ca.bkaw.torque.platform.entity.Entity;
+import org.jetbrains.annotations.NotNull;
+import org.joml.Vector3d;
+import org.joml.Vector3dc;
+
+/**
+ * An entity in a {@link HeadlessWorld}.
+ */
+public abstract class HeadlessEntity implements Entity {
+    protected final @NotNull HeadlessWorld world;
+    protected final Vector3d position = new Vector3d();
+    private boolean alive = true;
+
+    protected HeadlessEntity(@NotNull HeadlessWorld world, @NotNull Vector3dc position) {
+        this.world = world;
+        this.position.set(position);
+    }
+
+    public @NotNull HeadlessWorld getWorld() {
+        return this.world;
+    }
+
+    public @NotNull Vector3d getPosition() {
+        return new Vector3d(this.position);
+    }
+
+    public void setPosition(Vector3dc position) {
+        if (!this.position.equals(position)) {
+            this.position.set(position);
+            this.world.countEntityUpdate();
+        }
+    }
+
+    public void remove() {
+        if (this.alive) {
+            this.alive = false;
+            this.world.removeEntity(this);
+        }
+    }
+
+    public boolean isAlive() {
+        return this.alive;
+    }
+}
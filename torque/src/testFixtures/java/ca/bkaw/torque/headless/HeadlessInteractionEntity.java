@@ -0,0 +1,34 @@
+package ca.bkaw.torque.headless;
+
+import ca.bkaw.torque.platform.entity.InteractionEntity;
+import org.jetbrains.annotations.NotNull;
+import org.joml.Vector3dc;
+
+/**
+ * An interaction entity in a {@link HeadlessWorld}.
+ */
+public class HeadlessInteractionEntity extends HeadlessEntity implements InteractionEntity {
+    private float width = 1;
+    private float height = 1;
+
+    HeadlessInteractionEntity(@NotNull HeadlessWorld world, @NotNull Vector3dc position) {
+        super(world, position);
+    }
+
+    @Override
+    public void setSize(float width, float height) {
+        if (this.width != width || this.height != height) {
+            this.width = width;
+            this.height = height;
+            this.world.countEntityUpdate();
+        }
+    }
+
+    public float getWidth() {
+        return this.width;
+    }
+
+    public float getHeight() {
+        return this.height;
+    }
+}
@@ -0,0 +1,127 @@
+package ca.bkaw.torque.headless;
+
+import ca.bkaw.torque.platform.DataInput;
+import ca.bkaw.torque.platform.DataOutput;
+import ca.bkaw.torque.platform.ItemStack;
+import ca.bkaw.torque.platform.entity.ItemDisplay;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.joml.Matrix4f;
+import org.joml.Vector3dc;
+
+import java.util.Objects;
+
+/**
+ * An item display entity in a {@link HeadlessWorld}.
+ */
+public class HeadlessItemDisplay extends HeadlessEntity implements ItemDisplay {
+    private @Nullable ItemStack item;
+    private final Matrix4f transformation = new Matrix4f();
+    private int teleportDuration = 0;
+    private int interpolationDuration = 0;
+    private int startInterpolation = 0;
+    private boolean glowing = false;
+    private int glowColor = -1;
+    private float viewRange = 1;
+    private @Nullable ItemDisplay vehicle;
+    private final HeadlessData data = new HeadlessData();
+
+    HeadlessItemDisplay(@NotNull HeadlessWorld world, @NotNull Vector3dc position) {
+        super(world, position);
+    }
+
+    @Override
+    public void setItem(ItemStack item) {
+        if (!Objects.equals(this.item, item)) {
+            this.item = item;
+            this.world.countEntityUpdate();
+        }
+    }
+
+    public @Nullable ItemStack getItem() {
+        return this.item;
+    }
+
+    @Override
+    public void setTransformation(Matrix4f affineTransformMatrix) {
+        if (!this.transformation.equals(affineTransformMatrix)) {
+            this.transformation.set(affineTransformMatrix);
+            this.world.countEntityUpdate();
+        }
+    }
+
+    public @NotNull Matrix4f getTransformation() {
+        return new Matrix4f(this.transformation);
+    }
+
+    @Override
+    public void setTeleportDuration(int ticks) {
+        if (this.teleportDuration != ticks) {
+            this.teleportDuration = ticks;
+            this.world.countEntityUpdate();
+        }
+    }
+
+    @Override
+    public void setInterpolationDuration(int ticks) {
+        if (this.interpolationDuration != ticks) {
+            this.interpolationDuration = ticks;
+            this.world.countEntityUpdate();
+        }
+    }
+
+    @Override
+    public void setStartInterpolation(int ticks) {
+        // The server always sends the interpolation start, even when it is unchanged,
+        // since that is how the client is told to restart interpolating.
+        this.startInterpolation = ticks;
+        this.world.countEntityUpdate();
+    }
+
+    public int getStartInterpolation() {
+        return this.startInterpolation;
+    }
+
+    @Override
+    public DataInput getDataInput() {
+        return this.data;
+    }
+
+    @Override
+    public DataOutput getDataOutput() {
+        return this.data;
+    }
+
+    @Override
+    public void mountVehicle(@NotNull ItemDisplay entity) {
+        this.vehicle = entity;
+    }
+
+    public @Nullable ItemDisplay getVehicle() {
+        return this.vehicle;
+    }
+
+    @Override
+    public void setGlowing(boolean glowing) {
+        if (this.glowing != glowing) {
+            this.glowing = glowing;
+            this.world.countEntityUpdate();
+        }
+    }
+
+    @Override
+    public void setGlowColor(int glowColor) {
+        if (this.glowColor != glowColor) {
+            this.glowColor = glowColor;
+            this.world.countEntityUpdate();
+        }
+    }
+
+    @Override
+    public void setViewRange(float viewRange) {
+        if (this.viewRange != viewRange) {
+            this.viewRange = viewRange;
+            this.world.countEntityUpdate();
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package ca.bkaw.torque.headless;
+
+import ca.bkaw.torque.platform.Identifier;
+import ca.bkaw.torque.platform.ItemStack;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * An item that renders as a model, created by {@link HeadlessPlatform}.
+ *
+ * @param modelIdentifier The identifier of the model.
+ */
+public record HeadlessItemStack(@NotNull Identifier modelIdentifier) implements ItemStack {}
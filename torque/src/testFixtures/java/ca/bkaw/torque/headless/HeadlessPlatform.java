@@ -0,0 +1,101 @@
+package ca.bkaw.torque.headless;
+
+import ca.bkaw.torque.PlatformEvents;
+import ca.bkaw.torque.TorqueCommand;
+import ca.bkaw.torque.platform.Identifier;
+import ca.bkaw.torque.platform.ItemStack;
+import ca.bkaw.torque.platform.Platform;
+import ca.bkaw.torque.platform.entity.ItemDisplay;
+import io.netty.channel.ChannelHandler;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A platform without a server, for running vehicles on a plain JVM.
+ * <p>
+ * There is no game loop, so {@link #tick()} must be called to run a tick. Worlds are
+ * created using {@link #createWorld(HeadlessWorld.Terrain)} and only exist in memory.
+ * There is no networking, so resource packs are never sent.
+ */
+public class HeadlessPlatform implements Platform {
+    private final List<Runnable> tickRunnables = new ArrayList<>();
+    private final List<HeadlessWorld> worlds = new ArrayList<>();
+    private @Nullable TorqueCommand torqueCommand;
+    private @Nullable PlatformEvents eventHandler;
+
+    @Override
+    public void setup(@NotNull TorqueCommand torqueCommand, @NotNull PlatformEvents eventHandler) {
+        this.torqueCommand = torqueCommand;
+        this.eventHandler = eventHandler;
+    }
+
+    public @Nullable TorqueCommand getTorqueCommand() {
+        return this.torqueCommand;
+    }
+
+    public @Nullable PlatformEvents getEventHandler() {
+        return this.eventHandler;
+    }
+
+    /**
+     * Create a new world.
+     *
+     * @param terrain The blocks of the world.
+     * @return The world.
+     */
+    public @NotNull HeadlessWorld createWorld(@NotNull HeadlessWorld.Terrain terrain) {
+        HeadlessWorld world = new HeadlessWorld(terrain);
+        this.worlds.add(world);
+        return world;
+    }
+
+    public @NotNull List<HeadlessWorld> getWorlds() {
+        return this.worlds;
+    }
+
+    /**
+     * Run one server tick.
+     */
+    public void tick() {
+        for (Runnable runnable : this.tickRunnables) {
+            runnable.run();
+        }
+    }
+
+    @Override
+    public ItemStack createModelItem(@NotNull Identifier modelIdentifier) {
+        return new HeadlessItemStack(modelIdentifier);
+    }
+
+    @Override
+    public void injectChannelHandler(ChannelHandler channelHandler, Identifier handlerKey) {}
+
+    @Override
+    public void uninjectChannelHandler(Identifier handlerKey) {}
+
+    @Override
+    public int getPort() {
+        return 0;
+    }
+
+    @Override
+    public void runEachTick(@NotNull Runnable runnable) {
+        this.tickRunnables.add(runnable);
+    }
+
+    @Override
+    public List<ItemDisplay> getAllItemDisplays() {
+        List<ItemDisplay> itemDisplays = new ArrayList<>();
+        for (HeadlessWorld world : this.worlds) {
+            for (HeadlessEntity entity : world.getEntities()) {
+                if (entity instanceof ItemDisplay itemDisplay) {
+                    itemDisplays.add(itemDisplay);
+                }
+            }
+        }
+        return itemDisplays;
+    }
+}
@@ -0,0 +1,89 @@
+package ca.bkaw.torque.headless;
+
+import ca.bkaw.torque.platform.Input;
+import ca.bkaw.torque.platform.World;
+import ca.bkaw.torque.platform.entity.ItemDisplay;
+import ca.bkaw.torque.platform.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.joml.Vector3d;
+import org.joml.Vector3dc;
+
+import java.net.InetSocketAddress;
+import java.util.UUID;
+
+/**
+ * A player without a client, whose input is set by code, for example to drive a
+ * vehicle using a script.
+ */
+public class HeadlessPlayer implements Player {
+    private final @NotNull HeadlessWorld world;
+    private final Vector3d position = new Vector3d();
+    private final Input input = new Input();
+    private @Nullable ItemDisplay vehicle;
+
+    public HeadlessPlayer(@NotNull HeadlessWorld world, @NotNull Vector3dc position) {
+        this.world = world;
+        this.position.set(position);
+        world.addPlayer(this);
+    }
+
+    /**
+     * Get the input of the player, which can be modified to control the player.
+     *
+     * @return The input.
+     */
+    public @NotNull Input getInput() {
+        return this.input;
+    }
+
+    @Override
+    public void getInput(@NotNull Input input) {
+        input.set(this.input);
+    }
+
+    @Override
+    public void sendResourcePack(UUID id, String url, byte[] hash, boolean required, @Nullable String prompt) {}
+
+    @Override
+    public @Nullable InetSocketAddress getAddress() {
+        return null;
+    }
+
+    @Override
+    public void mountVehicle(ItemDisplay entity) {
+        this.vehicle = entity;
+    }
+
+    @Override
+    public void dismountVehicle() {
+        this.vehicle = null;
+    }
+
+    public @Nullable ItemDisplay getVehicle() {
+        return this.vehicle;
+    }
+
+    @Override
+    public @NotNull Vector3d getPosition() {
+        // Players that ride an entity move with it.
+        if (this.vehicle != null) {
+            return this.vehicle.getPosition();
+        }
+        return new Vector3d(this.position);
+    }
+
+    public void setPosition(@NotNull Vector3dc position) {
+        this.position.set(position);
+    }
+
+    @Override
+    public @NotNull World getWorld() {
+        return this.world;
+    }
+
+    @Override
+    public boolean isInCreativeMode() {
+        return false;
+    }
+}
@@ -0,0 +1,212 @@
+package ca.bkaw.torque.headless;
+
+import ca.bkaw.torque.platform.BlockState;
+import ca.bkaw.torque.platform.Identifier;
+import ca.bkaw.torque.platform.World;
+import ca.bkaw.torque.platform.entity.InteractionEntity;
+import ca.bkaw.torque.platform.entity.ItemDisplay;
+import ca.bkaw.torque.platform.entity.Player;
+import ca.bkaw.torque.util.Util;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import org.jetbrains.annotations.NotNull;
+import org.joml.Vector3dc;
+import org.joml.Vector3ic;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An in-memory world for {@link HeadlessPlatform}.
+ * <p>
+ * Blocks are stored as the {@link World#COLLIDABLE} and {@link World#WATERLOGGED}
+ * flags, which is all that vehicles read. The blocks come from a {@link Terrain},
+ * and blocks that are set are stored per chunk section on top of the terrain.
+ * <p>
+ * The world counts the updates made to its entities that would be sent to players,
+ * see {@link #getEntityUpdateCount()}. Virtual entities are supported and are kept
+ * apart from the entities that a server would tick.
+ */
+public class HeadlessWorld implements World {
+    private static final int SECTION_SIZE = 16;
+    private static final int BLOCKS_PER_SECTION = SECTION_SIZE * SECTION_SIZE * SECTION_SIZE;
+
+    /**
+     * The blocks of a world before any blocks are set.
+     */
+    @FunctionalInterface
+    public interface Terrain {
+        /**
+         * Get the flags of a block.
+         *
+         * @param x The x coordinate of the block.
+         * @param y The y coordinate of the block.
+         * @param z The z coordinate of the block.
+         * @return The flags, see {@link World#getBlockFlags}.
+         */
+        byte getFlags(int x, int y, int z);
+
+        /**
+         * Create a flat terrain where all blocks below a height are collidable.
+         *
+         * @param groundY The y coordinate of the lowest air block.
+         * @return The terrain.
+         */
+        static Terrain flat(int groundY) {
+            return (x, y, z) -> y < groundY ? COLLIDABLE : 0;
+        }
+    }
+
+    private final @NotNull Terrain terrain;
+    private final Long2ObjectOpenHashMap<byte[]> sections = new Long2ObjectOpenHashMap<>();
+    private final List<HeadlessEntity> entities = new ArrayList<>();
+    private final List<HeadlessItemDisplay> virtualEntities = new ArrayList<>();
+    private final List<Player> players = new ArrayList<>();
+    private long entityUpdateCount = 0;
+
+    HeadlessWorld(@NotNull Terrain terrain) {
+        this.terrain = terrain;
+    }
+
+    private static int index(int x, int y, int z) {
+        return ((y & 15) * SECTION_SIZE + (z & 15)) * SECTION_SIZE + (x & 15);
+    }
+
+    /**
+     * Get the flags of a block.
+     *
+     * @param x The x coordinate of the block.
+     * @param y The y coordinate of the block.
+     * @param z The z coordinate of the block.
+     * @return The flags, see {@link World#getBlockFlags}.
+     */
+    public byte getFlags(int x, int y, int z) {
+        byte[] section = this.sections.get(Util.packBlockPosition(x >> 4, y >> 4, z >> 4));
+        if (section != null) {
+            return section[index(x, y, z)];
+        }
+        return this.terrain.getFlags(x, y, z);
+    }
+
+    /**
+     * Set the flags of a block.
+     *
+     * @param x The x coordinate of the block.
+     * @param y The y coordinate of the block.
+     * @param z The z coordinate of the block.
+     * @param flags The flags, see {@link World#getBlockFlags}.
+     */
+    public void setFlags(int x, int y, int z, byte flags) {
+        long key = Util.packBlockPosition(x >> 4, y >> 4, z >> 4);
+        byte[] section = this.sections.get(key);
+        if (section == null) {
+            // Copy the terrain of the section so that the other blocks are unchanged.
+            section = new byte[BLOCKS_PER_SECTION];
+            int minX = x & ~15, minY = y & ~15, minZ = z & ~15;
+            this.getBlockFlags(minX, minY, minZ, minX + 15, minY + 15, minZ + 15, section);
+            this.sections.put(key, section);
+        }
+        section[index(x, y, z)] = flags;
+    }
+
+    @Override
+    public void getBlockFlags(int minX, int minY, int minZ, int maxX, int maxY, int maxZ, byte @NotNull [] dest) {
+        int sizeX = maxX - minX + 1;
+        int sizeZ = maxZ - minZ + 1;
+        for (int y = minY; y <= maxY; y++) {
+            for (int z = minZ; z <= maxZ; z++) {
+                for (int x = minX; x <= maxX; x++) {
+                    dest[((y - minY) * sizeZ + (z - minZ)) * sizeX + (x - minX)] = this.getFlags(x, y, z);
+                }
+            }
+        }
+    }
+
+    @Override
+    public @NotNull BlockState getBlock(@NotNull Vector3ic position) {
+        return HeadlessBlockState.fromFlags(this.getFlags(position.x(), position.y(), position.z()));
+    }
+
+    @Override
+    public @NotNull ItemDisplay spawnItemDisplay(@NotNull Vector3dc position) {
+        HeadlessItemDisplay itemDisplay = new HeadlessItemDisplay(this, position);
+        this.entities.add(itemDisplay);
+        return itemDisplay;
+    }
+
+    @Override
+    public @NotNull ItemDisplay spawnVirtualItemDisplay(@NotNull ItemDisplay host) {
+        HeadlessItemDisplay itemDisplay = new HeadlessItemDisplay(this, host.getPosition());
+        itemDisplay.mountVehicle(host);
+        this.virtualEntities.add(itemDisplay);
+        return itemDisplay;
+    }
+
+    @Override
+    public @NotNull InteractionEntity spawnInteractionEntity(@NotNull Vector3dc position) {
+        HeadlessInteractionEntity interactionEntity = new HeadlessInteractionEntity(this, position);
+        this.entities.add(interactionEntity);
+        return interactionEntity;
+    }
+
+    @Override
+    public void spawnParticle(Vector3ic blockPos, Identifier identifier) {}
+
+    @Override
+    public @NotNull List<Player> getPlayers() {
+        return Collections.unmodifiableList(this.players);
+    }
+
+    void addPlayer(@NotNull HeadlessPlayer player) {
+        this.players.add(player);
+    }
+
+    void removeEntity(@NotNull HeadlessEntity entity) {
+        if (!this.entities.remove(entity)) {
+            this.virtualEntities.remove(entity);
+            return;
+        }
+        // Virtual entities are removed together with their host.
+        for (int i = this.virtualEntities.size() - 1; i >= 0; i--) {
+            HeadlessItemDisplay virtualEntity = this.virtualEntities.get(i);
+            if (virtualEntity.getVehicle() == entity) {
+                virtualEntity.remove();
+            }
+        }
+    }
+
+    void countEntityUpdate() {
+        this.entityUpdateCount++;
+    }
+
+    /**
+     * Get the entities in the world.
+     *
+     * @return An unmodifiable view of the entities.
+     */
+    public @NotNull List<HeadlessEntity> getEntities() {
+        return Collections.unmodifiableList(this.entities);
+    }
+
+    /**
+     * Get the virtual entities in the world, see {@link #spawnVirtualItemDisplay}.
+     * They are not included in {@link #getEntities()}.
+     *
+     * @return An unmodifiable view of the virtual entities.
+     */
+    public @NotNull List<HeadlessItemDisplay> getVirtualEntities() {
+        return Collections.unmodifiableList(this.virtualEntities);
+    }
+
+    /**
+     * Get the number of changes made to entities in this world that a server would
+     * send to players, such as a changed position, transformation or glow state.
+     * Setting a value to the value it already has is not counted, since the server
+     * does not send it. The interpolation start is an exception and is always counted.
+     *
+     * @return The number of updates since the world was created.
+     */
+    public long getEntityUpdateCount() {
+        return this.entityUpdateCount;
+    }
+}
@@ -0,0 +1,180 @@
+package ca.bkaw.torque.headless;
+
+import ca.bkaw.torque.Torque;
+import ca.bkaw.torque.components.SeatsComponent;
+import ca.bkaw.torque.platform.Identifier;
+import ca.bkaw.torque.platform.Input;
+import ca.bkaw.torque.platform.World;
+import ca.bkaw.torque.render.UpdateScheduler;
+import ca.bkaw.torque.vehicle.Vehicle;
+import ca.bkaw.torque.vehicle.VehicleManager;
+import ca.bkaw.torque.vehicle.VehicleType;
+import org.jetbrains.annotations.NotNull;
+import org.joml.Vector3d;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Runs vehicles on a {@link HeadlessPlatform} and reports how long each tick takes.
+ * <p>
+ * Cars are spawned on flat ground and boats on a lake next to it. Each vehicle has a
+ * driver that follows a script of driving forward, turning and reversing, so that the
+ * vehicles keep moving and colliding. After some warmup ticks, the runner measures
+ * the time per tick, the allocation rate and the number of entity updates that a
+ * server would send to players.
+ * <p>
+ * Usage: {@code ScenarioRunner [vehicles] [ticks] [warmup ticks]}. The
+ * {@code torque.assets} system property can be set to the resources directory to run
+ * from source.
+ */
+public class ScenarioRunner {
+    private static final Identifier CAR = new Identifier("torque", "car");
+    private static final Identifier BOAT = new Identifier("torque", "boat");
+    private static final int GROUND_Y = 64;
+    private static final int LAKE_BOTTOM_Y = 56;
+    private static final double SPACING = 8; // unit: m
+
+    /**
+     * The number of ticks that each part of the driving script lasts.
+     */
+    private static final int SCRIPT_PHASE_TICKS = 80;
+
+    public static void main(String[] args) {
+        int vehicleCount = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        int ticks = args.length > 1 ? Integer.parseInt(args[1]) : 600;
+        int warmupTicks = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+        if (vehicleCount < 1 || ticks < 1 || warmupTicks < 0) {
+            throw new IllegalArgumentException("Expected a positive number of vehicles and ticks.");
+        }
+
+        HeadlessPlatform platform = new HeadlessPlatform();
+        Torque torque = new Torque(platform);
+        VehicleManager vehicleManager = torque.getVehicleManager();
+
+        // Ground for x >= 0, and a lake for x < 0.
+        HeadlessWorld world = platform.createWorld((x, y, z) -> {
+            if (x >= 0) {
+                return y < GROUND_Y ? World.COLLIDABLE : 0;
+            }
+            if (y < LAKE_BOTTOM_Y) {
+                return World.COLLIDABLE;
+            }
+            return y < GROUND_Y ? World.WATERLOGGED : 0;
+        });
+
+        List<HeadlessPlayer> drivers = spawnVehicles(vehicleManager, world, vehicleCount);
+
+        for (int tick = 0; tick < warmupTicks; tick++) {
+            drive(drivers, tick);
+            platform.tick();
+        }
+
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long[] tickTimes = new long[ticks];
+        long startUpdates = world.getEntityUpdateCount();
+        UpdateScheduler scheduler = vehicleManager.getUpdateScheduler();
+        long startSent = scheduler.getSentCount();
+        long startDeferred = scheduler.getDeferredCount();
+        long startDropped = scheduler.getDroppedCount();
+        long startAllocated = threadBean.getCurrentThreadAllocatedBytes();
+        long startTime = System.nanoTime();
+        for (int tick = 0; tick < ticks; tick++) {
+            drive(drivers, warmupTicks + tick);
+            long tickStart = System.nanoTime();
+            platform.tick();
+            tickTimes[tick] = System.nanoTime() - tickStart;
+        }
+        long totalTime = System.nanoTime() - startTime;
+        long allocated = threadBean.getCurrentThreadAllocatedBytes() - startAllocated;
+        long updates = world.getEntityUpdateCount() - startUpdates;
+
+        Arrays.sort(tickTimes);
+        long sum = 0;
+        for (long tickTime : tickTimes) {
+            sum += tickTime;
+        }
+        System.out.printf("Vehicles: %d (%d awake, %d sleeping), entities: %d (%d virtual)%n",
+            vehicleManager.getVehicles().size(),
+            vehicleManager.getAwakeVehicleCount(),
+            vehicleManager.getSleepingVehicleCount(),
+            world.getEntities().size(),
+            world.getVirtualEntities().size());
+        System.out.printf("Ticks: %d after %d warmup ticks%n", ticks, warmupTicks);
+        System.out.printf("ms/tick: mean %.3f, p50 %.3f, p99 %.3f, max %.3f%n",
+            sum / (double) ticks / 1e6,
+            tickTimes[ticks / 2] / 1e6,
+            tickTimes[Math.min(ticks - 1, (int) (ticks * 0.99))] / 1e6,
+            tickTimes[ticks - 1] / 1e6);
+        System.out.printf("Allocation: %.1f KB/tick, %.1f MB/s%n",
+            allocated / (double) ticks / 1024,
+            allocated / (totalTime / 1e9) / (1024 * 1024));
+        System.out.printf("Entity updates: %.1f/tick, %.2f/tick per vehicle%n",
+            updates / (double) ticks,
+            updates / (double) ticks / vehicleCount);
+        System.out.printf("Vehicle updates: %.1f/tick sent, %.1f/tick deferred, %.1f/tick dropped%n",
+            (scheduler.getSentCount() - startSent) / (double) ticks,
+            (scheduler.getDeferredCount() - startDeferred) / (double) ticks,
+            (scheduler.getDroppedCount() - startDropped) / (double) ticks);
+    }
+
+    private static @NotNull List<HeadlessPlayer> spawnVehicles(@NotNull VehicleManager vehicleManager, @NotNull HeadlessWorld world, int count) {
+        VehicleType car = getVehicleType(vehicleManager, CAR);
+        VehicleType boat = getVehicleType(vehicleManager, BOAT);
+        int boatCount = count / 4;
+        int carCount = count - boatCount;
+        int carsPerRow = (int) Math.ceil(Math.sqrt(carCount));
+        int boatsPerRow = Math.max(1, (int) Math.ceil(Math.sqrt(boatCount)));
+
+        List<HeadlessPlayer> drivers = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Vector3d position;
+            VehicleType vehicleType;
+            if (i < carCount) {
+                vehicleType = car;
+                position = new Vector3d(
+                    SPACING * (1 + i % carsPerRow), GROUND_Y + 1, SPACING * (i / carsPerRow)
+                );
+            } else {
+                int j = i - carCount;
+                vehicleType = boat;
+                position = new Vector3d(
+                    -SPACING * (1 + j % boatsPerRow), GROUND_Y, SPACING * (j / boatsPerRow)
+                );
+            }
+            Vehicle vehicle = vehicleManager.spawnVehicle(vehicleType, world, position);
+            HeadlessPlayer driver = new HeadlessPlayer(world, position);
+            SeatsComponent seats = vehicle.get(SeatsComponent.TYPE);
+            if (seats != null && seats.addPassenger(driver)) {
+                vehicleManager.setCurrentVehicle(driver, vehicle);
+            }
+            drivers.add(driver);
+        }
+        return drivers;
+    }
+
+    private static @NotNull VehicleType getVehicleType(@NotNull VehicleManager vehicleManager, @NotNull Identifier identifier) {
+        VehicleType vehicleType = vehicleManager.getVehicleTypeRegistry().get(identifier);
+        if (vehicleType == null) {
+            throw new IllegalStateException("The vehicle type " + identifier + " is not registered.");
+        }
+        return vehicleType;
+    }
+
+    /**
+     * Set the input of the drivers for a tick. Each driver is offset in the script so
+     * that the vehicles do not all turn at the same time.
+     */
+    private static void drive(@NotNull List<HeadlessPlayer> drivers, int tick) {
+        for (int i = 0; i < drivers.size(); i++) {
+            Input input = drivers.get(i).getInput();
+            int phase = ((tick + i * 37) / SCRIPT_PHASE_TICKS) % 4;
+            input.forward = phase != 3;
+            input.backward = phase == 3;
+            input.left = phase == 1;
+            input.right = phase == 2;
+        }
+    }
+}
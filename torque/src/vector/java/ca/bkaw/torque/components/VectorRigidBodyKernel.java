@@ -0,0 +1,114 @@
+package ca.bkaw.torque.components;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+import static ca.bkaw.torque.components.ScalarRigidBodyKernel.MIN_ANGLE;
+import static ca.bkaw.torque.components.ScalarRigidBodyKernel.MIN_ANGULAR_VELOCITY_SQUARED;
+
+/**
+ * Integrates rigid bodies several slots at a time using the Vector API.
+ * <p>
+ * Only loaded when the {@code jdk.incubator.vector} module is available, see
+ * {@link RigidBodyStore.RigidBodyKernel#create()}. The results are bit-identical to
+ * {@link ScalarRigidBodyKernel}: the operations are done in the same order without
+ * fused multiply-add, and sine and cosine are computed with {@link Math} one lane at
+ * a time, since the lanewise versions may round differently.
+ */
+class VectorRigidBodyKernel implements RigidBodyStore.RigidBodyKernel {
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    private final ScalarRigidBodyKernel scalar = new ScalarRigidBodyKernel();
+    // Scratch arrays, reused to avoid allocating. Only used when integrating whole
+    // vectors of slots, which only happens on the server thread, see
+    // RigidBodyStore#integratePending.
+    private final double[] sin = new double[SPECIES.length()];
+    private final double[] cos = new double[SPECIES.length()];
+
+    @Override
+    public void integrate(RigidBodyStore store, int from, int to) {
+        double[] px = store.px, py = store.py, pz = store.pz;
+        double[] vx = store.vx, vy = store.vy, vz = store.vz;
+        double[] wx = store.wx, wy = store.wy, wz = store.wz;
+        double[] qx = store.qx, qy = store.qy, qz = store.qz, qw = store.qw;
+        double[] pendingTime = store.pendingTime;
+        int[] orientationVersion = store.orientationVersion;
+
+        int i = from;
+        int upperBound = from + SPECIES.loopBound(to - from);
+        for (; i < upperBound; i += SPECIES.length()) {
+            DoubleVector dt = DoubleVector.fromArray(SPECIES, pendingTime, i);
+            VectorMask<Double> pending = dt.compare(VectorOperators.NE, 0);
+            if (!pending.anyTrue()) {
+                continue;
+            }
+            DoubleVector.zero(SPECIES).intoArray(pendingTime, i);
+
+            // Apply linear motion. Slots without a pending integration are left as
+            // they are, adding zero could change the sign of a zero.
+            integrateLinear(px, vx, dt, pending, i);
+            integrateLinear(py, vy, dt, pending, i);
+            integrateLinear(pz, vz, dt, pending, i);
+
+            // Rotate the orientation by the angular velocity.
+            DoubleVector wxv = DoubleVector.fromArray(SPECIES, wx, i);
+            DoubleVector wyv = DoubleVector.fromArray(SPECIES, wy, i);
+            DoubleVector wzv = DoubleVector.fromArray(SPECIES, wz, i);
+            DoubleVector angularSpeedSquared = wxv.mul(wxv).add(wyv.mul(wyv)).add(wzv.mul(wzv));
+            DoubleVector angularSpeed = angularSpeedSquared.sqrt();
+            DoubleVector angle = angularSpeed.mul(dt); // unit: radians
+            VectorMask<Double> rotate = angle.compare(VectorOperators.GT, MIN_ANGLE);
+            if (rotate.anyTrue()) {
+                double[] sin = this.sin, cos = this.cos;
+                for (int lane = 0; lane < SPECIES.length(); lane++) {
+                    if (rotate.laneIsSet(lane)) {
+                        double halfAngle = angle.lane(lane) * 0.5;
+                        sin[lane] = Math.sin(halfAngle) / angularSpeed.lane(lane);
+                        cos[lane] = Math.cos(halfAngle);
+                    } else {
+                        sin[lane] = 0;
+                        cos[lane] = 1;
+                    }
+                }
+                DoubleVector s = DoubleVector.fromArray(SPECIES, sin, 0);
+                DoubleVector dx = wxv.mul(s), dy = wyv.mul(s), dz = wzv.mul(s);
+                DoubleVector dw = DoubleVector.fromArray(SPECIES, cos, 0);
+                DoubleVector x = DoubleVector.fromArray(SPECIES, qx, i);
+                DoubleVector y = DoubleVector.fromArray(SPECIES, qy, i);
+                DoubleVector z = DoubleVector.fromArray(SPECIES, qz, i);
+                DoubleVector w = DoubleVector.fromArray(SPECIES, qw, i);
+                DoubleVector nx = w.mul(dx).add(x.mul(dw)).add(y.mul(dz)).sub(z.mul(dy));
+                DoubleVector ny = w.mul(dy).sub(x.mul(dz)).add(y.mul(dw)).add(z.mul(dx));
+                DoubleVector nz = w.mul(dz).add(x.mul(dy)).sub(y.mul(dx)).add(z.mul(dw));
+                DoubleVector nw = w.mul(dw).sub(x.mul(dx)).sub(y.mul(dy)).sub(z.mul(dz));
+                DoubleVector invLength = DoubleVector.broadcast(SPECIES, 1)
+                    .div(nx.mul(nx).add(ny.mul(ny)).add(nz.mul(nz)).add(nw.mul(nw)).sqrt());
+                x.blend(nx.mul(invLength), rotate).intoArray(qx, i);
+                y.blend(ny.mul(invLength), rotate).intoArray(qy, i);
+                z.blend(nz.mul(invLength), rotate).intoArray(qz, i);
+                w.blend(nw.mul(invLength), rotate).intoArray(qw, i);
+                for (int lane = 0; lane < SPECIES.length(); lane++) {
+                    if (rotate.laneIsSet(lane)) {
+                        orientationVersion[i + lane]++;
+                    }
+                }
+            }
+
+            // Dampen angular velocity to prevent jitter.
+            VectorMask<Double> clamp = angularSpeedSquared.compare(VectorOperators.LT, MIN_ANGULAR_VELOCITY_SQUARED).and(pending);
+            wxv.blend(0, clamp).intoArray(wx, i);
+            wyv.blend(0, clamp).intoArray(wy, i);
+            wzv.blend(0, clamp).intoArray(wz, i);
+        }
+
+        // Integrate the remaining slots.
+        this.scalar.integrate(store, i, to);
+    }
+
+    private static void integrateLinear(double[] position, double[] velocity, DoubleVector dt, VectorMask<Double> pending, int i) {
+        DoubleVector p = DoubleVector.fromArray(SPECIES, position, i);
+        p.blend(p.add(DoubleVector.fromArray(SPECIES, velocity, i).mul(dt)), pending).intoArray(position, i);
+    }
+}